@@ -2,12 +2,20 @@ package com.example.shirolab;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class ShirolabApplication {
 
+    /**
+     * 启动时间线缓冲的步骤数：足够容纳全部 Bean 的实例化步骤，超出后的步骤不再记录。
+     */
+    private static final int STARTUP_STEPS = 8192;
+
     public static void main(String[] args) {
-        SpringApplication.run(ShirolabApplication.class, args);
+        SpringApplication application = new SpringApplication(ShirolabApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        application.run(args);
     }
 
 }
@@ -0,0 +1,34 @@
+package com.example.shirolab.config;
+
+import com.example.shirolab.web.accesslog.AccessLogPipeline;
+import com.example.shirolab.web.accesslog.AccessLogSink;
+import com.example.shirolab.web.accesslog.FileAccessLogSink;
+import com.example.shirolab.web.accesslog.LoggerAccessLogSink;
+import com.example.shirolab.web.accesslog.OverflowPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+@Configuration
+public class AccessLogConfig {
+
+    /**
+     * 异步访问日志流水线：
+     * - file 为空时整批交给名为 ACCESS 的 logger，否则直接追加写入该文件；
+     * - buffer-size 为环形缓冲区槽位数（向上取 2 的幂），batch-size 为写线程单次最多写出的条数；
+     * - overflow=drop 时缓冲区满则丢弃并计数，block 时请求线程等待空位。
+     */
+    @Bean(destroyMethod = "close")
+    public AccessLogPipeline accessLogPipeline(@Value("${shirolab.access-log.file:}") String file,
+                                               @Value("${shirolab.access-log.buffer-size:8192}") int bufferSize,
+                                               @Value("${shirolab.access-log.batch-size:256}") int batchSize,
+                                               @Value("${shirolab.access-log.overflow:drop}") String overflow) throws IOException {
+        AccessLogSink sink = file.isEmpty() ? new LoggerAccessLogSink() : new FileAccessLogSink(Paths.get(file));
+        OverflowPolicy policy = OverflowPolicy.valueOf(overflow.trim().toUpperCase(Locale.ROOT));
+        return new AccessLogPipeline(bufferSize, batchSize, policy, sink);
+    }
+}
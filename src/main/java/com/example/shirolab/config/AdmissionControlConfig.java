@@ -0,0 +1,70 @@
+package com.example.shirolab.config;
+
+import com.example.shirolab.security.session.StoreBackedSessionDAO;
+import com.example.shirolab.security.token.SignedTokenService;
+import com.example.shirolab.web.admission.AdaptiveConcurrencyLimit;
+import com.example.shirolab.web.admission.AdmissionControlFilter;
+import org.apache.shiro.web.servlet.SimpleCookie;
+import org.apache.shiro.web.session.mgt.DefaultWebSessionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 准入控制（shirolab.admission.enabled=false 时不注册）。
+ */
+@Configuration
+@ConditionalOnProperty(name = "shirolab.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    /**
+     * 自适应并发上限：
+     * - initial/min/max-limit 为在飞请求数上限的初值与范围，max 不应超过 Tomcat 的工作线程数；
+     * - tolerance 为耗时相对不排队耗时（最近窗口内的最小值）可接受的倍数，超过后开始收缩；
+     *   rtt-window 为最小耗时的样本窗口，下游持续变慢时基线在两个窗口内跟上；
+     * - share.remembered / share.anonymous 为两个低优先级通道可使用的上限比例（会话通道为 1.0）。
+     *
+     * 会话 Cookie 用原生会话时查 StoreBackedSessionDAO 的存储，使用容器会话时查 Servlet 容器。
+     */
+    @Bean
+    public AdmissionControlFilter admissionControlFilter(@Value("${shirolab.admission.initial-limit:100}") int initialLimit,
+                                                         @Value("${shirolab.admission.min-limit:8}") int minLimit,
+                                                         @Value("${shirolab.admission.max-limit:200}") int maxLimit,
+                                                         @Value("${shirolab.admission.tolerance:1.5}") double tolerance,
+                                                         @Value("${shirolab.admission.rtt-window:500}") int rttWindow,
+                                                         @Value("${shirolab.admission.smoothing:0.2}") double smoothing,
+                                                         @Value("${shirolab.admission.share.remembered:0.9}") double rememberedShare,
+                                                         @Value("${shirolab.admission.share.anonymous:0.5}") double anonymousShare,
+                                                         @Value("${shirolab.admission.retry-after-seconds:1}") int retryAfterSeconds,
+                                                         ObjectProvider<DefaultWebSessionManager> sessionManager,
+                                                         ObjectProvider<StoreBackedSessionDAO> sessionDAO,
+                                                         SignedTokenService tokenService,
+                                                         SimpleCookie rememberMeCookie) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance,
+                rttWindow, smoothing, new double[]{1.0, rememberedShare, anonymousShare});
+        DefaultWebSessionManager webSessionManager = sessionManager.getIfAvailable();
+        String sessionCookieName = webSessionManager != null
+                ? webSessionManager.getSessionIdCookie().getName()
+                : "JSESSIONID";
+        StoreBackedSessionDAO storeBackedSessionDAO = sessionDAO.getIfAvailable();
+        return new AdmissionControlFilter(limit, tokenService, sessionCookieName,
+                storeBackedSessionDAO != null ? storeBackedSessionDAO::isStored : null,
+                rememberMeCookie.getName(), retryAfterSeconds);
+    }
+
+    /**
+     * 排在静态资源快速通道与登录限流之后、其余过滤器与 shiroFilter 之前：
+     * 被拒绝的请求不创建 Subject、不读会话，也不占用下游。
+     */
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(AdmissionControlFilter admissionControlFilter) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<AdmissionControlFilter>(admissionControlFilter);
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.shirolab.config;
+
+import org.apache.shiro.concurrent.SubjectAwareExecutorService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * 处理方法内并行扇出用的执行器，任务在提交它的请求线程的 Subject 下运行。
+     *
+     * Shiro 通过 ThreadContext 把 Subject 绑在请求线程上，直接交给普通线程池的任务拿不到身份；
+     * SubjectAwareExecutorService 在提交时取当前 Subject，执行时绑定、结束后恢复工作线程原状态。
+     * 因此必须在 shiroFilter 内（请求线程上）提交任务。
+     *
+     * 以 -Pjava21 构建时由 VirtualThreadConfig 提供 virtualThreadExecutor，每个任务一个虚拟线程；
+     * 否则使用有界的平台线程池，队列满时由调用线程执行（自然背压）。
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService subjectAwareExecutor(@Qualifier("virtualThreadExecutor") ObjectProvider<ExecutorService> virtualThreads,
+                                                @Value("${shirolab.async.threads:32}") int threads,
+                                                @Value("${shirolab.async.queue-capacity:1024}") int queueCapacity) {
+        ExecutorService target = virtualThreads.getIfAvailable();
+        if (target == null) {
+            final AtomicInteger sequence = new AtomicInteger();
+            target = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<Runnable>(queueCapacity), r -> {
+                        Thread thread = new Thread(r, "subject-async-" + sequence.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        return new SubjectAwareExecutorService(target);
+    }
+}
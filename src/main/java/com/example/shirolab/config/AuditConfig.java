@@ -0,0 +1,40 @@
+package com.example.shirolab.config;
+
+import com.example.shirolab.security.audit.AuthAuditEndpoint;
+import com.example.shirolab.security.audit.AuthAuditJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+@ConditionalOnProperty(name = "shirolab.audit.enabled", havingValue = "true")
+public class AuditConfig {
+
+    /**
+     * 认证审计日志（登录成功/失败、登出），由 ShiroConfig#securityManager 挂到 Authenticator 上，
+     * shirolab.audit.enabled=true 时才创建：
+     * - dir 为段文件目录，同一目录只允许一个进程写入，已被占用时启动失败，每个实例需要独占的目录；
+     * - segment-size-mb 为单个段文件大小（每条记录 128 字节），写满后滚动，max-segments 为保留的段数（&lt;= 0 全部保留）；
+     * - buffer-size 为请求线程与写线程之间的环形缓冲区槽位数，满时丢弃并计入 shirolab.audit.events{result=dropped}。
+     */
+    @Bean(destroyMethod = "close")
+    public AuthAuditJournal authAuditJournal(@Value("${shirolab.audit.dir:${java.io.tmpdir}/shirolab-audit}") String dir,
+                                             @Value("${shirolab.audit.segment-size-mb:64}") int segmentSizeMb,
+                                             @Value("${shirolab.audit.max-segments:32}") int maxSegments,
+                                             @Value("${shirolab.audit.buffer-size:8192}") int bufferSize) throws IOException {
+        int segmentCapacity = (int) Math.min(Integer.MAX_VALUE, segmentSizeMb * 1024L * 1024L / 128);
+        return new AuthAuditJournal(Paths.get(dir), segmentCapacity, maxSegments, bufferSize);
+    }
+
+    /**
+     * /actuator/authaudit：按时间范围与用户查询审计日志（需在 management.endpoints.web.exposure.include 中暴露，仅 admin 可访问）。
+     */
+    @Bean
+    public AuthAuditEndpoint authAuditEndpoint(AuthAuditJournal authAuditJournal) {
+        return new AuthAuditEndpoint(authAuditJournal);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.shirolab.config;
+
+import com.example.shirolab.security.audit.AuthAuditJournal;
+import com.example.shirolab.security.audit.AuthEventType;
+import com.example.shirolab.security.credential.PooledPasswordMatcher;
+import com.example.shirolab.security.realm.JdbcPrincipalRealm;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * shirolab.shiro.realm=jdbc 时用数据库中的用户/角色/权限代替 shiro.ini。
+ *
+ * 默认连接进程内的 H2（启动时执行 classpath:db/realm-h2.sql 建表并写入与 shiro.ini 相同的演示账户），
+ * 接真实数据库时配置 shirolab.realm.jdbc.url/username/password，表结构与 Shiro JdbcRealm 相同。
+ */
+@Configuration
+@ConditionalOnProperty(name = "shirolab.shiro.realm", havingValue = "jdbc")
+public class JdbcRealmConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcRealmConfig.class);
+
+    /**
+     * Realm 专用的 HikariCP 连接池：pool-size 为固定连接数，connection-timeout-ms 为取连接的最长等待。
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource realmDataSource(@Value("${shirolab.realm.jdbc.url}") String url,
+                                            @Value("${shirolab.realm.jdbc.username:}") String username,
+                                            @Value("${shirolab.realm.jdbc.password:}") String password,
+                                            @Value("${shirolab.realm.jdbc.pool-size:8}") int poolSize,
+                                            @Value("${shirolab.realm.jdbc.connection-timeout-ms:2000}") long connectionTimeoutMillis) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("shirolab-realm");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setConnectionTimeout(connectionTimeoutMillis);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * 单次查询加载口令、角色与权限的 Realm，授权缓存与 IndexedIniRealm 共用 shirolab.authorizationCache。
+     *
+     * 预热的活跃用户：存在认证审计日志时取 warm-up.active-days 天内登录成功的用户，
+     * 否则（或审计日志中没有记录时）执行 warm-up.active-users-query；最多 warm-up.limit 个，每 batch-size 个一次查询。
+     */
+    @Bean
+    public JdbcPrincipalRealm jdbcRealm(HikariDataSource realmDataSource,
+                                        PooledPasswordMatcher credentialsMatcher,
+                                        ObjectProvider<AuthAuditJournal> auditJournal,
+                                        @Value("${shirolab.realm.jdbc.principal-query:}") String principalQuery,
+                                        @Value("${shirolab.realm.jdbc.warm-up.active-users-query:}") String activeUsersQuery,
+                                        @Value("${shirolab.realm.jdbc.warm-up.active-days:7}") int activeDays,
+                                        @Value("${shirolab.realm.jdbc.warm-up.limit:10000}") int warmUpLimit,
+                                        @Value("${shirolab.realm.jdbc.warm-up.batch-size:100}") int batchSize) {
+        JdbcPrincipalRealm realm = new JdbcPrincipalRealm(realmDataSource);
+        realm.setName("jdbcRealm");
+        realm.setCredentialsMatcher(credentialsMatcher);
+        realm.setAuthorizationCacheName("shirolab.authorizationCache");
+        if (!principalQuery.isEmpty()) {
+            realm.setPrincipalQuery(principalQuery);
+        }
+        if (!activeUsersQuery.isEmpty()) {
+            realm.setActiveUsersQuery(activeUsersQuery);
+        }
+        realm.setBatchSize(batchSize);
+        realm.setWarmUpLimit(warmUpLimit);
+        AuthAuditJournal journal = auditJournal.getIfAvailable();
+        if (journal != null) {
+            realm.setActiveUsers(() -> journal.reader().recentPrincipals(AuthEventType.LOGIN_SUCCESS,
+                    System.currentTimeMillis() - TimeUnit.DAYS.toMillis(activeDays), warmUpLimit));
+        }
+        realm.init();
+        return realm;
+    }
+
+    /**
+     * 所有单例创建完成（SecurityManager 已把 CacheManager 交给 Realm）、Web 服务器开始接收请求之前预热授权缓存。
+     */
+    @Bean
+    public SmartInitializingSingleton jdbcRealmWarmUp(JdbcPrincipalRealm jdbcRealm,
+                                                      @Value("${shirolab.realm.jdbc.warm-up.enabled:true}") boolean enabled) {
+        return () -> {
+            if (enabled) {
+                long start = System.nanoTime();
+                int accounts = jdbcRealm.warmUp();
+                log.info("Warmed authorization cache for {} accounts in {} ms", accounts,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        };
+    }
+}
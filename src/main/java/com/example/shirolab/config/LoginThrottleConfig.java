@@ -0,0 +1,47 @@
+package com.example.shirolab.config;
+
+import com.example.shirolab.support.BoundedCache;
+import com.example.shirolab.support.SlidingWindowCounter;
+import com.example.shirolab.web.throttle.LoginThrottle;
+import com.example.shirolab.web.throttle.LoginThrottleFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class LoginThrottleConfig {
+
+    /**
+     * 登录限流计数器：
+     * - client-limit 为每个 IP 在 window-ms 滑动窗口内允许的登录尝试次数，
+     *   user-limit 为每个用户名在窗口内允许的认证失败次数（不分来源），&lt;= 0 关闭；
+     * - known-clients 记录登录成功过的（IP, 用户名），这些客户端不受 user-limit 限制，账号不会被他人锁死；
+     * - rows × width 为计数表大小（width 向上取 2 的幂），内存固定为 rows * width * 8 字节 / 维度，与 key 数量无关。
+     */
+    @Bean
+    public LoginThrottle loginThrottle(@Value("${shirolab.login-throttle.window-ms:60000}") long windowMillis,
+                                       @Value("${shirolab.login-throttle.client-limit:60}") int clientLimit,
+                                       @Value("${shirolab.login-throttle.user-limit:30}") int userLimit,
+                                       @Value("${shirolab.login-throttle.known-clients.max-size:10000}") int knownClientsMaxSize,
+                                       @Value("${shirolab.login-throttle.known-clients.ttl-ms:2592000000}") long knownClientsTtlMillis,
+                                       @Value("${shirolab.login-throttle.rows:3}") int rows,
+                                       @Value("${shirolab.login-throttle.width:16384}") int width) {
+        return new LoginThrottle(new SlidingWindowCounter(rows, width, windowMillis), clientLimit,
+                new SlidingWindowCounter(rows, width, windowMillis), userLimit,
+                new BoundedCache<String, Boolean>(knownClientsMaxSize, knownClientsTtlMillis));
+    }
+
+    /**
+     * 只拦截两个登录入口，顺序先于 shiroFilter（LOWEST_PRECEDENCE），被拒绝的请求不产生任何 Shiro 开销。
+     */
+    @Bean
+    public FilterRegistrationBean<LoginThrottleFilter> loginThrottleFilter(LoginThrottle loginThrottle) {
+        FilterRegistrationBean<LoginThrottleFilter> registration = new FilterRegistrationBean<LoginThrottleFilter>();
+        registration.setFilter(new LoginThrottleFilter(loginThrottle));
+        registration.addUrlPatterns("/login", "/login/form");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.shirolab.config;
+
+import com.example.shirolab.metrics.LatencyEndpoint;
+import com.example.shirolab.metrics.LatencyHistograms;
+import com.example.shirolab.metrics.ShiroPhaseTimer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * 处理方法与 Shiro 阶段的纳秒级延迟直方图，由 HandlerLatencyInterceptor 与 TimedWebSecurityManager 写入。
+     */
+    @Bean
+    public LatencyHistograms latencyHistograms() {
+        return new LatencyHistograms();
+    }
+
+    /**
+     * /actuator/latency：百分位快照（需在 management.endpoints.web.exposure.include 中暴露）。
+     */
+    @Bean
+    public LatencyEndpoint latencyEndpoint(LatencyHistograms latencyHistograms) {
+        return new LatencyEndpoint(latencyHistograms);
+    }
+
+    /**
+     * shiroFilter 分阶段计时（session / rememberme / resolve / authz / filters），指标名 shiro.filter.phase。
+     * 仅在 shirolab.shiro.phase-timing.enabled=true 时创建；server-timing-header=true 时同时输出 Server-Timing 响应头。
+     */
+    @Bean
+    @ConditionalOnProperty(name = "shirolab.shiro.phase-timing.enabled", havingValue = "true")
+    public ShiroPhaseTimer shiroPhaseTimer(
+            @Value("${shirolab.shiro.phase-timing.server-timing-header:false}") boolean serverTimingHeader) {
+        return new ShiroPhaseTimer(serverTimingHeader);
+    }
+}
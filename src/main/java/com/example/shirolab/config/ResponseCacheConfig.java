@@ -0,0 +1,40 @@
+package com.example.shirolab.config;
+
+import com.example.shirolab.web.cache.ResponseCache;
+import com.example.shirolab.web.cache.ResponseCacheFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * {@link com.example.shirolab.web.cache.CacheByRole} 响应缓存（shirolab.response-cache.enabled=false 时不注册，
+ * 注解照常存在但不生效）。查找拦截器由 WebMvcConfig 在 ResponseCache 存在时追加。
+ */
+@Configuration
+@ConditionalOnProperty(name = "shirolab.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCache responseCache(@Value("${shirolab.response-cache.max-size:1000}") int maxSize) {
+        return new ResponseCache(maxSize);
+    }
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(ResponseCache responseCache) {
+        return new ResponseCacheFilter(responseCache);
+    }
+
+    /**
+     * 紧挨在 shiroFilter（LOWEST_PRECEDENCE）之前，使 Shiro 包装的响应内层就是捕获包装。
+     */
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilterRegistration(ResponseCacheFilter responseCacheFilter) {
+        FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<ResponseCacheFilter>(responseCacheFilter);
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+}
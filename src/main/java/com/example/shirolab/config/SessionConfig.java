@@ -0,0 +1,69 @@
+package com.example.shirolab.config;
+
+import com.example.shirolab.security.session.EmbeddedRemoteSessionStore;
+import com.example.shirolab.security.session.OffHeapSessionStore;
+import com.example.shirolab.security.session.SessionStore;
+import com.example.shirolab.security.session.StoreBackedSessionDAO;
+import com.example.shirolab.security.session.TimingWheelSessionValidationScheduler;
+import org.apache.shiro.web.session.mgt.DefaultWebSessionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Shiro 原生会话（shirolab.session.store 为 offheap 或 remote 时生效）。
+ *
+ * - container（默认）：不创建以下 Bean，SecurityManager 继续使用 Servlet 容器的 HttpSession；
+ * - offheap：会话编码后放在进程内的 direct ByteBuffer，配置 offheap.file 时改用内存映射文件；
+ * - remote：EmbeddedRemoteSessionStore，远程共享存储的进程内替身，接入真实存储时替换该 Bean。
+ */
+@Configuration
+@ConditionalOnExpression("'${shirolab.session.store:container}' != 'container'")
+public class SessionConfig {
+
+    @Bean
+    public SessionStore sessionStore(@Value("${shirolab.session.store:container}") String type,
+                                     @Value("${shirolab.session.offheap.capacity-mb:64}") int capacityMb,
+                                     @Value("${shirolab.session.offheap.file:}") String file) throws IOException {
+        if ("remote".equalsIgnoreCase(type)) {
+            return new EmbeddedRemoteSessionStore();
+        }
+        int capacity = capacityMb * 1024 * 1024;
+        return file.isEmpty() ? new OffHeapSessionStore(capacity) : new OffHeapSessionStore(Paths.get(file), capacity);
+    }
+
+    /**
+     * 会话 DAO：新会话在写入第一个属性前只暂存在堆上（pending-ttl-ms 内有效），之后才写入存储；
+     * 暂存区超过 pending.max-size 时，最久未访问的会话提前写入存储，不会丢失。
+     */
+    @Bean
+    public StoreBackedSessionDAO sessionDAO(SessionStore sessionStore,
+                                            @Value("${shirolab.session.pending.max-size:10000}") int pendingMaxSize,
+                                            @Value("${shirolab.session.pending.ttl-ms:60000}") long pendingTtlMillis) {
+        return new StoreBackedSessionDAO(sessionStore, pendingMaxSize, pendingTtlMillis);
+    }
+
+    /**
+     * Web 会话管理器：超时时间与 shiro.ini 中的 globalSessionTimeout 一致（30 分钟）；
+     * 过期检查使用分层时间轮：会话每次写入时按“最后访问时间 + 超时”更新位置，
+     * 每 validation.tick-ms 只处理到期的会话，不做全量扫描。
+     */
+    @Bean(destroyMethod = "destroy")
+    public DefaultWebSessionManager sessionManager(StoreBackedSessionDAO sessionDAO,
+                                                   @Value("${shirolab.session.timeout-ms:1800000}") long timeoutMillis,
+                                                   @Value("${shirolab.session.validation.tick-ms:1000}") long tickMillis) {
+        DefaultWebSessionManager sessionManager = new DefaultWebSessionManager();
+        sessionManager.setSessionDAO(sessionDAO);
+        sessionManager.setGlobalSessionTimeout(timeoutMillis);
+        TimingWheelSessionValidationScheduler scheduler =
+                new TimingWheelSessionValidationScheduler(sessionManager, tickMillis);
+        sessionDAO.setExpiryListener(scheduler);
+        sessionManager.setSessionValidationScheduler(scheduler);
+        sessionManager.setSessionValidationSchedulerEnabled(true);
+        return sessionManager;
+    }
+}
@@ -1,30 +1,63 @@
 package com.example.shirolab.config;
 
-import org.apache.shiro.realm.text.IniRealm;
-import org.apache.shiro.spring.security.interceptor.AuthorizationAttributeSourceAdvisor;
+import com.example.shirolab.metrics.LatencyHistograms;
+import com.example.shirolab.metrics.ShiroPhaseTimer;
+import com.example.shirolab.security.authz.PrecompiledAuthorizationAdvisor;
+import com.example.shirolab.security.cache.MeteredCacheManager;
+import com.example.shirolab.security.credential.PooledPasswordMatcher;
+import com.example.shirolab.security.filter.BearerTokenFilter;
+import com.example.shirolab.security.filter.CompiledShiroFilterFactoryBean;
+import com.example.shirolab.security.filter.SessionlessUserFilter;
+import com.example.shirolab.security.mgt.TimedWebSecurityManager;
+import com.example.shirolab.security.rememberme.CachingCookieRememberMeManager;
+import com.example.shirolab.security.realm.IndexedIniRealm;
+import com.example.shirolab.security.realm.ReloadableIniRealm;
+import com.example.shirolab.security.rememberme.CompactPrincipalSerializer;
+import com.example.shirolab.security.token.ReturnUrlSigner;
+import com.example.shirolab.security.token.SignedTokenService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.shiro.authc.AbstractAuthenticator;
+import org.apache.shiro.authc.AuthenticationListener;
+import org.apache.shiro.cache.ehcache.EhCacheManager;
+import org.apache.shiro.io.DefaultSerializer;
+import org.apache.shiro.io.Serializer;
+import org.apache.shiro.realm.AuthorizingRealm;
 import org.apache.shiro.spring.web.ShiroFilterFactoryBean;
 import org.apache.shiro.web.mgt.CookieRememberMeManager;
 import org.apache.shiro.web.mgt.DefaultWebSecurityManager;
+import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.web.servlet.SimpleCookie;
+import org.apache.shiro.web.session.mgt.DefaultWebSessionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.core.Ordered;
 import org.springframework.web.filter.DelegatingFilterProxy;
 
+import java.nio.file.Paths;
+import java.util.Base64;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Shiro 安全配置（基于 Shiro 1.2.4 + shiro-spring）。
  *
  * 关键点概览：
- * 1) Realm：使用 IniRealm 从 classpath:shiro.ini 读取用户/角色/权限数据（适合无数据库演示）。
+ * 1) Realm：使用 IniRealm 从 classpath:shiro.ini 读取用户/角色/权限数据（适合无数据库演示）；
+ *    shirolab.shiro.realm=jdbc 时改用数据库（见 JdbcRealmConfig）。
  * 2) SecurityManager：Web 场景的核心组件，挂接 Realm 与 RememberMeManager 等，实现 Subject 的创建与管理。
  * 3) RememberMe：通过 Cookie 记住主体信息；在未登录会话下仍可恢复身份（匹配 user 过滤器时放行）。
  * 4) Web 过滤器：ShiroFilterFactoryBean 生成的 shiroFilter 拦截所有请求并按 URL 过滤链判定访问控制。
  * 5) 过滤器接入：DelegatingFilterProxy("shiroFilter") 将 Servlet 请求交给 Spring 容器中的同名 Bean 处理。
- * 6) 注解支持：AuthorizationAttributeSourceAdvisor 使 @RequiresRoles 等注解生效。
+ * 6) 注解支持：PrecompiledAuthorizationAdvisor 使 @RequiresRoles 等注解生效（启动时预解析）。
  *
  * 请求流转简述：
  * Browser -> DelegatingFilterProxy(shiroFilter) -> AbstractShiroFilter ->
@@ -36,23 +69,105 @@ public class ShiroConfig {
 
     /**
      * Realm 数据源：从 shiro.ini 读取 [users]/[roles]/[urls] 等配置。
-     * 适用于演示与小型场景；接数据库时可改为 JdbcRealm 或自定义 Realm。
+     * 适用于演示与小型场景；接数据库时见 JdbcRealmConfig 的 JdbcPrincipalRealm。
+     *
+     * IndexedIniRealm 在加载后把角色与 WildcardPermission 预编译为不可变快照，
+     * roles[..] 过滤器与 @RequiresRoles 的授权检查不再逐次解析权限字符串。
+     *
+     * 配置 shirolab.shiro.ini-path 指向外部 ini 文件时改用 ReloadableIniRealm：
+     * 文件修改后在后台线程重新解析并原子替换快照，无需重启（Bean 销毁时停止监听）。
+     *
+     * 口令校验交给 PooledPasswordMatcher：$shiro1$ 哈希口令在专用线程池上计算，明文口令仍可用。
+     *
+     * shirolab.shiro.realm=jdbc 时不创建此 Bean，改用 JdbcRealmConfig 提供的 JdbcPrincipalRealm。
      */
     @Bean
-    public IniRealm iniRealm() {
-        return new IniRealm("classpath:shiro.ini");
+    @ConditionalOnProperty(name = "shirolab.shiro.realm", havingValue = "ini", matchIfMissing = true)
+    public IndexedIniRealm iniRealm(@Value("${shirolab.shiro.ini-path:}") String iniPath,
+                                    PooledPasswordMatcher credentialsMatcher) {
+        IndexedIniRealm realm = iniPath.isEmpty()
+                ? new IndexedIniRealm("classpath:shiro.ini")
+                : new ReloadableIniRealm(Paths.get(iniPath));
+        realm.setCredentialsMatcher(credentialsMatcher);
+        realm.setAuthorizationCacheName("shirolab.authorizationCache");
+        realm.init();
+        return realm;
+    }
+
+    /**
+     * 哈希口令校验器：
+     * - hash-pool.threads 为哈希线程数（0 取 CPU 核数），queue-capacity 为排队上限，
+     *   队列满或等待超过 timeout-ms 时登录接口返回 503，而不是占住 Tomcat 线程；
+     * - verified-cache 缓存最近校验成功的 (存储口令, 提交口令) 摘要，短时间内的重复登录不再迭代哈希。
+     */
+    @Bean(destroyMethod = "destroy")
+    public PooledPasswordMatcher credentialsMatcher(@Value("${shirolab.auth.hash-pool.threads:0}") int threads,
+                                                    @Value("${shirolab.auth.hash-pool.queue-capacity:64}") int queueCapacity,
+                                                    @Value("${shirolab.auth.hash-pool.timeout-ms:2000}") long timeoutMillis,
+                                                    @Value("${shirolab.auth.verified-cache.max-size:10000}") int cacheMaxSize,
+                                                    @Value("${shirolab.auth.verified-cache.ttl-ms:30000}") long cacheTtlMillis) {
+        return new PooledPasswordMatcher(threads, queueCapacity, timeoutMillis, cacheMaxSize, cacheTtlMillis);
+    }
+
+    /**
+     * 无状态登录令牌（HMAC-SHA256）：
+     * - secret 为 Base64 编码的共享密钥，多实例部署必须配置相同的值；留空则启动时随机生成（仅本进程有效）；
+     * - ttl-ms 为令牌有效期，令牌无法提前吊销，应保持较短。
+     */
+    @Bean
+    public SignedTokenService tokenService(@Value("${shirolab.token.secret:}") String secret,
+                                           @Value("${shirolab.token.ttl-ms:900000}") long ttlMillis) {
+        return new SignedTokenService(secret.isEmpty() ? null : Base64.getDecoder().decode(secret.trim()), ttlMillis);
+    }
+
+    /**
+     * 登录后跳转地址的签名（与令牌共用 shirolab.token.secret），return-url.ttl-ms 为签名有效期。
+     */
+    @Bean
+    public ReturnUrlSigner returnUrlSigner(@Value("${shirolab.token.secret:}") String secret,
+                                           @Value("${shirolab.shiro.return-url.ttl-ms:600000}") long ttlMillis) {
+        return new ReturnUrlSigner(secret.isEmpty() ? null : Base64.getDecoder().decode(secret.trim()), ttlMillis);
+    }
+
+    /**
+     * Shiro 缓存：EhCacheManager（配置见 ehcache-shiro.xml），外层包装命中/未命中计数并暴露到 actuator metrics。
+     * 目前用于 realm 的授权缓存。
+     */
+    @Bean(destroyMethod = "destroy")
+    public MeteredCacheManager shiroCacheManager() {
+        EhCacheManager ehCacheManager = new EhCacheManager();
+        ehCacheManager.setCacheManagerConfigFile("classpath:ehcache-shiro.xml");
+        return new MeteredCacheManager(ehCacheManager);
     }
 
     /**
      * Web 安全管理器：承载认证/授权、会话与 RememberMe 管理。
      *
      * 注：此处启用了 RememberMeManager，使得使用 user 过滤器的路径允许“被记住的主体”访问。
+     * TimedWebSecurityManager 把 Subject 创建、rememberMe 解码、认证与授权检查的耗时记入 /actuator/latency，
+     * 启用分阶段计时时同时计入 shiro.filter.phase。
+     * 存在 SessionConfig 提供的 sessionManager 时使用 Shiro 原生会话，否则沿用 Servlet 容器会话。
+     * 容器中的 AuthenticationListener（如 AuditConfig 的认证审计日志）注册到 Authenticator，
+     * 登录成功/失败与登出时回调。
      */
     @Bean
-    public DefaultWebSecurityManager securityManager(IniRealm iniRealm, CookieRememberMeManager rememberMeManager) {
-        DefaultWebSecurityManager securityManager = new DefaultWebSecurityManager();
-        securityManager.setRealm(iniRealm);
+    public DefaultWebSecurityManager securityManager(AuthorizingRealm realm, CookieRememberMeManager rememberMeManager,
+                                                     MeteredCacheManager shiroCacheManager,
+                                                     LatencyHistograms latencyHistograms,
+                                                     ObjectProvider<ShiroPhaseTimer> phaseTimer,
+                                                     ObjectProvider<DefaultWebSessionManager> sessionManager,
+                                                     ObjectProvider<AuthenticationListener> authenticationListeners) {
+        TimedWebSecurityManager securityManager = new TimedWebSecurityManager(latencyHistograms);
+        securityManager.setPhaseTimer(phaseTimer.getIfAvailable());
+        DefaultWebSessionManager nativeSessionManager = sessionManager.getIfAvailable();
+        if (nativeSessionManager != null) {
+            securityManager.setSessionManager(nativeSessionManager);
+        }
+        securityManager.setCacheManager(shiroCacheManager);
+        securityManager.setRealm(realm);
         securityManager.setRememberMeManager(rememberMeManager);
+        ((AbstractAuthenticator) securityManager.getAuthenticator()).setAuthenticationListeners(
+                authenticationListeners.orderedStream().collect(Collectors.toList()));
         return securityManager;
     }
 
@@ -69,6 +184,21 @@ public class ShiroConfig {
         return cookie;
     }
 
+    /**
+     * RememberMe 主体编解码器。
+     * - compact（默认）：CompactPrincipalSerializer，定长版本化二进制布局，不走 Java 序列化；
+     * - java：Shiro 原生 DefaultSerializer，用于复现 Java 反序列化调用链。
+     * 通过 shirolab.remember-me.serializer 切换；两种格式的 Cookie 互不兼容，切换后旧 Cookie 会被清除。
+     */
+    @Bean
+    public Serializer<PrincipalCollection> rememberMeSerializer(
+            @Value("${shirolab.remember-me.serializer:compact}") String type) {
+        if ("java".equalsIgnoreCase(type)) {
+            return new DefaultSerializer<PrincipalCollection>();
+        }
+        return new CompactPrincipalSerializer();
+    }
+
     /**
      * RememberMe 管理器：负责将主体序列化到 Cookie 及后续恢复。
      *
@@ -77,18 +207,42 @@ public class ShiroConfig {
      * - -> SecurityManager.createSubject(..) / RememberMeManager#getRememberedPrincipals(..)
      * - -> org.apache.shiro.web.mgt.CookieRememberMeManager#getRememberedSerializedIdentity(..)
      * - -> org.apache.shiro.mgt.AbstractRememberMeManager#convertBytesToPrincipals(..)
-     * - -> org.apache.shiro.io.DefaultSerializer#deserialize(byte[])   // Java 反序列化
+     * - -> Serializer#deserialize(byte[])   // 见 rememberMeSerializer；选用 java 时即 DefaultSerializer 的 Java 反序列化
      *
      * 风险提示（Shiro 1.2.4）：若使用默认密钥或密钥泄露，存在被伪造 Cookie 的风险。
      * 生产环境应显式设置随机 cipherKey 并妥善保密与轮换。
+     *
+     * 解码结果缓存：同一 Cookie 的重复请求命中缓存后跳过解密与反序列化（见 CachingCookieRememberMeManager），
+     * 容量与 TTL 由 shirolab.remember-me.cache.* 控制；登出或更换密钥时失效。
      */
     @Bean
-    public CookieRememberMeManager rememberMeManager(SimpleCookie rememberMeCookie) {
-        CookieRememberMeManager manager = new CookieRememberMeManager();
+    public CachingCookieRememberMeManager rememberMeManager(SimpleCookie rememberMeCookie,
+                                                            Serializer<PrincipalCollection> rememberMeSerializer,
+                                                            @Value("${shirolab.remember-me.cache.max-size:10000}") int cacheMaxSize,
+                                                            @Value("${shirolab.remember-me.cache.ttl-ms:300000}") long cacheTtlMillis) {
+        CachingCookieRememberMeManager manager = new CachingCookieRememberMeManager(cacheMaxSize, cacheTtlMillis);
         manager.setCookie(rememberMeCookie);
+        manager.setSerializer(rememberMeSerializer);
         return manager;
     }
 
+    /**
+     * 将 rememberMe 解码缓存的命中/未命中/淘汰计数暴露到 actuator metrics。
+     */
+    @Bean
+    public MeterBinder rememberMeCacheMetrics(CachingCookieRememberMeManager rememberMeManager) {
+        return registry -> {
+            FunctionCounter.builder("shiro.rememberme.cache.hits", rememberMeManager,
+                    CachingCookieRememberMeManager::getCacheHitCount).register(registry);
+            FunctionCounter.builder("shiro.rememberme.cache.misses", rememberMeManager,
+                    CachingCookieRememberMeManager::getCacheMissCount).register(registry);
+            FunctionCounter.builder("shiro.rememberme.cache.evictions", rememberMeManager,
+                    CachingCookieRememberMeManager::getCacheEvictionCount).register(registry);
+            Gauge.builder("shiro.rememberme.cache.size", rememberMeManager,
+                    CachingCookieRememberMeManager::getCacheSize).register(registry);
+        };
+    }
+
     /**
      * Shiro Web 过滤器工厂：生成核心 Filter（AbstractShiroFilter）。
      * - loginUrl/successUrl：未通过 authc 时的跳转与登录成功后的默认页。
@@ -97,15 +251,47 @@ public class ShiroConfig {
      *
      * 与反序列化的关系：当路径命中 user/roles 等需要主体的过滤器时，若当前会话未登录，
      * AbstractShiroFilter 会尝试通过 RememberMe 从 Cookie 恢复主体（见上方 rememberMeManager 注释中的调用链），
-     * 恢复过程最终在 DefaultSerializer#deserialize(byte[]) 发生 Java 反序列化。
+     * 恢复过程最终交给 rememberMeSerializer 解码（选用 java 时在 DefaultSerializer#deserialize(byte[]) 发生 Java 反序列化）。
+     *
+     * 链解析：启动时将上述规则预编译为按路径段索引的前缀树（CompiledFilterChainResolver），
+     * 匹配语义与默认的逐条 AntPathMatcher 相同，解析结果按请求路径缓存（shirolab.shiro.chain-cache-size）。
+     *
+     * 分阶段计时：shirolab.shiro.phase-timing.enabled=true 时生成的是 TimedShiroFilter，
+     * 未启用时与原 SpringShiroFilter 完全一致，没有额外开销。
+     *
+     * 无状态令牌：token 过滤器（BearerTokenFilter）校验 Authorization: Bearer 头，通过后其后的 user/roles
+     * 直接使用令牌中的主体与角色，不读取会话；没有该头的请求照常走会话/rememberMe。
+     * BearerTokenFilter 不注册为 Spring Bean，避免被 Spring Boot 当作 Servlet Filter 重复注册。
+     *
+     * 匿名请求不建会话（shirolab.shiro.sessionless-anonymous=true，默认）：user 过滤器替换为 SessionlessUserFilter，
+     * 重定向到登录页时原地址以签名的 next 参数携带，而不是经 saveRequest 写入新会话。
      */
     @Bean(name = "shiroFilter")
-    public ShiroFilterFactoryBean shiroFilter(DefaultWebSecurityManager securityManager) {
-        ShiroFilterFactoryBean factoryBean = new ShiroFilterFactoryBean();
+    public ShiroFilterFactoryBean shiroFilter(DefaultWebSecurityManager securityManager,
+                                              AuthorizingRealm realm,
+                                              SignedTokenService tokenService,
+                                              ReturnUrlSigner returnUrlSigner,
+                                              @Value("${shirolab.shiro.sessionless-anonymous:true}") boolean sessionlessAnonymous,
+                                              @Value("${shirolab.shiro.chain-cache-size:4096}") int chainCacheSize,
+                                              ObjectProvider<ShiroPhaseTimer> phaseTimer) {
+        CompiledShiroFilterFactoryBean factoryBean = new CompiledShiroFilterFactoryBean(chainCacheSize);
+        factoryBean.setPhaseTimer(phaseTimer.getIfAvailable());
         factoryBean.setSecurityManager(securityManager);
         factoryBean.setLoginUrl("/login");
         factoryBean.setSuccessUrl("/");
+        factoryBean.getFilters().put("token", new BearerTokenFilter(tokenService, securityManager, realm.getName()));
+        if (sessionlessAnonymous) {
+            factoryBean.getFilters().put("user", new SessionlessUserFilter(returnUrlSigner));
+        }
+
+        factoryBean.setFilterChainDefinitionMap(filterChainDefinitions());
+        return factoryBean;
+    }
 
+    /**
+     * URL 规则，按定义先后逐条匹配。
+     */
+    static Map<String, String> filterChainDefinitions() {
         Map<String, String> chain = new LinkedHashMap<String, String>();
         chain.put("/login", "anon");
         chain.put("/login/form", "anon");
@@ -117,12 +303,15 @@ public class ShiroConfig {
         chain.put("/images/**", "anon");
         // 使用 user 过滤器，允许已登录或被记住的用户访问
         // 命中以下规则且当前未登录时，会走 RememberMe 恢复主体，从而触发反序列化（见上方调用链说明）
-        chain.put("/admin/**", "user, roles[admin]");
-        chain.put("/user/**", "user, roles[user]");
-        chain.put("/**", "user");
-
-        factoryBean.setFilterChainDefinitionMap(chain);
-        return factoryBean;
+        chain.put("/admin/**", "token, user, roles[admin]");
+        chain.put("/user/**", "token, user, roles[user]");
+        // 负载均衡器与 k8s 探针匿名访问健康检查，必须排在 /actuator/** 之前
+        chain.put("/actuator/health", "anon");
+        chain.put("/actuator/health/**", "anon");
+        // actuator 端点含运行数据与写操作（如 DELETE /actuator/latency），仅限 admin
+        chain.put("/actuator/**", "token, user, roles[admin]");
+        chain.put("/**", "token, user");
+        return chain;
     }
 
     /**
@@ -142,12 +331,17 @@ public class ShiroConfig {
     /**
      * 启用 Shiro 注解支持：@RequiresRoles、@RequiresPermissions 等。
      * 需与 Spring AOP 协同工作，使注解在方法调用时参与授权判定。
+     *
+     * 使用 PrecompiledAuthorizationAdvisor 代替 AuthorizationAttributeSourceAdvisor：
+     * 注解在创建代理时解析为方法表，每次调用只查表并做 Realm 检查，语义与异常保持一致。
+     *
+     * Spring Boot 注册的是 InfrastructureAdvisorAutoProxyCreator，只采用 ROLE_INFRASTRUCTURE 的 Advisor，
+     * 因此必须声明 @Role，否则控制器不会被代理、注解也就不生效。
      */
     @Bean
-    public AuthorizationAttributeSourceAdvisor authorizationAttributeSourceAdvisor(DefaultWebSecurityManager securityManager) {
-        AuthorizationAttributeSourceAdvisor advisor = new AuthorizationAttributeSourceAdvisor();
-        advisor.setSecurityManager(securityManager);
-        return advisor;
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public PrecompiledAuthorizationAdvisor authorizationAttributeSourceAdvisor() {
+        return new PrecompiledAuthorizationAdvisor();
     }
 }
 
@@ -0,0 +1,58 @@
+package com.example.shirolab.config;
+
+import com.example.shirolab.security.credential.PooledPasswordMatcher;
+import com.example.shirolab.security.realm.WarmableRealm;
+import com.example.shirolab.startup.ExitOnReady;
+import com.example.shirolab.startup.StartupPrewarmer;
+import com.example.shirolab.startup.StartupTimelineReporter;
+import org.apache.shiro.mgt.SecurityManager;
+import org.apache.shiro.web.servlet.AbstractShiroFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 启动相关：时间线汇总、快速启动模式（application-fast-startup.properties）下的后台预热，
+ * 以及 AppCDS 训练运行用的就绪即退出。
+ *
+ * 快速启动模式打开 spring.main.lazy-initialization：控制器、视图、actuator 等在首次使用时才创建；
+ * 安全链（realm、口令校验、SecurityManager）始终立即创建，shiro.ini 有误时在启动阶段失败，
+ * 且 shiroFilter 在 Servlet 容器初始化过滤器时本来就会被取出。
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public StartupTimelineReporter startupTimelineReporter(@Value("${shirolab.startup.timeline.slowest-beans:5}") int slowestBeans) {
+        return new StartupTimelineReporter(slowestBeans);
+    }
+
+    @Bean
+    public static LazyInitializationExcludeFilter securityLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(WarmableRealm.class, PooledPasswordMatcher.class,
+                SecurityManager.class);
+    }
+
+    /**
+     * warm-path 为预热时请求的本机路径（匿名可访问，留空跳过 HTTP 预热）。
+     */
+    @Bean
+    @ConditionalOnProperty(name = "shirolab.startup.prewarm.enabled", havingValue = "true")
+    public StartupPrewarmer startupPrewarmer(WarmableRealm realm,
+                                             @Qualifier("shiroFilter") AbstractShiroFilter shiroFilter,
+                                             @Value("${shirolab.startup.prewarm.warm-path:/login}") String warmPath) {
+        return new StartupPrewarmer(realm, shiroFilter.getFilterChainResolver(), warmPath);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "shirolab.startup.exit-on-ready", havingValue = "true")
+    public ExitOnReady exitOnReady(ObjectProvider<StartupPrewarmer> prewarmer,
+                                   @Value("${shirolab.startup.prewarm.timeout-ms:30000}") long prewarmTimeoutMillis) {
+        StartupPrewarmer available = prewarmer.getIfAvailable();
+        return new ExitOnReady(available == null ? null : available.completion(), prewarmTimeoutMillis);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.shirolab.config;
+
+import com.example.shirolab.web.staticasset.StaticAssetFilter;
+import com.example.shirolab.web.staticasset.StaticAssetIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+
+/**
+ * 静态资源快速通道（shirolab.static.enabled=false 时不注册，静态资源照常经 shiroFilter 与 Spring MVC）。
+ */
+@Configuration
+@ConditionalOnProperty(name = "shirolab.static.enabled", havingValue = "true", matchIfMissing = true)
+public class StaticAssetConfig {
+
+    /**
+     * 启动时扫描 location 建立索引：inline-threshold-bytes 以内的内容常驻堆内，
+     * gzip-min-bytes 以上的文本资源在没有 .gz 构建产物时压缩一次。
+     */
+    @Bean
+    public StaticAssetIndex staticAssetIndex(@Value("${shirolab.static.location:classpath:/static/}") String location,
+                                             @Value("${shirolab.static.inline-threshold-bytes:65536}") int inlineThreshold,
+                                             @Value("${shirolab.static.gzip-min-bytes:1024}") int gzipMinBytes) throws IOException {
+        return StaticAssetIndex.scan(location, inlineThreshold, gzipMinBytes);
+    }
+
+    @Bean
+    public StaticAssetFilter staticAssetFilter(StaticAssetIndex staticAssetIndex,
+                                               @Value("${shirolab.static.max-age-seconds:604800}") long maxAgeSeconds) {
+        return new StaticAssetFilter(staticAssetIndex, maxAgeSeconds);
+    }
+
+    /**
+     * 只映射 shiroFilter 中配置为 anon 的三个静态目录，顺序先于登录限流与 shiroFilter。
+     */
+    @Bean
+    public FilterRegistrationBean<StaticAssetFilter> staticAssetFilterRegistration(StaticAssetFilter staticAssetFilter) {
+        FilterRegistrationBean<StaticAssetFilter> registration = new FilterRegistrationBean<StaticAssetFilter>(staticAssetFilter);
+        registration.addUrlPatterns("/css/*", "/js/*", "/images/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.shirolab.config;
+
+import com.example.shirolab.web.thymeleaf.ShiroDialect;
+import org.apache.shiro.realm.AuthorizingRealm;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ThymeleafConfig {
+
+    /**
+     * 模板中的 shiro: 属性（Spring Boot 把 IDialect bean 加入模板引擎）。
+     * 检查直接交给 SecurityManager 使用的 Realm；preload 开启时按模板以往出现过的检查批量求值。
+     */
+    @Bean
+    public ShiroDialect shiroDialect(AuthorizingRealm realm,
+                                     @Value("${shirolab.thymeleaf.shiro.preload:true}") boolean preload) {
+        return new ShiroDialect(realm, preload);
+    }
+}
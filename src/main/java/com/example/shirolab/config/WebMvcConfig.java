@@ -1,22 +1,67 @@
 package com.example.shirolab.config;
 
+import com.example.shirolab.metrics.LatencyHistograms;
+import com.example.shirolab.web.LoginRequestHttpMessageConverter;
+import com.example.shirolab.web.accesslog.AccessLogPipeline;
+import com.example.shirolab.web.cache.ResponseCache;
+import com.example.shirolab.web.cache.ResponseCacheInterceptor;
+import com.example.shirolab.web.interceptor.HandlerLatencyInterceptor;
 import com.example.shirolab.web.interceptor.RequestLogInterceptor;
 import com.example.shirolab.web.interceptor.TestInterceptor;
+import com.example.shirolab.web.json.JsonWritableHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private final AccessLogPipeline accessLogPipeline;
+    private final LatencyHistograms latencyHistograms;
+    private final ObjectProvider<ResponseCache> responseCache;
+    private final ObjectMapper objectMapper;
+
+    public WebMvcConfig(AccessLogPipeline accessLogPipeline, LatencyHistograms latencyHistograms,
+                        ObjectProvider<ResponseCache> responseCache, ObjectMapper objectMapper) {
+        this.accessLogPipeline = accessLogPipeline;
+        this.latencyHistograms = latencyHistograms;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 认证接口的 JSON 快速路径排在 MappingJackson2HttpMessageConverter 之前；两者只认各自的类型
+     * （LoginRequest、JsonWritable），其他请求体与返回值仍由 Jackson 处理。
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new JsonWritableHttpMessageConverter());
+        converters.add(0, new LoginRequestHttpMessageConverter(objectMapper.getFactory()));
+    }
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new RequestLogInterceptor())
+        registry.addInterceptor(new RequestLogInterceptor(accessLogPipeline))
                 .addPathPatterns("/**")
                 .excludePathPatterns("/css/**", "/js/**", "/images/**");
 
+        registry.addInterceptor(new HandlerLatencyInterceptor(latencyHistograms))
+                .addPathPatterns("/**");
+
         registry.addInterceptor(new TestInterceptor())
                 .addPathPatterns("/intercept/**");
+
+        // 放在最后：命中缓存时前面的拦截器已执行 preHandle，访问日志与处理耗时照常记录
+        ResponseCache cache = responseCache.getIfAvailable();
+        if (cache != null) {
+            registry.addInterceptor(new ResponseCacheInterceptor(cache))
+                    .addPathPatterns("/**");
+        }
     }
 }
 
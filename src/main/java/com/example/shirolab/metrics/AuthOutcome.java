@@ -0,0 +1,39 @@
+package com.example.shirolab.metrics;
+
+import org.apache.shiro.subject.Subject;
+
+import java.util.Locale;
+
+/**
+ * 延迟样本的认证结果标签。
+ */
+public enum AuthOutcome {
+
+    /** 本次会话内通过 login 认证 */
+    AUTHENTICATED,
+
+    /** 未登录但由 rememberMe Cookie 恢复了身份 */
+    REMEMBERED,
+
+    /** 无身份 */
+    ANONYMOUS,
+
+    /** 登录失败（仅用于认证阶段） */
+    FAILED;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    public String tag() {
+        return tag;
+    }
+
+    public static AuthOutcome of(Subject subject) {
+        if (subject == null) {
+            return ANONYMOUS;
+        }
+        if (subject.isAuthenticated()) {
+            return AUTHENTICATED;
+        }
+        return subject.getPrincipal() != null ? REMEMBERED : ANONYMOUS;
+    }
+}
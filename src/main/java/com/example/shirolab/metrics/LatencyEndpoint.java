@@ -0,0 +1,51 @@
+package com.example.shirolab.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/latency：按 type（handler / shiro）输出各直方图的累计百分位快照（纳秒）。
+ *
+ * - GET /actuator/latency         全部；
+ * - GET /actuator/latency/{type}  仅某一类别；
+ * - DELETE /actuator/latency      清零累计分布。
+ *
+ * 与其他 actuator 端点一样只对 admin 开放（ShiroConfig 中的 /actuator/** 规则）。
+ */
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final LatencyHistograms histograms;
+
+    public LatencyEndpoint(LatencyHistograms histograms) {
+        this.histograms = histograms;
+    }
+
+    @ReadOperation
+    public Map<String, Object> latency() {
+        return describe(histograms.snapshot(null));
+    }
+
+    @ReadOperation
+    public Map<String, Object> latencyByType(@Selector String type) {
+        return describe(histograms.snapshot(type));
+    }
+
+    @DeleteOperation
+    public void reset() {
+        histograms.reset();
+    }
+
+    private static Map<String, Object> describe(List<LatencyHistograms.Snapshot> snapshots) {
+        Map<String, Object> body = new LinkedHashMap<String, Object>();
+        body.put("unit", "nanoseconds");
+        body.put("histograms", snapshots);
+        return body;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.shirolab.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 纳秒级延迟直方图注册表，按 类别(type) / 名称(name) / 认证结果(outcome) 三个维度划分。
+ *
+ * 记录端使用 HdrHistogram 的 {@link Recorder}（WriterReaderPhaser，写入无锁且无分配）；
+ * 读取端在 {@link #snapshot(String)} 时把各 Recorder 的区间直方图累加进累计直方图，
+ * 因此快照是自启动（或上次 reset）以来的累计分布。
+ *
+ * 请求线程应持有 {@link #series(String, String)} 返回的 Series 引用，避免每次记录都查表。
+ */
+public class LatencyHistograms {
+
+    /** 可记录的最大值：60 秒，超出部分按最大值记录 */
+    static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    /** 2 位有效数字，即 1% 精度 */
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+    private final ConcurrentHashMap<String, Series> series = new ConcurrentHashMap<String, Series>();
+
+    public Series series(String type, String name) {
+        String key = type + '|' + name;
+        Series s = series.get(key);
+        if (s == null) {
+            Series created = new Series(type, name);
+            s = series.putIfAbsent(key, created);
+            if (s == null) {
+                s = created;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * 按类别取累计快照；type 为 null 时返回全部，结果按 type/name/outcome 排序。
+     */
+    public List<Snapshot> snapshot(String type) {
+        List<Snapshot> result = new ArrayList<Snapshot>();
+        for (Series s : series.values()) {
+            if (type == null || type.equals(s.type)) {
+                s.collect(result);
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    public void reset() {
+        for (Series s : series.values()) {
+            s.reset();
+        }
+    }
+
+    /**
+     * 同一 type/name 下按认证结果区分的一组直方图，每个结果的 Recorder 在首次记录时创建。
+     */
+    public static final class Series {
+        private final String type;
+        private final String name;
+        private final AtomicReferenceArray<Cell> cells = new AtomicReferenceArray<Cell>(AuthOutcome.values().length);
+
+        Series(String type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        public void record(AuthOutcome outcome, long nanos) {
+            int i = outcome.ordinal();
+            Cell cell = cells.get(i);
+            if (cell == null) {
+                cells.compareAndSet(i, null, new Cell());
+                cell = cells.get(i);
+            }
+            cell.recorder.recordValue(nanos < 0 ? 0 : Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+        }
+
+        void collect(List<Snapshot> out) {
+            for (AuthOutcome outcome : AuthOutcome.values()) {
+                Cell cell = cells.get(outcome.ordinal());
+                if (cell != null) {
+                    out.add(cell.snapshot(type, name, outcome));
+                }
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < cells.length(); i++) {
+                Cell cell = cells.get(i);
+                if (cell != null) {
+                    cell.reset();
+                }
+            }
+        }
+    }
+
+    private static final class Cell {
+        final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        private final Histogram accumulated = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        private Histogram interval;
+
+        synchronized Snapshot snapshot(String type, String name, AuthOutcome outcome) {
+            interval = recorder.getIntervalHistogram(interval);
+            accumulated.add(interval);
+            long[] percentiles = new long[PERCENTILES.length];
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                percentiles[i] = accumulated.getValueAtPercentile(PERCENTILES[i]);
+            }
+            return new Snapshot(type, name, outcome.tag(), accumulated.getTotalCount(),
+                    (long) accumulated.getMean(), percentiles, accumulated.getMaxValue());
+        }
+
+        synchronized void reset() {
+            interval = recorder.getIntervalHistogram(interval);
+            accumulated.reset();
+        }
+    }
+
+    /**
+     * 单个 type/name/outcome 的累计分布，所有时间值单位为纳秒。
+     */
+    public static final class Snapshot implements Comparable<Snapshot> {
+        private final String type;
+        private final String name;
+        private final String outcome;
+        private final long count;
+        private final long mean;
+        private final long[] percentiles;
+        private final long max;
+
+        Snapshot(String type, String name, String outcome, long count, long mean, long[] percentiles, long max) {
+            this.type = type;
+            this.name = name;
+            this.outcome = outcome;
+            this.count = count;
+            this.mean = mean;
+            this.percentiles = percentiles;
+            this.max = max;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getOutcome() {
+            return outcome;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMeanNanos() {
+            return mean;
+        }
+
+        public long getP50Nanos() {
+            return percentiles[0];
+        }
+
+        public long getP90Nanos() {
+            return percentiles[1];
+        }
+
+        public long getP99Nanos() {
+            return percentiles[2];
+        }
+
+        public long getP999Nanos() {
+            return percentiles[3];
+        }
+
+        public long getMaxNanos() {
+            return max;
+        }
+
+        @Override
+        public int compareTo(Snapshot o) {
+            int c = type.compareTo(o.type);
+            if (c == 0) {
+                c = name.compareTo(o.name);
+            }
+            return c != 0 ? c : outcome.compareTo(o.outcome);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.shirolab.metrics;
+
+/**
+ * AbstractShiroFilter 内部各阶段，彼此不重叠，相加即 Shiro 在请求线程上的总耗时。
+ */
+public enum ShiroPhase {
+
+    /** 创建 Subject（会话查找、主体解析）及更新会话访问时间，不含 rememberMe 解码 */
+    SESSION("session"),
+
+    /** 从 rememberMe Cookie 解密并反序列化主体 */
+    REMEMBER_ME("rememberme"),
+
+    /** 按请求路径解析过滤链 */
+    CHAIN_RESOLVE("resolve"),
+
+    /** hasRole/isPermitted 等授权检查（roles[..] 过滤器及进入应用前的注解检查） */
+    AUTHORIZATION("authz"),
+
+    /** 其余 Shiro 过滤器自身的开销（user、logout 等），即链执行时间减去授权检查 */
+    FILTERS("filters");
+
+    private final String tag;
+
+    ShiroPhase(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.shirolab.metrics;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shiro 过滤器阶段计时：请求内的耗时记在线程本地，请求结束时一次性计入各阶段共享的 LongAdder。
+ *
+ * - 请求内：{@link #begin()} 清零当前请求的各阶段耗时，{@link #add(ShiroPhase, long)} 累加，{@link #end(Phases)} 计入累计；
+ * - 累计值是每个阶段一对 LongAdder（次数、总耗时），按竞争自动分段，不随线程数增长，
+ *   虚拟线程每个请求一个新线程时也不会留下按线程登记的状态；线程本地的 Phases 随线程一起回收；
+ * - 未启用时不创建该对象，TimedShiroFilter 不装配，TimedWebSecurityManager 只多一次 null 判断。
+ */
+public class ShiroPhaseTimer implements MeterBinder {
+
+    private static final ShiroPhase[] PHASES = ShiroPhase.values();
+
+    private final boolean serverTimingHeader;
+    private final LongAdder[] counts = newAdders();
+    private final LongAdder[] totals = newAdders();
+    private final ThreadLocal<Phases> current = ThreadLocal.withInitial(Phases::new);
+
+    public ShiroPhaseTimer(boolean serverTimingHeader) {
+        this.serverTimingHeader = serverTimingHeader;
+    }
+
+    public boolean isServerTimingHeader() {
+        return serverTimingHeader;
+    }
+
+    /**
+     * 开始一个请求；同一线程上已有进行中的请求（如 forward/error 重入）时返回 null，外层请求继续计时。
+     */
+    public Phases begin() {
+        Phases phases = current.get();
+        if (phases.active) {
+            return null;
+        }
+        phases.active = true;
+        for (int i = 0; i < PHASES.length; i++) {
+            phases.request[i] = 0L;
+        }
+        return phases;
+    }
+
+    /**
+     * 当前线程正在计时的请求，不在 Shiro 过滤器请求内时返回 null。
+     */
+    public Phases active() {
+        Phases phases = current.get();
+        return phases.active ? phases : null;
+    }
+
+    public void end(Phases phases) {
+        for (int i = 0; i < PHASES.length; i++) {
+            long nanos = phases.request[i];
+            if (nanos > 0) {
+                counts[i].increment();
+                totals[i].add(nanos);
+            }
+        }
+        phases.active = false;
+    }
+
+    /**
+     * 由 SecurityManager 调用；当前线程不在 Shiro 过滤器请求内时忽略。
+     */
+    public void add(ShiroPhase phase, long nanos) {
+        Phases phases = current.get();
+        if (phases.active) {
+            phases.request[phase.ordinal()] += nanos;
+        }
+    }
+
+    public long count(ShiroPhase phase) {
+        return counts[phase.ordinal()].sum();
+    }
+
+    public long totalNanos(ShiroPhase phase) {
+        return totals[phase.ordinal()].sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (final ShiroPhase phase : PHASES) {
+            FunctionTimer.builder("shiro.filter.phase", this, t -> t.count(phase), t -> t.totalNanos(phase),
+                            TimeUnit.NANOSECONDS)
+                    .tag("phase", phase.tag())
+                    .description("Time spent inside AbstractShiroFilter per phase")
+                    .register(registry);
+        }
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[PHASES.length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * 单个线程的计时状态：request 为当前请求的各阶段耗时。
+     */
+    public static final class Phases {
+        private final long[] request = new long[PHASES.length];
+        private boolean active;
+
+        public void add(ShiroPhase phase, long nanos) {
+            request[phase.ordinal()] += nanos;
+        }
+
+        public long get(ShiroPhase phase) {
+            return request[phase.ordinal()];
+        }
+
+        /**
+         * 当前请求的 Server-Timing 头值，例如 {@code session;dur=0.012, resolve;dur=0.003, shiro;dur=0.020}（毫秒）。
+         */
+        public String toServerTiming() {
+            StringBuilder sb = new StringBuilder(128);
+            long total = 0;
+            for (int i = 0; i < PHASES.length; i++) {
+                if (request[i] > 0) {
+                    appendMetric(sb, PHASES[i].tag(), request[i]);
+                    total += request[i];
+                }
+            }
+            appendMetric(sb, "shiro", total);
+            return sb.toString();
+        }
+
+        private static void appendMetric(StringBuilder sb, String name, long nanos) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            long micros = nanos / 1000;
+            long fraction = micros % 1000;
+            sb.append(name).append(";dur=").append(micros / 1000).append('.');
+            if (fraction < 100) {
+                sb.append('0');
+            }
+            if (fraction < 10) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.shirolab.security.audit;
+
+/**
+ * 从审计日志读出的一条认证事件。principal 与 host 超出定长字段时已在写入时截断。
+ */
+public final class AuditRecord {
+
+    private final long timestampMillis;
+    private final AuthEventType type;
+    private final AuthFailureReason reason;
+    private final String principal;
+    private final String host;
+
+    public AuditRecord(long timestampMillis, AuthEventType type, AuthFailureReason reason,
+                       String principal, String host) {
+        this.timestampMillis = timestampMillis;
+        this.type = type;
+        this.reason = reason;
+        this.principal = principal;
+        this.host = host;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public AuthEventType getType() {
+        return type;
+    }
+
+    public AuthFailureReason getReason() {
+        return reason;
+    }
+
+    public String getPrincipal() {
+        return principal;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    @Override
+    public String toString() {
+        return timestampMillis + " " + type + (reason == AuthFailureReason.NONE ? "" : "(" + reason + ")")
+                + " " + principal + "@" + host;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.shirolab.security.audit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/authaudit：查询认证审计日志。
+ *
+ * - GET /actuator/authaudit?from=&amp;to=&amp;principal=&amp;limit=
+ *   from/to 为毫秒时间戳（含），缺省为全部时间；principal 缺省为全部用户；limit 缺省 100，最大 10000。
+ *
+ * 结果包含所有用户的登录记录（主体、来源主机、失败原因），只对 admin 开放（ShiroConfig 中的 /actuator/** 规则）。
+ */
+@Endpoint(id = "authaudit")
+public class AuthAuditEndpoint {
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10000;
+
+    private final AuthAuditJournal journal;
+
+    public AuthAuditEndpoint(AuthAuditJournal journal) {
+        this.journal = journal;
+    }
+
+    @ReadOperation
+    public Map<String, Object> events(@Nullable Long from, @Nullable Long to,
+                                      @Nullable String principal, @Nullable Integer limit) {
+        int max = limit == null ? DEFAULT_LIMIT : Math.max(0, Math.min(limit, MAX_LIMIT));
+        List<AuditRecord> records = journal.reader().scan(from == null ? Long.MIN_VALUE : from,
+                to == null ? Long.MAX_VALUE : to, principal, max);
+        Map<String, Object> body = new LinkedHashMap<String, Object>();
+        body.put("count", records.size());
+        body.put("events", records);
+        return body;
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.shirolab.security.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationListener;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.HostAuthenticationToken;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.apache.shiro.web.subject.WebSubject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletRequest;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 认证审计日志：作为 {@link AuthenticationListener} 挂在 SecurityManager 的 Authenticator 上，
+ * 记录登录成功/失败与登出，追加写入内存映射的定长二进制段文件（布局见 {@link JournalSegment}）。
+ *
+ * 请求线程只取时间戳、主体与来源地址，写入预分配的环形缓冲区（多生产者/单消费者，同 AccessLogPipeline），
+ * 编码与写文件都在单个后台线程完成；缓冲区满时丢弃并计数，请求线程不等待、不做 I/O。
+ *
+ * 段文件写满后滚动到下一个序号，超过 maxSegments 时删除最旧的段（&lt;= 0 表示全部保留）。
+ * 数据随写入进入页缓存，进程退出不会丢失；段滚动与关闭时 force 到磁盘。
+ * 目录上持有文件锁，同一目录只允许一个进程写入。重启后继续写最后一个未满的段。
+ */
+public class AuthAuditJournal implements AuthenticationListener, Closeable, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthAuditJournal.class);
+
+    private static final String LOCK_FILE = "journal.lock";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_SEGMENT_CAPACITY =
+            (Integer.MAX_VALUE - JournalSegment.HEADER_SIZE) / JournalSegment.RECORD_SIZE;
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final int maxSegments;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+
+    /** 以下字段只由写线程访问（构造期间除外） */
+    private final ArrayDeque<Path> segments = new ArrayDeque<Path>();
+    private JournalSegment current;
+    private long currentIndex;
+    private volatile int segmentCount;
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    /**
+     * @param segmentCapacity 每个段文件的记录数（每条 128 字节）
+     * @param maxSegments     保留的段文件数上限，&lt;= 0 不删除
+     * @param bufferSize      环形缓冲区槽位数（向上取 2 的幂）
+     */
+    public AuthAuditJournal(Path directory, int segmentCapacity, int maxSegments, int bufferSize) throws IOException {
+        this.directory = directory;
+        this.segmentCapacity = Math.max(1, Math.min(segmentCapacity, MAX_SEGMENT_CAPACITY));
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // 同一 JVM 内已有实例持有该目录
+            acquired = null;
+        }
+        this.lock = acquired;
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("audit journal directory is in use by another process: " + directory);
+        }
+        try {
+            openLatestSegment();
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+
+        int size = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i - size);
+        }
+        this.mask = size - 1;
+        this.writer = new Thread(this::drainLoop, "auth-audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onSuccess(AuthenticationToken token, AuthenticationInfo info) {
+        publish(AuthEventType.LOGIN_SUCCESS, AuthFailureReason.NONE, principalOf(info.getPrincipals()), hostOf(token));
+    }
+
+    @Override
+    public void onFailure(AuthenticationToken token, AuthenticationException ae) {
+        Object principal = token == null ? null : token.getPrincipal();
+        publish(AuthEventType.LOGIN_FAILURE, AuthFailureReason.of(ae),
+                principal == null ? null : principal.toString(), hostOf(token));
+    }
+
+    @Override
+    public void onLogout(PrincipalCollection principals) {
+        publish(AuthEventType.LOGOUT, AuthFailureReason.NONE, principalOf(principals), currentHost());
+    }
+
+    /**
+     * 请求线程调用：认领槽位并写入一条事件，缓冲区已满或已关闭时丢弃。
+     *
+     * @return 是否成功写入缓冲区
+     */
+    boolean publish(AuthEventType type, AuthFailureReason reason, String principal, String host) {
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head >= slots.length || !running) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+        Slot slot = slots[(int) (seq & mask)];
+        slot.epochMillis = System.currentTimeMillis();
+        slot.type = type;
+        slot.reason = reason;
+        slot.principal = principal;
+        slot.host = host;
+        slot.sequence = seq;
+        published.increment();
+        return true;
+    }
+
+    /**
+     * 读取本目录下的段文件（包括正在写入的段中已写入的部分）。
+     */
+    public AuthAuditReader reader() {
+        return new AuthAuditReader(directory);
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public int getBacklog() {
+        return (int) (tail.get() - head);
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("shirolab.audit.events", this, AuthAuditJournal::getPublishedCount)
+                .tag("result", "published").register(registry);
+        FunctionCounter.builder("shirolab.audit.events", this, AuthAuditJournal::getDroppedCount)
+                .tag("result", "dropped").register(registry);
+        FunctionCounter.builder("shirolab.audit.events", this, AuthAuditJournal::getWrittenCount)
+                .tag("result", "written").register(registry);
+        FunctionCounter.builder("shirolab.audit.write.errors", writeErrors, LongAdder::sum).register(registry);
+        Gauge.builder("shirolab.audit.backlog", this, AuthAuditJournal::getBacklog).register(registry);
+        Gauge.builder("shirolab.audit.segments", this, AuthAuditJournal::getSegmentCount).register(registry);
+    }
+
+    /**
+     * 停止接收新事件，等待写线程写完缓冲区中的剩余事件，force 当前段并释放目录锁。
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (current != null) {
+                current.force();
+                current.close();
+            }
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            if (drainBatch() == 0) {
+                if (!running && head == tail.get()) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private int drainBatch() {
+        long next = head;
+        int count = 0;
+        while (count < slots.length) {
+            Slot slot = slots[(int) ((next + count) & mask)];
+            if (slot.sequence != next + count) {
+                break;
+            }
+            try {
+                append(slot);
+                written.increment();
+            } catch (IOException | RuntimeException e) {
+                writeErrors.increment();
+                log.warn("Failed to append auth audit record for {}", slot.principal, e);
+            }
+            slot.principal = null;
+            slot.host = null;
+            count++;
+        }
+        head = next + count;
+        return count;
+    }
+
+    private void append(Slot slot) throws IOException {
+        byte[] principal = JournalSegment.encode(slot.principal, JournalSegment.PRINCIPAL_CAPACITY);
+        byte[] host = JournalSegment.encode(slot.host, JournalSegment.HOST_CAPACITY);
+        if (current == null || current.isFull()) {
+            roll();
+        }
+        current.append(slot.epochMillis, slot.type, slot.reason, principal, host);
+    }
+
+    private void openLatestSegment() throws IOException {
+        List<Path> existing = JournalSegment.list(directory);
+        segments.addAll(existing);
+        segmentCount = segments.size();
+        if (existing.isEmpty()) {
+            return;
+        }
+        Path latest = existing.get(existing.size() - 1);
+        currentIndex = JournalSegment.indexOf(latest);
+        try {
+            JournalSegment segment = JournalSegment.openForAppend(latest);
+            if (segment.isFull()) {
+                segment.close();
+            } else {
+                current = segment;
+            }
+        } catch (IOException e) {
+            // 损坏或格式不符的段保持原样，从下一个序号开始写
+            log.warn("Cannot append to audit journal segment {}, starting a new one", latest, e);
+        }
+    }
+
+    private void roll() throws IOException {
+        if (current != null) {
+            current.force();
+            current.close();
+            current = null;
+        }
+        Path file = directory.resolve(JournalSegment.fileName(++currentIndex));
+        current = JournalSegment.create(file, segmentCapacity);
+        segments.addLast(file);
+        while (maxSegments > 0 && segments.size() > maxSegments) {
+            Path oldest = segments.removeFirst();
+            try {
+                Files.deleteIfExists(oldest);
+            } catch (IOException e) {
+                log.warn("Failed to delete audit journal segment {}", oldest, e);
+            }
+        }
+        segmentCount = segments.size();
+    }
+
+    private static String principalOf(PrincipalCollection principals) {
+        if (principals == null || principals.isEmpty()) {
+            return null;
+        }
+        Object primary = principals.getPrimaryPrincipal();
+        return primary == null ? null : primary.toString();
+    }
+
+    private static String hostOf(AuthenticationToken token) {
+        if (token instanceof HostAuthenticationToken) {
+            String host = ((HostAuthenticationToken) token).getHost();
+            if (host != null) {
+                return host;
+            }
+        }
+        return currentHost();
+    }
+
+    /**
+     * AuthController 构造的令牌不带 host，取当前线程绑定的 WebSubject 的请求来源地址。
+     */
+    private static String currentHost() {
+        Subject subject = ThreadContext.getSubject();
+        if (subject instanceof WebSubject) {
+            ServletRequest request = ((WebSubject) subject).getServletRequest();
+            if (request != null) {
+                return request.getRemoteAddr();
+            }
+        }
+        return null;
+    }
+
+    private static final class Slot {
+        volatile long sequence;
+        long epochMillis;
+        AuthEventType type;
+        AuthFailureReason reason;
+        String principal;
+        String host;
+
+        Slot(long initialSequence) {
+            this.sequence = initialSequence;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.shirolab.security.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 按时间范围与主体扫描审计日志段文件。
+ *
+ * 每个段以只读方式映射；文件头记录的时间范围与查询不重叠的段直接跳过，
+ * 主体条件按字段字节比较，只为命中的记录解码字符串。
+ * 可与写入进程并发使用：正在写入的段只读到打开时已写入的记录，扫描期间被保留策略删除的段会被跳过。
+ */
+public class AuthAuditReader {
+
+    private final Path directory;
+
+    public AuthAuditReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param fromMillis 起始时间（含）
+     * @param toMillis   结束时间（含）
+     * @param principal  主体（用户名），null 表示不限；超过字段容量时按写入时相同的方式截断后比较
+     * @param limit      最多返回的条数
+     * @return 按写入顺序排列的记录
+     */
+    public List<AuditRecord> scan(long fromMillis, long toMillis, String principal, int limit) {
+        List<AuditRecord> result = new ArrayList<AuditRecord>();
+        byte[] principalBytes = principal == null ? null
+                : JournalSegment.encode(principal, JournalSegment.PRINCIPAL_CAPACITY);
+        try {
+            for (Path file : JournalSegment.list(directory)) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                JournalSegment segment;
+                try {
+                    segment = JournalSegment.openReadOnly(file);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                try {
+                    if (segment.overlaps(fromMillis, toMillis)) {
+                        scanSegment(segment, fromMillis, toMillis, principalBytes, limit, result);
+                    }
+                } finally {
+                    segment.close();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read audit journal in " + directory, e);
+        }
+        return result;
+    }
+
+    /**
+     * 从最新的记录往前，收集 sinceMillis 之后发生过 type 事件的不同主体，最多 limit 个，
+     * 用于找出近期活跃的用户（如 JdbcPrincipalRealm 的授权缓存预热）。
+     *
+     * @return 按最近一次事件由新到旧排列的主体
+     */
+    public Set<String> recentPrincipals(AuthEventType type, long sinceMillis, int limit) {
+        Set<String> principals = new LinkedHashSet<String>();
+        try {
+            List<Path> files = JournalSegment.list(directory);
+            for (int s = files.size() - 1; s >= 0 && principals.size() < limit; s--) {
+                JournalSegment segment;
+                try {
+                    segment = JournalSegment.openReadOnly(files.get(s));
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                try {
+                    if (!segment.overlaps(sinceMillis, Long.MAX_VALUE)) {
+                        // 更早的段时间范围只会更旧
+                        break;
+                    }
+                    for (int i = segment.count() - 1; i >= 0 && principals.size() < limit; i--) {
+                        if (segment.typeAt(i) == type && segment.timestampAt(i) >= sinceMillis) {
+                            String principal = segment.principalAt(i);
+                            if (principal != null) {
+                                principals.add(principal);
+                            }
+                        }
+                    }
+                } finally {
+                    segment.close();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read audit journal in " + directory, e);
+        }
+        return principals;
+    }
+
+    private static void scanSegment(JournalSegment segment, long fromMillis, long toMillis, byte[] principal,
+                                    int limit, List<AuditRecord> result) {
+        for (int i = 0, n = segment.count(); i < n && result.size() < limit; i++) {
+            long timestamp = segment.timestampAt(i);
+            if (timestamp < fromMillis || timestamp > toMillis) {
+                continue;
+            }
+            if (principal != null && !segment.principalEquals(i, principal)) {
+                continue;
+            }
+            result.add(segment.read(i));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.shirolab.security.audit;
+
+/**
+ * 审计日志记录的认证事件类型，code 写入日志文件，一经发布不得修改。
+ */
+public enum AuthEventType {
+
+    /** 登录成功（会话登录与 mode=token 的无状态登录） */
+    LOGIN_SUCCESS(1),
+
+    /** 登录失败，原因见 {@link AuthFailureReason} */
+    LOGIN_FAILURE(2),
+
+    /** 登出（/logout 过滤链或 Subject#logout） */
+    LOGOUT(3);
+
+    private final byte code;
+
+    AuthEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    /**
+     * @return 对应的类型；code 为 0（未写入的槽位）或未知值时返回 null
+     */
+    public static AuthEventType fromCode(byte code) {
+        for (AuthEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
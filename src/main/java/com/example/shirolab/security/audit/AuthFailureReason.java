@@ -0,0 +1,61 @@
+package com.example.shirolab.security.audit;
+
+import com.example.shirolab.security.credential.CredentialsVerificationBusyException;
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.ExcessiveAttemptsException;
+import org.apache.shiro.authc.IncorrectCredentialsException;
+import org.apache.shiro.authc.LockedAccountException;
+import org.apache.shiro.authc.UnknownAccountException;
+
+/**
+ * 登录失败原因，按 Shiro 抛出的异常类型归类；code 写入日志文件，一经发布不得修改。
+ */
+public enum AuthFailureReason {
+
+    NONE(0),
+    UNKNOWN_ACCOUNT(1),
+    INCORRECT_CREDENTIALS(2),
+    LOCKED_ACCOUNT(3),
+    EXCESSIVE_ATTEMPTS(4),
+    /** 哈希线程池排队已满或超时（见 PooledPasswordMatcher） */
+    BUSY(5),
+    OTHER(127);
+
+    private final byte code;
+
+    AuthFailureReason(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public static AuthFailureReason fromCode(byte code) {
+        for (AuthFailureReason reason : values()) {
+            if (reason.code == code) {
+                return reason;
+            }
+        }
+        return OTHER;
+    }
+
+    public static AuthFailureReason of(AuthenticationException e) {
+        if (e instanceof UnknownAccountException) {
+            return UNKNOWN_ACCOUNT;
+        }
+        if (e instanceof IncorrectCredentialsException) {
+            return INCORRECT_CREDENTIALS;
+        }
+        if (e instanceof LockedAccountException) {
+            return LOCKED_ACCOUNT;
+        }
+        if (e instanceof ExcessiveAttemptsException) {
+            return EXCESSIVE_ATTEMPTS;
+        }
+        if (e instanceof CredentialsVerificationBusyException) {
+            return BUSY;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.shirolab.security.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 审计日志的一个段文件：创建时按容量一次性映射，记录为定长二进制布局（版本 1）。
+ * <pre>
+ *   文件头 64 字节：magic(4) version(2) recordSize(2) capacity(4) reserved(4) minMillis(8) maxMillis(8) reserved
+ *   记录 128 字节：epochMillis(8) type(1) reason(1) principalLength(1) hostLength(1)
+ *                 principal(64, UTF-8) host(48, UTF-8) reserved(4)
+ * </pre>
+ * 记录按写入顺序紧密排列，type 为 0 表示尚未写入；type 最后写入，进程中途退出时不会留下半条可见记录，
+ * 重新打开时用二分查找定位第一个空槽。文件头的 min/max 为段内记录时间范围，读取时据此跳过整段。
+ *
+ * 只有单个写线程调用 {@link #append}；只读打开的实例只看到打开时已写入的记录。
+ */
+final class JournalSegment implements Closeable {
+
+    static final String PREFIX = "auth-";
+    static final String SUFFIX = ".journal";
+
+    static final int MAGIC = 0x53484A31;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 128;
+    static final int PRINCIPAL_CAPACITY = 64;
+    static final int HOST_CAPACITY = 48;
+
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_RECORD_SIZE = 6;
+    private static final int H_CAPACITY = 8;
+    private static final int H_MIN_MILLIS = 16;
+    private static final int H_MAX_MILLIS = 24;
+
+    private static final int R_MILLIS = 0;
+    private static final int R_TYPE = 8;
+    private static final int R_REASON = 9;
+    private static final int R_PRINCIPAL_LENGTH = 10;
+    private static final int R_HOST_LENGTH = 11;
+    private static final int R_PRINCIPAL = 12;
+    private static final int R_HOST = R_PRINCIPAL + PRINCIPAL_CAPACITY;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private int count;
+    private long minMillis;
+    private long maxMillis;
+
+    private JournalSegment(Path file, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.count = findEnd(buffer, capacity);
+        this.minMillis = buffer.getLong(H_MIN_MILLIS);
+        this.maxMillis = buffer.getLong(H_MAX_MILLIS);
+    }
+
+    static JournalSegment create(Path file, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) capacity * RECORD_SIZE);
+            buffer.putInt(H_MAGIC, MAGIC);
+            buffer.putShort(H_VERSION, VERSION);
+            buffer.putShort(H_RECORD_SIZE, (short) RECORD_SIZE);
+            buffer.putInt(H_CAPACITY, capacity);
+            buffer.putLong(H_MIN_MILLIS, Long.MAX_VALUE);
+            buffer.putLong(H_MAX_MILLIS, Long.MIN_VALUE);
+            return new JournalSegment(file, channel, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static JournalSegment openForAppend(Path file) throws IOException {
+        return open(file, FileChannel.MapMode.READ_WRITE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    static JournalSegment openReadOnly(Path file) throws IOException {
+        return open(file, FileChannel.MapMode.READ_ONLY, StandardOpenOption.READ);
+    }
+
+    private static JournalSegment open(Path file, FileChannel.MapMode mode, StandardOpenOption... options)
+            throws IOException {
+        FileChannel channel = FileChannel.open(file, options);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("not an audit journal segment: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(mode, 0, size);
+            int capacity = buffer.getInt(H_CAPACITY);
+            if (buffer.getInt(H_MAGIC) != MAGIC || buffer.getShort(H_VERSION) != VERSION
+                    || buffer.getShort(H_RECORD_SIZE) != RECORD_SIZE || capacity < 0
+                    || HEADER_SIZE + (long) capacity * RECORD_SIZE != size) {
+                throw new IOException("not an audit journal segment: " + file);
+            }
+            return new JournalSegment(file, channel, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 目录中的段文件，按段序号（即文件名）升序。目录不存在时返回空列表。
+     */
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<Path>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    static String fileName(long index) {
+        return String.format("%s%012d%s", PREFIX, index, SUFFIX);
+    }
+
+    static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * 按 UTF-8 编码并截断到 maxBytes（不截断在多字节字符中间）。
+     */
+    static byte[] encode(String value, int maxBytes) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= maxBytes) {
+            return bytes;
+        }
+        int end = maxBytes;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        byte[] truncated = new byte[end];
+        System.arraycopy(bytes, 0, truncated, 0, end);
+        return truncated;
+    }
+
+    /**
+     * 追加一条记录（principal/host 已按字段容量截断）。
+     *
+     * @return 段已满时返回 false
+     */
+    boolean append(long epochMillis, AuthEventType type, AuthFailureReason reason, byte[] principal, byte[] host) {
+        if (count == capacity) {
+            return false;
+        }
+        int offset = HEADER_SIZE + count * RECORD_SIZE;
+        buffer.putLong(offset + R_MILLIS, epochMillis);
+        buffer.put(offset + R_REASON, reason.code());
+        buffer.put(offset + R_PRINCIPAL_LENGTH, (byte) principal.length);
+        buffer.put(offset + R_HOST_LENGTH, (byte) host.length);
+        for (int i = 0; i < principal.length; i++) {
+            buffer.put(offset + R_PRINCIPAL + i, principal[i]);
+        }
+        for (int i = 0; i < host.length; i++) {
+            buffer.put(offset + R_HOST + i, host[i]);
+        }
+        buffer.put(offset + R_TYPE, type.code());
+        count++;
+        if (epochMillis < minMillis) {
+            minMillis = epochMillis;
+            buffer.putLong(H_MIN_MILLIS, epochMillis);
+        }
+        if (epochMillis > maxMillis) {
+            maxMillis = epochMillis;
+            buffer.putLong(H_MAX_MILLIS, epochMillis);
+        }
+        return true;
+    }
+
+    boolean overlaps(long fromMillis, long toMillis) {
+        return count > 0 && minMillis <= toMillis && maxMillis >= fromMillis;
+    }
+
+    long timestampAt(int index) {
+        return buffer.getLong(HEADER_SIZE + index * RECORD_SIZE + R_MILLIS);
+    }
+
+    AuthEventType typeAt(int index) {
+        return AuthEventType.fromCode(buffer.get(HEADER_SIZE + index * RECORD_SIZE + R_TYPE));
+    }
+
+    String principalAt(int index) {
+        int offset = HEADER_SIZE + index * RECORD_SIZE;
+        return readString(offset + R_PRINCIPAL, buffer.get(offset + R_PRINCIPAL_LENGTH) & 0xFF);
+    }
+
+    /**
+     * 直接比较字段字节，不解码字符串。
+     */
+    boolean principalEquals(int index, byte[] principal) {
+        int offset = HEADER_SIZE + index * RECORD_SIZE;
+        if ((buffer.get(offset + R_PRINCIPAL_LENGTH) & 0xFF) != principal.length) {
+            return false;
+        }
+        for (int i = 0; i < principal.length; i++) {
+            if (buffer.get(offset + R_PRINCIPAL + i) != principal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    AuditRecord read(int index) {
+        int offset = HEADER_SIZE + index * RECORD_SIZE;
+        return new AuditRecord(buffer.getLong(offset + R_MILLIS),
+                AuthEventType.fromCode(buffer.get(offset + R_TYPE)),
+                AuthFailureReason.fromCode(buffer.get(offset + R_REASON)),
+                readString(offset + R_PRINCIPAL, buffer.get(offset + R_PRINCIPAL_LENGTH) & 0xFF),
+                readString(offset + R_HOST, buffer.get(offset + R_HOST_LENGTH) & 0xFF));
+    }
+
+    private String readString(int offset, int length) {
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int count() {
+        return count;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static int findEnd(MappedByteBuffer buffer, int capacity) {
+        int low = 0;
+        int high = capacity;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.get(HEADER_SIZE + mid * RECORD_SIZE + R_TYPE) != 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.shirolab.security.authz;
+
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.authz.UnauthenticatedException;
+import org.apache.shiro.authz.annotation.Logical;
+import org.apache.shiro.authz.annotation.RequiresAuthentication;
+import org.apache.shiro.authz.annotation.RequiresGuest;
+import org.apache.shiro.authz.annotation.RequiresPermissions;
+import org.apache.shiro.authz.annotation.RequiresRoles;
+import org.apache.shiro.authz.annotation.RequiresUser;
+import org.apache.shiro.subject.Subject;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一个方法解析完成的授权要求：由方法/类上的 @RequiresRoles、@RequiresPermissions、
+ * @RequiresAuthentication、@RequiresUser、@RequiresGuest 一次性编译成的检查序列，创建后不可变。
+ *
+ * 注解查找与 Shiro 的 SpringAnnotationResolver 一致（方法、目标类上的具体方法、目标类），
+ * 检查顺序、逻辑与异常信息与 AnnotationsAuthorizingMethodInterceptor 的五个处理器一致，
+ * 只是不再在每次调用时反射查找注解。
+ */
+public final class AuthorizationRequirement {
+
+    public static final AuthorizationRequirement NONE = new AuthorizationRequirement(new Check[0]);
+
+    private final Check[] checks;
+
+    private AuthorizationRequirement(Check[] checks) {
+        this.checks = checks;
+    }
+
+    /**
+     * @param targetClass 被代理的目标类，可为 null
+     * @return 没有任何 Shiro 授权注解时返回 {@link #NONE}
+     */
+    public static AuthorizationRequirement resolve(Method method, Class<?> targetClass) {
+        List<Check> checks = new ArrayList<Check>(2);
+        RequiresRoles roles = find(method, targetClass, RequiresRoles.class);
+        if (roles != null) {
+            checks.add(new RolesCheck(roles.value(), roles.logical()));
+        }
+        RequiresPermissions permissions = find(method, targetClass, RequiresPermissions.class);
+        if (permissions != null) {
+            checks.add(new PermissionsCheck(permissions.value(), permissions.logical()));
+        }
+        if (find(method, targetClass, RequiresAuthentication.class) != null) {
+            checks.add(AUTHENTICATED);
+        }
+        if (find(method, targetClass, RequiresUser.class) != null) {
+            checks.add(USER);
+        }
+        if (find(method, targetClass, RequiresGuest.class) != null) {
+            checks.add(GUEST);
+        }
+        return checks.isEmpty() ? NONE : new AuthorizationRequirement(checks.toArray(new Check[0]));
+    }
+
+    public boolean isEmpty() {
+        return checks.length == 0;
+    }
+
+    /**
+     * 对当前线程的 Subject 做检查。
+     */
+    public void assertAuthorized() {
+        if (checks.length != 0) {
+            assertAuthorized(SecurityUtils.getSubject());
+        }
+    }
+
+    public void assertAuthorized(Subject subject) {
+        for (Check check : checks) {
+            check.check(subject);
+        }
+    }
+
+    private static <A extends Annotation> A find(Method method, Class<?> targetClass, Class<A> type) {
+        A annotation = AnnotationUtils.findAnnotation(method, type);
+        if (annotation != null || targetClass == null) {
+            return annotation;
+        }
+        Method specific = ClassUtils.getMostSpecificMethod(method, targetClass);
+        if (specific != method) {
+            annotation = AnnotationUtils.findAnnotation(specific, type);
+            if (annotation != null) {
+                return annotation;
+            }
+        }
+        return AnnotationUtils.findAnnotation(targetClass, type);
+    }
+
+    private interface Check {
+        void check(Subject subject);
+    }
+
+    private static final Check AUTHENTICATED = subject -> {
+        if (!subject.isAuthenticated()) {
+            throw new UnauthenticatedException("The current Subject is not authenticated.  Access denied.");
+        }
+    };
+
+    private static final Check USER = subject -> {
+        if (subject.getPrincipal() == null) {
+            throw new UnauthenticatedException("Attempting to perform a user-only operation.  The current Subject is "
+                    + "not a user (they haven't been authenticated or remembered from a previous login).  Access denied.");
+        }
+    };
+
+    private static final Check GUEST = subject -> {
+        if (subject.getPrincipal() != null) {
+            throw new UnauthenticatedException("Attempting to perform a guest-only operation.  The current Subject is "
+                    + "not a guest (they have been authenticated or remembered from a previous login).  Access denied.");
+        }
+    };
+
+    private static final class RolesCheck implements Check {
+        private final String[] roles;
+        private final List<String> roleList;
+        private final boolean any;
+
+        RolesCheck(String[] roles, Logical logical) {
+            this.roles = roles.clone();
+            this.roleList = Collections.unmodifiableList(Arrays.asList(this.roles));
+            this.any = logical == Logical.OR && roles.length > 1;
+        }
+
+        @Override
+        public void check(Subject subject) {
+            if (roles.length == 1) {
+                subject.checkRole(roles[0]);
+            } else if (!any) {
+                subject.checkRoles(roleList);
+            } else {
+                for (String role : roles) {
+                    if (subject.hasRole(role)) {
+                        return;
+                    }
+                }
+                // 与 RoleAnnotationHandler 相同：一个都不满足时以第一个角色抛出
+                subject.checkRole(roles[0]);
+            }
+        }
+    }
+
+    private static final class PermissionsCheck implements Check {
+        private final String[] permissions;
+        private final boolean any;
+
+        PermissionsCheck(String[] permissions, Logical logical) {
+            this.permissions = permissions.clone();
+            this.any = logical == Logical.OR && permissions.length > 1;
+        }
+
+        @Override
+        public void check(Subject subject) {
+            if (permissions.length == 1) {
+                subject.checkPermission(permissions[0]);
+            } else if (!any) {
+                subject.checkPermissions(permissions);
+            } else {
+                for (String permission : permissions) {
+                    if (subject.isPermitted(permission)) {
+                        return;
+                    }
+                }
+                subject.checkPermission(permissions[0]);
+            }
+        }
+    }
+}
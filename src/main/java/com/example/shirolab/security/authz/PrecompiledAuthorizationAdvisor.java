@@ -0,0 +1,61 @@
+package com.example.shirolab.security.authz;
+
+import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+import org.springframework.core.MethodClassKey;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 替换 shiro-spring 的 AuthorizationAttributeSourceAdvisor：在 Spring 创建代理、逐个方法调用
+ * {@link #matches(Method, Class)} 时就把授权注解解析成 {@link AuthorizationRequirement} 记入方法表，
+ * 运行期的 {@link PrecompiledAuthorizationInterceptor} 只做一次查表加 Realm 检查。
+ *
+ * 代理都在容器启动阶段创建，因此方法表在启动完成后不再增长；
+ * 只有启动后才出现的 (方法, 目标类) 组合才会在第一次调用时补充解析一次。
+ */
+public class PrecompiledAuthorizationAdvisor extends StaticMethodMatcherPointcutAdvisor {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Map<MethodClassKey, AuthorizationRequirement> requirements =
+            new ConcurrentHashMap<MethodClassKey, AuthorizationRequirement>();
+
+    public PrecompiledAuthorizationAdvisor() {
+        setAdvice(new PrecompiledAuthorizationInterceptor(this));
+    }
+
+    /**
+     * 自动代理会对容器里每个 Bean 的每个方法调用一次，只有带授权注解的方法才记入方法表。
+     */
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        AuthorizationRequirement requirement = AuthorizationRequirement.resolve(method, targetClass);
+        if (requirement.isEmpty()) {
+            return false;
+        }
+        requirements.put(new MethodClassKey(method, targetClass), requirement);
+        return true;
+    }
+
+    /**
+     * 查表；未命中时解析并记入。
+     */
+    public AuthorizationRequirement requirementFor(Method method, Class<?> targetClass) {
+        MethodClassKey key = new MethodClassKey(method, targetClass);
+        AuthorizationRequirement requirement = requirements.get(key);
+        if (requirement == null) {
+            requirement = AuthorizationRequirement.resolve(method, targetClass);
+            requirements.put(key, requirement);
+        }
+        return requirement;
+    }
+
+    /**
+     * @return 方法表中的条目数
+     */
+    public int size() {
+        return requirements.size();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.shirolab.security.authz;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.shiro.authz.AuthorizationException;
+import org.springframework.aop.support.AopUtils;
+
+/**
+ * 按 {@link PrecompiledAuthorizationAdvisor} 的方法表做授权检查后再调用目标方法。
+ *
+ * 异常与 Shiro 的 AuthorizingAnnotationMethodInterceptor 一致：原样抛出 AuthorizationException，
+ * 没有 cause 时补一个指明被调用方法的 cause。
+ */
+public class PrecompiledAuthorizationInterceptor implements MethodInterceptor {
+
+    private final PrecompiledAuthorizationAdvisor advisor;
+
+    public PrecompiledAuthorizationInterceptor(PrecompiledAuthorizationAdvisor advisor) {
+        this.advisor = advisor;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object target = invocation.getThis();
+        AuthorizationRequirement requirement = advisor.requirementFor(invocation.getMethod(),
+                target == null ? null : AopUtils.getTargetClass(target));
+        try {
+            requirement.assertAuthorized();
+        } catch (AuthorizationException e) {
+            if (e.getCause() == null) {
+                e.initCause(new AuthorizationException("Not authorized to invoke method: " + invocation.getMethod()));
+            }
+            throw e;
+        }
+        return invocation.proceed();
+    }
+}
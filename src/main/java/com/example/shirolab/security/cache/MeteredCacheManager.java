@@ -0,0 +1,138 @@
+package com.example.shirolab.security.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.shiro.cache.Cache;
+import org.apache.shiro.cache.CacheException;
+import org.apache.shiro.cache.CacheManager;
+import org.apache.shiro.util.Destroyable;
+import org.apache.shiro.util.LifecycleUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 为任意 Shiro CacheManager（如 EhCacheManager）加上命中/未命中计数的装饰器。
+ *
+ * 每个缓存以 cache 标签注册到 actuator metrics：shiro.cache.gets{result=hit|miss}、shiro.cache.size。
+ * 注册表绑定之后才创建的缓存也会在创建时补注册。
+ */
+public class MeteredCacheManager implements CacheManager, Destroyable, MeterBinder {
+
+    private final CacheManager delegate;
+    private final ConcurrentMap<String, MeteredCache<?, ?>> caches = new ConcurrentHashMap<String, MeteredCache<?, ?>>();
+    private volatile MeterRegistry registry;
+
+    public MeteredCacheManager(CacheManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Cache<K, V> getCache(String name) throws CacheException {
+        MeteredCache<?, ?> cache = caches.get(name);
+        if (cache == null) {
+            MeteredCache<K, V> created = new MeteredCache<K, V>(delegate.<K, V>getCache(name));
+            cache = caches.putIfAbsent(name, created);
+            if (cache == null) {
+                cache = created;
+                MeterRegistry current = this.registry;
+                if (current != null) {
+                    register(current, name, created);
+                }
+            }
+        }
+        return (Cache<K, V>) cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        for (Map.Entry<String, MeteredCache<?, ?>> entry : caches.entrySet()) {
+            register(registry, entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        LifecycleUtils.destroy(delegate);
+    }
+
+    private static void register(MeterRegistry registry, String name, MeteredCache<?, ?> cache) {
+        FunctionCounter.builder("shiro.cache.gets", cache, MeteredCache::hitCount)
+                .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("shiro.cache.gets", cache, MeteredCache::missCount)
+                .tag("cache", name).tag("result", "miss").register(registry);
+        Gauge.builder("shiro.cache.size", cache, MeteredCache::sizeForMetrics)
+                .tag("cache", name).register(registry);
+    }
+
+    static final class MeteredCache<K, V> implements Cache<K, V> {
+        private final Cache<K, V> delegate;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        MeteredCache(Cache<K, V> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public V get(K key) throws CacheException {
+            V value = delegate.get(key);
+            if (value == null) {
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+            return value;
+        }
+
+        @Override
+        public V put(K key, V value) throws CacheException {
+            return delegate.put(key, value);
+        }
+
+        @Override
+        public V remove(K key) throws CacheException {
+            return delegate.remove(key);
+        }
+
+        @Override
+        public void clear() throws CacheException {
+            delegate.clear();
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public Set<K> keys() {
+            return delegate.keys();
+        }
+
+        @Override
+        public Collection<V> values() {
+            return delegate.values();
+        }
+
+        long hitCount() {
+            return hits.sum();
+        }
+
+        long missCount() {
+            return misses.sum();
+        }
+
+        double sizeForMetrics() {
+            return delegate.size();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.shirolab.security.credential;
+
+import org.apache.shiro.authc.AuthenticationException;
+
+/**
+ * 哈希线程池已满或等待超时，本次登录未做校验；调用方应返回 503 并让客户端稍后重试。
+ */
+public class CredentialsVerificationBusyException extends AuthenticationException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CredentialsVerificationBusyException(String message) {
+        super(message);
+    }
+}
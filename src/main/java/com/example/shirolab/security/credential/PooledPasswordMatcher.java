@@ -0,0 +1,214 @@
+package com.example.shirolab.security.credential;
+
+import com.example.shirolab.support.BoundedCache;
+import com.example.shirolab.support.Sha256Key;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.credential.CredentialsMatcher;
+import org.apache.shiro.crypto.hash.Hash;
+import org.apache.shiro.crypto.hash.SimpleHash;
+import org.apache.shiro.crypto.hash.format.Shiro1CryptFormat;
+import org.apache.shiro.util.Destroyable;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 口令校验器：加盐迭代哈希在专用的有界线程池上计算，Tomcat 请求线程只等待结果。
+ *
+ * 存储格式为 Shiro1 crypt 格式，例如 {@code $shiro1$SHA-256$500000$<base64 salt>$<base64 hash>}，
+ * 可由 {@code new DefaultPasswordService().encryptPassword("admin123")} 生成后写入 shiro.ini 的 [users]。
+ * 不以 {@code $shiro1$} 开头的口令按明文处理（常量时间比较），便于逐个用户迁移。
+ *
+ * - 背压：线程池队列满或等待超过 timeout 时抛出 {@link CredentialsVerificationBusyException}，不在请求线程上退化为同步计算；
+ * - 校验成功的 (存储口令, 提交口令) 以 SHA-256 摘要为 key 缓存 ttl 毫秒，同一用户短时间内重复登录不再走迭代哈希；
+ *   key 含存储口令，用户改密（ini 热加载）后旧条目自然失效。失败结果不缓存。
+ */
+public class PooledPasswordMatcher implements CredentialsMatcher, Destroyable, MeterBinder {
+
+    private static final String SHIRO1_PREFIX = Shiro1CryptFormat.MCF_PREFIX;
+
+    private final ThreadPoolExecutor pool;
+    private final long timeoutMillis;
+    private final BoundedCache<Sha256Key, Boolean> verified;
+    private final Shiro1CryptFormat format = new Shiro1CryptFormat();
+
+    private final LongAdder hashed = new LongAdder();
+    private final LongAdder cached = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param threads 哈希线程数，&lt;= 0 时取 CPU 核数
+     * @param queueCapacity 等待哈希的登录请求上限
+     * @param timeoutMillis 请求线程等待哈希结果的最长时间
+     * @param cacheMaxSize 校验成功缓存容量，&lt;= 0 关闭
+     * @param cacheTtlMillis 校验成功缓存的存活时间，&lt;= 0 关闭
+     */
+    public PooledPasswordMatcher(int threads, int queueCapacity, long timeoutMillis, int cacheMaxSize, long cacheTtlMillis) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger sequence = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(Math.max(1, queueCapacity)), r -> {
+                    Thread thread = new Thread(r, "credential-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        this.verified = cacheMaxSize > 0 && cacheTtlMillis > 0
+                ? new BoundedCache<Sha256Key, Boolean>(cacheMaxSize, cacheTtlMillis)
+                : null;
+    }
+
+    @Override
+    public boolean doCredentialsMatch(AuthenticationToken token, AuthenticationInfo info) {
+        byte[] submitted = toBytes(token.getCredentials());
+        String stored = toString(info.getCredentials());
+        try {
+            if (submitted == null || stored == null) {
+                return false;
+            }
+            if (!stored.startsWith(SHIRO1_PREFIX)) {
+                return MessageDigest.isEqual(submitted, stored.getBytes(StandardCharsets.UTF_8));
+            }
+            Sha256Key key = verified == null ? null : verificationKey(stored, submitted);
+            if (key != null && verified.get(key) != null) {
+                cached.increment();
+                return true;
+            }
+            boolean match = verifyOnPool(stored, submitted);
+            if (match && key != null) {
+                verified.put(key, Boolean.TRUE);
+            }
+            return match;
+        } finally {
+            if (submitted != null) {
+                Arrays.fill(submitted, (byte) 0);
+            }
+        }
+    }
+
+    private boolean verifyOnPool(final String stored, byte[] submitted) {
+        final byte[] copy = submitted.clone();
+        Future<Boolean> result;
+        try {
+            result = pool.submit(() -> {
+                try {
+                    return verify(stored, copy);
+                } finally {
+                    Arrays.fill(copy, (byte) 0);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new CredentialsVerificationBusyException("Credential hashing pool is saturated");
+        }
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.increment();
+            throw new CredentialsVerificationBusyException("Timed out waiting for credential hashing");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CredentialsVerificationBusyException("Interrupted while waiting for credential hashing");
+        } catch (ExecutionException e) {
+            throw new AuthenticationException("Unable to verify credentials", e.getCause());
+        }
+    }
+
+    /**
+     * 按存储口令中的算法、盐与迭代次数重新计算并常量时间比较。
+     */
+    boolean verify(String stored, byte[] submitted) {
+        Hash saved = format.parse(stored);
+        SimpleHash computed = new SimpleHash(saved.getAlgorithmName(), submitted, saved.getSalt(), saved.getIterations());
+        hashed.increment();
+        return MessageDigest.isEqual(saved.getBytes(), computed.getBytes());
+    }
+
+    public long getHashedCount() {
+        return hashed.sum();
+    }
+
+    public long getCachedCount() {
+        return cached.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("shiro.credentials.verifications", hashed, LongAdder::sum)
+                .tag("result", "hashed").register(registry);
+        FunctionCounter.builder("shiro.credentials.verifications", cached, LongAdder::sum)
+                .tag("result", "cached").register(registry);
+        FunctionCounter.builder("shiro.credentials.verifications", rejected, LongAdder::sum)
+                .tag("result", "rejected").register(registry);
+        Gauge.builder("shiro.credentials.queue", pool, p -> p.getQueue().size()).register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private static byte[] toBytes(Object credentials) {
+        if (credentials instanceof char[]) {
+            ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap((char[]) credentials));
+            byte[] bytes = new byte[encoded.remaining()];
+            encoded.get(bytes);
+            if (encoded.hasArray()) {
+                Arrays.fill(encoded.array(), (byte) 0);
+            }
+            return bytes;
+        }
+        if (credentials instanceof String) {
+            return ((String) credentials).getBytes(StandardCharsets.UTF_8);
+        }
+        if (credentials instanceof byte[]) {
+            return ((byte[]) credentials).clone();
+        }
+        return null;
+    }
+
+    private static String toString(Object credentials) {
+        if (credentials instanceof String) {
+            return (String) credentials;
+        }
+        if (credentials instanceof char[]) {
+            return new String((char[]) credentials);
+        }
+        return null;
+    }
+
+    /**
+     * SHA-256(存储口令 || 0 || 提交口令)。
+     */
+    private static Sha256Key verificationKey(String stored, byte[] submitted) {
+        MessageDigest md = Sha256Key.digest();
+        md.update(stored.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        md.update(submitted);
+        return Sha256Key.of(md);
+    }
+}
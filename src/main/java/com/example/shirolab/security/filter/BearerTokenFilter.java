@@ -0,0 +1,92 @@
+package com.example.shirolab.security.filter;
+
+import com.example.shirolab.security.token.SignedTokenService;
+import com.example.shirolab.security.token.TokenClaims;
+import com.example.shirolab.security.token.TokenSubject;
+import org.apache.shiro.mgt.SecurityManager;
+import org.apache.shiro.subject.ExecutionException;
+import org.apache.shiro.web.filter.PathMatchingFilter;
+import org.apache.shiro.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 无状态令牌过滤器，在过滤链定义中以 token 引用，例如 {@code /admin/** = token, user, roles[admin]}。
+ *
+ * - 请求带 {@code Authorization: Bearer <token>} 且验签通过：其后的过滤器与处理方法都运行在 {@link TokenSubject} 下，
+ *   user/roles 过滤器与 @RequiresRoles 直接读取令牌中的主体与角色；
+ * - 令牌无效或过期：直接返回 401，不退回会话/rememberMe；
+ * - 没有 Bearer 头：原样放行，由后续过滤器按会话/rememberMe 处理。
+ */
+public class BearerTokenFilter extends PathMatchingFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String SUBJECT_ATTRIBUTE = BearerTokenFilter.class.getName() + ".SUBJECT";
+
+    private final SignedTokenService tokenService;
+    private final SecurityManager securityManager;
+    private final String realmName;
+
+    public BearerTokenFilter(SignedTokenService tokenService, SecurityManager securityManager, String realmName) {
+        this.tokenService = tokenService;
+        this.securityManager = securityManager;
+        this.realmName = realmName;
+    }
+
+    @Override
+    protected boolean onPreHandle(ServletRequest request, ServletResponse response, Object mappedValue) throws Exception {
+        String authorization = WebUtils.toHttp(request).getHeader("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return true;
+        }
+        TokenClaims claims = tokenService.verify(authorization.substring(BEARER_PREFIX.length()).trim());
+        if (claims == null) {
+            HttpServletResponse httpResponse = WebUtils.toHttp(response);
+            httpResponse.setHeader("WWW-Authenticate", "Bearer error=\"invalid_token\"");
+            httpResponse.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return false;
+        }
+        request.setAttribute(SUBJECT_ATTRIBUTE, new TokenSubject(claims, realmName, request, response, securityManager));
+        return true;
+    }
+
+    /**
+     * 在令牌 Subject 下执行链的剩余部分，结束后恢复 AbstractShiroFilter 绑定的原 Subject。
+     */
+    @Override
+    protected void executeChain(final ServletRequest request, final ServletResponse response, final FilterChain chain)
+            throws Exception {
+        Object subject = request.getAttribute(SUBJECT_ATTRIBUTE);
+        if (!(subject instanceof TokenSubject)) {
+            super.executeChain(request, response, chain);
+            return;
+        }
+        request.removeAttribute(SUBJECT_ATTRIBUTE);
+        try {
+            ((TokenSubject) subject).execute(() -> {
+                chain.doFilter(request, response);
+                return null;
+            });
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof ServletException) {
+                throw (ServletException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.shirolab.security.filter;
+
+import com.example.shirolab.support.BoundedCache;
+import org.apache.shiro.util.StringUtils;
+import org.apache.shiro.web.filter.mgt.FilterChainManager;
+import org.apache.shiro.web.filter.mgt.PathMatchingFilterChainResolver;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的过滤链解析器，替换 ShiroFilterFactoryBean 默认的 PathMatchingFilterChainResolver。
+ *
+ * 默认实现对每个请求按定义顺序逐条执行 AntPathMatcher，成本随规则数线性增长。这里在启动时：
+ * 1) 按与 AntPathMatcher 相同的方式（StringUtils.tokenizeToStringArray，去空白、忽略空段）拆分每条规则；
+ * 2) 取规则开头不含 * / ? 的字面量段作为前缀，插入按路径段索引的前缀树，节点上记录规则序号（升序）。
+ *
+ * 请求到来时只沿请求路径的各段走一遍前缀树，收集沿途节点上的候选规则，
+ * 再按序号从小到大用原 PatternMatcher 精确校验，第一个命中的即为结果，
+ * 因此匹配语义（包括尾部 / 等细节）与逐条匹配完全一致，仍是“先定义先命中”。
+ *
+ * 解析结果按请求路径缓存在有界 LRU 中（cacheSize &lt;= 0 时关闭缓存），
+ * 过滤链定义变化后需调用 {@link #compile()} 重新编译并清空缓存。
+ */
+public class CompiledFilterChainResolver extends PathMatchingFilterChainResolver {
+
+    private static final String PATH_SEPARATOR = "/";
+    private static final String NO_MATCH = "\u0000";
+
+    private final BoundedCache<String, String> resolved;
+
+    // 前缀树构建完成后整体替换，请求线程看到的始终是完整的一份
+    private volatile Compiled compiled;
+
+    public CompiledFilterChainResolver(FilterChainManager filterChainManager, int cacheSize) {
+        setFilterChainManager(filterChainManager);
+        this.resolved = cacheSize > 0 ? new BoundedCache<String, String>(cacheSize, 0) : null;
+        compile();
+    }
+
+    /**
+     * 根据 FilterChainManager 当前的链定义重建前缀树。
+     */
+    public void compile() {
+        List<String> names = new ArrayList<String>(getFilterChainManager().getChainNames());
+        Node root = new Node();
+        for (int i = 0; i < names.size(); i++) {
+            String[] tokens = StringUtils.tokenizeToStringArray(names.get(i), PATH_SEPARATOR);
+            Node node = root;
+            for (String token : tokens) {
+                if (token.indexOf('*') >= 0 || token.indexOf('?') >= 0) {
+                    break;
+                }
+                node = node.child(token);
+            }
+            node.addRule(i);
+        }
+        this.compiled = new Compiled(names.toArray(new String[0]), root);
+        if (resolved != null) {
+            resolved.clear();
+        }
+    }
+
+    @Override
+    public FilterChain getChain(ServletRequest request, ServletResponse response, FilterChain originalChain) {
+        FilterChainManager filterChainManager = getFilterChainManager();
+        if (!filterChainManager.hasChains()) {
+            return null;
+        }
+        String chainName = resolve(getPathWithinApplication(request));
+        return chainName == null ? null : filterChainManager.proxy(originalChain, chainName);
+    }
+
+    /**
+     * 返回请求路径命中的第一条链定义（即链名），没有命中时返回 null。
+     */
+    public String resolve(String requestURI) {
+        if (resolved == null) {
+            return match(requestURI);
+        }
+        String chainName = resolved.get(requestURI);
+        if (chainName == null) {
+            chainName = match(requestURI);
+            resolved.put(requestURI, chainName == null ? NO_MATCH : chainName);
+            return chainName;
+        }
+        return NO_MATCH.equals(chainName) ? null : chainName;
+    }
+
+    /**
+     * 启动预热：对每条规则的字面量前缀执行一次匹配（不写入解析缓存），让前缀树与 PatternMatcher 提前加载、编译。
+     *
+     * @return 参与预热的规则数
+     */
+    public int warmUp() {
+        Compiled c = this.compiled;
+        for (String name : c.names) {
+            StringBuilder path = new StringBuilder();
+            for (String token : StringUtils.tokenizeToStringArray(name, PATH_SEPARATOR)) {
+                if (token.indexOf('*') >= 0 || token.indexOf('?') >= 0) {
+                    break;
+                }
+                path.append(PATH_SEPARATOR).append(token);
+            }
+            match(path.length() == 0 ? PATH_SEPARATOR : path.toString());
+        }
+        return c.names.length;
+    }
+
+    private String match(String requestURI) {
+        Compiled c = this.compiled;
+        int best = Integer.MAX_VALUE;
+        Node node = c.root;
+        String[] tokens = StringUtils.tokenizeToStringArray(requestURI, PATH_SEPARATOR);
+        for (int depth = 0; ; depth++) {
+            best = firstMatch(c, node.rules, requestURI, best);
+            if (depth == tokens.length || node.children == null) {
+                break;
+            }
+            node = node.children.get(tokens[depth]);
+            if (node == null) {
+                break;
+            }
+        }
+        return best == Integer.MAX_VALUE ? null : c.names[best];
+    }
+
+    private int firstMatch(Compiled c, int[] rules, String requestURI, int best) {
+        for (int rule : rules) {
+            if (rule >= best) {
+                break;
+            }
+            if (pathMatches(c.names[rule], requestURI)) {
+                return rule;
+            }
+        }
+        return best;
+    }
+
+    private static final class Compiled {
+        final String[] names;
+        final Node root;
+
+        Compiled(String[] names, Node root) {
+            this.names = names;
+            this.root = root;
+        }
+    }
+
+    private static final class Node {
+        private static final int[] NONE = new int[0];
+
+        Map<String, Node> children;
+        int[] rules = NONE;
+
+        Node child(String token) {
+            if (children == null) {
+                children = new HashMap<String, Node>();
+            }
+            Node child = children.get(token);
+            if (child == null) {
+                child = new Node();
+                children.put(token, child);
+            }
+            return child;
+        }
+
+        void addRule(int rule) {
+            // 规则按序号递增插入，数组天然有序
+            rules = Arrays.copyOf(rules, rules.length + 1);
+            rules[rules.length - 1] = rule;
+        }
+    }
+}
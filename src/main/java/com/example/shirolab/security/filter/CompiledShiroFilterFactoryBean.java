@@ -0,0 +1,47 @@
+package com.example.shirolab.security.filter;
+
+import com.example.shirolab.metrics.ShiroPhaseTimer;
+import org.apache.shiro.spring.web.ShiroFilterFactoryBean;
+import org.apache.shiro.web.filter.mgt.FilterChainResolver;
+import org.apache.shiro.web.filter.mgt.PathMatchingFilterChainResolver;
+import org.apache.shiro.web.servlet.AbstractShiroFilter;
+
+/**
+ * 生成的 shiroFilter 使用 {@link CompiledFilterChainResolver} 解析过滤链。
+ *
+ * 父类已按 filterChainDefinitionMap 构建好 FilterChainManager，这里只替换解析器，
+ * 过滤器实例、loginUrl 等全局属性的处理保持不变。
+ *
+ * 设置了 {@link ShiroPhaseTimer} 时改为生成 {@link TimedShiroFilter}，按阶段记录 Shiro 的耗时。
+ */
+public class CompiledShiroFilterFactoryBean extends ShiroFilterFactoryBean {
+
+    private final int resolvedCacheSize;
+
+    private ShiroPhaseTimer phaseTimer;
+
+    public CompiledShiroFilterFactoryBean(int resolvedCacheSize) {
+        this.resolvedCacheSize = resolvedCacheSize;
+    }
+
+    public void setPhaseTimer(ShiroPhaseTimer phaseTimer) {
+        this.phaseTimer = phaseTimer;
+    }
+
+    @Override
+    protected AbstractShiroFilter createInstance() throws Exception {
+        AbstractShiroFilter filter = super.createInstance();
+        FilterChainResolver resolver = filter.getFilterChainResolver();
+        if (resolver instanceof PathMatchingFilterChainResolver) {
+            PathMatchingFilterChainResolver pathMatching = (PathMatchingFilterChainResolver) resolver;
+            CompiledFilterChainResolver compiled =
+                    new CompiledFilterChainResolver(pathMatching.getFilterChainManager(), resolvedCacheSize);
+            compiled.setPathMatcher(pathMatching.getPathMatcher());
+            filter.setFilterChainResolver(compiled);
+        }
+        if (phaseTimer != null) {
+            return new TimedShiroFilter(filter.getSecurityManager(), filter.getFilterChainResolver(), phaseTimer);
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.shirolab.security.filter;
+
+import com.example.shirolab.security.token.ReturnUrlSigner;
+import org.apache.shiro.web.filter.authc.UserFilter;
+import org.apache.shiro.web.util.WebUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * 不创建会话的 user 过滤器。
+ *
+ * 默认 UserFilter 在重定向到登录页前调用 saveRequest，把原请求存进会话（匿名请求因此会新建会话），
+ * 爬虫与探活请求会留下大量只有 SavedRequest 的空会话。这里改为把原地址签名后作为 next 参数带到登录页，
+ * 登录成功后由 AuthController 校验签名再跳转；只对 GET 保留原地址，与 SavedRequest 的用法一致。
+ */
+public class SessionlessUserFilter extends UserFilter {
+
+    public static final String RETURN_PARAM = "next";
+
+    private final ReturnUrlSigner returnUrlSigner;
+
+    public SessionlessUserFilter(ReturnUrlSigner returnUrlSigner) {
+        this.returnUrlSigner = returnUrlSigner;
+    }
+
+    @Override
+    protected void saveRequestAndRedirectToLogin(ServletRequest request, ServletResponse response) throws IOException {
+        HttpServletRequest httpRequest = WebUtils.toHttp(request);
+        String signed = null;
+        if ("GET".equals(httpRequest.getMethod())) {
+            // 路径已被解码（如 %09 变成制表符），重新编码后再签名；查询串保持原样（容器未解码）
+            String path = UriComponentsBuilder.fromPath(WebUtils.getPathWithinApplication(httpRequest))
+                    .build().encode().toUriString();
+            String query = httpRequest.getQueryString();
+            signed = returnUrlSigner.sign(query == null ? path : path + '?' + query);
+        }
+        if (signed == null) {
+            redirectToLogin(request, response);
+        } else {
+            WebUtils.issueRedirect(request, response, getLoginUrl(), Collections.singletonMap(RETURN_PARAM, signed));
+        }
+    }
+}
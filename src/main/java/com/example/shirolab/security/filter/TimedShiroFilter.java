@@ -0,0 +1,153 @@
+package com.example.shirolab.security.filter;
+
+import com.example.shirolab.metrics.ShiroPhase;
+import com.example.shirolab.metrics.ShiroPhaseTimer;
+import org.apache.shiro.web.filter.mgt.FilterChainResolver;
+import org.apache.shiro.web.mgt.WebSecurityManager;
+import org.apache.shiro.web.servlet.AbstractShiroFilter;
+import org.apache.shiro.web.subject.WebSubject;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 在 AbstractShiroFilter 各步骤外计时的 shiroFilter，替代 ShiroFilterFactoryBean 内部的 SpringShiroFilter。
+ *
+ * - createSubject / updateSessionLastAccessTime 计入 session（扣除其中的 rememberMe 解码）；
+ * - getExecutionChain 计入 resolve；
+ * - Shiro 过滤链从开始执行到把请求交给应用（或被拦截返回）为止，扣除解析与授权检查后计入 filters；
+ * - rememberme 与 authz 由 TimedWebSecurityManager 通过 {@link ShiroPhaseTimer#add} 写入。
+ *
+ * 开启 Server-Timing 时，在请求进入应用之前写入响应头（此时响应尚未提交）；被 Shiro 拦截的请求在链结束时写入。
+ */
+public class TimedShiroFilter extends AbstractShiroFilter {
+
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    private final ShiroPhaseTimer timer;
+
+    public TimedShiroFilter(WebSecurityManager securityManager, FilterChainResolver resolver, ShiroPhaseTimer timer) {
+        if (securityManager == null) {
+            throw new IllegalArgumentException("WebSecurityManager property cannot be null.");
+        }
+        setSecurityManager(securityManager);
+        if (resolver != null) {
+            setFilterChainResolver(resolver);
+        }
+        this.timer = timer;
+    }
+
+    @Override
+    protected void doFilterInternal(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ShiroPhaseTimer.Phases phases = timer.begin();
+        if (phases == null) {
+            super.doFilterInternal(request, response, chain);
+            return;
+        }
+        try {
+            super.doFilterInternal(request, response, chain);
+        } finally {
+            timer.end(phases);
+        }
+    }
+
+    @Override
+    protected WebSubject createSubject(ServletRequest request, ServletResponse response) {
+        ShiroPhaseTimer.Phases phases = timer.active();
+        if (phases == null) {
+            return super.createSubject(request, response);
+        }
+        long rememberMeBefore = phases.get(ShiroPhase.REMEMBER_ME);
+        long start = System.nanoTime();
+        WebSubject subject = super.createSubject(request, response);
+        long rememberMe = phases.get(ShiroPhase.REMEMBER_ME) - rememberMeBefore;
+        phases.add(ShiroPhase.SESSION, System.nanoTime() - start - rememberMe);
+        return subject;
+    }
+
+    @Override
+    protected void updateSessionLastAccessTime(ServletRequest request, ServletResponse response) {
+        ShiroPhaseTimer.Phases phases = timer.active();
+        if (phases == null) {
+            super.updateSessionLastAccessTime(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        super.updateSessionLastAccessTime(request, response);
+        phases.add(ShiroPhase.SESSION, System.nanoTime() - start);
+    }
+
+    @Override
+    protected FilterChain getExecutionChain(ServletRequest request, ServletResponse response, FilterChain origChain) {
+        ShiroPhaseTimer.Phases phases = timer.active();
+        if (phases == null) {
+            return super.getExecutionChain(request, response, origChain);
+        }
+        long start = System.nanoTime();
+        FilterChain chain = super.getExecutionChain(request, response, origChain);
+        phases.add(ShiroPhase.CHAIN_RESOLVE, System.nanoTime() - start);
+        return chain;
+    }
+
+    @Override
+    protected void executeChain(ServletRequest request, ServletResponse response, FilterChain origChain)
+            throws IOException, ServletException {
+        ShiroPhaseTimer.Phases phases = timer.active();
+        if (phases == null) {
+            super.executeChain(request, response, origChain);
+            return;
+        }
+        ApplicationEntry entry = new ApplicationEntry(origChain, phases);
+        try {
+            super.executeChain(request, response, entry);
+        } finally {
+            if (!entry.entered) {
+                entry.leaveShiro(response);
+            }
+        }
+    }
+
+    /**
+     * 包在原始 FilterChain 外：Shiro 过滤链放行到应用时即为 Shiro 阶段结束。
+     */
+    private final class ApplicationEntry implements FilterChain {
+        private final FilterChain origChain;
+        private final ShiroPhaseTimer.Phases phases;
+        private final long start;
+        private final long resolveBefore;
+        private final long authorizationBefore;
+        private boolean entered;
+
+        ApplicationEntry(FilterChain origChain, ShiroPhaseTimer.Phases phases) {
+            this.origChain = origChain;
+            this.phases = phases;
+            this.resolveBefore = phases.get(ShiroPhase.CHAIN_RESOLVE);
+            this.authorizationBefore = phases.get(ShiroPhase.AUTHORIZATION);
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            if (!entered) {
+                entered = true;
+                leaveShiro(response);
+            }
+            origChain.doFilter(request, response);
+        }
+
+        void leaveShiro(ServletResponse response) {
+            long elapsed = System.nanoTime() - start
+                    - (phases.get(ShiroPhase.CHAIN_RESOLVE) - resolveBefore)
+                    - (phases.get(ShiroPhase.AUTHORIZATION) - authorizationBefore);
+            phases.add(ShiroPhase.FILTERS, Math.max(elapsed, 0L));
+            if (timer.isServerTimingHeader() && response instanceof HttpServletResponse && !response.isCommitted()) {
+                ((HttpServletResponse) response).setHeader(SERVER_TIMING, phases.toServerTiming());
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.shirolab.security.mgt;
+
+import com.example.shirolab.metrics.AuthOutcome;
+import com.example.shirolab.metrics.LatencyHistograms;
+import com.example.shirolab.metrics.ShiroPhase;
+import com.example.shirolab.metrics.ShiroPhaseTimer;
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authz.AuthorizationException;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.SubjectContext;
+import org.apache.shiro.util.ThreadContext;
+import org.apache.shiro.web.mgt.DefaultWebSecurityManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 记录 Shiro 各阶段耗时的 DefaultWebSecurityManager（写入 {@link LatencyHistograms} 的 shiro 类别）：
+ *
+ * - subject.create：每个请求 AbstractShiroFilter 创建 Subject（含会话查找与 rememberMe 恢复），按结果 Subject 的认证状态打标签；
+ * - rememberme.decode：无会话身份时从 Cookie 解密恢复主体，解出主体记为 remembered，否则 anonymous；
+ * - authentication：login 调用，成功记为 authenticated，失败记为 failed；
+ * - authorization：Authorizer 的全部方法，包括 roles[..] 过滤器与 @RequiresRoles/@RequiresPermissions 最终调用的
+ *   hasRole/isPermitted/check*，以及批量重载（hasRoles、isPermitted(String...) 等，@CacheByRole 的 key 与模板预加载走这些），
+ *   每次调用记一次，按当前线程 Subject 的认证状态打标签。
+ *
+ * 设置了 {@link ShiroPhaseTimer} 时，rememberMe 解码与授权检查的耗时同时计入当前请求的 Shiro 阶段（见 TimedShiroFilter）。
+ */
+public class TimedWebSecurityManager extends DefaultWebSecurityManager {
+
+    public static final String TYPE = "shiro";
+
+    private final LatencyHistograms.Series subjectCreate;
+    private final LatencyHistograms.Series rememberMeDecode;
+    private final LatencyHistograms.Series authentication;
+    private final LatencyHistograms.Series authorization;
+
+    private ShiroPhaseTimer phaseTimer;
+
+    public TimedWebSecurityManager(LatencyHistograms histograms) {
+        this.subjectCreate = histograms.series(TYPE, "subject.create");
+        this.rememberMeDecode = histograms.series(TYPE, "rememberme.decode");
+        this.authentication = histograms.series(TYPE, "authentication");
+        this.authorization = histograms.series(TYPE, "authorization");
+    }
+
+    public void setPhaseTimer(ShiroPhaseTimer phaseTimer) {
+        this.phaseTimer = phaseTimer;
+    }
+
+    @Override
+    public Subject createSubject(SubjectContext context) {
+        long start = System.nanoTime();
+        Subject subject = super.createSubject(context);
+        subjectCreate.record(AuthOutcome.of(subject), System.nanoTime() - start);
+        return subject;
+    }
+
+    @Override
+    protected PrincipalCollection getRememberedIdentity(SubjectContext subjectContext) {
+        long start = System.nanoTime();
+        PrincipalCollection principals = super.getRememberedIdentity(subjectContext);
+        long elapsed = System.nanoTime() - start;
+        boolean remembered = principals != null && !principals.isEmpty();
+        rememberMeDecode.record(remembered ? AuthOutcome.REMEMBERED : AuthOutcome.ANONYMOUS, elapsed);
+        if (phaseTimer != null) {
+            phaseTimer.add(ShiroPhase.REMEMBER_ME, elapsed);
+        }
+        return principals;
+    }
+
+    @Override
+    public Subject login(Subject subject, AuthenticationToken token) throws AuthenticationException {
+        long start = System.nanoTime();
+        AuthOutcome outcome = AuthOutcome.FAILED;
+        try {
+            Subject loggedIn = super.login(subject, token);
+            outcome = AuthOutcome.AUTHENTICATED;
+            return loggedIn;
+        } finally {
+            authentication.record(outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean hasRole(PrincipalCollection principals, String roleIdentifier) {
+        long start = System.nanoTime();
+        try {
+            return super.hasRole(principals, roleIdentifier);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public boolean[] hasRoles(PrincipalCollection principals, List<String> roleIdentifiers) {
+        long start = System.nanoTime();
+        try {
+            return super.hasRoles(principals, roleIdentifiers);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public boolean hasAllRoles(PrincipalCollection principals, Collection<String> roleIdentifiers) {
+        long start = System.nanoTime();
+        try {
+            return super.hasAllRoles(principals, roleIdentifiers);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public boolean isPermitted(PrincipalCollection principals, String permission) {
+        long start = System.nanoTime();
+        try {
+            return super.isPermitted(principals, permission);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public boolean isPermitted(PrincipalCollection principals, Permission permission) {
+        long start = System.nanoTime();
+        try {
+            return super.isPermitted(principals, permission);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public boolean[] isPermitted(PrincipalCollection principals, String... permissions) {
+        long start = System.nanoTime();
+        try {
+            return super.isPermitted(principals, permissions);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public boolean[] isPermitted(PrincipalCollection principals, List<Permission> permissions) {
+        long start = System.nanoTime();
+        try {
+            return super.isPermitted(principals, permissions);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public boolean isPermittedAll(PrincipalCollection principals, String... permissions) {
+        long start = System.nanoTime();
+        try {
+            return super.isPermittedAll(principals, permissions);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public boolean isPermittedAll(PrincipalCollection principals, Collection<Permission> permissions) {
+        long start = System.nanoTime();
+        try {
+            return super.isPermittedAll(principals, permissions);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public void checkRole(PrincipalCollection principals, String role) throws AuthorizationException {
+        long start = System.nanoTime();
+        try {
+            super.checkRole(principals, role);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public void checkRoles(PrincipalCollection principals, Collection<String> roles) throws AuthorizationException {
+        long start = System.nanoTime();
+        try {
+            super.checkRoles(principals, roles);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public void checkRoles(PrincipalCollection principals, String... roles) throws AuthorizationException {
+        long start = System.nanoTime();
+        try {
+            super.checkRoles(principals, roles);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public void checkPermission(PrincipalCollection principals, String permission) throws AuthorizationException {
+        long start = System.nanoTime();
+        try {
+            super.checkPermission(principals, permission);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public void checkPermission(PrincipalCollection principals, Permission permission) throws AuthorizationException {
+        long start = System.nanoTime();
+        try {
+            super.checkPermission(principals, permission);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public void checkPermissions(PrincipalCollection principals, String... permissions) throws AuthorizationException {
+        long start = System.nanoTime();
+        try {
+            super.checkPermissions(principals, permissions);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    @Override
+    public void checkPermissions(PrincipalCollection principals, Collection<Permission> permissions) throws AuthorizationException {
+        long start = System.nanoTime();
+        try {
+            super.checkPermissions(principals, permissions);
+        } finally {
+            recordAuthorization(start);
+        }
+    }
+
+    private void recordAuthorization(long start) {
+        long elapsed = System.nanoTime() - start;
+        authorization.record(AuthOutcome.of(ThreadContext.getSubject()), elapsed);
+        if (phaseTimer != null) {
+            phaseTimer.add(ShiroPhase.AUTHORIZATION, elapsed);
+        }
+    }
+}
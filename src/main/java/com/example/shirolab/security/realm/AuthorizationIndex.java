@@ -0,0 +1,139 @@
+package com.example.shirolab.security.realm;
+
+import com.example.shirolab.support.BoundedCache;
+import org.apache.shiro.authc.SimpleAccount;
+import org.apache.shiro.authz.Permission;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一份不可变的账户快照：用户 -> 账户（认证用）与预编译授权信息，以及部件字符串的驻留表。
+ *
+ * 构建完成后不再修改，由 {@link IndexedIniRealm} 通过一次 volatile 写整体替换，
+ * 认证与授权读取的始终是同一份快照；
+ * 查询用的权限字符串按快照缓存解析结果，部件 id 只在同一份快照内有效。
+ */
+final class AuthorizationIndex {
+
+    private static final String WILDCARD_TOKEN = "*";
+    private static final int QUERY_CACHE_SIZE = 1024;
+
+    private final Map<String, Integer> partIds;
+    private final Map<String, SimpleAccount> accounts;
+    private final Map<String, CompiledAuthorizationInfo> users;
+    private final BoundedCache<String, CompiledPermission> queries =
+            new BoundedCache<String, CompiledPermission>(QUERY_CACHE_SIZE, 0);
+
+    private AuthorizationIndex(Map<String, Integer> partIds, Map<String, SimpleAccount> accounts,
+                               Map<String, CompiledAuthorizationInfo> users) {
+        this.partIds = partIds;
+        this.accounts = accounts;
+        this.users = users;
+    }
+
+    SimpleAccount account(String username) {
+        return accounts.get(username);
+    }
+
+    CompiledAuthorizationInfo forUser(String username) {
+        return users.get(username);
+    }
+
+    int userCount() {
+        return users.size();
+    }
+
+    /**
+     * 将查询权限（如 @RequiresPermissions 中的字符串）解析为当前快照的部件 id，结果会被缓存。
+     */
+    CompiledPermission query(String permission) {
+        CompiledPermission compiled = queries.get(permission);
+        if (compiled == null) {
+            compiled = compile(new SourcedWildcardPermission(permission).parts(), partIds, null, false);
+            queries.put(permission, compiled);
+        }
+        return compiled;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    private static CompiledPermission compile(List<Set<String>> parts, Map<String, Integer> ids,
+                                              Map<Set<String>, int[]> internedSets, boolean intern) {
+        int[][] compiled = new int[parts.size()][];
+        for (int i = 0; i < compiled.length; i++) {
+            Set<String> part = parts.get(i);
+            if (part.contains(WILDCARD_TOKEN)) {
+                continue;
+            }
+            int[] set = internedSets == null ? null : internedSets.get(part);
+            if (set == null) {
+                set = new int[part.size()];
+                int n = 0;
+                for (String token : part) {
+                    Integer id = ids.get(token);
+                    if (id == null && intern) {
+                        id = ids.size();
+                        ids.put(token, id);
+                    }
+                    set[n++] = id == null ? CompiledPermission.UNKNOWN : id;
+                }
+                Arrays.sort(set);
+                if (internedSets != null) {
+                    internedSets.put(part, set);
+                }
+            }
+            compiled[i] = set;
+        }
+        return new CompiledPermission(compiled);
+    }
+
+    static final class Builder {
+        private final Map<String, Integer> partIds = new HashMap<String, Integer>();
+        private final Map<Set<String>, int[]> internedSets = new HashMap<Set<String>, int[]>();
+        private final Map<String, CompiledPermission> byPermission = new HashMap<String, CompiledPermission>();
+        private final Map<String, SimpleAccount> accounts = new HashMap<String, SimpleAccount>();
+        private final Map<String, CompiledAuthorizationInfo> users = new HashMap<String, CompiledAuthorizationInfo>();
+
+        Builder addAccount(String username, SimpleAccount account, Collection<Permission> permissions) {
+            accounts.put(username, account);
+            Collection<String> roles = account.getRoles();
+            List<CompiledPermission> compiled = new ArrayList<CompiledPermission>();
+            List<Permission> other = new ArrayList<Permission>();
+            for (Permission permission : permissions) {
+                if (permission instanceof SourcedWildcardPermission) {
+                    compiled.add(compileShared((SourcedWildcardPermission) permission));
+                } else {
+                    other.add(permission);
+                }
+            }
+            users.put(username, new CompiledAuthorizationInfo(roles, permissions,
+                    compiled.toArray(new CompiledPermission[0]), other.toArray(new Permission[0])));
+            return this;
+        }
+
+        AuthorizationIndex build() {
+            AuthorizationIndex index = new AuthorizationIndex(partIds, accounts, users);
+            for (CompiledAuthorizationInfo info : users.values()) {
+                info.attach(index);
+            }
+            return index;
+        }
+
+        private CompiledPermission compileShared(SourcedWildcardPermission permission) {
+            CompiledPermission compiled = byPermission.get(permission.source());
+            if (compiled == null) {
+                compiled = compile(permission.parts(), partIds, internedSets, true);
+                byPermission.put(permission.source(), compiled);
+            }
+            return compiled;
+        }
+    }
+}
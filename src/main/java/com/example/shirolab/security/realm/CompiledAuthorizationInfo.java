@@ -0,0 +1,74 @@
+package com.example.shirolab.security.realm;
+
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 单个用户的不可变授权信息：角色集合 + 预编译后的权限。
+ *
+ * 同时实现 AuthorizationInfo，因此可以原样放进 realm 的 authorizationCache（仅内存，不做序列化），
+ * 未走快速路径的调用（如 Shiro 内部直接读取 getObjectPermissions）也能得到正确结果。
+ */
+final class CompiledAuthorizationInfo implements AuthorizationInfo {
+
+    private final Set<String> roles;
+    private final Set<Permission> objectPermissions;
+    private final CompiledPermission[] compiled;
+    private final Permission[] other;
+    // 部件 id 只在所属快照内有效，查询必须经同一份快照解析
+    private AuthorizationIndex index;
+
+    CompiledAuthorizationInfo(Collection<String> roles, Collection<Permission> objectPermissions,
+                              CompiledPermission[] compiled, Permission[] other) {
+        this.roles = roles == null ? Collections.<String>emptySet()
+                : Collections.unmodifiableSet(new HashSet<String>(roles));
+        this.objectPermissions = Collections.unmodifiableSet(new LinkedHashSet<Permission>(objectPermissions));
+        this.compiled = compiled;
+        this.other = other;
+    }
+
+    void attach(AuthorizationIndex index) {
+        this.index = index;
+    }
+
+    boolean isPermitted(String permission) {
+        CompiledPermission query = index.query(permission);
+        for (CompiledPermission granted : compiled) {
+            if (granted.implies(query)) {
+                return true;
+            }
+        }
+        if (other.length > 0) {
+            // 自定义 Permission 类型无法预编译，退回到原始 implies
+            WildcardPermission wildcard = new WildcardPermission(permission);
+            for (Permission granted : other) {
+                if (granted.implies(wildcard)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Collection<String> getRoles() {
+        return roles;
+    }
+
+    @Override
+    public Collection<String> getStringPermissions() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Collection<Permission> getObjectPermissions() {
+        return objectPermissions;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.shirolab.security.realm;
+
+/**
+ * 预解析的 WildcardPermission：每一段是驻留后的部件 id 集合（升序 int[]），null 表示该段为 *。
+ *
+ * implies 语义与 WildcardPermission#implies 一致：
+ * - 逐段比较，己方该段为 * 或包含对方该段全部部件即通过；
+ * - 己方段数较短时，多出的对方段视为被隐含；
+ * - 己方段数较长时，多出的己方段必须全是 *。
+ */
+final class CompiledPermission {
+
+    /** 不在驻留表中的部件，只能被 * 隐含 */
+    static final int UNKNOWN = -1;
+
+    private final int[][] parts;
+
+    CompiledPermission(int[][] parts) {
+        this.parts = parts;
+    }
+
+    boolean implies(CompiledPermission other) {
+        int[][] mine = this.parts;
+        int[][] theirs = other.parts;
+        int i = 0;
+        for (; i < theirs.length; i++) {
+            if (i >= mine.length) {
+                return true;
+            }
+            int[] part = mine[i];
+            if (part != null && !containsAll(part, theirs[i])) {
+                return false;
+            }
+        }
+        for (; i < mine.length; i++) {
+            if (mine[i] != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsAll(int[] part, int[] required) {
+        if (required == null) {
+            // 对方该段为 *，只有己方同为 * 才能隐含
+            return false;
+        }
+        for (int id : required) {
+            if (id == UNKNOWN || !contains(part, id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] sorted, int id) {
+        // 部件集合通常只有 1~3 个元素，线性扫描比二分更快
+        for (int v : sorted) {
+            if (v == id) {
+                return true;
+            }
+            if (v > id) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
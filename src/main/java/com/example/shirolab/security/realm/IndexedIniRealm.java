@@ -0,0 +1,259 @@
+package com.example.shirolab.security.realm;
+
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.ExpiredCredentialsException;
+import org.apache.shiro.authc.LockedAccountException;
+import org.apache.shiro.authc.SimpleAccount;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.authz.AuthorizationException;
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.SimpleRole;
+import org.apache.shiro.authz.UnauthorizedException;
+import org.apache.shiro.authz.permission.RolePermissionResolver;
+import org.apache.shiro.cache.Cache;
+import org.apache.shiro.realm.text.IniRealm;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预计算授权信息的 IniRealm。
+ *
+ * IniRealm 每次 hasRole/isPermitted 都要取出账户、把权限字符串解析成 WildcardPermission 再逐个 implies。
+ * 这里在 ini 加载完成后一次性构建不可变的 {@link AuthorizationIndex}：
+ * - 每个用户的角色集合与权限提前展开（权限由 SourcedWildcardPermission.RESOLVER 创建，保留原始字符串）；
+ * - 权限的每个部件驻留为 int id，部件集合共享同一个 int[]，implies 只是几次数组比较；
+ * - 查询字符串（如 "document:read"）的解析结果按快照缓存。
+ *
+ * 认证（doGetAuthenticationInfo）同样读取快照中的账户，请求路径上不再获取 SimpleAccountRealm 的读写锁。
+ *
+ * 账户或角色发生变化时（add/重新加载 ini）标记快照过期，下次授权时重建并以一次 volatile 写整体替换，
+ * 同时清空 authorizationCache；正在进行的授权检查继续使用旧快照，不会看到半成品。
+ *
+ * 若配置了 CacheManager（见 ShiroConfig.shiroCacheManager），编译后的 AuthorizationInfo 会经由
+ * AuthorizingRealm 的 authorizationCache 缓存，命中率等指标由 MeteredCacheManager 暴露。
+ */
+public class IndexedIniRealm extends IniRealm implements WarmableRealm {
+
+    private volatile AuthorizationIndex index;
+    private volatile boolean stale = true;
+
+    public IndexedIniRealm() {
+        super();
+        setPermissionResolver(SourcedWildcardPermission.RESOLVER);
+        // SimpleAccountRealm 的构造器关闭了缓存，这里重新打开，否则 authorizationCache 永远不会创建
+        setCachingEnabled(true);
+        setAuthorizationCachingEnabled(true);
+    }
+
+    /**
+     * 与 IniRealm(String) 不同，这里不在构造器中加载，ini 在 {@link #init()} 时读取并建立快照，
+     * 以便加载前先装好保留原始字符串的 PermissionResolver；缓存开关由 {@link #IndexedIniRealm()} 统一打开。
+     */
+    public IndexedIniRealm(String resourcePath) {
+        this();
+        setResourcePath(resourcePath);
+    }
+
+    @Override
+    protected void onInit() {
+        super.onInit();
+        rebuildIndex();
+    }
+
+    @Override
+    protected void add(SimpleAccount account) {
+        super.add(account);
+        stale = true;
+    }
+
+    @Override
+    protected void add(SimpleRole role) {
+        super.add(role);
+        stale = true;
+    }
+
+    /**
+     * 根据当前账户数据重建授权快照并原子替换。
+     */
+    public synchronized void rebuildIndex() {
+        AuthorizationIndex.Builder builder = AuthorizationIndex.builder();
+        RolePermissionResolver rolePermissionResolver = getRolePermissionResolver();
+        // 先清标记：构建期间若有新的 add，会重新置位并在下次授权时再次重建
+        stale = false;
+        USERS_LOCK.readLock().lock();
+        try {
+            for (SimpleAccount account : users.values()) {
+                List<Permission> permissions = new ArrayList<Permission>();
+                if (account.getObjectPermissions() != null) {
+                    permissions.addAll(account.getObjectPermissions());
+                }
+                if (account.getStringPermissions() != null) {
+                    for (String permission : account.getStringPermissions()) {
+                        permissions.add(getPermissionResolver().resolvePermission(permission));
+                    }
+                }
+                if (rolePermissionResolver != null && account.getRoles() != null) {
+                    for (String role : account.getRoles()) {
+                        Collection<Permission> resolved = rolePermissionResolver.resolvePermissionsInRole(role);
+                        if (resolved != null) {
+                            permissions.addAll(resolved);
+                        }
+                    }
+                }
+                builder.addAccount(getUsername(account), account, permissions);
+            }
+        } finally {
+            USERS_LOCK.readLock().unlock();
+        }
+        publish(builder.build());
+    }
+
+    /**
+     * 发布新快照：一次 volatile 写，随后清空可能持有旧快照对象的 authorizationCache。
+     */
+    void publish(AuthorizationIndex snapshot) {
+        this.index = snapshot;
+        Cache<Object, AuthorizationInfo> cache = getAuthorizationCache();
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    Map<String, SimpleAccount> copyAccounts() {
+        USERS_LOCK.readLock().lock();
+        try {
+            return new HashMap<String, SimpleAccount>(users);
+        } finally {
+            USERS_LOCK.readLock().unlock();
+        }
+    }
+
+    Map<String, SimpleRole> copyRoles() {
+        ROLES_LOCK.readLock().lock();
+        try {
+            return new HashMap<String, SimpleRole>(roles);
+        } finally {
+            ROLES_LOCK.readLock().unlock();
+        }
+    }
+
+    public int getIndexedUserCount() {
+        AuthorizationIndex current = this.index;
+        return current == null ? 0 : current.userCount();
+    }
+
+    /**
+     * 启动预热：确保快照已构建，并为每个账户取一次授权信息，填充 authorizationCache。
+     *
+     * @return 预热的账户数
+     */
+    @Override
+    public int warmUp() {
+        currentIndex();
+        Map<String, SimpleAccount> accounts = copyAccounts();
+        for (String username : accounts.keySet()) {
+            getAuthorizationInfo(new SimplePrincipalCollection(username, getName()));
+        }
+        return accounts.size();
+    }
+
+    /**
+     * 与 SimpleAccountRealm 相同的校验逻辑，但账户取自快照，不再获取 USERS_LOCK。
+     */
+    @Override
+    protected AuthenticationInfo doGetAuthenticationInfo(AuthenticationToken token) throws AuthenticationException {
+        UsernamePasswordToken upToken = (UsernamePasswordToken) token;
+        SimpleAccount account = currentIndex().account(upToken.getUsername());
+        if (account != null) {
+            if (account.isLocked()) {
+                throw new LockedAccountException("Account [" + account + "] is locked.");
+            }
+            if (account.isCredentialsExpired()) {
+                throw new ExpiredCredentialsException("The credentials for account [" + account + "] are expired");
+            }
+        }
+        return account;
+    }
+
+    @Override
+    protected AuthorizationInfo doGetAuthorizationInfo(PrincipalCollection principals) {
+        return currentIndex().forUser(getUsername(principals));
+    }
+
+    @Override
+    public boolean isPermitted(PrincipalCollection principals, String permission) {
+        AuthorizationInfo info = getAuthorizationInfo(principals);
+        if (info instanceof CompiledAuthorizationInfo) {
+            return ((CompiledAuthorizationInfo) info).isPermitted(permission);
+        }
+        return super.isPermitted(principals, permission);
+    }
+
+    @Override
+    protected boolean isPermitted(Permission permission, AuthorizationInfo info) {
+        if (info instanceof CompiledAuthorizationInfo && permission instanceof SourcedWildcardPermission) {
+            return ((CompiledAuthorizationInfo) info).isPermitted(((SourcedWildcardPermission) permission).source());
+        }
+        return super.isPermitted(permission, info);
+    }
+
+    @Override
+    public boolean[] isPermitted(PrincipalCollection principals, String... permissions) {
+        boolean[] result = new boolean[permissions == null ? 0 : permissions.length];
+        if (result.length == 0) {
+            return result;
+        }
+        AuthorizationInfo info = getAuthorizationInfo(principals);
+        if (!(info instanceof CompiledAuthorizationInfo)) {
+            return super.isPermitted(principals, permissions);
+        }
+        CompiledAuthorizationInfo compiled = (CompiledAuthorizationInfo) info;
+        for (int i = 0; i < permissions.length; i++) {
+            result[i] = compiled.isPermitted(permissions[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isPermittedAll(PrincipalCollection principals, String... permissions) {
+        if (permissions == null || permissions.length == 0) {
+            return true;
+        }
+        AuthorizationInfo info = getAuthorizationInfo(principals);
+        if (!(info instanceof CompiledAuthorizationInfo)) {
+            return super.isPermittedAll(principals, permissions);
+        }
+        CompiledAuthorizationInfo compiled = (CompiledAuthorizationInfo) info;
+        for (String permission : permissions) {
+            if (!compiled.isPermitted(permission)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void checkPermission(PrincipalCollection principals, String permission) throws AuthorizationException {
+        if (!isPermitted(principals, permission)) {
+            throw new UnauthorizedException("User is not permitted [" + permission + "]");
+        }
+    }
+
+    AuthorizationIndex currentIndex() {
+        AuthorizationIndex current = this.index;
+        if (current == null || stale) {
+            rebuildIndex();
+            current = this.index;
+        }
+        return current;
+    }
+}
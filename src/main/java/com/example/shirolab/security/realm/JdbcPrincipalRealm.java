@@ -0,0 +1,294 @@
+package com.example.shirolab.security.realm;
+
+import com.example.shirolab.support.BoundedCache;
+import org.apache.shiro.authc.AccountException;
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.SimpleAccount;
+import org.apache.shiro.authc.UnknownAccountException;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.authz.AuthorizationException;
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.SimpleAuthorizationInfo;
+import org.apache.shiro.cache.Cache;
+import org.apache.shiro.realm.AuthorizingRealm;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 单次查询加载主体的 JDBC Realm，表结构与 Shiro JdbcRealm 的默认结构相同（users / user_roles / roles_permissions）。
+ *
+ * Shiro 的 JdbcRealm 每次登录先查口令、再查角色、再为每个角色查一次权限，授权缓存未命中时同样逐角色查询。
+ * 这里用一条 LEFT JOIN 查询一次取回口令、角色与权限（每行一个 角色 × 权限 组合）：
+ * - 登录：口令校验通过后，同一次查询得到的角色与权限直接写入 authorizationCache，随后的授权检查不再查库；
+ * - 授权缓存未命中（如 rememberMe 恢复、缓存过期）：同一条查询，一次往返；
+ * - 预热：{@link #warmUp()} 对活跃用户按 batchSize 分批，以 IN (?, ...) 一次加载一批并填充 authorizationCache。
+ *
+ * 权限字符串经 PermissionResolver 解析后按字符串共享（有界缓存），多个用户持有同一角色时只解析一次。
+ * 连接取自外部提供的 DataSource（见 JdbcRealmConfig 中的 HikariCP 连接池）。
+ */
+public class JdbcPrincipalRealm extends AuthorizingRealm implements WarmableRealm {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcPrincipalRealm.class);
+
+    /**
+     * 列依次为 username、password、role_name、permission；%s 处替换为 IN 参数列表。
+     */
+    public static final String DEFAULT_PRINCIPAL_QUERY = "SELECT u.username, u.password, ur.role_name, rp.permission"
+            + " FROM users u"
+            + " LEFT JOIN user_roles ur ON ur.username = u.username"
+            + " LEFT JOIN roles_permissions rp ON rp.role_name = ur.role_name"
+            + " WHERE u.username IN (%s)";
+
+    public static final String DEFAULT_ACTIVE_USERS_QUERY = "SELECT username FROM users";
+
+    private static final int PERMISSION_CACHE_SIZE = 4096;
+
+    private final DataSource dataSource;
+    private final BoundedCache<String, Permission> permissions =
+            new BoundedCache<String, Permission>(PERMISSION_CACHE_SIZE, 0);
+
+    private String principalQuery = DEFAULT_PRINCIPAL_QUERY;
+    private String activeUsersQuery = DEFAULT_ACTIVE_USERS_QUERY;
+    private Supplier<Collection<String>> activeUsers;
+    private int batchSize = 100;
+    private int warmUpLimit = 10000;
+
+    private String singleSql;
+    private String batchSql;
+
+    public JdbcPrincipalRealm(DataSource dataSource) {
+        this.dataSource = dataSource;
+        prepareStatements();
+    }
+
+    /**
+     * @param principalQuery 返回 username、password、role_name、permission 四列，且包含一个 %s 作为 IN 参数列表的位置
+     */
+    public void setPrincipalQuery(String principalQuery) {
+        this.principalQuery = principalQuery;
+        prepareStatements();
+    }
+
+    /**
+     * 未设置 activeUsers 或其结果为空时，预热用此查询取用户名（第一列）。
+     */
+    public void setActiveUsersQuery(String activeUsersQuery) {
+        this.activeUsersQuery = activeUsersQuery;
+    }
+
+    /**
+     * 预热的活跃用户来源（例如审计日志中近期登录成功的用户），优先于 activeUsersQuery。
+     */
+    public void setActiveUsers(Supplier<Collection<String>> activeUsers) {
+        this.activeUsers = activeUsers;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        prepareStatements();
+    }
+
+    public void setWarmUpLimit(int warmUpLimit) {
+        this.warmUpLimit = warmUpLimit;
+    }
+
+    private void prepareStatements() {
+        this.singleSql = String.format(principalQuery, "?");
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < batchSize; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        this.batchSql = String.format(principalQuery, placeholders);
+    }
+
+    @Override
+    protected AuthenticationInfo doGetAuthenticationInfo(AuthenticationToken token) throws AuthenticationException {
+        String username = ((UsernamePasswordToken) token).getUsername();
+        if (username == null) {
+            throw new AccountException("Null usernames are not allowed by this realm.");
+        }
+        SimpleAccount account;
+        try {
+            account = load(username);
+        } catch (SQLException e) {
+            throw new AuthenticationException("There was a SQL error while authenticating user [" + username + "]", e);
+        }
+        if (account == null || account.getCredentials() == null) {
+            throw new UnknownAccountException("No account found for user [" + username + "]");
+        }
+        return account;
+    }
+
+    /**
+     * 口令校验通过后，把同一次查询取回的角色与权限放入授权缓存。
+     */
+    @Override
+    protected void assertCredentialsMatch(AuthenticationToken token, AuthenticationInfo info)
+            throws AuthenticationException {
+        super.assertCredentialsMatch(token, info);
+        if (info instanceof SimpleAccount) {
+            cacheAuthorization((SimpleAccount) info);
+        }
+    }
+
+    @Override
+    protected AuthorizationInfo doGetAuthorizationInfo(PrincipalCollection principals) {
+        String username = (String) getAvailablePrincipal(principals);
+        try {
+            SimpleAccount account = load(username);
+            return account == null ? null : authorizationOf(account);
+        } catch (SQLException e) {
+            throw new AuthorizationException("There was a SQL error while authorizing user [" + username + "]", e);
+        }
+    }
+
+    /**
+     * 批量预热：取活跃用户（最多 warmUpLimit 个），每 batchSize 个一次查询，结果写入 authorizationCache。
+     * 预热失败只记录日志，不影响启动；之后的请求按需加载。
+     */
+    @Override
+    public int warmUp() {
+        Cache<Object, AuthorizationInfo> cache = getAuthorizationCache();
+        if (cache == null) {
+            return 0;
+        }
+        int warmed = 0;
+        try {
+            List<String> usernames = activeUsernames();
+            for (int from = 0; from < usernames.size(); from += batchSize) {
+                List<String> batch = usernames.subList(from, Math.min(usernames.size(), from + batchSize));
+                for (SimpleAccount account : load(batchSql, batch, batchSize).values()) {
+                    cache.put(getAuthorizationCacheKey(account.getPrincipals()), authorizationOf(account));
+                    warmed++;
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Authorization cache warm-up stopped after {} accounts", warmed, e);
+        }
+        return warmed;
+    }
+
+    private List<String> activeUsernames() throws SQLException {
+        Set<String> usernames = new LinkedHashSet<String>();
+        Collection<String> supplied = activeUsers == null ? null : activeUsers.get();
+        if (supplied != null) {
+            for (String username : supplied) {
+                if (usernames.size() >= warmUpLimit) {
+                    break;
+                }
+                usernames.add(username);
+            }
+        }
+        if (usernames.isEmpty()) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(activeUsersQuery)) {
+                statement.setMaxRows(warmUpLimit);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        usernames.add(rs.getString(1));
+                    }
+                }
+            }
+        }
+        return new ArrayList<String>(usernames);
+    }
+
+    private SimpleAccount load(String username) throws SQLException {
+        return load(singleSql, Collections.singletonList(username), 1).get(username);
+    }
+
+    /**
+     * 执行一次查询并按用户名归并结果行。参数不足 parameterCount 时以最后一个用户名补齐，
+     * 使每批都使用同一条 SQL（便于驱动与数据库复用执行计划）。
+     */
+    private Map<String, SimpleAccount> load(String sql, List<String> usernames, int parameterCount)
+            throws SQLException {
+        Map<String, AccountRows> rows = new LinkedHashMap<String, AccountRows>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameterCount; i++) {
+                statement.setString(i + 1, usernames.get(Math.min(i, usernames.size() - 1)));
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    String username = rs.getString(1);
+                    AccountRows account = rows.get(username);
+                    if (account == null) {
+                        account = new AccountRows(rs.getString(2));
+                        rows.put(username, account);
+                    }
+                    String role = rs.getString(3);
+                    if (role != null) {
+                        account.roles.add(role);
+                    }
+                    String permission = rs.getString(4);
+                    if (permission != null) {
+                        account.permissions.add(resolvePermission(permission));
+                    }
+                }
+            }
+        }
+        Map<String, SimpleAccount> accounts = new LinkedHashMap<String, SimpleAccount>(rows.size() * 2);
+        for (Map.Entry<String, AccountRows> entry : rows.entrySet()) {
+            AccountRows account = entry.getValue();
+            accounts.put(entry.getKey(), new SimpleAccount(entry.getKey(), account.password, getName(),
+                    account.roles, account.permissions));
+        }
+        return accounts;
+    }
+
+    private Permission resolvePermission(String permission) {
+        Permission resolved = permissions.get(permission);
+        if (resolved == null) {
+            resolved = getPermissionResolver().resolvePermission(permission);
+            permissions.put(permission, resolved);
+        }
+        return resolved;
+    }
+
+    private void cacheAuthorization(SimpleAccount account) {
+        Cache<Object, AuthorizationInfo> cache = getAuthorizationCache();
+        if (cache != null) {
+            cache.put(getAuthorizationCacheKey(account.getPrincipals()), authorizationOf(account));
+        }
+    }
+
+    /**
+     * 授权缓存只保存角色与权限，不保存口令。
+     */
+    private static AuthorizationInfo authorizationOf(SimpleAccount account) {
+        SimpleAuthorizationInfo info = new SimpleAuthorizationInfo(new HashSet<String>(account.getRoles()));
+        info.setObjectPermissions(new LinkedHashSet<Permission>(account.getObjectPermissions()));
+        return info;
+    }
+
+    private static final class AccountRows {
+        final String password;
+        final Set<String> roles = new HashSet<String>();
+        final Set<Permission> permissions = new LinkedHashSet<Permission>();
+
+        AccountRows(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.shirolab.security.realm;
+
+import org.apache.shiro.authc.SimpleAccount;
+import org.apache.shiro.authz.SimpleRole;
+import org.apache.shiro.config.Ini;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 监听外部 ini 文件并热加载用户/角色的 IndexedIniRealm，修改账户无需重启应用。
+ *
+ * - 后台守护线程通过 NIO WatchService 监听文件所在目录（编辑器“写临时文件再改名”同样能捕获）；
+ * - 文件变化后等待一个短暂的静默期合并连续写入，再在该线程上解析，内容未变化（SHA-256 相同）时跳过；
+ * - 解析使用独立的临时 realm，成功后仅以一次 volatile 写发布新快照，认证/授权线程从不阻塞，
+ *   也看不到加载了一半的文件；解析失败时记录日志并保留旧快照。
+ */
+public class ReloadableIniRealm extends IndexedIniRealm implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadableIniRealm.class);
+
+    private static final long DEFAULT_QUIET_PERIOD_MILLIS = 200L;
+
+    private final Path iniPath;
+    private final AtomicLong reloadCount = new AtomicLong();
+    private final AtomicLong failedReloadCount = new AtomicLong();
+    private long quietPeriodMillis = DEFAULT_QUIET_PERIOD_MILLIS;
+    private byte[] loadedDigest;
+
+    private volatile WatchService watchService;
+
+    public ReloadableIniRealm(Path iniPath) {
+        super();
+        this.iniPath = iniPath.toAbsolutePath().normalize();
+    }
+
+    public Path getIniPath() {
+        return iniPath;
+    }
+
+    public void setQuietPeriodMillis(long quietPeriodMillis) {
+        this.quietPeriodMillis = quietPeriodMillis;
+    }
+
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    public long getFailedReloadCount() {
+        return failedReloadCount.get();
+    }
+
+    /**
+     * 首次加载在调用线程上同步完成（文件不可读时启动失败），随后启动监听线程。
+     *
+     * 账户先由 reload 装入，再交给父类的 onInit：IniRealm 见到已有账户不再读取资源，只完成 AuthorizingRealm 的
+     * 缓存初始化；IndexedIniRealm 据此建立快照并清除过期标记，首个请求不会再重建一次。
+     */
+    @Override
+    protected void onInit() {
+        if (!reload()) {
+            throw new IllegalStateException("Unable to load ini file " + iniPath);
+        }
+        super.onInit();
+        startWatching();
+    }
+
+    /**
+     * 重新读取 ini 文件并发布新快照；内容未变化时直接返回 true。
+     *
+     * @return 当前快照是否与文件内容一致
+     */
+    public synchronized boolean reload() {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(iniPath);
+        } catch (IOException e) {
+            failedReloadCount.incrementAndGet();
+            log.warn("Unable to read ini file {}, keeping current accounts", iniPath, e);
+            return false;
+        }
+        byte[] digest = sha256(bytes);
+        if (loadedDigest != null && Arrays.equals(loadedDigest, digest)) {
+            return true;
+        }
+
+        IndexedIniRealm scratch;
+        try {
+            Ini ini = new Ini();
+            ini.load(new ByteArrayInputStream(bytes));
+            scratch = new IndexedIniRealm();
+            // 账户里的 PrincipalCollection 带 realm 名，需与当前 realm 保持一致
+            scratch.setName(getName());
+            scratch.setRolePermissionResolver(getRolePermissionResolver());
+            scratch.setIni(ini);
+            scratch.init();
+        } catch (RuntimeException e) {
+            failedReloadCount.incrementAndGet();
+            log.warn("Invalid ini file {}, keeping current accounts", iniPath, e);
+            return false;
+        }
+
+        publish(scratch.currentIndex());
+        syncAccountMaps(scratch);
+        loadedDigest = digest;
+        reloadCount.incrementAndGet();
+        log.info("Loaded {} accounts from {}", scratch.getIndexedUserCount(), iniPath);
+        return true;
+    }
+
+    /**
+     * 同步 SimpleAccountRealm 自身的 users/roles（accountExists 等管理接口仍读取它们）。
+     * 请求路径只读快照，这里持有写锁不会阻塞认证与授权。
+     */
+    private void syncAccountMaps(IndexedIniRealm scratch) {
+        Map<String, SimpleAccount> newUsers = scratch.copyAccounts();
+        Map<String, SimpleRole> newRoles = scratch.copyRoles();
+        USERS_LOCK.writeLock().lock();
+        try {
+            users.clear();
+            users.putAll(newUsers);
+        } finally {
+            USERS_LOCK.writeLock().unlock();
+        }
+        ROLES_LOCK.writeLock().lock();
+        try {
+            roles.clear();
+            roles.putAll(newRoles);
+        } finally {
+            ROLES_LOCK.writeLock().unlock();
+        }
+    }
+
+    private void startWatching() {
+        Path dir = iniPath.getParent();
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            this.watchService = service;
+        } catch (IOException e) {
+            log.warn("Unable to watch {}, hot reload disabled", dir, e);
+            return;
+        }
+        Thread watcher = new Thread(this::watchLoop, "ini-realm-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watchLoop() {
+        Path fileName = iniPath.getFileName();
+        WatchService service = this.watchService;
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = drain(key, fileName);
+                // 静默期内的后续事件合并为一次加载
+                WatchKey next;
+                while ((next = service.poll(quietPeriodMillis, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(next, fileName);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // close() 结束监听
+        }
+    }
+
+    private static boolean drain(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        WatchService service = this.watchService;
+        if (service != null) {
+            this.watchService = null;
+            service.close();
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
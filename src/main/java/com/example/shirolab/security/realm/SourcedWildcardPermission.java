@@ -0,0 +1,40 @@
+package com.example.shirolab.security.realm;
+
+import org.apache.shiro.authz.permission.PermissionResolver;
+import org.apache.shiro.authz.permission.WildcardPermission;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 保留原始定义字符串的 WildcardPermission。
+ *
+ * WildcardPermission#toString 输出的是各段 Set 的 toString（如 "[document]:[read]"），无法再解析；
+ * IndexedIniRealm 通过 {@link #RESOLVER} 创建权限，预编译与查询时直接使用原始字符串及解析后的各段。
+ */
+final class SourcedWildcardPermission extends WildcardPermission {
+
+    private static final long serialVersionUID = 1L;
+
+    static final PermissionResolver RESOLVER = new PermissionResolver() {
+        @Override
+        public SourcedWildcardPermission resolvePermission(String permissionString) {
+            return new SourcedWildcardPermission(permissionString);
+        }
+    };
+
+    private final String source;
+
+    SourcedWildcardPermission(String source) {
+        super(source);
+        this.source = source;
+    }
+
+    String source() {
+        return source;
+    }
+
+    List<Set<String>> parts() {
+        return getParts();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.shirolab.security.realm;
+
+/**
+ * 支持预热的 Realm：启动时把授权信息提前装入 authorizationCache，首批请求不再承担加载开销。
+ */
+public interface WarmableRealm {
+
+    /**
+     * @return 预热的账户数
+     */
+    int warmUp();
+}
@@ -0,0 +1,138 @@
+package com.example.shirolab.security.rememberme;
+
+import com.example.shirolab.support.BoundedCache;
+import com.example.shirolab.support.Sha256Key;
+import org.apache.shiro.codec.Base64;
+import org.apache.shiro.crypto.CipherService;
+import org.apache.shiro.io.Serializer;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.SubjectContext;
+import org.apache.shiro.web.mgt.CookieRememberMeManager;
+import org.apache.shiro.web.subject.WebSubject;
+import org.apache.shiro.web.util.WebUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 带解码结果缓存的 CookieRememberMeManager。
+ *
+ * 浏览器在每个请求上都会携带同一个 rememberMe Cookie，而父类每次都要 AES 解密并反序列化。
+ * 这里在 {@link #convertBytesToPrincipals(byte[], SubjectContext)} 前加一层有界 LRU/TTL 缓存：
+ * key 为 Cookie 原始字节（Base64 解码后的密文）的 SHA-256 摘要，命中时直接返回已解码的主体。
+ *
+ * 失效时机：
+ * - 经 /logout 过滤链登出或登录失败时（父类均通过 forgetIdentity(Subject) 清除 Cookie），移除当前请求 Cookie 对应的条目；
+ * - 更换解密密钥、CipherService 或 Serializer 时清空整个缓存；
+ * - 条目超过 TTL 或被 LRU 淘汰。
+ *
+ * 解密/反序列化失败不缓存，异常照常交给父类的 onRememberedPrincipalFailure 处理。
+ */
+public class CachingCookieRememberMeManager extends CookieRememberMeManager {
+
+    private final BoundedCache<Sha256Key, PrincipalCollection> cache;
+
+    public CachingCookieRememberMeManager(int maxSize, long ttlMillis) {
+        this.cache = new BoundedCache<Sha256Key, PrincipalCollection>(maxSize, ttlMillis);
+    }
+
+    @Override
+    protected PrincipalCollection convertBytesToPrincipals(byte[] bytes, SubjectContext subjectContext) {
+        Sha256Key key = Sha256Key.of(bytes);
+        PrincipalCollection principals = cache.get(key);
+        if (principals == null) {
+            principals = super.convertBytesToPrincipals(bytes, subjectContext);
+            if (principals != null) {
+                cache.put(key, principals);
+            }
+        }
+        return principals;
+    }
+
+    /**
+     * 登出（onLogout）与登录失败（onFailedLogin）最终都会走到这里。
+     */
+    @Override
+    protected void forgetIdentity(Subject subject) {
+        evictCurrentCookie(subject);
+        super.forgetIdentity(subject);
+    }
+
+    @Override
+    public void setDecryptionCipherKey(byte[] decryptionCipherKey) {
+        super.setDecryptionCipherKey(decryptionCipherKey);
+        invalidateAll();
+    }
+
+    @Override
+    public void setCipherService(CipherService cipherService) {
+        super.setCipherService(cipherService);
+        invalidateAll();
+    }
+
+    @Override
+    public void setSerializer(Serializer<PrincipalCollection> serializer) {
+        super.setSerializer(serializer);
+        invalidateAll();
+    }
+
+    /**
+     * 清空全部缓存条目，例如密钥轮换后旧 Cookie 不应再被信任时。
+     */
+    public void invalidateAll() {
+        // 父类构造器会先调用各 setter，此时 cache 字段尚未赋值
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    public long getCacheHitCount() {
+        return cache.hitCount();
+    }
+
+    public long getCacheMissCount() {
+        return cache.missCount();
+    }
+
+    public long getCacheEvictionCount() {
+        return cache.evictionCount();
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    private void evictCurrentCookie(Subject subject) {
+        if (!(subject instanceof WebSubject)) {
+            return;
+        }
+        WebSubject webSubject = (WebSubject) subject;
+        if (!WebUtils.isHttp(webSubject)) {
+            return;
+        }
+        HttpServletRequest request = WebUtils.getHttpRequest(webSubject);
+        HttpServletResponse response = WebUtils.getHttpResponse(webSubject);
+        String value = getCookie().readValue(request, response);
+        if (value == null || "deleteMe".equals(value)) {
+            return;
+        }
+        try {
+            cache.remove(Sha256Key.of(Base64.decode(ensurePadding(value))));
+        } catch (RuntimeException ignored) {
+            // 无法解码的 Cookie 不可能出现在缓存里
+        }
+    }
+
+    private static String ensurePadding(String base64) {
+        int length = base64.length();
+        if (length % 4 != 0) {
+            StringBuilder sb = new StringBuilder(base64);
+            for (int i = 0; i < length % 4; ++i) {
+                sb.append('=');
+            }
+            return sb.toString();
+        }
+        return base64;
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.shirolab.security.rememberme;
+
+import org.apache.shiro.io.SerializationException;
+import org.apache.shiro.io.Serializer;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * RememberMe 主体的紧凑二进制编解码器，用于替换 Shiro 默认的 {@code DefaultSerializer}（Java 序列化）。
+ *
+ * 固定布局（版本 1），不含任何类描述符：
+ * <pre>
+ *   magic(1) version(1) realmCount(varint)
+ *   { realmName(str) principalCount(varint) { principal(str) }* }*
+ *   str := byteLength(varint) UTF-8 bytes
+ * </pre>
+ *
+ * 与 Java 序列化相比：
+ * 1) 解码直接在解密后的 byte[] 上按偏移读取，不经过 ObjectInputStream/ByteArrayInputStream，
+ *    只为 realm 名与主体字符串本身分配对象；
+ * 2) 只接受 String 类型的主体（IniRealm 的主体即用户名），不会实例化任意类，
+ *    因此旧版 Java 序列化 Cookie 或伪造的 gadget 载荷都会以 {@link SerializationException} 失败，
+ *    由 AbstractRememberMeManager#onRememberedPrincipalFailure 清除该 Cookie。
+ */
+public class CompactPrincipalSerializer implements Serializer<PrincipalCollection> {
+
+    static final byte MAGIC = (byte) 0x5C;
+    static final byte VERSION = 1;
+
+    private static final int HEADER_LENGTH = 2;
+
+    @Override
+    public byte[] serialize(PrincipalCollection principals) throws SerializationException {
+        if (principals == null) {
+            throw new SerializationException("principals must not be null");
+        }
+        Set<String> realmNames = principals.getRealmNames();
+
+        // 第一遍计算精确长度，第二遍直接写入，避免中间缓冲区扩容
+        int size = HEADER_LENGTH + varIntLength(realmNames.size());
+        for (String realmName : realmNames) {
+            Collection<?> values = principals.fromRealm(realmName);
+            size += stringLength(realmName) + varIntLength(values.size());
+            for (Object value : values) {
+                size += stringLength(asString(value, realmName));
+            }
+        }
+
+        byte[] out = new byte[size];
+        out[0] = MAGIC;
+        out[1] = VERSION;
+        int pos = writeVarInt(out, HEADER_LENGTH, realmNames.size());
+        for (String realmName : realmNames) {
+            Collection<?> values = principals.fromRealm(realmName);
+            pos = writeString(out, pos, realmName);
+            pos = writeVarInt(out, pos, values.size());
+            for (Object value : values) {
+                pos = writeString(out, pos, (String) value);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public PrincipalCollection deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("rememberMe payload too short");
+        }
+        if (bytes[0] != MAGIC) {
+            throw new SerializationException("rememberMe payload is not in compact format");
+        }
+        if (bytes[1] != VERSION) {
+            throw new SerializationException("unsupported rememberMe payload version " + bytes[1]);
+        }
+
+        Reader reader = new Reader(bytes, HEADER_LENGTH);
+        SimplePrincipalCollection principals = new SimplePrincipalCollection();
+        int realmCount = reader.readCount();
+        for (int r = 0; r < realmCount; r++) {
+            String realmName = reader.readString();
+            int principalCount = reader.readCount();
+            for (int p = 0; p < principalCount; p++) {
+                principals.add(reader.readString(), realmName);
+            }
+        }
+        if (reader.pos != bytes.length) {
+            throw new SerializationException("trailing bytes in rememberMe payload");
+        }
+        return principals;
+    }
+
+    private static String asString(Object value, String realmName) {
+        if (!(value instanceof String)) {
+            throw new SerializationException("only String principals are supported, realm '" + realmName
+                    + "' holds " + (value == null ? "null" : value.getClass().getName()));
+        }
+        return (String) value;
+    }
+
+    private static int stringLength(String s) {
+        int utf8 = utf8Length(s);
+        return varIntLength(utf8) + utf8;
+    }
+
+    private static int utf8Length(String s) {
+        int len = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                len += 1;
+            } else if (c < 0x800) {
+                len += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                len += 4;
+                i++;
+            } else {
+                len += 3;
+            }
+        }
+        return len;
+    }
+
+    private static int writeString(byte[] out, int pos, String s) {
+        pos = writeVarInt(out, pos, utf8Length(s));
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                out[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xC0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                out[pos++] = (byte) (0xF0 | (cp >> 18));
+                out[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                out[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                // 孤立代理项按 3 字节编码，与 utf8Length 保持一致
+                out[pos++] = (byte) (0xE0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
+    private static int varIntLength(int value) {
+        int len = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            len++;
+        }
+        return len;
+    }
+
+    private static int writeVarInt(byte[] out, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * 基于偏移量的只读游标；所有长度字段都以剩余字节数为上限，畸形输入不会触发大数组分配。
+     */
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        int readCount() {
+            int value = readVarInt();
+            if (value > buf.length - pos) {
+                throw new SerializationException("invalid count " + value + " in rememberMe payload");
+            }
+            return value;
+        }
+
+        String readString() {
+            int len = readCount();
+            String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                if (pos >= buf.length) {
+                    throw new SerializationException("truncated rememberMe payload");
+                }
+                byte b = buf[pos++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    if (value < 0) {
+                        break;
+                    }
+                    return value;
+                }
+            }
+            throw new SerializationException("malformed varint in rememberMe payload");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.shirolab.security.session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 远程键值存储的进程内替身，用于测试与单机演示多节点配置。
+ *
+ * 行为上模拟网络存储：写入与读取都复制字节数组（相当于序列化到线上的一份拷贝），
+ * 不同 {@link StoreBackedSessionDAO} 共享同一实例即相当于多个节点共享同一个远程存储。
+ */
+public class EmbeddedRemoteSessionStore implements SessionStore {
+
+    private final ConcurrentHashMap<String, Stored> data = new ConcurrentHashMap<String, Stored>();
+
+    @Override
+    public byte[] get(String id) {
+        Stored stored = data.get(id);
+        if (stored == null) {
+            return null;
+        }
+        // 与远程存储的 TTL 语义一致：过期条目不可读，并顺带删除
+        if (stored.expiresAt <= System.currentTimeMillis()) {
+            data.remove(id, stored);
+            return null;
+        }
+        return stored.bytes.clone();
+    }
+
+    @Override
+    public void put(String id, byte[] bytes, long expiresAtMillis) {
+        data.put(id, new Stored(bytes.clone(), expiresAtMillis));
+    }
+
+    @Override
+    public boolean replace(String id, byte[] bytes, long expiresAtMillis) {
+        final Stored replacement = new Stored(bytes.clone(), expiresAtMillis);
+        long now = System.currentTimeMillis();
+        return data.computeIfPresent(id, (key, stored) -> stored.expiresAt <= now ? null : replacement) != null;
+    }
+
+    @Override
+    public boolean contains(String id) {
+        Stored stored = data.get(id);
+        return stored != null && stored.expiresAt > System.currentTimeMillis();
+    }
+
+    @Override
+    public void remove(String id) {
+        data.remove(id);
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public Collection<String> ids() {
+        return new ArrayList<String>(data.keySet());
+    }
+
+    private static final class Stored {
+        final byte[] bytes;
+        final long expiresAt;
+
+        Stored(byte[] bytes, long expiresAt) {
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.shirolab.security.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 堆外会话存储：编码后的会话字节放在一块 direct ByteBuffer 或内存映射文件中，堆上只保留 ID 到槽位的索引。
+ *
+ * 空间管理按 2 的幂分级（64B ~ 64KB），每级一个空闲槽位栈，新槽位从尾部顺序分配；
+ * 会话大小不变（只更新访问时间）时原地覆盖，不分配新槽位。
+ *
+ * 并发：读写同一会话在该会话的索引条目上同步，复制完成前槽位不会被释放或复用；
+ * 分配器单独加锁。映射文件只用于让会话数据不占用 JVM 堆与 MaxDirectMemorySize，重启后不恢复。
+ */
+public class OffHeapSessionStore implements SessionStore, Closeable {
+
+    private static final int MIN_CLASS_SHIFT = 6;
+    private static final int MAX_CLASS_SHIFT = 16;
+
+    private final ByteBuffer arena;
+    private final FileChannel channel;
+    private final ConcurrentHashMap<String, Slot> index = new ConcurrentHashMap<String, Slot>();
+
+    private final int[][] freeSlots = new int[MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1][];
+    private final int[] freeCounts = new int[MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1];
+    private int top;
+
+
+    /**
+     * 使用 direct ByteBuffer 作为存储区。
+     */
+    public OffHeapSessionStore(int capacityBytes) {
+        this.arena = ByteBuffer.allocateDirect(capacityBytes);
+        this.channel = null;
+        initFreeLists();
+    }
+
+    /**
+     * 使用内存映射文件作为存储区，文件不存在时创建；已有内容会被覆盖。
+     */
+    public OffHeapSessionStore(Path file, int capacityBytes) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.arena = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+        initFreeLists();
+    }
+
+    private void initFreeLists() {
+        for (int i = 0; i < freeSlots.length; i++) {
+            freeSlots[i] = new int[16];
+        }
+    }
+
+    @Override
+    public byte[] get(String id) {
+        Slot slot = index.get(id);
+        if (slot == null) {
+            return null;
+        }
+        synchronized (slot) {
+            if (slot.offset < 0) {
+                return null;
+            }
+            byte[] out = new byte[slot.length];
+            ByteBuffer view = arena.duplicate();
+            view.position(slot.offset);
+            view.get(out);
+            return out;
+        }
+    }
+
+    @Override
+    public boolean contains(String id) {
+        Slot slot = index.get(id);
+        if (slot == null) {
+            return false;
+        }
+        synchronized (slot) {
+            return slot.offset >= 0;
+        }
+    }
+
+    /**
+     * 过期由 SessionManager 的过期调度负责，这里不使用 expiresAtMillis。
+     */
+    @Override
+    public void put(String id, byte[] data, long expiresAtMillis) {
+        int sizeClass = sizeClass(data.length);
+        while (true) {
+            Slot slot = index.get(id);
+            if (slot == null) {
+                Slot created = new Slot();
+                synchronized (created) {
+                    created.offset = allocate(sizeClass);
+                    created.sizeClass = sizeClass;
+                    write(created, data);
+                    if (index.putIfAbsent(id, created) == null) {
+                        return;
+                    }
+                    release(created.offset, created.sizeClass);
+                    created.offset = -1;
+                }
+                continue;
+            }
+            synchronized (slot) {
+                if (slot.offset < 0) {
+                    // 已被并发删除，重新插入
+                    continue;
+                }
+                overwrite(slot, data, sizeClass);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(String id, byte[] data, long expiresAtMillis) {
+        Slot slot = index.get(id);
+        if (slot == null) {
+            return false;
+        }
+        int sizeClass = sizeClass(data.length);
+        synchronized (slot) {
+            if (slot.offset < 0) {
+                return false;
+            }
+            overwrite(slot, data, sizeClass);
+            return true;
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        Slot slot = index.remove(id);
+        if (slot != null) {
+            synchronized (slot) {
+                if (slot.offset >= 0) {
+                    release(slot.offset, slot.sizeClass);
+                    slot.offset = -1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public Collection<String> ids() {
+        return new ArrayList<String>(index.keySet());
+    }
+
+    /**
+     * 已分配（含空闲栈中）的字节数，用于监控存储区使用情况。
+     */
+    public synchronized int getAllocatedBytes() {
+        return top;
+    }
+
+    public int getCapacityBytes() {
+        return arena.capacity();
+    }
+
+    @Override
+    public void close() throws IOException {
+        index.clear();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * 调用方持有 slot 的锁；大小级别不变时原地覆盖。
+     */
+    private void overwrite(Slot slot, byte[] data, int sizeClass) {
+        if (slot.sizeClass != sizeClass) {
+            int oldOffset = slot.offset;
+            int oldClass = slot.sizeClass;
+            slot.offset = allocate(sizeClass);
+            slot.sizeClass = sizeClass;
+            release(oldOffset, oldClass);
+        }
+        write(slot, data);
+    }
+
+    private void write(Slot slot, byte[] data) {
+        ByteBuffer view = arena.duplicate();
+        view.position(slot.offset);
+        view.put(data);
+        slot.length = data.length;
+    }
+
+    private static int sizeClass(int length) {
+        int shift = MIN_CLASS_SHIFT;
+        while ((1 << shift) < length) {
+            shift++;
+        }
+        if (shift > MAX_CLASS_SHIFT) {
+            throw new IllegalArgumentException("encoded session too large: " + length + " bytes");
+        }
+        return shift - MIN_CLASS_SHIFT;
+    }
+
+    private synchronized int allocate(int sizeClass) {
+        int count = freeCounts[sizeClass];
+        if (count > 0) {
+            freeCounts[sizeClass] = count - 1;
+            return freeSlots[sizeClass][count - 1];
+        }
+        int size = 1 << (sizeClass + MIN_CLASS_SHIFT);
+        if (top > arena.capacity() - size) {
+            throw new IllegalStateException("off-heap session store is full (" + arena.capacity() + " bytes)");
+        }
+        int offset = top;
+        top += size;
+        return offset;
+    }
+
+    private synchronized void release(int offset, int sizeClass) {
+        int count = freeCounts[sizeClass];
+        if (count == freeSlots[sizeClass].length) {
+            int[] grown = new int[count * 2];
+            System.arraycopy(freeSlots[sizeClass], 0, grown, 0, count);
+            freeSlots[sizeClass] = grown;
+        }
+        freeSlots[sizeClass][count] = offset;
+        freeCounts[sizeClass] = count + 1;
+    }
+
+    /**
+     * 索引条目；字段只在持有该对象监视器时读写。
+     */
+    private static final class Slot {
+        int offset;
+        int sizeClass;
+        int length;
+    }
+}
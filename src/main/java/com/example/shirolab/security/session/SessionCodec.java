@@ -0,0 +1,231 @@
+package com.example.shirolab.security.session;
+
+import com.example.shirolab.security.rememberme.CompactPrincipalSerializer;
+import org.apache.shiro.io.ClassResolvingObjectInputStream;
+import org.apache.shiro.io.SerializationException;
+import org.apache.shiro.session.mgt.SimpleSession;
+import org.apache.shiro.subject.PrincipalCollection;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SimpleSession 的紧凑编码，取代对整个会话做 Java 序列化。
+ *
+ * 布局（版本 1）：
+ * <pre>
+ *   magic(1) version(1) id(str) start(8) lastAccess(8) stop(8, -1 表示未停止) timeout(8) expired(1) host(str?)
+ *   attributeCount(4) { key(value) value(value) }*
+ *   value := tag(1) payload
+ * </pre>
+ * Shiro 自身写入的属性（主体集合、认证标记、字符串/数值）有专门的标签；
+ * 其余属性（例如 SavedRequest）退回 Java 序列化，因此存储后端应只对本应用的节点开放。
+ */
+public class SessionCodec {
+
+    static final byte MAGIC = (byte) 0x53;
+    static final byte VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_BOOLEAN = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_PRINCIPALS = 5;
+    private static final byte TAG_SERIALIZED = 6;
+
+    private final CompactPrincipalSerializer principalSerializer = new CompactPrincipalSerializer();
+
+    public byte[] encode(SimpleSession session) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            writeString(out, String.valueOf(session.getId()));
+            out.writeLong(millis(session.getStartTimestamp()));
+            out.writeLong(millis(session.getLastAccessTime()));
+            out.writeLong(millis(session.getStopTimestamp()));
+            out.writeLong(session.getTimeout());
+            out.writeBoolean(session.isExpired());
+            writeNullableString(out, session.getHost());
+            Map<Object, Object> attributes = session.getAttributes();
+            if (attributes == null) {
+                out.writeInt(0);
+            } else {
+                out.writeInt(attributes.size());
+                for (Map.Entry<Object, Object> entry : attributes.entrySet()) {
+                    writeValue(out, entry.getKey());
+                    writeValue(out, entry.getValue());
+                }
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Unable to encode session " + session.getId(), e);
+        }
+    }
+
+    public SimpleSession decode(byte[] data) {
+        if (data.length < 2 || data[0] != MAGIC || data[1] != VERSION) {
+            throw new SerializationException("not an encoded session (version " + VERSION + ")");
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 2, data.length - 2));
+            SimpleSession session = new SimpleSession();
+            session.setId(readString(in));
+            session.setStartTimestamp(date(in.readLong()));
+            session.setLastAccessTime(date(in.readLong()));
+            session.setStopTimestamp(date(in.readLong()));
+            session.setTimeout(in.readLong());
+            session.setExpired(in.readBoolean());
+            session.setHost(readNullableString(in));
+            int count = in.readInt();
+            if (count > 0) {
+                Map<Object, Object> attributes = new HashMap<Object, Object>(count * 2);
+                for (int i = 0; i < count; i++) {
+                    Object key = readValue(in);
+                    attributes.put(key, readValue(in));
+                }
+                session.setAttributes(attributes);
+            }
+            return session;
+        } catch (IOException | ClassNotFoundException e) {
+            throw new SerializationException("Unable to decode session", e);
+        }
+    }
+
+    /**
+     * 会话在存储中的过期时间点：最后访问时间 + 超时；已停止或已过期的会话立即到期。
+     */
+    public static long expiresAt(SimpleSession session) {
+        if (session.isExpired() || session.getStopTimestamp() != null) {
+            return 0L;
+        }
+        long timeout = session.getTimeout();
+        if (timeout < 0) {
+            return Long.MAX_VALUE;
+        }
+        return millis(session.getLastAccessTime()) + timeout;
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof PrincipalCollection && writePrincipals(out, (PrincipalCollection) value)) {
+            return;
+        } else if (value instanceof Serializable) {
+            out.writeByte(TAG_SERIALIZED);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(bytes);
+            oos.writeObject(value);
+            oos.close();
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        } else {
+            throw new SerializationException("session attribute is not serializable: " + value.getClass().getName());
+        }
+    }
+
+    private boolean writePrincipals(DataOutputStream out, PrincipalCollection principals) throws IOException {
+        byte[] encoded;
+        try {
+            encoded = principalSerializer.serialize(principals);
+        } catch (SerializationException e) {
+            // 非 String 主体交给 Java 序列化
+            return false;
+        }
+        out.writeByte(TAG_PRINCIPALS);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+        return true;
+    }
+
+    private Object readValue(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return readString(in);
+            case TAG_BOOLEAN:
+                return in.readBoolean();
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_PRINCIPALS:
+                return principalSerializer.deserialize(readBytes(in));
+            case TAG_SERIALIZED:
+                ObjectInputStream ois = new ClassResolvingObjectInputStream(new ByteArrayInputStream(readBytes(in)));
+                try {
+                    return ois.readObject();
+                } finally {
+                    ois.close();
+                }
+            default:
+                throw new SerializationException("unknown session attribute tag " + tag);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new SerializationException("invalid length " + length + " in encoded session");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            writeString(out, s);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    private static long millis(Date date) {
+        return date == null ? -1L : date.getTime();
+    }
+
+    private static Date date(long millis) {
+        return millis < 0 ? null : new Date(millis);
+    }
+}
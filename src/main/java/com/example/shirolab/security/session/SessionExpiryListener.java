@@ -0,0 +1,16 @@
+package com.example.shirolab.security.session;
+
+/**
+ * 接收 {@link StoreBackedSessionDAO} 写入/删除会话的通知，用于维护过期索引。
+ */
+public interface SessionExpiryListener {
+
+    /**
+     * 会话被写入存储（创建、访问或属性变化）。
+     *
+     * @param expiresAtMillis 见 {@link SessionCodec#expiresAt}
+     */
+    void sessionUpdated(String sessionId, long expiresAtMillis);
+
+    void sessionDeleted(String sessionId);
+}
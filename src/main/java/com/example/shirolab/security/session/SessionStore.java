@@ -0,0 +1,46 @@
+package com.example.shirolab.security.session;
+
+import java.util.Collection;
+
+/**
+ * 已编码会话的存储后端，键为会话 ID 字符串，值为 {@link SessionCodec} 的输出。
+ *
+ * 本地实现为 {@link OffHeapSessionStore}；多节点共享时实现该接口接入远程键值存储
+ * （put 对应带过期时间的 SET）。
+ * 所有方法都可能被多个请求线程并发调用。
+ */
+public interface SessionStore {
+
+    /**
+     * @return 编码后的会话副本，不存在时返回 null
+     */
+    byte[] get(String id);
+
+    /**
+     * 写入（覆盖）会话。
+     *
+     * @param expiresAtMillis 会话最后访问时间 + 超时时间，永不过期为 Long.MAX_VALUE
+     */
+    void put(String id, byte[] data, long expiresAtMillis);
+
+    /**
+     * 仅在会话仍存在（未删除、未过期）时覆盖，对应远程存储的 SET ... XX；检查与写入是原子的。
+     *
+     * @return 是否写入
+     */
+    boolean replace(String id, byte[] data, long expiresAtMillis);
+
+    /**
+     * 会话是否存在（未删除、未过期），不复制数据，对应远程存储的 EXISTS；可在请求路径上调用。
+     */
+    boolean contains(String id);
+
+    void remove(String id);
+
+    int size();
+
+    /**
+     * 当前全部会话 ID 的弱一致快照，只用于管理与统计，不在请求路径上调用。
+     */
+    Collection<String> ids();
+}
@@ -0,0 +1,230 @@
+package com.example.shirolab.security.session;
+
+import com.example.shirolab.support.BoundedCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.shiro.session.Session;
+import org.apache.shiro.session.UnknownSessionException;
+import org.apache.shiro.session.mgt.SimpleSession;
+import org.apache.shiro.session.mgt.eis.AbstractSessionDAO;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于 {@link SessionStore} 的 SessionDAO，会话以 {@link SessionCodec} 编码后存放在堆外或远程存储中。
+ *
+ * 延迟创建：新会话在写入第一个属性之前只以编码后的快照放在一个有界、短 TTL 的堆上暂存区里（同一请求内仍可正常读取），
+ * 不写入存储；请求结束前都没有写属性的会话随暂存区过期而消失，下次携带其 Cookie 的请求按“会话不存在”处理。
+ * 暂存区满时被 LRU 淘汰的会话不丢弃，而是提前写入存储（按会话超时过期），
+ * 因此大量新会话涌入时，尚未写属性的真实会话之后仍能正常 update；代价是这些会话会占用存储直到超时。
+ *
+ * 更新只覆盖仍存在的会话（{@link SessionStore#replace}）：已删除或已过期的会话再被 update 时抛出
+ * UnknownSessionException，不会被写回存储。暂存区到存储的转移与删除在按 ID 分段的锁内进行，二者互斥。
+ *
+ * 过期：每次写入/删除会话都通知 {@link SessionExpiryListener}（{@link TimingWheelSessionValidationScheduler}），
+ * 由其按截止时间只处理到期的会话，不再由 getActiveSessions() 全量解码遍历。
+ */
+public class StoreBackedSessionDAO extends AbstractSessionDAO implements MeterBinder {
+
+    private final SessionStore store;
+    private final SessionCodec codec = new SessionCodec();
+    private final BoundedCache<String, byte[]> pending;
+    private final Object[] pendingLocks = new Object[64];
+
+    private final LongAdder started = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder promoted = new LongAdder();
+
+    private volatile SessionExpiryListener expiryListener;
+
+    /**
+     * @param pendingMaxSize 暂存区容量（尚未写属性的会话数），超出时最久未访问的会话提前写入存储
+     * @param pendingTtlMillis 会话在暂存区中最长停留时间，应大于单个请求的处理时间
+     */
+    public StoreBackedSessionDAO(SessionStore store, int pendingMaxSize, long pendingTtlMillis) {
+        this.store = store;
+        this.pending = new BoundedCache<String, byte[]>(pendingMaxSize, pendingTtlMillis, this::promote);
+        for (int i = 0; i < pendingLocks.length; i++) {
+            pendingLocks[i] = new Object();
+        }
+    }
+
+    public void setExpiryListener(SessionExpiryListener expiryListener) {
+        this.expiryListener = expiryListener;
+    }
+
+    @Override
+    protected Serializable doCreate(Session session) {
+        SimpleSession simple = asSimpleSession(session);
+        Serializable sessionId = generateSessionId(simple);
+        assignSessionId(simple, sessionId);
+        started.increment();
+        String key = sessionId.toString();
+        byte[] data = codec.encode(simple);
+        if (hasAttributes(simple)) {
+            long expiresAt = SessionCodec.expiresAt(simple);
+            store.put(key, data, expiresAt);
+            notifyUpdated(key, expiresAt);
+            persisted.increment();
+        } else {
+            pending.put(key, data);
+        }
+        return sessionId;
+    }
+
+    @Override
+    protected Session doReadSession(Serializable sessionId) {
+        String key = sessionId.toString();
+        byte[] data = pending.get(key);
+        if (data == null) {
+            data = store.get(key);
+        }
+        return data == null ? null : codec.decode(data);
+    }
+
+    /**
+     * 写入的是调用时编码的快照，之后对 session 实例的修改不会影响已写入的内容。
+     *
+     * @throws UnknownSessionException 会话已删除或已过期
+     */
+    @Override
+    public void update(Session session) throws UnknownSessionException {
+        SimpleSession simple = asSimpleSession(session);
+        String key = simple.getId().toString();
+        byte[] data = codec.encode(simple);
+        long expiresAt = SessionCodec.expiresAt(simple);
+        if (pending.get(key) != null) {
+            synchronized (lockFor(key)) {
+                if (pending.get(key) != null) {
+                    if (hasAttributes(simple)) {
+                        // 先移出暂存区再写存储：若在此之前已被淘汰并提前写入，这里用新快照覆盖它；
+                        // 两步之间并发的 update 在下方的锁内重试，总能看到写入后的结果
+                        pending.remove(key);
+                        store.put(key, data, expiresAt);
+                        notifyUpdated(key, expiresAt);
+                        persisted.increment();
+                    } else {
+                        pending.put(key, data);
+                    }
+                    return;
+                }
+            }
+        }
+        if (!store.replace(key, data, expiresAt)) {
+            synchronized (lockFor(key)) {
+                if (!store.replace(key, data, expiresAt)) {
+                    throw new UnknownSessionException("There is no session with id [" + key + "]");
+                }
+            }
+        }
+        notifyUpdated(key, expiresAt);
+    }
+
+    /**
+     * 暂存区因容量淘汰会话时调用（持有暂存区分段锁，见 {@link BoundedCache}）：提前写入存储。
+     * 与 delete 在同一分段锁上串行，已删除的会话不会被写回。
+     */
+    private void promote(String key, byte[] data) {
+        long expiresAt = SessionCodec.expiresAt(codec.decode(data));
+        store.put(key, data, expiresAt);
+        notifyUpdated(key, expiresAt);
+        persisted.increment();
+        promoted.increment();
+    }
+
+    @Override
+    public void delete(Session session) {
+        String key = session.getId().toString();
+        synchronized (lockFor(key)) {
+            pending.remove(key);
+            store.remove(key);
+        }
+        SessionExpiryListener listener = expiryListener;
+        if (listener != null) {
+            listener.sessionDeleted(key);
+        }
+    }
+
+    /**
+     * 解码存储中的全部会话，O(会话数)；仅为满足 SessionDAO 接口，请求路径与过期检查都不使用。
+     * 暂存区中尚未写属性的会话不在其中。
+     */
+    @Override
+    public Collection<Session> getActiveSessions() {
+        Collection<Session> sessions = new ArrayList<Session>();
+        for (String id : store.ids()) {
+            byte[] data = store.get(id);
+            if (data != null) {
+                sessions.add(codec.decode(data));
+            }
+        }
+        return sessions;
+    }
+
+    public long getStartedCount() {
+        return started.sum();
+    }
+
+    /**
+     * 实际写入存储的会话数（创建时即有属性，或之后第一次写属性）。
+     */
+    public long getPersistedCount() {
+        return persisted.sum();
+    }
+
+    /**
+     * 会话是否已写入存储。暂存区中的会话还没有任何属性（因而也没有登录主体），不算在内。
+     */
+    public boolean isStored(String sessionId) {
+        return store.contains(sessionId);
+    }
+
+    /**
+     * 因暂存区已满而提前写入存储的会话数；持续增长说明 pending.max-size 偏小。
+     */
+    public long getPromotedCount() {
+        return promoted.sum();
+    }
+
+    public int getStoredCount() {
+        return store.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("shiro.sessions.started", started, LongAdder::sum).register(registry);
+        FunctionCounter.builder("shiro.sessions.persisted", persisted, LongAdder::sum).register(registry);
+        FunctionCounter.builder("shiro.sessions.promoted", promoted, LongAdder::sum).register(registry);
+        Gauge.builder("shiro.sessions.stored", store, SessionStore::size).register(registry);
+    }
+
+    private void notifyUpdated(String key, long expiresAt) {
+        SessionExpiryListener listener = expiryListener;
+        if (listener != null) {
+            listener.sessionUpdated(key, expiresAt);
+        }
+    }
+
+    private Object lockFor(String key) {
+        return pendingLocks[key.hashCode() & (pendingLocks.length - 1)];
+    }
+
+    private static boolean hasAttributes(SimpleSession session) {
+        Map<Object, Object> attributes = session.getAttributes();
+        return attributes != null && !attributes.isEmpty();
+    }
+
+    private static SimpleSession asSimpleSession(Session session) {
+        if (!(session instanceof SimpleSession)) {
+            throw new IllegalArgumentException("StoreBackedSessionDAO only supports SimpleSession, got "
+                    + session.getClass().getName());
+        }
+        return (SimpleSession) session;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.shirolab.security.session;
+
+import com.example.shirolab.support.TimingWheel;
+import org.apache.shiro.session.InvalidSessionException;
+import org.apache.shiro.session.mgt.DefaultSessionKey;
+import org.apache.shiro.session.mgt.NativeSessionManager;
+import org.apache.shiro.session.mgt.SessionKey;
+import org.apache.shiro.session.mgt.SessionValidationScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于分层时间轮的会话过期调度，替代 ExecutorServiceSessionValidationScheduler 的定期全量 validateSessions()。
+ *
+ * 会话按“最后访问时间 + 超时”放入 {@link TimingWheel}：DAO 每次写入会话时通过 {@link SessionExpiryListener}
+ * 更新截止时间（O(1)），每个 tick 只取出到期的会话，调用 sessionManager.checkValid 走 Shiro 正常的过期流程
+ * （通知监听器并删除）。到期检查时会话仍然有效（例如在其他节点上被访问过）则按其实际最后访问时间重新放入。
+ *
+ * 时间轮只跟踪经本节点写入过的会话；共享存储中从未经本节点写入的会话由写入它的节点或存储自身的 TTL 负责过期。
+ */
+public class TimingWheelSessionValidationScheduler implements SessionValidationScheduler, SessionExpiryListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheelSessionValidationScheduler.class);
+
+    private final NativeSessionManager sessionManager;
+    private final long tickMillis;
+    private final TimingWheel<String> wheel;
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder rescheduled = new LongAdder();
+    private ScheduledExecutorService executor;
+    private volatile boolean enabled;
+
+    public TimingWheelSessionValidationScheduler(NativeSessionManager sessionManager, long tickMillis) {
+        this.sessionManager = sessionManager;
+        this.tickMillis = tickMillis;
+        this.wheel = new TimingWheel<String>(tickMillis, System.currentTimeMillis());
+    }
+
+    @Override
+    public void sessionUpdated(String sessionId, long expiresAtMillis) {
+        wheel.schedule(sessionId, expiresAtMillis);
+    }
+
+    @Override
+    public void sessionDeleted(String sessionId) {
+        wheel.remove(sessionId);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public synchronized void enableSessionValidation() {
+        if (enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-expiry-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> expireDue(System.currentTimeMillis()),
+                tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        enabled = true;
+    }
+
+    @Override
+    public synchronized void disableSessionValidation() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        enabled = false;
+    }
+
+    /**
+     * 推进时间轮并让到期会话失效。
+     *
+     * @return 本次失效的会话数
+     */
+    public int expireDue(long nowMillis) {
+        List<String> due = new ArrayList<String>();
+        try {
+            wheel.advance(nowMillis, due);
+            int invalidated = 0;
+            for (String id : due) {
+                SessionKey key = new DefaultSessionKey(id);
+                try {
+                    sessionManager.checkValid(key);
+                    reschedule(id, key);
+                } catch (InvalidSessionException e) {
+                    invalidated++;
+                }
+            }
+            expired.add(invalidated);
+            return invalidated;
+        } catch (RuntimeException e) {
+            // 定时任务抛出异常会被取消，这里记录后继续下一轮
+            log.warn("Session expiry tick failed", e);
+            return 0;
+        }
+    }
+
+    private void reschedule(String id, SessionKey key) {
+        Date lastAccess = sessionManager.getLastAccessTime(key);
+        long timeout = sessionManager.getTimeout(key);
+        wheel.schedule(id, timeout < 0 ? Long.MAX_VALUE : lastAccess.getTime() + timeout);
+        rescheduled.increment();
+    }
+
+    public int getTrackedCount() {
+        return wheel.size();
+    }
+
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    public long getRescheduledCount() {
+        return rescheduled.sum();
+    }
+}
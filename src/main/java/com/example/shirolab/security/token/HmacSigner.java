@@ -0,0 +1,80 @@
+package com.example.shirolab.security.token;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * base64url(payload) "." base64url(HMAC-SHA256(payload)) 的编码与常量时间校验。
+ *
+ * 各调用方的 payload 以不同的 magic 字节开头，同一密钥签出的不同用途的值不能互换。
+ */
+final class HmacSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final int maxLength;
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * @param secret 密钥，为空时随机生成（签出的值只在本进程内有效）
+     * @param maxLength 接受的编码值最大长度，超长的值不解码、不计算 MAC
+     */
+    HmacSigner(byte[] secret, int maxLength) {
+        if (secret == null || secret.length == 0) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.maxLength = maxLength;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    String encode(byte[] payload) {
+        return ENCODER.encodeToString(payload) + '.' + ENCODER.encodeToString(mac(payload));
+    }
+
+    /**
+     * @return 签名正确时的 payload，否则 null
+     */
+    byte[] decode(String value) {
+        if (value == null || value.length() > maxLength) {
+            return null;
+        }
+        int dot = value.indexOf('.');
+        if (dot <= 0 || dot != value.lastIndexOf('.')) {
+            return null;
+        }
+        byte[] payload;
+        byte[] mac;
+        try {
+            payload = DECODER.decode(value.substring(0, dot));
+            mac = DECODER.decode(value.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return MessageDigest.isEqual(mac(payload), mac) ? payload : null;
+    }
+
+    private byte[] mac(byte[] payload) {
+        Mac mac = macs.get();
+        mac.reset();
+        return mac.doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.shirolab.security.token;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongSupplier;
+
+/**
+ * 登录后跳转地址的签名：代替 Shiro saveRequest 存在会话里的 SavedRequest，随重定向放在查询参数中往返。
+ *
+ * payload := magic(1) expiresAtMillis(8) UTF-8 path
+ *
+ * 只接受已编码的站内路径：以单个 "/" 开头，全部为可见 ASCII 字符且不含反斜杠。
+ * 浏览器会丢弃 Location 中的制表符、换行并把 "\" 当作 "/"，"/\t/host" 这类值因此会变成 "//host"，
+ * 所以空白、控制字符与非 ASCII 字符一律拒绝（调用方应先用 UriComponentsBuilder 编码）。
+ * 签名与校验时都做这一检查，校验失败或过期时调用方回退到默认首页，因此该参数不能被用作开放重定向。
+ */
+public class ReturnUrlSigner {
+
+    static final byte MAGIC = (byte) 0x52;
+
+    private static final int MAX_LENGTH = 2048;
+
+    private final HmacSigner signer;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    public ReturnUrlSigner(byte[] secret, long ttlMillis) {
+        this(secret, ttlMillis, System::currentTimeMillis);
+    }
+
+    ReturnUrlSigner(byte[] secret, long ttlMillis, LongSupplier clock) {
+        this.signer = new HmacSigner(secret, MAX_LENGTH);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return 签名后的值；path 不是站内路径时返回 null
+     */
+    public String sign(String path) {
+        if (!isLocalPath(path)) {
+            return null;
+        }
+        byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 8 + bytes.length);
+        payload.put(MAGIC).putLong(clock.getAsLong() + ttlMillis).put(bytes);
+        return signer.encode(payload.array());
+    }
+
+    /**
+     * @return 签名正确、未过期的站内路径，否则 null
+     */
+    public String verify(String signed) {
+        byte[] payload = signer.decode(signed);
+        if (payload == null || payload.length < 9 || payload[0] != MAGIC) {
+            return null;
+        }
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        in.get();
+        if (in.getLong() <= clock.getAsLong()) {
+            return null;
+        }
+        String path = new String(payload, 9, payload.length - 9, StandardCharsets.UTF_8);
+        return isLocalPath(path) ? path : null;
+    }
+
+    private static boolean isLocalPath(String path) {
+        if (path == null || !path.startsWith("/") || path.startsWith("//")) {
+            return false;
+        }
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c <= 0x20 || c >= 0x7F || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.shirolab.security.token;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * 无状态登录令牌的签发与校验（HMAC-SHA256）。
+ *
+ * 令牌格式：base64url(payload) "." base64url(mac)，mac 覆盖 payload 原始字节。payload 固定布局：
+ * <pre>
+ *   magic(1) version(1) expiresAtMillis(8) principal(str) roleCount(1) { role(str) }*
+ *   str := byteLength(2) UTF-8 bytes
+ * </pre>
+ *
+ * 校验只做 Base64 解码、一次 HMAC 与常量时间比较，不查询会话或 realm；
+ * 多个节点配置同一个 secret 即可互认令牌。未配置 secret 时启动生成随机密钥，令牌只在本进程内有效。
+ * 令牌在过期前无法吊销，ttl 应保持较短。
+ */
+public class SignedTokenService {
+
+    static final byte MAGIC = (byte) 0x54;
+    static final byte VERSION = 1;
+
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
+    private final HmacSigner signer;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    public SignedTokenService(byte[] secret, long ttlMillis) {
+        this(secret, ttlMillis, System::currentTimeMillis);
+    }
+
+    SignedTokenService(byte[] secret, long ttlMillis, LongSupplier clock) {
+        this.signer = new HmacSigner(secret, MAX_TOKEN_LENGTH);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public String issue(String principal, Collection<String> roles) {
+        return issue(new TokenClaims(principal, roles == null ? new LinkedHashSet<String>() : new LinkedHashSet<String>(roles),
+                clock.getAsLong() + ttlMillis));
+    }
+
+    public String issue(TokenClaims claims) {
+        byte[][] roles = new byte[claims.getRoles().size()][];
+        if (roles.length > 0xFF) {
+            throw new IllegalArgumentException("too many roles: " + roles.length);
+        }
+        byte[] principal = utf8(claims.getPrincipal());
+        int size = 2 + 8 + 2 + principal.length + 1;
+        int i = 0;
+        for (String role : claims.getRoles()) {
+            roles[i] = utf8(role);
+            size += 2 + roles[i].length;
+            i++;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(size);
+        payload.put(MAGIC).put(VERSION).putLong(claims.getExpiresAtMillis());
+        payload.putShort((short) principal.length).put(principal);
+        payload.put((byte) roles.length);
+        for (byte[] role : roles) {
+            payload.putShort((short) role.length).put(role);
+        }
+        return signer.encode(payload.array());
+    }
+
+    /**
+     * @return 验签通过且未过期的令牌内容；格式错误、签名不符或已过期时返回 null
+     */
+    public TokenClaims verify(String token) {
+        byte[] payload = signer.decode(token);
+        if (payload == null) {
+            return null;
+        }
+        TokenClaims claims = parse(payload);
+        if (claims == null || claims.getExpiresAtMillis() <= clock.getAsLong()) {
+            return null;
+        }
+        return claims;
+    }
+
+    private static TokenClaims parse(byte[] payload) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            if (in.get() != MAGIC || in.get() != VERSION) {
+                return null;
+            }
+            long expiresAt = in.getLong();
+            String principal = readString(in);
+            int roleCount = in.get() & 0xFF;
+            Set<String> roles = new LinkedHashSet<String>();
+            for (int r = 0; r < roleCount; r++) {
+                roles.add(readString(in));
+            }
+            if (in.hasRemaining()) {
+                return null;
+            }
+            return new TokenClaims(principal, roles, expiresAt);
+        } catch (RuntimeException e) {
+            // BufferUnderflowException 等：签名正确但布局不符（例如旧版本密钥签发的其他格式）
+            return null;
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        String s = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return s;
+    }
+
+    private static byte[] utf8(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("token string too long");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.shirolab.security.token;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 已验签的令牌内容：主体（用户名）、签发时的角色快照与过期时间。
+ */
+public final class TokenClaims {
+
+    private final String principal;
+    private final Set<String> roles;
+    private final long expiresAtMillis;
+
+    public TokenClaims(String principal, Set<String> roles, long expiresAtMillis) {
+        this.principal = principal;
+        this.roles = Collections.unmodifiableSet(new LinkedHashSet<String>(roles));
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getPrincipal() {
+        return principal;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.shirolab.security.token;
+
+import org.apache.shiro.authz.AuthorizationException;
+import org.apache.shiro.authz.UnauthorizedException;
+import org.apache.shiro.mgt.SecurityManager;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.apache.shiro.web.subject.support.WebDelegatingSubject;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 由已验签令牌构造的无会话 Subject。
+ *
+ * - 已认证、禁止创建会话（getSession() 抛 DisabledSessionException），不会写入任何服务端状态；
+ * - 角色判断直接读取令牌中的角色快照，不经过 SecurityManager 与 realm；
+ * - 权限判断仍交给 SecurityManager：主体挂在 realmName 下，由该 realm 按用户名解析权限。
+ */
+public class TokenSubject extends WebDelegatingSubject {
+
+    private final Set<String> roles;
+
+    public TokenSubject(TokenClaims claims, String realmName, ServletRequest request, ServletResponse response,
+                        SecurityManager securityManager) {
+        super(new SimplePrincipalCollection(claims.getPrincipal(), realmName), true, request.getRemoteHost(),
+                null, false, request, response, securityManager);
+        this.roles = claims.getRoles();
+    }
+
+    @Override
+    public boolean hasRole(String roleIdentifier) {
+        return roles.contains(roleIdentifier);
+    }
+
+    @Override
+    public boolean[] hasRoles(List<String> roleIdentifiers) {
+        if (roleIdentifiers == null) {
+            return new boolean[0];
+        }
+        boolean[] result = new boolean[roleIdentifiers.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = roles.contains(roleIdentifiers.get(i));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean hasAllRoles(Collection<String> roleIdentifiers) {
+        return roleIdentifiers == null || roles.containsAll(roleIdentifiers);
+    }
+
+    @Override
+    public void checkRole(String role) throws AuthorizationException {
+        if (!roles.contains(role)) {
+            throw new UnauthorizedException("Subject does not have role [" + role + "]");
+        }
+    }
+
+    @Override
+    public void checkRoles(String... roleIdentifiers) throws AuthorizationException {
+        if (roleIdentifiers != null) {
+            for (String role : roleIdentifiers) {
+                checkRole(role);
+            }
+        }
+    }
+
+    @Override
+    public void checkRoles(Collection<String> roleIdentifiers) throws AuthorizationException {
+        if (roleIdentifiers != null) {
+            for (String role : roleIdentifiers) {
+                checkRole(role);
+            }
+        }
+    }
+}
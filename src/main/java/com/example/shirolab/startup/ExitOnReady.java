@@ -0,0 +1,54 @@
+package com.example.shirolab.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 就绪（且预热完成）后正常关闭并退出 JVM，供构建期的 AppCDS 训练运行使用：
+ * JVM 以 -XX:ArchiveClassesAtExit 启动时，退出时把启动与首个请求加载过的类写入归档。
+ */
+public class ExitOnReady implements ApplicationListener<ApplicationReadyEvent>, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(ExitOnReady.class);
+
+    private final CompletableFuture<Void> prewarm;
+    private final long prewarmTimeoutMillis;
+
+    /**
+     * @param prewarm 预热完成信号，未启用预热时为 null
+     */
+    public ExitOnReady(CompletableFuture<Void> prewarm, long prewarmTimeoutMillis) {
+        this.prewarm = prewarm;
+        this.prewarmTimeoutMillis = prewarmTimeoutMillis;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (prewarm != null) {
+            try {
+                prewarm.get(prewarmTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("prewarm did not finish within {} ms, exiting anyway", prewarmTimeoutMillis);
+            }
+        }
+        log.info("shirolab.startup.exit-on-ready=true, shutting down");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+
+    /**
+     * 排在其他就绪监听器（包括启动预热）之后。
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.shirolab.startup;
+
+import com.example.shirolab.security.filter.CompiledFilterChainResolver;
+import com.example.shirolab.security.realm.WarmableRealm;
+import org.apache.shiro.web.filter.mgt.FilterChainResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 应用就绪后在后台线程预热首个请求会走到的路径，不占用启动时间：
+ * - realm：确保授权快照已构建，并为每个账户填充 authorizationCache；
+ * - chains：对每条过滤链规则执行一次匹配，加载并编译链解析器；
+ * - http：向本机端口发一次 GET {warm-path}，完成 DispatcherServlet 初始化、模板解析与整条过滤链的类加载。
+ *
+ * 每一步都作为 shirolab.prewarm.* 步骤记录到 ApplicationStartup，与启动时间线一起出现在 actuator startup 端点。
+ */
+public class StartupPrewarmer implements ApplicationListener<ApplicationReadyEvent>, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupPrewarmer.class);
+
+    private final WarmableRealm realm;
+    private final FilterChainResolver chainResolver;
+    private final String warmPath;
+    private final CompletableFuture<Void> completion = new CompletableFuture<Void>();
+
+    public StartupPrewarmer(WarmableRealm realm, FilterChainResolver chainResolver, String warmPath) {
+        this.realm = realm;
+        this.chainResolver = chainResolver;
+        this.warmPath = warmPath;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        Thread thread = new Thread(() -> run(context), "shirolab-prewarm");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+
+    /**
+     * 预热结束（无论成功与否）时完成。
+     */
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    private void run(ConfigurableApplicationContext context) {
+        ApplicationStartup startup = context.getApplicationStartup();
+        long begin = System.nanoTime();
+        try {
+            StartupStep step = startup.start("shirolab.prewarm.realm");
+            step.tag("accounts", String.valueOf(realm.warmUp()));
+            step.end();
+
+            if (chainResolver instanceof CompiledFilterChainResolver) {
+                step = startup.start("shirolab.prewarm.chains");
+                step.tag("rules", String.valueOf(((CompiledFilterChainResolver) chainResolver).warmUp()));
+                step.end();
+            }
+
+            if (context instanceof WebServerApplicationContext && warmPath != null && !warmPath.isEmpty()) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                if (port > 0) {
+                    step = startup.start("shirolab.prewarm.http");
+                    step.tag("path", warmPath);
+                    step.tag("status", String.valueOf(get(port, context.getEnvironment()
+                            .getProperty("server.servlet.context-path", "") + warmPath)));
+                    step.end();
+                }
+            }
+            log.info("prewarm finished in {} ms", (System.nanoTime() - begin) / 1_000_000L);
+        } catch (Exception e) {
+            log.warn("prewarm failed, first requests will pay the warm-up cost", e);
+        } finally {
+            completion.complete(null);
+        }
+    }
+
+    private static int get(int port, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", "127.0.0.1", port, path).openConnection();
+        connection.setInstanceFollowRedirects(false);
+        connection.setConnectTimeout(2000);
+        connection.setReadTimeout(10000);
+        try {
+            int status = connection.getResponseCode();
+            InputStream body = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (body != null) {
+                byte[] buffer = new byte[4096];
+                while (body.read(buffer) >= 0) {
+                    // 读完正文，让连接可复用
+                }
+                body.close();
+            }
+            return status;
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.shirolab.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 就绪时把启动时间线汇总成一行日志，便于在部署日志里横向比较、发现启动回退：
+ * <pre>
+ *   startup timeline: jvm=310ms environment-prepared=45ms context-prepared=3ms ... refresh=1830ms ... ready=2290ms
+ *   slowest beans: {shiroFilter=210, securityManager=95, ...}
+ * </pre>
+ *
+ * 阶段取自 Spring Boot 记录的 spring.boot.application.* 与 spring.context.refresh 步骤，
+ * jvm 为 JVM 启动到 main 创建 BufferingApplicationStartup 之间的时间；Bean 耗时包含其依赖的实例化。
+ * 完整的逐步骤明细见 actuator 的 startup 端点（需应用以 {@link BufferingApplicationStartup} 启动）；
+ * 该端点的 POST 会取走并清空缓冲的步骤，与其他 actuator 端点一样仅 admin 可访问。
+ */
+public class StartupTimelineReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimelineReporter.class);
+
+    private static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+    private static final String BOOT_PREFIX = "spring.boot.application.";
+
+    private final int slowestBeans;
+
+    public StartupTimelineReporter(int slowestBeans) {
+        this.slowestBeans = slowestBeans;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup)) {
+            log.info("startup timeline: ready={}ms (start with BufferingApplicationStartup for per-phase details)",
+                    ManagementFactory.getRuntimeMXBean().getUptime());
+            return;
+        }
+        StartupTimeline timeline = ((BufferingApplicationStartup) startup).getBufferedTimeline();
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        Summary summary = summarize(timeline, slowestBeans);
+        StringBuilder phases = new StringBuilder("jvm=")
+                .append(Math.max(0L, timeline.getStartTime().toEpochMilli() - jvmStart)).append("ms");
+        for (Map.Entry<String, Long> phase : summary.phases.entrySet()) {
+            phases.append(' ').append(phase.getKey()).append('=').append(phase.getValue()).append("ms");
+        }
+        phases.append(" ready=").append(ManagementFactory.getRuntimeMXBean().getUptime()).append("ms");
+        log.info("startup timeline: {}", phases);
+        if (!summary.slowestBeans.isEmpty()) {
+            log.info("slowest beans: {}", summary.slowestBeans);
+        }
+    }
+
+    /**
+     * 按阶段名汇总耗时（同名阶段累加，保持首次出现的顺序），并取实例化最慢的若干 Bean。
+     */
+    static Summary summarize(StartupTimeline timeline, int slowestBeans) {
+        Map<String, Long> phases = new LinkedHashMap<String, Long>();
+        List<StartupTimeline.TimelineEvent> beans = new ArrayList<StartupTimeline.TimelineEvent>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            String name = event.getStartupStep().getName();
+            if (BEAN_INSTANTIATE.equals(name)) {
+                beans.add(event);
+                continue;
+            }
+            String phase = phaseName(name);
+            if (phase != null) {
+                phases.merge(phase, event.getDuration().toMillis(), Long::sum);
+            }
+        }
+        beans.sort(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed());
+        Map<String, Long> slowest = new LinkedHashMap<String, Long>();
+        for (StartupTimeline.TimelineEvent event : beans) {
+            if (slowest.size() >= slowestBeans) {
+                break;
+            }
+            slowest.putIfAbsent(beanName(event.getStartupStep()), event.getDuration().toMillis());
+        }
+        return new Summary(phases, slowest);
+    }
+
+    private static String phaseName(String stepName) {
+        if (stepName.startsWith(BOOT_PREFIX)) {
+            return stepName.substring(BOOT_PREFIX.length());
+        }
+        if ("spring.context.refresh".equals(stepName)) {
+            return "refresh";
+        }
+        return null;
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "#" + step.getId();
+    }
+
+    static final class Summary {
+        final Map<String, Long> phases;
+        final Map<String, Long> slowestBeans;
+
+        Summary(Map<String, Long> phases, Map<String, Long> slowestBeans) {
+            this.phases = phases;
+            this.slowestBeans = slowestBeans;
+        }
+    }
+}
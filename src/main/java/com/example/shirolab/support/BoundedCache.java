@@ -0,0 +1,166 @@
+package com.example.shirolab.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 有界 LRU + TTL 缓存，按 key 的哈希分段加锁以降低请求线程间的竞争。
+ *
+ * - 每个分段是一个 accessOrder 的 LinkedHashMap，超出分段容量时淘汰最久未访问的条目；
+ * - ttl &lt;= 0 表示不过期，否则条目写入 ttl 之后视为失效并在下次访问时移除；
+ * - 命中/未命中/淘汰计数使用 LongAdder，读取计数不影响热路径；
+ * - 可选的淘汰监听器只在因容量被淘汰时调用（TTL 失效、remove、clear 不调用），
+ *   调用时仍持有该分段的锁：条目离开缓存与监听器处理它之间，同一分段上的其他操作看不到中间状态。
+ *   监听器不能再访问本缓存。
+ */
+public class BoundedCache<K, V> {
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, null, System::nanoTime);
+    }
+
+    public BoundedCache(int maxSize, long ttlMillis, BiConsumer<K, V> evictionListener) {
+        this(maxSize, ttlMillis, evictionListener, System::nanoTime);
+    }
+
+    BoundedCache(int maxSize, long ttlMillis, LongSupplier ticker) {
+        this(maxSize, ttlMillis, null, ticker);
+    }
+
+    @SuppressWarnings("unchecked")
+    BoundedCache(int maxSize, long ttlMillis, BiConsumer<K, V> evictionListener, LongSupplier ticker) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        int segmentCount = 1;
+        while (segmentCount < 16 && segmentCount * 2 <= maxSize / 8) {
+            segmentCount <<= 1;
+        }
+        int perSegment = (maxSize + segmentCount - 1) / segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<K, V>(perSegment, evictions, evictionListener);
+        }
+        this.segmentMask = segmentCount - 1;
+        this.ttlNanos = ttlMillis > 0 ? ttlMillis * 1_000_000L : 0L;
+        this.ticker = ticker;
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry != null) {
+                if (ttlNanos == 0L || ticker.getAsLong() - entry.createdAt < ttlNanos) {
+                    hits.increment();
+                    return entry.value;
+                }
+                segment.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        Entry<V> entry = new Entry<V>(value, ticker.getAsLong());
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, entry);
+        }
+    }
+
+    public V remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.remove(key);
+            return entry == null ? null : entry.value;
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & segmentMask];
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long createdAt;
+
+        Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final transient LongAdder evictions;
+        private final transient BiConsumer<K, V> evictionListener;
+
+        Segment(int capacity, LongAdder evictions, BiConsumer<K, V> evictionListener) {
+            super(Math.min(capacity, 1024), 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+            this.evictionListener = evictionListener;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                if (evictionListener != null) {
+                    evictionListener.accept(eldest.getKey(), eldest.getValue().value);
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.shirolab.support;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 以 SHA-256 摘要作缓存 key：只保留 256 位摘要（4 个 long），不持有原文。
+ *
+ * 摘要计算复用每个线程各自的 MessageDigest 实例（{@link #digest()}），请求路径上只分配摘要结果与 key 本身。
+ */
+public final class Sha256Key {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    };
+
+    private final long a;
+    private final long b;
+    private final long c;
+    private final long d;
+
+    private Sha256Key(long a, long b, long c, long d) {
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+    }
+
+    /**
+     * 当前线程的 SHA-256 实例，已重置；分段 update 后交给 {@link #of(MessageDigest)}。
+     * 实例在线程内共享，完成之前不能穿插调用本类的其他方法（它们会重置同一个实例）。
+     */
+    public static MessageDigest digest() {
+        MessageDigest md = SHA256.get();
+        md.reset();
+        return md;
+    }
+
+    public static Sha256Key of(byte[] data) {
+        return fromHash(digest().digest(data));
+    }
+
+    /**
+     * 完成 md 的摘要计算并作为 key。
+     */
+    public static Sha256Key of(MessageDigest md) {
+        return fromHash(md.digest());
+    }
+
+    private static Sha256Key fromHash(byte[] h) {
+        return new Sha256Key(toLong(h, 0), toLong(h, 8), toLong(h, 16), toLong(h, 24));
+    }
+
+    private static long toLong(byte[] h, int off) {
+        long v = 0;
+        for (int i = off; i < off + 8; i++) {
+            v = (v << 8) | (h[i] & 0xFF);
+        }
+        return v;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Sha256Key)) {
+            return false;
+        }
+        Sha256Key other = (Sha256Key) o;
+        return a == other.a && b == other.b && c == other.c && d == other.d;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (a ^ (a >>> 32));
+    }
+}
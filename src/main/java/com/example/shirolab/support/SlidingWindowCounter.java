@@ -0,0 +1,127 @@
+package com.example.shirolab.support;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * 按 key 计数的滑动窗口限流器，内存固定、无锁。
+ *
+ * 结构是 count-min sketch：rows 行 × width 列的 long 单元，key 经每行各自的随机种子哈希到一列，
+ * 估计值取各行的最小值，因此哈希碰撞只会高估（多限流），不会让某个 key 漏过限制。
+ * 不为 key 分配任何对象，总内存为 rows * width * 8 字节，与 key 的数量无关。
+ *
+ * 每个单元把 (窗口序号低 24 位, 上一窗口计数, 当前窗口计数) 打包进一个 long，用 CAS 更新；
+ * 滑动窗口估计值为 prev * (1 - 当前窗口已过比例) + cur。计数在 2^20 - 1 处饱和。
+ *
+ * 种子在实例创建时随机生成并参与逐字符哈希，外部无法构造与某个用户名固定碰撞的 key 来锁定该用户。
+ */
+public class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int WINDOW_SHIFT = COUNT_BITS * 2;
+    private static final long WINDOW_MASK = (1L << (64 - WINDOW_SHIFT)) - 1;
+
+    private final AtomicLongArray cells;
+    private final int rows;
+    private final int widthMask;
+    private final int widthBits;
+    private final long[] seeds;
+    private final long windowMillis;
+    private final LongSupplier clock;
+
+    public SlidingWindowCounter(int rows, int width, long windowMillis) {
+        this(rows, width, windowMillis, System::currentTimeMillis);
+    }
+
+    SlidingWindowCounter(int rows, int width, long windowMillis, LongSupplier clock) {
+        if (rows <= 0 || width <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("rows, width and windowMillis must be positive");
+        }
+        int w = Integer.highestOneBit(Math.max(width, 2) - 1) << 1;
+        this.rows = rows;
+        this.widthMask = w - 1;
+        this.widthBits = Integer.numberOfTrailingZeros(w);
+        this.cells = new AtomicLongArray(rows * w);
+        this.seeds = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            seeds[i] = ThreadLocalRandom.current().nextLong() | 1L;
+        }
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * 记一次访问并返回包含本次在内的滑动窗口估计值。
+     */
+    public long increment(CharSequence key) {
+        long now = clock.getAsLong();
+        long window = now / windowMillis;
+        double elapsed = (double) (now - window * windowMillis) / windowMillis;
+        long min = Long.MAX_VALUE;
+        for (int r = 0; r < rows; r++) {
+            int index = (r << widthBits) | (int) (hash(key, seeds[r]) & widthMask);
+            long next;
+            long current;
+            do {
+                current = cells.get(index);
+                next = advance(current, window);
+                if ((next & COUNT_MASK) < COUNT_MASK) {
+                    next++;
+                }
+            } while (next != current && !cells.compareAndSet(index, current, next));
+            min = Math.min(min, estimate(next, elapsed));
+        }
+        return min;
+    }
+
+    /**
+     * 只读的滑动窗口估计值，不计数。
+     */
+    public long estimate(CharSequence key) {
+        long now = clock.getAsLong();
+        long window = now / windowMillis;
+        double elapsed = (double) (now - window * windowMillis) / windowMillis;
+        long min = Long.MAX_VALUE;
+        for (int r = 0; r < rows; r++) {
+            int index = (r << widthBits) | (int) (hash(key, seeds[r]) & widthMask);
+            min = Math.min(min, estimate(advance(cells.get(index), window), elapsed));
+        }
+        return min;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * 把单元滚动到 window 所在的窗口：同一窗口不变，相邻窗口把 cur 移入 prev，更早的全部清零。
+     */
+    private static long advance(long cell, long window) {
+        long stamp = window & WINDOW_MASK;
+        long cellStamp = cell >>> WINDOW_SHIFT;
+        if (cellStamp == stamp) {
+            return cell;
+        }
+        long prev = cellStamp == ((window - 1) & WINDOW_MASK) ? cell & COUNT_MASK : 0L;
+        return (stamp << WINDOW_SHIFT) | (prev << COUNT_BITS);
+    }
+
+    private static long estimate(long cell, double elapsed) {
+        long cur = cell & COUNT_MASK;
+        long prev = (cell >>> COUNT_BITS) & COUNT_MASK;
+        return cur + (long) (prev * (1.0d - elapsed));
+    }
+
+    private static long hash(CharSequence key, long seed) {
+        long h = seed;
+        for (int i = 0, n = key.length(); i < n; i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
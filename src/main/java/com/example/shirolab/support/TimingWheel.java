@@ -0,0 +1,216 @@
+package com.example.shirolab.support;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分层时间轮：按截止时间把 key 放入 LEVELS 层、每层 64 个桶的双向链表中，推进时只处理到期的桶。
+ *
+ * - 第 0 层每桶跨度为一个 tick，第 n 层每桶跨度为 64^n 个 tick；高层桶在低层转完一圈时下放（cascade）；
+ * - 新增/删除是 O(1) 的链表操作（加锁）；截止时间推后（会话被访问）只是一次 volatile 写，不加锁也不移动节点，
+ *   节点所在的桶到期时再按新的截止时间重新放入，因此每个超时周期内最多移动一次；
+ * - 截止时间提前（会话被停止）时立即在锁内移到正确的桶；
+ * - 超出最高层跨度的截止时间先放在最高层最远的桶里，到期时再按实际时间重新放入。
+ *
+ * 时间单位为毫秒，与会话的 lastAccessTime 一致。
+ */
+public class TimingWheel<K> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final ConcurrentHashMap<K, Node<K>> nodes = new ConcurrentHashMap<K, Node<K>>();
+    private final Bucket<K>[][] wheels;
+
+    /** 已处理到的 tick（含） */
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new Bucket[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new Bucket<K>();
+            }
+        }
+    }
+
+    /**
+     * 新增 key 或更新其截止时间。
+     */
+    public void schedule(K key, long deadlineMillis) {
+        Node<K> node = nodes.get(key);
+        if (node != null && deadlineMillis >= node.deadline) {
+            // 推后：只记录新的截止时间，桶到期时再处理。
+            // 若该节点恰好正被 advance 判为到期，调用方在处理到期 key 时应以实际状态为准并重新 schedule。
+            node.deadline = deadlineMillis;
+            return;
+        }
+        synchronized (this) {
+            node = nodes.get(key);
+            if (node == null) {
+                node = new Node<K>(key, deadlineMillis);
+                nodes.put(key, node);
+            } else {
+                node.deadline = deadlineMillis;
+                node.unlink();
+            }
+            place(node);
+        }
+    }
+
+    public void remove(K key) {
+        synchronized (this) {
+            Node<K> node = nodes.remove(key);
+            if (node != null) {
+                node.unlink();
+            }
+        }
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 推进到 nowMillis，把截止时间已到的 key 从时间轮移除并加入 due。
+     *
+     * @return 本次处理（到期或重新放入）的节点数
+     */
+    public synchronized int advance(long nowMillis, Collection<K> due) {
+        long targetTick = nowMillis / tickMillis;
+        int touched = 0;
+        while (currentTick < targetTick) {
+            currentTick++;
+            touched += cascade(1);
+            Bucket<K> bucket = wheels[0][(int) (currentTick & MASK)];
+            Node<K> node = bucket.takeAll();
+            while (node != null) {
+                Node<K> next = node.next;
+                node.next = null;
+                node.prev = null;
+                touched++;
+                if (node.deadline <= currentTick * tickMillis) {
+                    nodes.remove(node.key, node);
+                    due.add(node.key);
+                } else {
+                    place(node);
+                }
+                node = next;
+            }
+        }
+        return touched;
+    }
+
+    /**
+     * 第 level - 1 层转完一圈时，把第 level 层当前桶下放到下层。
+     */
+    private int cascade(int level) {
+        if (level >= LEVELS || ((currentTick >>> (BITS * (level - 1))) & MASK) != 0) {
+            return 0;
+        }
+        int moved = cascade(level + 1);
+        Bucket<K> bucket = wheels[level][(int) ((currentTick >>> (BITS * level)) & MASK)];
+        Node<K> node = bucket.takeAll();
+        while (node != null) {
+            Node<K> next = node.next;
+            node.next = null;
+            node.prev = null;
+            place(node);
+            moved++;
+            node = next;
+        }
+        return moved;
+    }
+
+    private void place(Node<K> node) {
+        long expireTick = Math.max(ceilTick(node.deadline), currentTick);
+        long delta = expireTick - currentTick;
+        if (delta == 0) {
+            // 已到期：放到下一个 tick 的桶，下次推进时即被取出
+            expireTick = currentTick + 1;
+            delta = 1;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (BITS * (level + 1)))) {
+                wheels[level][(int) ((expireTick >>> (BITS * level)) & MASK)].add(node);
+                return;
+            }
+        }
+        // 超出最高层跨度：放在最高层最远的桶，到期时再重新放入
+        long farthest = currentTick + (1L << (BITS * LEVELS)) - 1;
+        wheels[LEVELS - 1][(int) ((farthest >>> (BITS * (LEVELS - 1))) & MASK)].add(node);
+    }
+
+    /**
+     * 截止时间向上取整到 tick，保证不会提前到期（最多延后一个 tick）。
+     */
+    private long ceilTick(long millis) {
+        long tick = millis / tickMillis;
+        return millis % tickMillis > 0 ? tick + 1 : tick;
+    }
+
+    private static final class Node<K> {
+        final K key;
+        volatile long deadline;
+        Node<K> prev;
+        Node<K> next;
+        Bucket<K> bucket;
+
+        Node(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+
+        void unlink() {
+            if (bucket != null) {
+                bucket.unlink(this);
+            }
+        }
+    }
+
+    private static final class Bucket<K> {
+        private Node<K> head;
+
+        void add(Node<K> node) {
+            node.bucket = this;
+            node.prev = null;
+            node.next = head;
+            if (head != null) {
+                head.prev = node;
+            }
+            head = node;
+        }
+
+        void unlink(Node<K> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.bucket = null;
+        }
+
+        Node<K> takeAll() {
+            Node<K> all = head;
+            head = null;
+            for (Node<K> n = all; n != null; n = n.next) {
+                n.bucket = null;
+            }
+            return all;
+        }
+    }
+}
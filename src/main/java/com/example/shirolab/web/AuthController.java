@@ -1,12 +1,23 @@
 package com.example.shirolab.web;
 
+import com.example.shirolab.security.credential.CredentialsVerificationBusyException;
+import com.example.shirolab.security.filter.SessionlessUserFilter;
+import com.example.shirolab.security.token.ReturnUrlSigner;
+import com.example.shirolab.security.token.SignedTokenService;
+import com.example.shirolab.web.cache.CacheByRole;
+import com.example.shirolab.web.json.JsonFragment;
+import com.example.shirolab.web.json.JsonWritable;
+import com.example.shirolab.web.throttle.LoginThrottle;
 import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.IncorrectCredentialsException;
 import org.apache.shiro.authc.LockedAccountException;
 import org.apache.shiro.authc.UnknownAccountException;
 import org.apache.shiro.authc.UsernamePasswordToken;
 import org.apache.shiro.subject.Subject;
+import org.apache.shiro.authz.AuthorizationInfo;
 import org.apache.shiro.authz.annotation.RequiresRoles;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -16,7 +27,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.util.UriUtils;
 
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,36 +39,74 @@ import java.util.Map;
 @RequestMapping
 public class AuthController {
 
+    private static final JsonFragment USER_PROFILE = JsonFragment.object("profile", "This is user profile");
+    private static final JsonFragment ADMIN_PANEL = JsonFragment.object("panel", "This is admin panel");
+
+    private final LoginThrottle loginThrottle;
+    private final SignedTokenService tokenService;
+    private final ReturnUrlSigner returnUrlSigner;
+
+    public AuthController(LoginThrottle loginThrottle, SignedTokenService tokenService, ReturnUrlSigner returnUrlSigner) {
+        this.loginThrottle = loginThrottle;
+        this.tokenService = tokenService;
+        this.returnUrlSigner = returnUrlSigner;
+    }
+
+    /**
+     * JSON 登录。mode=token 时为无状态模式：只校验凭证（不创建 Subject 会话、不写 rememberMe），
+     * 返回携带主体、角色与过期时间的签名令牌，后续请求以 Authorization: Bearer 携带。
+     *
+     * 请求体由 LoginRequestHttpMessageConverter 流式解析，响应体由 JsonWritableHttpMessageConverter 直接写出，
+     * 失败分支的响应体都是预序列化的常量。
+     */
     @PostMapping("/login")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> loginJson(@RequestBody Map<String, String> payload) {
-        String username = payload.get("username");
-        String password = payload.get("password");
+    public ResponseEntity<JsonWritable> loginJson(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        String username = request.getUsername();
+        String client = httpRequest.getRemoteAddr();
+        if (!loginThrottle.tryAcquireUser(client, username)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(loginThrottle.getRetryAfterSeconds()))
+                    .body(LoginResponse.TOO_MANY_ATTEMPTS);
+        }
 
-        Subject subject = SecurityUtils.getSubject();
-        UsernamePasswordToken token = new UsernamePasswordToken(username, password);
-        Map<String, Object> body = new HashMap<String, Object>();
+        UsernamePasswordToken token = new UsernamePasswordToken(username, request.getPassword());
         try {
-            subject.login(token);
-            body.put("message", "login success");
-            body.put("user", username);
-            return ResponseEntity.ok(body);
+            if (request.isTokenMode()) {
+                AuthenticationInfo info = SecurityUtils.getSecurityManager().authenticate(token);
+                loginThrottle.recordSuccess(client, username);
+                Collection<String> roles = info instanceof AuthorizationInfo ? ((AuthorizationInfo) info).getRoles() : null;
+                return ResponseEntity.ok(LoginResponse.token(username, tokenService.issue(username, roles),
+                        tokenService.getTtlMillis() / 1000L));
+            }
+            SecurityUtils.getSubject().login(token);
+            loginThrottle.recordSuccess(client, username);
+            return ResponseEntity.ok(LoginResponse.success(username));
         } catch (UnknownAccountException e) {
-            body.put("message", "unknown account");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(body);
+            loginThrottle.recordUserFailure(username);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(LoginResponse.UNKNOWN_ACCOUNT);
         } catch (IncorrectCredentialsException e) {
-            body.put("message", "incorrect credentials");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(body);
+            loginThrottle.recordUserFailure(username);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(LoginResponse.INCORRECT_CREDENTIALS);
         } catch (LockedAccountException e) {
-            body.put("message", "account locked");
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(body);
+            loginThrottle.recordUserFailure(username);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(LoginResponse.ACCOUNT_LOCKED);
+        } catch (CredentialsVerificationBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1").body(LoginResponse.BUSY);
         }
     }
 
     @PostMapping("/login/form")
     public String loginForm(@RequestParam("username") String username,
                             @RequestParam("password") String password,
-                            @RequestParam(value = "rememberMe", required = false) Boolean rememberMe) {
+                            @RequestParam(value = "rememberMe", required = false) Boolean rememberMe,
+                            @RequestParam(value = SessionlessUserFilter.RETURN_PARAM, required = false) String next,
+                            HttpServletRequest request) {
+        String client = request.getRemoteAddr();
+        if (!loginThrottle.tryAcquireUser(client, username)) {
+            return loginRedirect("throttled", next);
+        }
         Subject subject = SecurityUtils.getSubject();
         UsernamePasswordToken token = new UsernamePasswordToken(username, password);
         if (rememberMe != null) {
@@ -61,14 +114,29 @@ public class AuthController {
         }
         try {
             subject.login(token);
-            return "redirect:/";
+            loginThrottle.recordSuccess(client, username);
+            // next 由 SessionlessUserFilter 签名；校验失败或过期时回到首页
+            String target = returnUrlSigner.verify(next);
+            return "redirect:" + (target != null ? target : "/");
         } catch (UnknownAccountException | IncorrectCredentialsException e) {
-            return "redirect:/login?error";
+            loginThrottle.recordUserFailure(username);
+            return loginRedirect("error", next);
         } catch (LockedAccountException e) {
-            return "redirect:/login?error";
+            loginThrottle.recordUserFailure(username);
+            return loginRedirect("error", next);
+        } catch (CredentialsVerificationBusyException e) {
+            return loginRedirect("busy", next);
         }
     }
 
+    private static String loginRedirect(String flag, String next) {
+        if (next == null || next.isEmpty()) {
+            return "redirect:/login?" + flag;
+        }
+        return "redirect:/login?" + flag + "&" + SessionlessUserFilter.RETURN_PARAM + "="
+                + UriUtils.encodeQueryParam(next, StandardCharsets.UTF_8);
+    }
+
     @GetMapping("/me")
     @ResponseBody
     public Map<String, Object> me() {
@@ -84,19 +152,19 @@ public class AuthController {
     }
 
     @GetMapping("/user/profile")
+    @ResponseBody
     @RequiresRoles("user")
-    public Map<String, Object> userProfile() {
-        Map<String, Object> body = new HashMap<String, Object>();
-        body.put("profile", "This is user profile");
-        return body;
+    @CacheByRole
+    public JsonWritable userProfile() {
+        return USER_PROFILE;
     }
 
     @GetMapping("/admin/panel")
+    @ResponseBody
     @RequiresRoles("admin")
-    public Map<String, Object> adminPanel() {
-        Map<String, Object> body = new HashMap<String, Object>();
-        body.put("panel", "This is admin panel");
-        return body;
+    @CacheByRole
+    public JsonWritable adminPanel() {
+        return ADMIN_PANEL;
     }
 }
 
@@ -0,0 +1,71 @@
+package com.example.shirolab.web;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * JSON 登录请求：{"username": "...", "password": "...", "mode": "token"}，mode 可省略。
+ * 由 {@link LoginRequestHttpMessageConverter} 以流式解析器读取，不经中间 Map。
+ */
+public final class LoginRequest {
+
+    private final String username;
+    private final String password;
+    private final String mode;
+
+    public LoginRequest(String username, String password, String mode) {
+        this.username = username;
+        this.password = password;
+        this.mode = mode;
+    }
+
+    /**
+     * 逐个读取顶层字段；未知字段（含嵌套的对象与数组）整体跳过，非字符串的已知字段视为缺省。
+     */
+    static LoginRequest read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("login request must be a JSON object");
+        }
+        String username = null;
+        String password = null;
+        String mode = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.VALUE_STRING) {
+                parser.skipChildren();
+                continue;
+            }
+            // 字段名由解析器的符号表规范化，直接比较不分配
+            if ("username".equals(field)) {
+                username = parser.getText();
+            } else if ("password".equals(field)) {
+                password = parser.getText();
+            } else if ("mode".equals(field)) {
+                mode = parser.getText();
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new IOException("malformed login request");
+        }
+        return new LoginRequest(username, password, mode);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public boolean isTokenMode() {
+        return "token".equals(mode);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.shirolab.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+
+/**
+ * 以 Jackson 的流式 JsonParser 直接从请求体读取 {@link LoginRequest}，只读不写。
+ * 解析器的读缓冲区由 JsonFactory 按线程回收复用。
+ */
+public class LoginRequestHttpMessageConverter extends AbstractHttpMessageConverter<LoginRequest> {
+
+    private final JsonFactory jsonFactory;
+
+    public LoginRequestHttpMessageConverter(JsonFactory jsonFactory) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return LoginRequest.class == clazz;
+    }
+
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected LoginRequest readInternal(Class<? extends LoginRequest> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            return LoginRequest.read(parser);
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid login request: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(LoginRequest request, HttpOutputMessage outputMessage)
+            throws HttpMessageNotWritableException {
+        throw new HttpMessageNotWritableException("LoginRequest is read-only");
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.shirolab.web;
+
+import com.example.shirolab.web.json.JsonFragment;
+import com.example.shirolab.web.json.JsonWritable;
+import com.example.shirolab.web.json.JsonWriter;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON 登录的响应体。固定文案在类加载时预序列化，成功响应只有用户名与令牌需要逐次转义写出：
+ *
+ * - session 模式：{"message":"login success","user":"..."}
+ * - token 模式：{"message":"login success","user":"...","token":"...","tokenType":"Bearer","expiresIn":N}
+ */
+public final class LoginResponse implements JsonWritable {
+
+    public static final JsonFragment TOO_MANY_ATTEMPTS = JsonFragment.object("message", "too many login attempts, retry later");
+    public static final JsonFragment UNKNOWN_ACCOUNT = JsonFragment.object("message", "unknown account");
+    public static final JsonFragment INCORRECT_CREDENTIALS = JsonFragment.object("message", "incorrect credentials");
+    public static final JsonFragment ACCOUNT_LOCKED = JsonFragment.object("message", "account locked");
+    public static final JsonFragment BUSY = JsonFragment.object("message", "too many concurrent logins, retry later");
+
+    private static final byte[] SUCCESS_PREFIX = ascii("{\"message\":\"login success\",\"user\":");
+    private static final byte[] TOKEN = ascii(",\"token\":");
+    private static final byte[] TOKEN_TYPE_EXPIRES_IN = ascii(",\"tokenType\":\"Bearer\",\"expiresIn\":");
+
+    private final String user;
+    private final String token;
+    private final long expiresInSeconds;
+
+    private LoginResponse(String user, String token, long expiresInSeconds) {
+        this.user = user;
+        this.token = token;
+        this.expiresInSeconds = expiresInSeconds;
+    }
+
+    public static LoginResponse success(String user) {
+        return new LoginResponse(user, null, 0L);
+    }
+
+    public static LoginResponse token(String user, String token, long expiresInSeconds) {
+        return new LoginResponse(user, token, expiresInSeconds);
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getExpiresInSeconds() {
+        return expiresInSeconds;
+    }
+
+    @Override
+    public void writeJson(JsonWriter writer) {
+        writer.raw(SUCCESS_PREFIX).string(user);
+        if (token != null) {
+            writer.raw(TOKEN).string(token).raw(TOKEN_TYPE_EXPIRES_IN).number(expiresInSeconds);
+        }
+        writer.raw('}');
+    }
+
+    private static byte[] ascii(String json) {
+        return json.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -1,34 +1,42 @@
 package com.example.shirolab.web;
 
-import org.apache.shiro.SecurityUtils;
-import org.apache.shiro.subject.Subject;
+import com.example.shirolab.security.filter.SessionlessUserFilter;
+import com.example.shirolab.web.cache.CacheByRole;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @Controller
 public class PageController {
 
+	/**
+	 * 首页的登录状态与按角色/权限显示的内容由模板中的 shiro: 属性求值（见 ShiroDialect）。
+	 */
 	@GetMapping("/")
-	public String index(Model model) {
-		Subject subject = SecurityUtils.getSubject();
-		model.addAttribute("principal", subject.getPrincipal());
-		model.addAttribute("authenticated", subject.isAuthenticated());
+	public String index() {
 		return "index";
 	}
 
+	/**
+	 * 登录页不访问会话：SessionlessUserFilter 签名的 next 原样交给表单回传，由 AuthController 校验。
+	 */
 	@GetMapping("/login")
-	public String loginPage() {
+	public String loginPage(@RequestParam(value = SessionlessUserFilter.RETURN_PARAM, required = false) String next,
+							Model model) {
+		model.addAttribute("next", next);
 		return "login";
 	}
 
 	@GetMapping("/user/profile/page")
+	@CacheByRole(roles = "user")
 	public String userProfilePage(Model model) {
 		model.addAttribute("msg", "User Profile Page");
 		return "user-profile";
 	}
 
 	@GetMapping("/admin/panel/page")
+	@CacheByRole(roles = "admin")
 	public String adminPanelPage(Model model) {
 		model.addAttribute("msg", "Admin Panel Page");
 		return "admin-panel";
@@ -0,0 +1,208 @@
+package com.example.shirolab.web.accesslog;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 结构化访问日志流水线：请求线程只把一条定长记录写进预分配的环形缓冲区，
+ * 格式化与 I/O 全部由单个后台线程批量完成。
+ *
+ * 缓冲区为多生产者/单消费者：
+ * - 生产者 CAS 推进 tail 认领槽位，写入字段后以槽位序号（volatile）发布；
+ * - 消费者按序等待槽位发布，每批最多 batchSize 条，格式化后一次写出，再推进 head 释放槽位。
+ * 槽位对象在启动时一次性分配，记录只保存请求里已有的字符串引用，热路径不产生额外对象。
+ *
+ * 输出格式（制表符分隔，一行一条）：epochMillis method uri principal status durationNanos
+ */
+public class AccessLogPipeline implements Closeable, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLogPipeline.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Slot[] slots;
+    private final int mask;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final AccessLogSink sink;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AccessLogPipeline(int capacity, int batchSize, OverflowPolicy overflowPolicy, AccessLogSink sink) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i - size);
+        }
+        this.mask = size - 1;
+        this.batchSize = Math.max(1, Math.min(batchSize, size));
+        this.overflowPolicy = overflowPolicy;
+        this.sink = sink;
+        this.writer = new Thread(this::drainLoop, "access-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 请求线程调用：认领槽位并写入一条记录；缓冲区已满时按 overflowPolicy 丢弃或等待。
+     *
+     * @return 是否成功写入
+     */
+    public boolean publish(String method, String uri, String principal, int status,
+                           long epochMillis, long durationNanos) {
+        long seq;
+        while (true) {
+            seq = tail.get();
+            if (seq - head >= slots.length) {
+                if (overflowPolicy == OverflowPolicy.DROP || !running) {
+                    dropped.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                continue;
+            }
+            if (tail.compareAndSet(seq, seq + 1)) {
+                break;
+            }
+        }
+        Slot slot = slots[(int) (seq & mask)];
+        slot.method = method;
+        slot.uri = uri;
+        slot.principal = principal;
+        slot.status = status;
+        slot.epochMillis = epochMillis;
+        slot.durationNanos = durationNanos;
+        slot.sequence = seq;
+        published.increment();
+        return true;
+    }
+
+    private void drainLoop() {
+        StringBuilder batch = new StringBuilder(batchSize * 96);
+        while (true) {
+            int drained = drainBatch(batch);
+            if (drained == 0) {
+                if (!running && head == tail.get()) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private int drainBatch(StringBuilder batch) {
+        long next = head;
+        int count = 0;
+        batch.setLength(0);
+        while (count < batchSize) {
+            Slot slot = slots[(int) ((next + count) & mask)];
+            if (slot.sequence != next + count) {
+                break;
+            }
+            slot.appendTo(batch);
+            // 释放引用，避免缓冲区长期持有请求字符串
+            slot.method = null;
+            slot.uri = null;
+            slot.principal = null;
+            count++;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        head = next + count;
+        try {
+            sink.write(batch);
+            written.add(count);
+        } catch (IOException | RuntimeException e) {
+            writeErrors.increment();
+            log.warn("Failed to write {} access log records", count, e);
+        }
+        return count;
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public int getBacklog() {
+        return (int) (tail.get() - head);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("shirolab.accesslog.records", this, AccessLogPipeline::getPublishedCount)
+                .tag("result", "published").register(registry);
+        FunctionCounter.builder("shirolab.accesslog.records", this, AccessLogPipeline::getDroppedCount)
+                .tag("result", "dropped").register(registry);
+        FunctionCounter.builder("shirolab.accesslog.records", this, AccessLogPipeline::getWrittenCount)
+                .tag("result", "written").register(registry);
+        FunctionCounter.builder("shirolab.accesslog.write.errors", writeErrors, LongAdder::sum).register(registry);
+        Gauge.builder("shirolab.accesslog.backlog", this, AccessLogPipeline::getBacklog).register(registry);
+    }
+
+    /**
+     * 停止接收新记录，等待写线程把缓冲区中剩余记录写完后关闭输出端。
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sink.close();
+    }
+
+    private static final class Slot {
+        volatile long sequence;
+        String method;
+        String uri;
+        String principal;
+        int status;
+        long epochMillis;
+        long durationNanos;
+
+        Slot(long initialSequence) {
+            this.sequence = initialSequence;
+        }
+
+        void appendTo(StringBuilder sb) {
+            sb.append(epochMillis).append('\t')
+                    .append(method).append('\t')
+                    .append(uri).append('\t')
+                    .append(principal == null ? "-" : principal).append('\t')
+                    .append(status).append('\t')
+                    .append(durationNanos).append('\n');
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.shirolab.web.accesslog;
+
+import java.io.IOException;
+
+/**
+ * 访问日志的输出端，只由后台写线程调用，不需要考虑并发。
+ */
+public interface AccessLogSink {
+
+    /**
+     * 写出一批已格式化的日志行（每行以 \n 结尾）。
+     */
+    void write(CharSequence batch) throws IOException;
+
+    void close() throws IOException;
+}
@@ -0,0 +1,28 @@
+package com.example.shirolab.web.accesslog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 未配置日志文件时的默认输出：整批作为一条 ACCESS 日志交给 logback 等 appender。
+ */
+public class LoggerAccessLogSink implements AccessLogSink {
+
+    private static final Logger log = LoggerFactory.getLogger("ACCESS");
+
+    @Override
+    public void write(CharSequence batch) {
+        if (log.isInfoEnabled()) {
+            int end = batch.length();
+            // 去掉末尾换行，避免 appender 再追加一个空行
+            if (end > 0 && batch.charAt(end - 1) == '\n') {
+                end--;
+            }
+            log.info(batch.subSequence(0, end).toString());
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.shirolab.web.accesslog;
+
+/**
+ * 环形缓冲区写满时请求线程的处理方式。
+ */
+public enum OverflowPolicy {
+
+    /** 丢弃本条记录并计数，请求线程不等待 */
+    DROP,
+
+    /** 自旋/短暂停顿直到写线程腾出空位 */
+    BLOCK
+}
@@ -0,0 +1,120 @@
+package com.example.shirolab.web.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按请求耗时自适应调整的并发上限（梯度算法，思路同 Netflix concurrency-limits 的 Gradient）。
+ *
+ * 每个完成的请求提供一个耗时样本：
+ * <pre>
+ *   minRtt   = 最近一到两个窗口（每窗口 rttWindow 个样本）内的最小耗时，即下游不排队时的耗时
+ *   gradient = clamp(tolerance * minRtt / rtt, 0.5, 1.0)
+ *   newLimit = limit * gradient + sqrt(limit)
+ *   limit    = limit * (1 - smoothing) + newLimit * smoothing，再夹在 [minLimit, maxLimit]
+ * </pre>
+ * 下游排队使 rtt 超过 tolerance * minRtt 时 gradient &lt; 1，上限收缩到排队时间大致不超过 minRtt 的水平
+ * （稳态 gradient = 1 - 1/sqrt(limit)）；不排队时 gradient 为 1，上限每个样本约增长 sqrt(limit) * smoothing。
+ * minRtt 按窗口滚动，下游本身持续变慢时基线会在两个窗口内跟上，而不会把上限一直压在最低值。
+ * 实际并发不到上限一半时不再调整，避免空闲期把上限抬到失去意义。
+ *
+ * 准入按通道取上限的一部分：shares[lane] = 1.0 表示可以用满上限，0.5 表示在飞请求达到一半时即拒绝该通道，
+ * 上限收缩时低优先级通道先被拒绝。样本更新用 tryLock，竞争时直接丢弃该样本，请求线程不会在此排队。
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int rttWindow;
+    private final double[] shares;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile int limit;
+    // 以下字段只在 updateLock 内读写
+    private double estimatedLimit;
+    private long windowMinRtt = Long.MAX_VALUE;
+    private long previousMinRtt = Long.MAX_VALUE;
+    private int windowSamples;
+
+    /**
+     * @param shares 按 {@link AdmissionLane#ordinal()} 排列的各通道可用比例
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                    int rttWindow, double smoothing, double[] shares) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("invalid limit range [" + minLimit + ", " + maxLimit + "]");
+        }
+        if (shares.length != AdmissionLane.values().length) {
+            throw new IllegalArgumentException("expected one share per lane, got " + shares.length);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.rttWindow = Math.max(1, rttWindow);
+        this.shares = shares.clone();
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return 是否准入；准入后必须调用 {@link #release(long)}
+     */
+    public boolean tryAcquire(AdmissionLane lane) {
+        int allowed = Math.max(1, (int) (limit * shares[lane.ordinal()]));
+        for (;;) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos 该请求在下游的耗时
+     */
+    public void release(long rttNanos) {
+        int inflightAtEnd = inflight.getAndDecrement();
+        if (rttNanos > 0 && updateLock.tryLock()) {
+            try {
+                update(rttNanos, inflightAtEnd);
+            } finally {
+                updateLock.unlock();
+            }
+        }
+    }
+
+    private void update(long rttNanos, int inflightAtEnd) {
+        windowMinRtt = Math.min(windowMinRtt, rttNanos);
+        long minRtt = Math.min(windowMinRtt, previousMinRtt);
+        if (++windowSamples >= rttWindow) {
+            previousMinRtt = windowMinRtt;
+            windowMinRtt = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+        if (inflightAtEnd < estimatedLimit / 2) {
+            // 应用自身负载不足以检验当前上限，不据此调整
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * minRtt / rttNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1.0 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
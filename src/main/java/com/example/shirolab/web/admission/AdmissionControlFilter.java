@@ -0,0 +1,151 @@
+package com.example.shirolab.web.admission;
+
+import com.example.shirolab.security.token.SignedTokenService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * shiroFilter 之前的准入控制：按 {@link AdmissionLane} 分通道，在 {@link AdaptiveConcurrencyLimit} 的上限内放行，
+ * 超出的请求立即返回 503（带 Retry-After），不在 Tomcat 线程池或下游排队。
+ *
+ * 下游耗时（含 shiroFilter 与处理方法）作为样本反馈给上限；被拒绝的请求不产生样本。
+ *
+ * 分类时校验凭据而不只看是否存在：Bearer 令牌要通过 {@link SignedTokenService#verify}（一次 HMAC），
+ * 会话 Cookie 对应的会话要已在存储中（一次索引查找），否则按匿名请求处理，伪造的凭据换不到更高的优先级。
+ */
+public class AdmissionControlFilter implements Filter, MeterBinder {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final SignedTokenService tokenService;
+    private final String sessionCookieName;
+    private final Predicate<String> storedSession;
+    private final String rememberMeCookieName;
+    private final int retryAfterSeconds;
+
+    private final LongAdder[] admitted = newAdders();
+    private final LongAdder[] rejected = newAdders();
+
+    /**
+     * @param storedSession 按会话 ID 判断会话是否存在；为 null 时（使用 Servlet 容器会话）改用
+     *                      {@link HttpServletRequest#isRequestedSessionIdValid()}，同样不会创建会话
+     */
+    public AdmissionControlFilter(AdaptiveConcurrencyLimit limit, SignedTokenService tokenService,
+                                  String sessionCookieName, Predicate<String> storedSession,
+                                  String rememberMeCookieName, int retryAfterSeconds) {
+        this.limit = limit;
+        this.tokenService = tokenService;
+        this.sessionCookieName = sessionCookieName;
+        this.storedSession = storedSession;
+        this.rememberMeCookieName = rememberMeCookieName;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        AdmissionLane lane = classify((HttpServletRequest) request);
+        if (!limit.tryAcquire(lane)) {
+            rejected[lane.ordinal()].increment();
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            httpResponse.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+            httpResponse.setContentLength(0);
+            return;
+        }
+        admitted[lane.ordinal()].increment();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limit.release(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    AdmissionLane classify(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())
+                && tokenService.verify(authorization.substring(BEARER_PREFIX.length()).trim()) != null) {
+            return AdmissionLane.SESSION;
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return AdmissionLane.ANONYMOUS;
+        }
+        AdmissionLane lane = AdmissionLane.ANONYMOUS;
+        for (Cookie cookie : cookies) {
+            if (sessionCookieName.equals(cookie.getName()) && isStoredSession(request, cookie.getValue())) {
+                return AdmissionLane.SESSION;
+            }
+            if (rememberMeCookieName.equals(cookie.getName()) && !"deleteMe".equals(cookie.getValue())) {
+                lane = AdmissionLane.REMEMBERED;
+            }
+        }
+        return lane;
+    }
+
+    private boolean isStoredSession(HttpServletRequest request, String sessionId) {
+        if (sessionId == null || sessionId.isEmpty()) {
+            return false;
+        }
+        return storedSession != null ? storedSession.test(sessionId) : request.isRequestedSessionIdValid();
+    }
+
+    public AdaptiveConcurrencyLimit getLimit() {
+        return limit;
+    }
+
+    public long getRejectedCount(AdmissionLane lane) {
+        return rejected[lane.ordinal()].sum();
+    }
+
+    public long getAdmittedCount(AdmissionLane lane) {
+        return admitted[lane.ordinal()].sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("http.admission.limit", limit, AdaptiveConcurrencyLimit::getLimit).register(registry);
+        Gauge.builder("http.admission.inflight", limit, AdaptiveConcurrencyLimit::getInflight).register(registry);
+        for (AdmissionLane lane : AdmissionLane.values()) {
+            String tag = lane.name().toLowerCase();
+            FunctionCounter.builder("http.admission.requests", admitted[lane.ordinal()], LongAdder::sum)
+                    .tag("lane", tag).tag("result", "admitted").register(registry);
+            FunctionCounter.builder("http.admission.requests", rejected[lane.ordinal()], LongAdder::sum)
+                    .tag("lane", tag).tag("result", "rejected").register(registry);
+        }
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[AdmissionLane.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.shirolab.web.admission;
+
+/**
+ * 准入优先级通道，按请求携带的凭据在 Shiro 解析 Subject 之前粗分。
+ *
+ * 会话与 Bearer 令牌在分类时校验（见 {@link AdmissionControlFilter}），校验不通过按匿名处理；
+ * rememberMe Cookie 只看是否存在，因为校验它需要 AES 解密与反序列化，正是过载时要削减的开销。
+ * 分类只决定排队优先级，授权仍由其后的 shiroFilter 判定。
+ */
+public enum AdmissionLane {
+
+    /**
+     * 会话 Cookie 对应的会话存在，或 Bearer 令牌验签通过：已登录用户的请求，最后被削减。
+     */
+    SESSION,
+
+    /**
+     * 只带 rememberMe Cookie：被记住的用户，需要先解密 Cookie 才能恢复主体。
+     */
+    REMEMBERED,
+
+    /**
+     * 匿名请求（重定向到登录页、登录尝试等）以及凭据校验不通过的请求，最先被削减。
+     */
+    ANONYMOUS
+}
@@ -0,0 +1,34 @@
+package com.example.shirolab.web.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记输出只取决于角色（以及少量请求参数）的只读 GET 处理方法，响应按角色集合共享缓存。
+ *
+ * 缓存 key = 处理方法 + 当前 Subject 在 {@link #roles()} 中拥有哪些角色 + {@link #params()} 的取值。
+ * 输出包含用户名等个人数据的方法不能使用。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheByRole {
+
+    /**
+     * 参与缓存 key 的角色；为空时取方法或类上 @RequiresRoles 的角色。
+     */
+    String[] roles() default {};
+
+    /**
+     * 参与缓存 key 的请求参数名。
+     */
+    String[] params() default {};
+
+    /**
+     * 条目存活时间（秒）。
+     */
+    long ttlSeconds() default 60;
+}
@@ -0,0 +1,63 @@
+package com.example.shirolab.web.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 一条已缓存的 200 响应：Content-Type、正文与内容哈希 ETag。
+ */
+final class CachedResponse {
+
+    static final String CACHE_CONTROL = "private, no-cache";
+
+    final String contentType;
+    final byte[] body;
+    final String etag;
+    final long expiresAtMillis;
+
+    CachedResponse(String contentType, byte[] body, String etag, long expiresAtMillis) {
+        this.contentType = contentType;
+        this.body = body;
+        this.etag = etag;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    /**
+     * 写出缓存的响应；If-None-Match 命中时只返回 304。
+     *
+     * @return 是否为 304
+     */
+    boolean writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        return false;
+    }
+
+    private boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String part : ifNoneMatch.split(",")) {
+            String candidate = part.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(etag) || candidate.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
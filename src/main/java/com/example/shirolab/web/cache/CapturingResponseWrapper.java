@@ -0,0 +1,154 @@
+package com.example.shirolab.web.cache;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * 按需缓冲正文的响应包装。
+ *
+ * 默认完全透传；只有 {@link ResponseCacheInterceptor} 对可缓存的处理方法调用 {@link #startCapture} 后，
+ * 正文才写入内存缓冲，由 {@link ResponseCacheFilter} 在过滤链返回后决定入缓存并写出。
+ */
+class CapturingResponseWrapper extends HttpServletResponseWrapper {
+
+    private ByteArrayOutputStream buffer;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    private String key;
+    private long ttlMillis;
+
+    CapturingResponseWrapper(HttpServletResponse response) {
+        super(response);
+    }
+
+    void startCapture(String key, long ttlMillis) {
+        if (outputStream != null || writer != null || isCommitted()) {
+            // 正文已经开始写出，无法再完整捕获
+            return;
+        }
+        this.key = key;
+        this.ttlMillis = ttlMillis;
+        this.buffer = new ByteArrayOutputStream(1024);
+    }
+
+    boolean isCapturing() {
+        return buffer != null;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    byte[] getCapturedBody() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return buffer.toByteArray();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (buffer == null) {
+            return super.getOutputStream();
+        }
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called on this response");
+        }
+        if (outputStream == null) {
+            outputStream = new BufferStream(buffer);
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (buffer == null) {
+            return super.getWriter();
+        }
+        if (outputStream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called on this response");
+        }
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(buffer, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        // 捕获期间不能提交响应，否则过滤器无法再补 ETag 头
+        if (buffer == null) {
+            super.flushBuffer();
+        } else if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        if (buffer == null) {
+            super.setContentLength(len);
+        }
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (buffer == null) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (buffer != null) {
+            buffer.reset();
+        }
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        if (buffer != null) {
+            buffer.reset();
+        }
+        super.reset();
+    }
+
+    private static final class BufferStream extends ServletOutputStream {
+        private final ByteArrayOutputStream buffer;
+
+        BufferStream(ByteArrayOutputStream buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer.write(b, off, len);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException("async writes are not supported while capturing");
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.shirolab.web.cache;
+
+import com.example.shirolab.security.authz.AuthorizationRequirement;
+import com.example.shirolab.support.BoundedCache;
+import com.example.shirolab.support.Sha256Key;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.shiro.authz.annotation.RequiresRoles;
+import org.apache.shiro.subject.Subject;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link CacheByRole} 处理方法的响应缓存（有界 LRU，条目按各自的 ttlSeconds 过期）。
+ *
+ * 每个处理方法的缓存策略在第一次请求时解析一次：参与 key 的角色、参数，以及方法/类上的 Shiro 授权注解。
+ * 命中时处理方法不会执行，@RequiresRoles 等注解的 AOP 检查也就不会发生，
+ * 因此 {@link Policy#assertAuthorized()} 在查缓存之前用同一份预解析的 {@link AuthorizationRequirement} 先做检查。
+ */
+public class ResponseCache implements MeterBinder {
+
+    private static final Policy NOT_CACHED = new Policy(null, null, null, 0L, null);
+
+    private final BoundedCache<String, CachedResponse> entries;
+    private final ConcurrentHashMap<Method, Policy> policies = new ConcurrentHashMap<Method, Policy>();
+    private final LongSupplier clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    public ResponseCache(int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    ResponseCache(int maxSize, LongSupplier clock) {
+        this.entries = new BoundedCache<String, CachedResponse>(maxSize, 0L);
+        this.clock = clock;
+    }
+
+    /**
+     * @return 处理方法的缓存策略；方法未标注 {@link CacheByRole} 时返回 null
+     */
+    public Policy policyFor(HandlerMethod handlerMethod) {
+        Method method = handlerMethod.getMethod();
+        Policy policy = policies.get(method);
+        if (policy == null) {
+            policy = createPolicy(handlerMethod);
+            policies.putIfAbsent(method, policy);
+        }
+        return policy == NOT_CACHED ? null : policy;
+    }
+
+    CachedResponse get(String key) {
+        CachedResponse cached = entries.get(key);
+        if (cached != null && cached.expiresAtMillis > clock.getAsLong()) {
+            hits.increment();
+            return cached;
+        }
+        if (cached != null) {
+            entries.remove(key);
+        }
+        misses.increment();
+        return null;
+    }
+
+    CachedResponse put(String key, String contentType, byte[] body, long ttlMillis) {
+        CachedResponse cached = new CachedResponse(contentType, body, etag(body), clock.getAsLong() + ttlMillis);
+        entries.put(key, cached);
+        return cached;
+    }
+
+    void recordNotModified() {
+        notModified.increment();
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("http.response.cache", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("http.response.cache", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("http.response.cache", notModified, LongAdder::sum).tag("result", "not_modified")
+                .register(registry);
+        Gauge.builder("http.response.cache.size", entries, BoundedCache::size).register(registry);
+    }
+
+    private static Policy createPolicy(HandlerMethod handlerMethod) {
+        CacheByRole cacheByRole = handlerMethod.getMethodAnnotation(CacheByRole.class);
+        if (cacheByRole == null) {
+            return NOT_CACHED;
+        }
+        Method method = handlerMethod.getMethod();
+        Class<?> type = handlerMethod.getBeanType();
+        AuthorizationRequirement requirement = AuthorizationRequirement.resolve(method, type);
+        List<String> roles = Arrays.asList(cacheByRole.roles());
+        if (roles.isEmpty()) {
+            RequiresRoles requiresRoles = AnnotatedElementUtils.findMergedAnnotation(method, RequiresRoles.class);
+            if (requiresRoles == null) {
+                requiresRoles = AnnotatedElementUtils.findMergedAnnotation(type, RequiresRoles.class);
+            }
+            if (requiresRoles != null) {
+                roles = Arrays.asList(requiresRoles.value());
+            }
+        }
+        return new Policy(type.getSimpleName() + '.' + method.getName(), roles, cacheByRole.params(),
+                cacheByRole.ttlSeconds() * 1000L, requirement);
+    }
+
+    private static String etag(byte[] body) {
+        byte[] digest = Sha256Key.digest().digest(body);
+        return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + '"';
+    }
+
+    /**
+     * 单个处理方法的缓存策略，解析后不再变化。
+     */
+    public static final class Policy {
+        private final String id;
+        private final List<String> roles;
+        private final String[] params;
+        private final long ttlMillis;
+        private final AuthorizationRequirement requirement;
+
+        Policy(String id, List<String> roles, String[] params, long ttlMillis, AuthorizationRequirement requirement) {
+            this.id = id;
+            this.roles = roles;
+            this.params = params;
+            this.ttlMillis = ttlMillis;
+            this.requirement = requirement;
+        }
+
+        long getTtlMillis() {
+            return ttlMillis;
+        }
+
+        /**
+         * 与方法调用时 PrecompiledAuthorizationAdvisor 相同的检查，失败时抛出同样的 AuthorizationException。
+         */
+        void assertAuthorized() {
+            requirement.assertAuthorized();
+        }
+
+        String key(HttpServletRequest request, Subject subject) {
+            StringBuilder key = new StringBuilder(id.length() + 16).append(id).append('|');
+            if (!roles.isEmpty()) {
+                boolean[] granted = subject.hasRoles(roles);
+                for (boolean g : granted) {
+                    key.append(g ? '1' : '0');
+                }
+            }
+            for (String param : params) {
+                String value = request.getParameter(param);
+                key.append('|').append(param).append('=');
+                if (value != null) {
+                    key.append(value.length()).append(':').append(value);
+                }
+            }
+            return key.toString();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.shirolab.web.cache;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 在 shiroFilter 之前为 GET 请求包一层 {@link CapturingResponseWrapper}。
+ *
+ * 包装本身不缓冲任何内容；只有拦截器开启捕获的请求才会在链返回后由这里写入缓存，
+ * 并按 If-None-Match 返回 304 或带 ETag 写出正文。非 200 响应原样写出，不入缓存。
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private final ResponseCache cache;
+
+    public ResponseCacheFilter(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        if (!wrapper.isCapturing()) {
+            return;
+        }
+        byte[] body = wrapper.getCapturedBody();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+            return;
+        }
+        CachedResponse cached = cache.put(wrapper.getKey(), wrapper.getContentType(), body, wrapper.getTtlMillis());
+        if (cached.writeTo(request, response)) {
+            cache.recordNotModified();
+        }
+    }
+}
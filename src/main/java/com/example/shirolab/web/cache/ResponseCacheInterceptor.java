@@ -0,0 +1,51 @@
+package com.example.shirolab.web.cache;
+
+import org.apache.shiro.SecurityUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * {@link CacheByRole} 处理方法的缓存查找。
+ *
+ * 顺序：先按方法上的 Shiro 注解做授权检查（失败时抛出的 AuthorizationException 与未缓存时一致），
+ * 再按角色/参数组成 key 查缓存；命中则直接写出（或 304）并跳过处理方法，未命中则让
+ * {@link ResponseCacheFilter} 的包装开始捕获正文。
+ */
+public class ResponseCacheInterceptor implements HandlerInterceptor {
+
+    private final ResponseCache cache;
+
+    public ResponseCacheInterceptor(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (!(handler instanceof HandlerMethod) || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        ResponseCache.Policy policy = cache.policyFor((HandlerMethod) handler);
+        if (policy == null) {
+            return true;
+        }
+        policy.assertAuthorized();
+        String key = policy.key(request, SecurityUtils.getSubject());
+        CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            if (cached.writeTo(request, response)) {
+                cache.recordNotModified();
+            }
+            return false;
+        }
+        CapturingResponseWrapper capture = WebUtils.getNativeResponse(response, CapturingResponseWrapper.class);
+        if (capture != null) {
+            capture.startCapture(key, policy.getTtlMillis());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.shirolab.web.interceptor;
+
+import com.example.shirolab.metrics.AuthOutcome;
+import com.example.shirolab.metrics.LatencyHistograms;
+import org.apache.shiro.util.ThreadContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按处理方法（如 AuthController.loginJson）记录 preHandle 到 afterCompletion 的耗时，写入 handler 类别的直方图，
+ * 并按当前 Subject 的认证状态打标签。非 HandlerMethod（静态资源等）不记录。
+ */
+public class HandlerLatencyInterceptor implements HandlerInterceptor {
+
+    public static final String TYPE = "handler";
+
+    private static final String START_NANOS = "_handlerStartNanos";
+
+    private final LatencyHistograms histograms;
+    private final ConcurrentHashMap<Method, LatencyHistograms.Series> seriesByMethod =
+            new ConcurrentHashMap<Method, LatencyHistograms.Series>();
+
+    public HandlerLatencyInterceptor(LatencyHistograms histograms) {
+        this.histograms = histograms;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(START_NANOS, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        Object startAttr = request.getAttribute(START_NANOS);
+        if (startAttr instanceof Long && handler instanceof HandlerMethod) {
+            long cost = System.nanoTime() - (Long) startAttr;
+            seriesFor((HandlerMethod) handler).record(AuthOutcome.of(ThreadContext.getSubject()), cost);
+        }
+    }
+
+    private LatencyHistograms.Series seriesFor(HandlerMethod handlerMethod) {
+        Method method = handlerMethod.getMethod();
+        LatencyHistograms.Series series = seriesByMethod.get(method);
+        if (series == null) {
+            series = histograms.series(TYPE, handlerMethod.getBeanType().getSimpleName() + '.' + method.getName());
+            seriesByMethod.putIfAbsent(method, series);
+        }
+        return series;
+    }
+}
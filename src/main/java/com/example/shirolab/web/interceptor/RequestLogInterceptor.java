@@ -1,35 +1,50 @@
 package com.example.shirolab.web.interceptor;
 
-import org.apache.shiro.SecurityUtils;
+import com.example.shirolab.web.accesslog.AccessLogPipeline;
 import org.apache.shiro.subject.Subject;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.shiro.util.ThreadContext;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * 访问日志拦截器：请求线程只记录起始时间并在完成时投递一条记录，格式化与写盘由 {@link AccessLogPipeline} 的后台线程完成。
+ */
 public class RequestLogInterceptor implements HandlerInterceptor {
 
-    private static final Logger log = LoggerFactory.getLogger(RequestLogInterceptor.class);
+    private static final String START_NANOS = "_startTime";
+
+    private final AccessLogPipeline pipeline;
+
+    public RequestLogInterceptor(AccessLogPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        Subject subject = SecurityUtils.getSubject();
-        Object principal = subject.getPrincipal();
-        request.setAttribute("_startTime", System.currentTimeMillis());
-        log.info("Incoming {} {} user={}", request.getMethod(), request.getRequestURI(), principal);
+        request.setAttribute(START_NANOS, System.nanoTime());
         return true;
     }
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
-        Object startAttr = request.getAttribute("_startTime");
+        Object startAttr = request.getAttribute(START_NANOS);
         if (startAttr instanceof Long) {
-            long cost = System.currentTimeMillis() - (Long) startAttr;
-            log.info("Completed {} {} status={} costMs={}", request.getMethod(), request.getRequestURI(), response.getStatus(), cost);
+            long cost = System.nanoTime() - (Long) startAttr;
+            pipeline.publish(request.getMethod(), request.getRequestURI(), currentPrincipal(), response.getStatus(),
+                    System.currentTimeMillis(), cost);
         }
     }
+
+    /**
+     * 只读取 ShiroFilter 已绑定到线程上的 Subject，不像 SecurityUtils.getSubject() 那样在缺失时新建。
+     */
+    private static String currentPrincipal() {
+        Subject subject = ThreadContext.getSubject();
+        Object principal = subject == null ? null : subject.getPrincipal();
+        return principal == null ? null : principal.toString();
+    }
 }
 
 
@@ -0,0 +1,46 @@
+package com.example.shirolab.web.json;
+
+/**
+ * 预序列化的 JSON 片段（UTF-8 字节），类加载时构建一次，写出时只是一次数组复制。
+ * 既可作为完整响应体（{@link #object}），也可作为对象中的一个字段（{@link #field}）拼入其他响应。
+ */
+public final class JsonFragment implements JsonWritable {
+
+    private final byte[] bytes;
+
+    private JsonFragment(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * {"name":"value"}
+     */
+    public static JsonFragment object(String name, String value) {
+        JsonWriter writer = new JsonWriter();
+        writer.raw('{').string(name).raw(':').string(value).raw('}');
+        return new JsonFragment(writer.toByteArray());
+    }
+
+    /**
+     * "name":"value"（不含花括号与逗号）
+     */
+    public static JsonFragment field(String name, String value) {
+        JsonWriter writer = new JsonWriter();
+        writer.string(name).raw(':').string(value);
+        return new JsonFragment(writer.toByteArray());
+    }
+
+    /**
+     * "name":（后面紧跟值）
+     */
+    public static JsonFragment name(String name) {
+        JsonWriter writer = new JsonWriter();
+        writer.string(name).raw(':');
+        return new JsonFragment(writer.toByteArray());
+    }
+
+    @Override
+    public void writeJson(JsonWriter writer) {
+        writer.raw(bytes);
+    }
+}
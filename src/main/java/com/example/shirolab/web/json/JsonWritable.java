@@ -0,0 +1,9 @@
+package com.example.shirolab.web.json;
+
+/**
+ * 自行输出 JSON 的响应体，由 {@link JsonWritableHttpMessageConverter} 写出，不经 Jackson 的对象序列化。
+ */
+public interface JsonWritable {
+
+    void writeJson(JsonWriter writer);
+}
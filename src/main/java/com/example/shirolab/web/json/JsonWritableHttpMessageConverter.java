@@ -0,0 +1,43 @@
+package com.example.shirolab.web.json;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * 写出 {@link JsonWritable} 响应体：在当前线程复用的 {@link JsonWriter} 中生成完整的 UTF-8 字节后一次写入输出流。
+ * 只写不读；需要排在 MappingJackson2HttpMessageConverter 之前（见 WebMvcConfig）。
+ */
+public class JsonWritableHttpMessageConverter extends AbstractHttpMessageConverter<JsonWritable> {
+
+    public JsonWritableHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return JsonWritable.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected JsonWritable readInternal(Class<? extends JsonWritable> clazz, HttpInputMessage inputMessage)
+            throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("JsonWritable is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(JsonWritable body, HttpOutputMessage outputMessage) throws IOException {
+        JsonWriter writer = JsonWriter.current();
+        body.writeJson(writer);
+        writer.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.shirolab.web.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 直接写 UTF-8 字节的最小 JSON 输出缓冲区，只提供固定结构响应需要的几种操作：
+ * 原样字节（预序列化的片段）、转义后的字符串、整数。
+ *
+ * 每个线程复用一个实例（{@link #current()}），缓冲区按需扩大，超过 MAX_RETAINED 时下次复用前缩回初始大小，
+ * 写完后一次 write 到输出流；请求路径上除了偶尔扩容不再分配。
+ */
+public final class JsonWriter {
+
+    private static final int INITIAL_CAPACITY = 512;
+    private static final int MAX_RETAINED = 64 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] LONG_MIN = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<JsonWriter> CURRENT = new ThreadLocal<JsonWriter>() {
+        @Override
+        protected JsonWriter initialValue() {
+            return new JsonWriter();
+        }
+    };
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    JsonWriter() {
+    }
+
+    /**
+     * 当前线程的实例，已清空。
+     */
+    static JsonWriter current() {
+        JsonWriter writer = CURRENT.get();
+        if (writer.buffer.length > MAX_RETAINED) {
+            writer.buffer = new byte[INITIAL_CAPACITY];
+        }
+        writer.size = 0;
+        return writer;
+    }
+
+    public JsonWriter raw(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    public JsonWriter raw(char c) {
+        ensure(1);
+        buffer[size++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * 带引号的字符串，按 RFC 8259 转义；null 写为 null。
+     */
+    public JsonWriter string(String value) {
+        if (value == null) {
+            return raw(NULL);
+        }
+        int length = value.length();
+        // 最坏情况：每个字符 6 字节（\\uXXXX）
+        ensure(length * 6 + 2);
+        byte[] b = buffer;
+        int p = size;
+        b[p++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    b[p++] = (byte) c;
+                } else {
+                    p = escape(b, p, c);
+                }
+            } else if (c < 0x800) {
+                b[p++] = (byte) (0xC0 | (c >> 6));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                b[p++] = (byte) (0xF0 | (cp >> 18));
+                b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理项无法编码为 UTF-8，按 \\uXXXX 输出
+                p = unicodeEscape(b, p, c);
+            } else {
+                b[p++] = (byte) (0xE0 | (c >> 12));
+                b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        b[p++] = '"';
+        size = p;
+        return this;
+    }
+
+    public JsonWriter number(long value) {
+        if (value == Long.MIN_VALUE) {
+            return raw(LONG_MIN);
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private static int escape(byte[] b, int p, char c) {
+        b[p++] = '\\';
+        switch (c) {
+            case '"':
+                b[p++] = '"';
+                return p;
+            case '\\':
+                b[p++] = '\\';
+                return p;
+            case '\n':
+                b[p++] = 'n';
+                return p;
+            case '\r':
+                b[p++] = 'r';
+                return p;
+            case '\t':
+                b[p++] = 't';
+                return p;
+            case '\b':
+                b[p++] = 'b';
+                return p;
+            case '\f':
+                b[p++] = 'f';
+                return p;
+            default:
+                return unicodeEscape(b, p - 1, c);
+        }
+    }
+
+    private static int unicodeEscape(byte[] b, int p, char c) {
+        b[p++] = '\\';
+        b[p++] = 'u';
+        b[p++] = HEX[(c >> 12) & 0xF];
+        b[p++] = HEX[(c >> 8) & 0xF];
+        b[p++] = HEX[(c >> 4) & 0xF];
+        b[p++] = HEX[c & 0xF];
+        return p;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
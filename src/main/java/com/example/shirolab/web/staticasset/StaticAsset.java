@@ -0,0 +1,40 @@
+package com.example.shirolab.web.staticasset;
+
+import java.nio.file.Path;
+
+/**
+ * 一个静态资源的全部表示：原文与可选的 gzip / brotli 预压缩版本，启动时建立后不再变化。
+ */
+final class StaticAsset {
+
+    final String contentType;
+    final Variant identity;
+    final Variant gzip;
+    final Variant brotli;
+
+    StaticAsset(String contentType, Variant identity, Variant gzip, Variant brotli) {
+        this.contentType = contentType;
+        this.identity = identity;
+        this.gzip = gzip;
+        this.brotli = brotli;
+    }
+
+    /**
+     * 单个编码的内容：小文件常驻堆内（bytes），大文件只保留磁盘路径，由 sendfile / transferTo 发送。
+     */
+    static final class Variant {
+        final String encoding;
+        final String etag;
+        final long length;
+        final byte[] bytes;
+        final Path file;
+
+        Variant(String encoding, String etag, long length, byte[] bytes, Path file) {
+            this.encoding = encoding;
+            this.etag = etag;
+            this.length = length;
+            this.bytes = bytes;
+            this.file = file;
+        }
+    }
+}
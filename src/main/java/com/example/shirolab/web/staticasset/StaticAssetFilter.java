@@ -0,0 +1,179 @@
+package com.example.shirolab.web.staticasset;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 静态资源快速通道，注册在 shiroFilter 之前，直接用 {@link StaticAssetIndex} 响应 GET/HEAD：
+ * 不创建 Subject、不解析过滤链、不进入 Spring MVC。
+ *
+ * - 按 Accept-Encoding 选择 br &gt; gzip &gt; 原文，响应带 Vary: Accept-Encoding；
+ * - If-None-Match 命中所选版本的 ETag 时返回 304；
+ * - 堆内内容直接写出；磁盘上的大文件在容器支持时交给 Tomcat sendfile（零拷贝），否则用 FileChannel.transferTo；
+ * - 索引中不存在的路径直接 404，不再穿过安全层。
+ */
+public class StaticAssetFilter implements Filter, MeterBinder {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final StaticAssetIndex index;
+    private final String cacheControl;
+
+    private final LongAdder served = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder sendfile = new LongAdder();
+
+    public StaticAssetFilter(StaticAssetIndex index, long maxAgeSeconds) {
+        this.index = index;
+        this.cacheControl = "public, max-age=" + maxAgeSeconds;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+        String method = request.getMethod();
+        boolean head = "HEAD".equals(method);
+        if (!head && !"GET".equals(method)) {
+            chain.doFilter(req, res);
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        StaticAsset asset = index.get(path);
+        if (asset == null) {
+            notFound.increment();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        StaticAsset.Variant variant = select(asset, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        response.setHeader(HttpHeaders.ETAG, variant.etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (asset.gzip != null || asset.brotli != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), variant.etag)) {
+            notModified.increment();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(asset.contentType);
+        if (variant.encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, variant.encoding);
+        }
+        response.setContentLengthLong(variant.length);
+        served.increment();
+        if (head) {
+            return;
+        }
+        if (variant.bytes != null) {
+            response.getOutputStream().write(variant.bytes);
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            sendfile.increment();
+            request.setAttribute(SENDFILE_FILENAME, variant.file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, variant.length);
+        } else {
+            ServletOutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            try (FileChannel channel = FileChannel.open(variant.file, StandardOpenOption.READ)) {
+                long position = 0;
+                while (position < variant.length) {
+                    position += channel.transferTo(position, variant.length - position, target);
+                }
+            }
+        }
+    }
+
+    private static StaticAsset.Variant select(StaticAsset asset, String acceptEncoding) {
+        if (acceptEncoding != null) {
+            if (asset.brotli != null && accepts(acceptEncoding, "br")) {
+                return asset.brotli;
+            }
+            if (asset.gzip != null && accepts(acceptEncoding, "gzip")) {
+                return asset.gzip;
+            }
+        }
+        return asset.identity;
+    }
+
+    /**
+     * 只识别编码名与 q=0 排除，足以覆盖浏览器发送的 Accept-Encoding。
+     */
+    private static boolean accepts(String acceptEncoding, String encoding) {
+        for (String part : acceptEncoding.split(",")) {
+            String token = part.trim();
+            int semicolon = token.indexOf(';');
+            String name = semicolon < 0 ? token : token.substring(0, semicolon).trim();
+            if (name.equalsIgnoreCase(encoding)) {
+                return semicolon < 0 || !isZeroQuality(token.substring(semicolon + 1).trim());
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String parameter) {
+        if (!parameter.startsWith("q=")) {
+            return false;
+        }
+        try {
+            return Float.parseFloat(parameter.substring(2).trim()) == 0f;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String part : ifNoneMatch.split(",")) {
+            String candidate = part.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(etag) || candidate.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("http.static.requests", served, LongAdder::sum).tag("result", "served").register(registry);
+        FunctionCounter.builder("http.static.requests", notModified, LongAdder::sum).tag("result", "not_modified").register(registry);
+        FunctionCounter.builder("http.static.requests", notFound, LongAdder::sum).tag("result", "not_found").register(registry);
+        FunctionCounter.builder("http.static.sendfile", sendfile, LongAdder::sum).register(registry);
+    }
+}
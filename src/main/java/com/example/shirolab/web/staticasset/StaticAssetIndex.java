@@ -0,0 +1,172 @@
+package com.example.shirolab.web.staticasset;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 启动时扫描静态资源目录，建立 “请求路径 → {@link StaticAsset}” 的不可变索引。
+ *
+ * - ETag 为原文 SHA-256 前 16 字节的 base64url，压缩版本追加 -gz / -br，内容不变则 ETag 不变；
+ * - 同目录下存在 {@code name.gz} / {@code name.br}（前端构建产物）时作为对应编码的版本；
+ *   文本类资源没有 .gz 时在启动时压缩一次，只有变小才保留。JDK 不带 brotli 编码器，br 只取构建产物；
+ * - 不超过 inlineThreshold 的内容读入堆内；更大的文件若位于文件系统上则只记录路径，jar 内的资源一律读入堆内。
+ */
+public class StaticAssetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StaticAssetIndex.class);
+
+    private final Map<String, StaticAsset> assets;
+    private final long totalBytes;
+
+    private StaticAssetIndex(Map<String, StaticAsset> assets, long totalBytes) {
+        this.assets = assets;
+        this.totalBytes = totalBytes;
+    }
+
+    public static StaticAssetIndex scan(String location, int inlineThreshold, int gzipMinBytes) throws IOException {
+        ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        String root = location.endsWith("/") ? location : location + "/";
+        Resource rootResource = resolver.getResource(root);
+        if (!rootResource.exists()) {
+            log.info("Static asset location {} does not exist, fast path serves nothing", root);
+            return new StaticAssetIndex(Collections.<String, StaticAsset>emptyMap(), 0L);
+        }
+        String rootUrl = rootResource.getURL().toString();
+
+        Map<String, Resource> found = new HashMap<String, Resource>();
+        for (Resource resource : resolver.getResources(root + "**/*")) {
+            if (!resource.isReadable()) {
+                continue;
+            }
+            String url = resource.getURL().toString();
+            if (url.endsWith("/") || !url.startsWith(rootUrl)) {
+                continue;
+            }
+            found.put("/" + url.substring(rootUrl.length()), resource);
+        }
+
+        Map<String, StaticAsset> assets = new HashMap<String, StaticAsset>();
+        long totalBytes = 0;
+        for (Map.Entry<String, Resource> entry : found.entrySet()) {
+            String path = entry.getKey();
+            if ((path.endsWith(".gz") || path.endsWith(".br"))
+                    && found.containsKey(path.substring(0, path.length() - 3))) {
+                continue;
+            }
+            byte[] content = read(entry.getValue());
+            String etag = etag(content);
+            String contentType = contentType(path);
+            StaticAsset.Variant identity = variant(null, '"' + etag + '"', content, entry.getValue(), inlineThreshold);
+
+            StaticAsset.Variant gzip = null;
+            Resource gz = found.get(path + ".gz");
+            if (gz != null) {
+                gzip = variant("gzip", '"' + etag + "-gz\"", read(gz), gz, inlineThreshold);
+            } else if (content.length >= gzipMinBytes && isCompressible(contentType)) {
+                byte[] compressed = gzip(content);
+                if (compressed.length < content.length) {
+                    gzip = new StaticAsset.Variant("gzip", '"' + etag + "-gz\"", compressed.length, compressed, null);
+                }
+            }
+            StaticAsset.Variant brotli = null;
+            Resource br = found.get(path + ".br");
+            if (br != null) {
+                brotli = variant("br", '"' + etag + "-br\"", read(br), br, inlineThreshold);
+            }
+            assets.put(path, new StaticAsset(contentType, identity, gzip, brotli));
+            totalBytes += content.length;
+        }
+        log.info("Indexed {} static assets ({} bytes) from {}", assets.size(), totalBytes, root);
+        return new StaticAssetIndex(Collections.unmodifiableMap(assets), totalBytes);
+    }
+
+    StaticAsset get(String path) {
+        return assets.get(path);
+    }
+
+    public int size() {
+        return assets.size();
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private static StaticAsset.Variant variant(String encoding, String etag, byte[] content, Resource resource,
+                                               int inlineThreshold) {
+        Path file = fileOf(resource);
+        if (content.length <= inlineThreshold || file == null) {
+            return new StaticAsset.Variant(encoding, etag, content.length, content, null);
+        }
+        return new StaticAsset.Variant(encoding, etag, content.length, null, file);
+    }
+
+    private static Path fileOf(Resource resource) {
+        if (!resource.isFile()) {
+            return null;
+        }
+        try {
+            File file = resource.getFile();
+            return file.toPath().toAbsolutePath();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static byte[] read(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String contentType(String path) {
+        MediaType type = MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        if ("text".equals(type.getType()) || type.includes(MediaType.APPLICATION_JSON)
+                || "javascript".equals(type.getSubtype())) {
+            return type.toString() + ";charset=UTF-8";
+        }
+        return type.toString();
+    }
+
+    private static boolean isCompressible(String contentType) {
+        return contentType.startsWith("text/") || contentType.contains("javascript") || contentType.contains("json")
+                || contentType.contains("svg") || contentType.contains("xml");
+    }
+}
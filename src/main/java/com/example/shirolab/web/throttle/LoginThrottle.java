@@ -0,0 +1,120 @@
+package com.example.shirolab.web.throttle;
+
+import com.example.shirolab.support.BoundedCache;
+import com.example.shirolab.support.SlidingWindowCounter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录限流：按客户端 IP 与按用户名各一个 {@link SlidingWindowCounter}。
+ *
+ * - IP 维度由 {@link LoginThrottleFilter} 在 shiroFilter 之前检查，每次尝试（无论成功失败、是否被拒绝）都计入窗口，
+ *   被拒绝的请求不会创建 Subject、读取会话或解码 rememberMe；
+ * - 用户名维度只统计认证失败（AuthController 在凭证被拒绝后调用 {@link #recordUserFailure}），不区分来源，
+ *   因此来自大量 IP、针对同一账号的撞库与口令喷洒同样会被挡住；
+ * - 为了不让别人借此把账号本人锁在外面，曾用该账号登录成功过的客户端（{@link #recordSuccess}，
+ *   记在有界 LRU/TTL 的已知客户端表中）不受用户名维度限制，仍受 IP 维度限制。
+ *
+ * limit &lt;= 0 时关闭对应维度。
+ */
+public class LoginThrottle implements MeterBinder {
+
+    private final SlidingWindowCounter clients;
+    private final SlidingWindowCounter users;
+    private final BoundedCache<String, Boolean> knownClients;
+    private final int clientLimit;
+    private final int userLimit;
+
+    private final LongAdder clientRejected = new LongAdder();
+    private final LongAdder userRejected = new LongAdder();
+
+    public LoginThrottle(SlidingWindowCounter clients, int clientLimit, SlidingWindowCounter users, int userLimit,
+                         BoundedCache<String, Boolean> knownClients) {
+        this.clients = clients;
+        this.clientLimit = clientLimit;
+        this.users = users;
+        this.userLimit = userLimit;
+        this.knownClients = knownClients;
+    }
+
+    public boolean tryAcquireClient(String clientAddress) {
+        if (clientLimit <= 0 || clientAddress == null) {
+            return true;
+        }
+        if (clients.increment(clientAddress) > clientLimit) {
+            clientRejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 认证前的检查，只读不计数：该用户名在窗口内的失败次数已达上限、且该客户端不是此账号的已知客户端时拒绝。
+     */
+    public boolean tryAcquireUser(String clientAddress, String username) {
+        if (userLimit <= 0 || username == null) {
+            return true;
+        }
+        if (users.estimate(username) >= userLimit && !isKnownClient(clientAddress, username)) {
+            userRejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 认证失败（未知账户、口令错误、账户锁定）后计一次，计入该用户名，与来源无关。
+     */
+    public void recordUserFailure(String username) {
+        if (userLimit <= 0 || username == null) {
+            return;
+        }
+        users.increment(username);
+    }
+
+    /**
+     * 登录成功后记下（客户端, 用户名），之后该客户端登录此账号时不受用户名维度限制。
+     */
+    public void recordSuccess(String clientAddress, String username) {
+        if (userLimit <= 0 || clientAddress == null || username == null) {
+            return;
+        }
+        knownClients.put(knownClientKey(clientAddress, username), Boolean.TRUE);
+    }
+
+    private boolean isKnownClient(String clientAddress, String username) {
+        return clientAddress != null && knownClients.get(knownClientKey(clientAddress, username)) != null;
+    }
+
+    private static String knownClientKey(String clientAddress, String username) {
+        // IP 地址中不会出现 \0，拼接后不会与其他 (IP, 用户名) 组合混淆
+        return clientAddress + '\0' + username;
+    }
+
+    /**
+     * 建议客户端等待的秒数：取较长的窗口，滑动窗口在此之后必然回落到限额以下。
+     */
+    public long getRetryAfterSeconds() {
+        long windowMillis = Math.max(clients.getWindowMillis(), users.getWindowMillis());
+        return Math.max(1L, (windowMillis + 999L) / 1000L);
+    }
+
+    public long getClientRejectedCount() {
+        return clientRejected.sum();
+    }
+
+    public long getUserRejectedCount() {
+        return userRejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("shiro.login.throttled", clientRejected, LongAdder::sum)
+                .tag("key", "client").register(registry);
+        FunctionCounter.builder("shiro.login.throttled", userRejected, LongAdder::sum)
+                .tag("key", "user").register(registry);
+    }
+}
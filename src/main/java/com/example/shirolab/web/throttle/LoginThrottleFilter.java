@@ -0,0 +1,51 @@
+package com.example.shirolab.web.throttle;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 登录接口前的按 IP 限流过滤器，注册顺序在 shiroFilter 之前。
+ *
+ * 只对 POST 计数；超出限额时直接返回 429 与 Retry-After，不进入 Shiro 与 Spring MVC。
+ * 客户端地址取 getRemoteAddr()，部署在反向代理后时应由容器（如 server.forward-headers-strategy）改写。
+ */
+public class LoginThrottleFilter implements Filter {
+
+    private final LoginThrottle throttle;
+
+    public LoginThrottleFilter(LoginThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        if ("POST".equals(httpRequest.getMethod()) && !throttle.tryAcquireClient(httpRequest.getRemoteAddr())) {
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            httpResponse.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(throttle.getRetryAfterSeconds()));
+            httpResponse.setContentLength(0);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.shirolab.web.thymeleaf;
+
+import org.apache.shiro.authz.Authorizer;
+import org.apache.shiro.subject.PrincipalCollection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次请求内的授权检查结果：同一主体的同一角色/权限只向 Authorizer 求值一次，
+ * 片段、th:each 内部以及同一请求渲染的多个模板共用。
+ *
+ * 进入模板时（{@link #enter}）把该模板以往出现过的检查中尚未求值的部分合并为
+ * 一次 hasRoles 与一次 isPermitted(String...) 调用；模板中新出现的检查按需求值并记入 TemplateChecks。
+ *
+ * 只在渲染请求的线程内使用，不做同步。主体变化（如同一请求内先登录再渲染）时由 ShiroDialect 换用新实例。
+ */
+final class AuthorizationMemo {
+
+    static final String REQUEST_ATTRIBUTE = AuthorizationMemo.class.getName();
+
+    private final Authorizer authorizer;
+    private final PrincipalCollection principals;
+    private final boolean preload;
+    private final Map<String, Boolean> roles = new HashMap<String, Boolean>();
+    private final Map<String, Boolean> permissions = new HashMap<String, Boolean>();
+    private TemplateChecks template;
+    private int authorizerCalls;
+
+    AuthorizationMemo(Authorizer authorizer, PrincipalCollection principals, boolean preload) {
+        this.authorizer = authorizer;
+        this.principals = principals == null || principals.isEmpty() ? null : principals;
+        this.preload = preload;
+    }
+
+    boolean isFor(PrincipalCollection current) {
+        if (current == null || current.isEmpty()) {
+            return principals == null;
+        }
+        return current == principals || current.equals(principals);
+    }
+
+    /**
+     * 切换到另一个最外层模板时，批量求值该模板已知的检查。
+     */
+    void enter(TemplateChecks checks) {
+        if (checks == template) {
+            return;
+        }
+        template = checks;
+        if (preload && principals != null) {
+            preloadRoles(checks.roles());
+            preloadPermissions(checks.permissions());
+        }
+    }
+
+    boolean hasRole(String role) {
+        Boolean result = roles.get(role);
+        if (result == null) {
+            result = Boolean.FALSE;
+            if (principals != null) {
+                authorizerCalls++;
+                result = authorizer.hasRole(principals, role);
+            }
+            roles.put(role, result);
+            if (template != null) {
+                template.addRole(role);
+            }
+        }
+        return result;
+    }
+
+    boolean isPermitted(String permission) {
+        Boolean result = permissions.get(permission);
+        if (result == null) {
+            result = Boolean.FALSE;
+            if (principals != null) {
+                authorizerCalls++;
+                result = authorizer.isPermitted(principals, permission);
+            }
+            permissions.put(permission, result);
+            if (template != null) {
+                template.addPermission(permission);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 向 Authorizer 发起的调用次数（批量求值计一次）。
+     */
+    int getAuthorizerCalls() {
+        return authorizerCalls;
+    }
+
+    private void preloadRoles(String[] known) {
+        List<String> missing = new ArrayList<String>(known.length);
+        for (String role : known) {
+            if (!roles.containsKey(role)) {
+                missing.add(role);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        authorizerCalls++;
+        boolean[] result = authorizer.hasRoles(principals, missing);
+        for (int i = 0; i < result.length; i++) {
+            roles.put(missing.get(i), result[i]);
+        }
+    }
+
+    private void preloadPermissions(String[] known) {
+        String[] missing = new String[known.length];
+        int count = 0;
+        for (String permission : known) {
+            if (!permissions.containsKey(permission)) {
+                missing[count++] = permission;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        authorizerCalls++;
+        boolean[] result = authorizer.isPermitted(principals,
+                count == missing.length ? missing : Arrays.copyOf(missing, count));
+        for (int i = 0; i < result.length; i++) {
+            permissions.put(missing[i], result[i]);
+        }
+    }
+}
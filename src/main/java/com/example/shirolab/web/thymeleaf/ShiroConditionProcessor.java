@@ -0,0 +1,148 @@
+package com.example.shirolab.web.thymeleaf;
+
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.subject.Subject;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.standard.processor.AbstractStandardConditionalVisibilityTagProcessor;
+import org.thymeleaf.templatemode.TemplateMode;
+
+/**
+ * shiro:hasRole 等条件属性：条件不成立时移除整个元素（同 th:if）。
+ * 属性值为字面量，多个名称以逗号分隔；角色与权限检查经 {@link AuthorizationMemo} 求值。
+ */
+final class ShiroConditionProcessor extends AbstractStandardConditionalVisibilityTagProcessor {
+
+    /** 与 th:if 相同 */
+    static final int PRECEDENCE = 300;
+
+    enum Condition {
+        AUTHENTICATED("authenticated") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                return subject.isAuthenticated();
+            }
+        },
+        NOT_AUTHENTICATED("notAuthenticated") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                return !subject.isAuthenticated();
+            }
+        },
+        /** 已认证或经 rememberMe 识别 */
+        USER("user") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                return subject.getPrincipal() != null;
+            }
+        },
+        GUEST("guest") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                return subject.getPrincipal() == null;
+            }
+        },
+        HAS_ROLE("hasRole") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                return anyRole(dialect.memo(subject, context), names);
+            }
+        },
+        LACKS_ROLE("lacksRole") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                return !anyRole(dialect.memo(subject, context), names);
+            }
+        },
+        HAS_ANY_ROLES("hasAnyRoles") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                return anyRole(dialect.memo(subject, context), names);
+            }
+        },
+        HAS_ALL_ROLES("hasAllRoles") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                AuthorizationMemo memo = dialect.memo(subject, context);
+                for (String role : names) {
+                    if (!memo.hasRole(role)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        },
+        HAS_PERMISSION("hasPermission") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                return anyPermission(dialect.memo(subject, context), names);
+            }
+        },
+        LACKS_PERMISSION("lacksPermission") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                return !anyPermission(dialect.memo(subject, context), names);
+            }
+        },
+        HAS_ANY_PERMISSIONS("hasAnyPermissions") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                return anyPermission(dialect.memo(subject, context), names);
+            }
+        },
+        HAS_ALL_PERMISSIONS("hasAllPermissions") {
+            @Override
+            boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names) {
+                AuthorizationMemo memo = dialect.memo(subject, context);
+                for (String permission : names) {
+                    if (!memo.isPermitted(permission)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+
+        final String attributeName;
+
+        Condition(String attributeName) {
+            this.attributeName = attributeName;
+        }
+
+        abstract boolean test(Subject subject, ShiroDialect dialect, ITemplateContext context, String[] names);
+
+        private static boolean anyRole(AuthorizationMemo memo, String[] roles) {
+            for (String role : roles) {
+                if (memo.hasRole(role)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean anyPermission(AuthorizationMemo memo, String[] permissions) {
+            for (String permission : permissions) {
+                if (memo.isPermitted(permission)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final ShiroDialect dialect;
+    private final Condition condition;
+
+    ShiroConditionProcessor(ShiroDialect dialect, String dialectPrefix, Condition condition) {
+        super(TemplateMode.HTML, dialectPrefix, condition.attributeName, PRECEDENCE);
+        this.dialect = dialect;
+        this.condition = condition;
+    }
+
+    @Override
+    protected boolean isVisible(ITemplateContext context, IProcessableElementTag tag,
+                                AttributeName attributeName, String attributeValue) {
+        return condition.test(SecurityUtils.getSubject(), dialect, context, dialect.names(attributeValue));
+    }
+}
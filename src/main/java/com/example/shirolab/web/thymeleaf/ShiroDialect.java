@@ -0,0 +1,120 @@
+package com.example.shirolab.web.thymeleaf;
+
+import com.example.shirolab.support.BoundedCache;
+import org.apache.shiro.authz.Authorizer;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.Subject;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.context.IWebContext;
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.standard.StandardDialect;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Thymeleaf 的 shiro: 属性（xmlns:shiro="http://shiro.apache.org/thymeleaf"）：
+ * <pre>
+ *   shiro:authenticated / notAuthenticated / user / guest       （无属性值）
+ *   shiro:hasRole="admin"            shiro:lacksRole="admin"
+ *   shiro:hasAnyRoles="a, b"         shiro:hasAllRoles="a, b"
+ *   shiro:hasPermission="doc:read"   shiro:lacksPermission="doc:read"
+ *   shiro:hasAnyPermissions="a, b"   shiro:hasAllPermissions="a, b"
+ *   shiro:principal                  以主 principal 替换元素内容
+ * </pre>
+ *
+ * 角色与权限检查不经 Subject，而是由 {@link AuthorizationMemo} 直接调用 Authorizer（即 SecurityManager 使用的 Realm）：
+ * Subject.isPermitted(String...) 经 ModularRealmAuthorizer 会被拆成逐个检查，直接调用 Realm 才能让
+ * IndexedIniRealm 一次取 AuthorizationInfo 求出整组结果。
+ * - 每个请求一个 memo（请求属性），同一检查在一次请求内只求值一次；
+ * - 按最外层模板记下出现过的检查（TemplateChecks），preload 开启时，之后的请求在进入模板时
+ *   以一次 hasRoles 与一次 isPermitted(String...) 批量求值整页的检查。
+ * 非 Web 上下文（如离线渲染邮件）没有请求可挂，每次检查单独求值。
+ */
+public class ShiroDialect extends AbstractProcessorDialect {
+
+    public static final String NAME = "Shiro";
+    public static final String PREFIX = "shiro";
+
+    private static final int CACHE_SIZE = 1024;
+    private static final String[] NO_NAMES = new String[0];
+
+    private final Authorizer authorizer;
+    private final boolean preload;
+    private final BoundedCache<String, TemplateChecks> templates =
+            new BoundedCache<String, TemplateChecks>(CACHE_SIZE, 0);
+    private final BoundedCache<String, String[]> names = new BoundedCache<String, String[]>(CACHE_SIZE, 0);
+
+    /**
+     * @param authorizer 通常为 SecurityManager 所用的 Realm
+     * @param preload    是否在进入模板时批量求值该模板以往出现过的检查
+     */
+    public ShiroDialect(Authorizer authorizer, boolean preload) {
+        super(NAME, PREFIX, StandardDialect.PROCESSOR_PRECEDENCE);
+        this.authorizer = authorizer;
+        this.preload = preload;
+    }
+
+    @Override
+    public Set<IProcessor> getProcessors(String dialectPrefix) {
+        Set<IProcessor> processors = new LinkedHashSet<IProcessor>();
+        for (ShiroConditionProcessor.Condition condition : ShiroConditionProcessor.Condition.values()) {
+            processors.add(new ShiroConditionProcessor(this, dialectPrefix, condition));
+        }
+        processors.add(new ShiroPrincipalProcessor(dialectPrefix));
+        return processors;
+    }
+
+    /**
+     * 当前请求、当前主体的 memo，并切换到当前最外层模板的 TemplateChecks。
+     */
+    AuthorizationMemo memo(Subject subject, ITemplateContext context) {
+        PrincipalCollection principals = subject.getPrincipals();
+        HttpServletRequest request = context instanceof IWebContext ? ((IWebContext) context).getRequest() : null;
+        AuthorizationMemo memo = request == null ? null
+                : (AuthorizationMemo) request.getAttribute(AuthorizationMemo.REQUEST_ATTRIBUTE);
+        if (memo == null || !memo.isFor(principals)) {
+            memo = new AuthorizationMemo(authorizer, principals, preload);
+            if (request != null) {
+                request.setAttribute(AuthorizationMemo.REQUEST_ATTRIBUTE, memo);
+            }
+        }
+        memo.enter(checksOf(context.getTemplateStack().get(0).getTemplate()));
+        return memo;
+    }
+
+    /**
+     * 逗号分隔的属性值拆分为去掉空白的名称，按属性值缓存。
+     */
+    String[] names(String attributeValue) {
+        if (attributeValue == null || attributeValue.isEmpty()) {
+            return NO_NAMES;
+        }
+        String[] split = names.get(attributeValue);
+        if (split == null) {
+            String[] parts = attributeValue.split(",");
+            int count = 0;
+            for (String part : parts) {
+                String name = part.trim();
+                if (!name.isEmpty()) {
+                    parts[count++] = name;
+                }
+            }
+            split = new String[count];
+            System.arraycopy(parts, 0, split, 0, count);
+            names.put(attributeValue, split);
+        }
+        return split;
+    }
+
+    private TemplateChecks checksOf(String template) {
+        TemplateChecks checks = templates.get(template);
+        if (checks == null) {
+            checks = new TemplateChecks();
+            templates.put(template, checks);
+        }
+        return checks;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.shirolab.web.thymeleaf;
+
+import org.apache.shiro.SecurityUtils;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.element.AbstractAttributeTagProcessor;
+import org.thymeleaf.processor.element.IElementTagStructureHandler;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.unbescape.html.HtmlEscape;
+
+/**
+ * shiro:principal：以当前主体的主 principal（转义后）替换元素内容；没有主体时保留模板中的原内容。
+ */
+final class ShiroPrincipalProcessor extends AbstractAttributeTagProcessor {
+
+    /** 与 th:text 相同 */
+    static final int PRECEDENCE = 1300;
+
+    ShiroPrincipalProcessor(String dialectPrefix) {
+        super(TemplateMode.HTML, dialectPrefix, null, false, "principal", true, PRECEDENCE, true);
+    }
+
+    @Override
+    protected void doProcess(ITemplateContext context, IProcessableElementTag tag, AttributeName attributeName,
+                             String attributeValue, IElementTagStructureHandler structureHandler) {
+        Object principal = SecurityUtils.getSubject().getPrincipal();
+        if (principal != null) {
+            structureHandler.setBody(HtmlEscape.escapeHtml5(principal.toString()), false);
+        }
+    }
+}
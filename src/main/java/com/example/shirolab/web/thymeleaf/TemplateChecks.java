@@ -0,0 +1,50 @@
+package com.example.shirolab.web.thymeleaf;
+
+import java.util.Arrays;
+
+/**
+ * 某个模板（按最外层模板名）渲染时出现过的角色与权限检查，在首次渲染中逐步记下，
+ * 之后的请求据此在第一次检查时一次性批量求值（见 {@link AuthorizationMemo#enter}）。
+ *
+ * 属性值来自模板字面量，集合随模板内容而有界；仍设上限，防止异常模板无限增长。
+ * 读多写少：读取无锁，写入时复制数组。
+ */
+final class TemplateChecks {
+
+    static final int MAX_CHECKS = 256;
+
+    private static final String[] EMPTY = new String[0];
+
+    private volatile String[] roles = EMPTY;
+    private volatile String[] permissions = EMPTY;
+
+    String[] roles() {
+        return roles;
+    }
+
+    String[] permissions() {
+        return permissions;
+    }
+
+    synchronized void addRole(String role) {
+        roles = add(roles, role);
+    }
+
+    synchronized void addPermission(String permission) {
+        permissions = add(permissions, permission);
+    }
+
+    private static String[] add(String[] values, String value) {
+        if (values.length >= MAX_CHECKS) {
+            return values;
+        }
+        for (String existing : values) {
+            if (existing.equals(value)) {
+                return values;
+            }
+        }
+        String[] grown = Arrays.copyOf(values, values.length + 1);
+        grown[values.length] = value;
+        return grown;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.shirolab.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程执行模型，仅在 -Pjava21 构建时编译（源码目录 src/main/java21）。
+ *
+ * - Tomcat 的请求处理由固定的平台线程池（默认 200）改为每个请求一个虚拟线程，阻塞在下游调用上的请求不再占住平台线程；
+ * - virtualThreadExecutor 交给 AsyncConfig 包装成 SubjectAwareExecutorService，处理方法扇出的任务同样跑在虚拟线程上。
+ *
+ * Shiro 的 ThreadContext 基于 InheritableThreadLocal，虚拟线程上绑定/解绑的语义不变。
+ * BoundedCache 等处的 synchronized 临界区内没有阻塞操作，不会长时间钉住载体线程。
+ * shirolab.threads.virtual.enabled=false 可在 Java 21 构建下退回平台线程。
+ */
+@Configuration
+@ConditionalOnProperty(name = "shirolab.threads.virtual.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("subject-async-vt-", 0).factory());
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService requestExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory());
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor);
+    }
+}
@@ -0,0 +1,21 @@
+-- JdbcPrincipalRealm 的演示库（H2）：表结构与 Shiro JdbcRealm 相同，账户与 shiro.ini 一致。
+-- 作为连接 URL 的 INIT 脚本，每个新连接都会执行一次，因此全部语句可重复执行。
+CREATE TABLE IF NOT EXISTS users (
+    username VARCHAR(64) PRIMARY KEY,
+    password VARCHAR(256)
+);
+CREATE TABLE IF NOT EXISTS user_roles (
+    username VARCHAR(64) NOT NULL,
+    role_name VARCHAR(64) NOT NULL,
+    PRIMARY KEY (username, role_name)
+);
+CREATE TABLE IF NOT EXISTS roles_permissions (
+    role_name VARCHAR(64) NOT NULL,
+    permission VARCHAR(256) NOT NULL,
+    PRIMARY KEY (role_name, permission)
+);
+
+MERGE INTO users KEY (username) VALUES ('admin', 'admin123'), ('user', 'user123');
+MERGE INTO user_roles KEY (username, role_name) VALUES ('admin', 'admin'), ('user', 'user');
+MERGE INTO roles_permissions KEY (role_name, permission)
+    VALUES ('admin', '*'), ('user', 'document:read'), ('user', 'profile:read');
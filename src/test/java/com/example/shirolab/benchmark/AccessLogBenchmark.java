@@ -0,0 +1,91 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.web.accesslog.AccessLogPipeline;
+import com.example.shirolab.web.accesslog.FileAccessLogSink;
+import com.example.shirolab.web.accesslog.OverflowPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求线程侧的访问日志开销对比（8 线程并发写同一个文件）：
+ *
+ * - sync：原 RequestLogInterceptor 的做法，请求线程内格式化并在锁内写文件（等价于同步 FileAppender）；
+ * - async：投递到 AccessLogPipeline 的环形缓冲区，由后台线程批量写出；
+ *   overflow=drop 时吞吐不受磁盘影响，drop 计数在 TearDown 时打印。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class AccessLogBenchmark {
+
+    @Param({"drop", "block"})
+    public String overflow;
+
+    private Path file;
+    private Writer syncWriter;
+    private AccessLogPipeline pipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("access", ".log");
+        syncWriter = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND));
+        pipeline = new AccessLogPipeline(8192, 256, OverflowPolicy.valueOf(overflow.toUpperCase()),
+                new FileAccessLogSink(file));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        syncWriter.close();
+        pipeline.close();
+        System.out.println("published=" + pipeline.getPublishedCount() + " dropped=" + pipeline.getDroppedCount());
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void sync() throws IOException {
+        String line = String.format("Completed %s %s user=%s status=%d costMs=%d%n",
+                "GET", "/admin/index", "admin", 200, 3L);
+        synchronized (syncWriter) {
+            syncWriter.write(line);
+            // logback FileAppender 默认 immediateFlush=true
+            syncWriter.flush();
+        }
+    }
+
+    @Benchmark
+    public boolean async() {
+        return pipeline.publish("GET", "/admin/index", "admin", 200, System.currentTimeMillis(), 3_000_000L);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AccessLogBenchmark.class.getSimpleName()).build()).run();
+    }
+}
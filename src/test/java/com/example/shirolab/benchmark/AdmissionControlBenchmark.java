@@ -0,0 +1,132 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.token.SignedTokenService;
+import com.example.shirolab.web.admission.AdaptiveConcurrencyLimit;
+import com.example.shirolab.web.admission.AdmissionControlFilter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.Cookie;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 过载下的本地负载测试：64 个客户端线程（每次请求前思考 5ms）压一个只能并行处理 8 个请求、每个耗时 2ms 的下游
+ * （模拟变慢的数据库连接池），请求一半带会话 Cookie、一半匿名。
+ *
+ * SampleTime 模式给出每次调用（含被拒绝的 503）的耗时分布，重点看 p0.99：
+ * - off：没有准入控制，请求全部在下游排队，p99 随客户端数线性增长；
+ * - on：AdmissionControlFilter 按耗时收缩上限，超出部分立即 503，被放行请求的排队时间有界。
+ * 辅助计数 admitted / rejected 与 sessionRejected 给出各自的数量。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class AdmissionControlBenchmark {
+
+    private static final int DOWNSTREAM_PERMITS = 8;
+    private static final long DOWNSTREAM_MILLIS = 2;
+    private static final long THINK_MILLIS = 5;
+
+    @Param({"off", "on"})
+    public String admission;
+
+    private AdmissionControlFilter filter;
+    private Semaphore downstream;
+    private FilterChain chain;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = new AdmissionControlFilter(new AdaptiveConcurrencyLimit(100, 4, 200, 1.5, 500, 0.2,
+                new double[]{1.0, 0.9, 0.5}), new SignedTokenService(new byte[32], 60_000L),
+                "JSESSIONID", "s"::equals, "rememberMe", 1);
+        downstream = new Semaphore(DOWNSTREAM_PERMITS, true);
+        chain = (request, response) -> {
+            downstream.acquireUninterruptibly();
+            try {
+                Thread.sleep(DOWNSTREAM_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                downstream.release();
+            }
+        };
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Client {
+        public long admitted;
+        public long rejected;
+        public long sessionRejected;
+
+        private final MockHttpServletRequest session = new MockHttpServletRequest("GET", "/user/profile");
+        private final MockHttpServletRequest anonymous = new MockHttpServletRequest("GET", "/");
+        private boolean toggle;
+
+        public Client() {
+            session.setCookies(new Cookie("JSESSIONID", "s"));
+        }
+
+        /**
+         * 两次请求之间的思考时间（不计入耗时），64 个客户端约产生下游容量 3 倍的负载。
+         */
+        @Setup(Level.Invocation)
+        public void think() throws InterruptedException {
+            Thread.sleep(THINK_MILLIS);
+        }
+
+        MockHttpServletRequest next() {
+            toggle = !toggle;
+            return toggle ? session : anonymous;
+        }
+    }
+
+    @Benchmark
+    public int request(Client client) throws Exception {
+        MockHttpServletRequest request = client.next();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if ("on".equals(admission)) {
+            filter.doFilter(request, response, chain);
+        } else {
+            chain.doFilter(request, response);
+        }
+        if (response.getStatus() == 503) {
+            client.rejected++;
+            if (request.getCookies() != null) {
+                client.sessionRejected++;
+            }
+        } else {
+            client.admitted++;
+        }
+        return response.getStatus();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AdmissionControlBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
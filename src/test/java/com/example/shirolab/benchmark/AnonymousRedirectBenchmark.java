@@ -0,0 +1,107 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.filter.CompiledShiroFilterFactoryBean;
+import com.example.shirolab.security.filter.SessionlessUserFilter;
+import com.example.shirolab.security.session.EmbeddedRemoteSessionStore;
+import com.example.shirolab.security.session.StoreBackedSessionDAO;
+import com.example.shirolab.security.token.ReturnUrlSigner;
+import org.apache.shiro.realm.SimpleAccountRealm;
+import org.apache.shiro.web.mgt.DefaultWebSecurityManager;
+import org.apache.shiro.web.servlet.AbstractShiroFilter;
+import org.apache.shiro.web.session.mgt.DefaultWebSessionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 模拟爬虫/探活流量：不带 Cookie 的匿名 GET 打到 user 保护的页面，全部被重定向到登录页。
+ *
+ * - sessionless=false：Shiro 自带 UserFilter，每次重定向前 saveRequest 新建一个会话；
+ * - sessionless=true：SessionlessUserFilter，原地址签名后放进 next 参数，不建会话。
+ *
+ * 会话使用原生 DefaultWebSessionManager + StoreBackedSessionDAO（远程存储替身），
+ * TearDown 打印每个请求新建的会话数（sessions/request）与存储中的会话数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class AnonymousRedirectBenchmark {
+
+    @Param({"false", "true"})
+    public boolean sessionless;
+
+    private StoreBackedSessionDAO sessionDAO;
+    private AbstractShiroFilter filter;
+    private final LongAdder requests = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        sessionDAO = new StoreBackedSessionDAO(new EmbeddedRemoteSessionStore(), 10000, 60000L);
+        DefaultWebSessionManager sessionManager = new DefaultWebSessionManager();
+        sessionManager.setSessionDAO(sessionDAO);
+        sessionManager.setSessionValidationSchedulerEnabled(false);
+        DefaultWebSecurityManager securityManager = new DefaultWebSecurityManager(new SimpleAccountRealm());
+        securityManager.setSessionManager(sessionManager);
+
+        CompiledShiroFilterFactoryBean factoryBean = new CompiledShiroFilterFactoryBean(4096);
+        factoryBean.setSecurityManager(securityManager);
+        factoryBean.setLoginUrl("/login");
+        if (sessionless) {
+            factoryBean.getFilters().put("user", new SessionlessUserFilter(new ReturnUrlSigner(null, 600000L)));
+        }
+        Map<String, String> chains = new LinkedHashMap<String, String>();
+        chains.put("/login", "anon");
+        chains.put("/**", "user");
+        factoryBean.setFilterChainDefinitionMap(chains);
+        filter = (AbstractShiroFilter) factoryBean.getObject();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long total = requests.sum();
+        System.out.printf("sessionless=%s requests=%d sessionsStarted=%d sessions/request=%.3f stored=%d%n",
+                sessionless, total, sessionDAO.getStartedCount(),
+                total == 0 ? 0.0d : (double) sessionDAO.getStartedCount() / total, sessionDAO.getStoredCount());
+    }
+
+    @Benchmark
+    public int anonymousPage() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET",
+                "/products/" + ThreadLocalRandom.current().nextInt(1000));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        requests.increment();
+        return response.getStatus();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AnonymousRedirectBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.audit.AuthAuditJournal;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 登录成功回调在请求线程上的开销（4 线程）：
+ *
+ * - sync：请求线程内编码一条 128 字节记录并在锁内 write 到文件（同步审计写入的做法）；
+ * - journal：AuthAuditJournal#onSuccess，只写环形缓冲区，编码与映射文件写入在后台线程；
+ *   段文件 16MB、最多保留 4 个，写不过来时丢弃，published/dropped 在 TearDown 时打印。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class AuthAuditBenchmark {
+
+    private static final UsernamePasswordToken TOKEN =
+            new UsernamePasswordToken("admin", "admin123", false, "10.0.0.1");
+    private static final AuthenticationInfo INFO = new SimpleAuthenticationInfo("admin", "admin123", "iniRealm");
+
+    private Path dir;
+    private FileChannel syncChannel;
+    private AuthAuditJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("auth-audit");
+        syncChannel = FileChannel.open(dir.resolve("sync.journal"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        journal = new AuthAuditJournal(dir.resolve("journal"), 16 * 1024 * 1024 / 128, 4, 8192);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        syncChannel.close();
+        journal.close();
+        System.out.println("published=" + journal.getPublishedCount() + " dropped=" + journal.getDroppedCount());
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void sync() throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(128);
+        record.putLong(System.currentTimeMillis()).put((byte) 1).put((byte) 0);
+        byte[] principal = INFO.getPrincipals().getPrimaryPrincipal().toString().getBytes(StandardCharsets.UTF_8);
+        byte[] host = TOKEN.getHost().getBytes(StandardCharsets.UTF_8);
+        record.put((byte) principal.length).put((byte) host.length).put(principal);
+        record.position(76);
+        record.put(host);
+        record.clear();
+        synchronized (syncChannel) {
+            syncChannel.write(record);
+        }
+    }
+
+    @Benchmark
+    public void journal() {
+        journal.onSuccess(TOKEN, INFO);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuthAuditBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.web.LoginRequest;
+import com.example.shirolab.web.LoginRequestHttpMessageConverter;
+import com.example.shirolab.web.LoginResponse;
+import com.example.shirolab.web.json.JsonWritableHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * POST /login 的请求体读取与响应体写出（只含消息转换，不含认证本身）：
+ *
+ * - jackson：改动前的做法，MappingJackson2HttpMessageConverter 读成 Map、响应组装为 HashMap 再序列化；
+ * - streaming：LoginRequestHttpMessageConverter 流式读取 LoginRequest，JsonWritableHttpMessageConverter 写出
+ *   LoginResponse 或预序列化的失败响应。
+ *
+ * token 为令牌模式的成功响应，failure 为口令错误的响应。配合 -prof gc 看 gc.alloc.rate.norm（每次请求分配的字节数）；
+ * 两种方式都为每次请求新建一个 ByteArrayInputStream 作为请求体，输出写入丢弃字节的流。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthJsonBenchmark {
+
+    private static final String TOKEN = "YWRtaW4.YWRtaW4sdXNlcg.MTcwMDAwMDAwMDAwMA.c2lnbmF0dXJlLXNpZ25hdHVyZS1zaWduYXR1cmU";
+
+    @Param({"jackson", "streaming"})
+    public String converter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MappingJackson2HttpMessageConverter jackson = new MappingJackson2HttpMessageConverter(objectMapper);
+    private final LoginRequestHttpMessageConverter requestConverter = new LoginRequestHttpMessageConverter(objectMapper.getFactory());
+    private final JsonWritableHttpMessageConverter responseConverter = new JsonWritableHttpMessageConverter();
+
+    private byte[] tokenRequest;
+    private byte[] failureRequest;
+    private final HttpHeaders requestHeaders = new HttpHeaders();
+    private final DiscardingOutputMessage output = new DiscardingOutputMessage();
+
+    @Setup
+    public void setUp() {
+        tokenRequest = "{\"username\":\"admin\",\"password\":\"admin123\",\"mode\":\"token\"}".getBytes(StandardCharsets.UTF_8);
+        failureRequest = "{\"username\":\"user\",\"password\":\"wrong\"}".getBytes(StandardCharsets.UTF_8);
+        requestHeaders.setContentType(MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public long token() throws IOException {
+        HttpInputMessage input = input(tokenRequest);
+        if ("jackson".equals(converter)) {
+            Map<String, String> payload = (Map<String, String>) jackson.read(Map.class, input);
+            Map<String, Object> body = new HashMap<String, Object>();
+            body.put("token", TOKEN);
+            body.put("tokenType", "Bearer");
+            body.put("expiresIn", 3600L);
+            body.put("message", "login success");
+            body.put("user", payload.get("username"));
+            jackson.write(body, MediaType.APPLICATION_JSON, output);
+        } else {
+            LoginRequest request = requestConverter.read(LoginRequest.class, input);
+            responseConverter.write(LoginResponse.token(request.getUsername(), TOKEN, 3600L), MediaType.APPLICATION_JSON, output);
+        }
+        return output.written;
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public long failure() throws IOException {
+        HttpInputMessage input = input(failureRequest);
+        if ("jackson".equals(converter)) {
+            Map<String, String> payload = (Map<String, String>) jackson.read(Map.class, input);
+            Map<String, Object> body = new HashMap<String, Object>();
+            body.put("message", payload.get("password") != null ? "incorrect credentials" : "unknown account");
+            jackson.write(body, MediaType.APPLICATION_JSON, output);
+        } else {
+            LoginRequest request = requestConverter.read(LoginRequest.class, input);
+            responseConverter.write(request.getPassword() != null ? LoginResponse.INCORRECT_CREDENTIALS
+                    : LoginResponse.UNKNOWN_ACCOUNT, MediaType.APPLICATION_JSON, output);
+        }
+        return output.written;
+    }
+
+    private HttpInputMessage input(byte[] body) {
+        final InputStream stream = new ByteArrayInputStream(body);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return stream;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return requestHeaders;
+            }
+        };
+    }
+
+    /**
+     * 响应头在首次写出后即已齐备，之后复用；响应体只计数。
+     */
+    private static final class DiscardingOutputMessage extends OutputStream implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        long written;
+
+        @Override
+        public void write(int b) {
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return this;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthJsonBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
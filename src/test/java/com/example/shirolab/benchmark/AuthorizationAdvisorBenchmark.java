@@ -0,0 +1,97 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.authz.PrecompiledAuthorizationAdvisor;
+import com.example.shirolab.security.realm.IndexedIniRealm;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.authz.annotation.RequiresRoles;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.spring.security.interceptor.AuthorizationAttributeSourceAdvisor;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.support.SubjectThreadState;
+import org.apache.shiro.util.ThreadState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @RequiresRoles 方法调用的额外开销：同一个 CGLIB 代理分别挂 shiro-spring 的 AuthorizationAttributeSourceAdvisor
+ * （每次调用经五个注解拦截器反射查找注解）与 PrecompiledAuthorizationAdvisor（查表），
+ * "none" 为不带授权 Advisor 的代理作为基线。Realm 为 classpath:shiro.ini 的 IndexedIniRealm，Subject 为 admin。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationAdvisorBenchmark {
+
+    @Param({"none", "shiro", "precompiled"})
+    public String advisor;
+
+    private SecuredService service;
+    private ThreadState threadState;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        IndexedIniRealm realm = new IndexedIniRealm("classpath:shiro.ini");
+        realm.init();
+        DefaultSecurityManager securityManager = new DefaultSecurityManager(realm);
+        Subject subject = new Subject.Builder(securityManager).buildSubject();
+        subject.login(new UsernamePasswordToken("admin", "admin123"));
+        threadState = new SubjectThreadState(subject);
+        threadState.bind();
+
+        ProxyFactory factory = new ProxyFactory(new SecuredService());
+        factory.setProxyTargetClass(true);
+        if ("shiro".equals(advisor)) {
+            AuthorizationAttributeSourceAdvisor shiroAdvisor = new AuthorizationAttributeSourceAdvisor();
+            shiroAdvisor.setSecurityManager(securityManager);
+            factory.addAdvisor(shiroAdvisor);
+        } else if ("precompiled".equals(advisor)) {
+            factory.addAdvisor(new PrecompiledAuthorizationAdvisor());
+        }
+        service = (SecuredService) factory.getProxy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        threadState.clear();
+    }
+
+    @Benchmark
+    public int securedCall() {
+        return service.panel();
+    }
+
+    public static class SecuredService {
+        private int calls;
+
+        @RequiresRoles("admin")
+        public int panel() {
+            return ++calls;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthorizationAdvisorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
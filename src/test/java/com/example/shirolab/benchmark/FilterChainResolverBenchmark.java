@@ -0,0 +1,117 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.filter.CompiledFilterChainResolver;
+import org.apache.shiro.web.filter.mgt.DefaultFilterChainManager;
+import org.apache.shiro.web.filter.mgt.FilterChainResolver;
+import org.apache.shiro.web.filter.mgt.PathMatchingFilterChainResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 过滤链解析开销随规则数的变化：默认 PathMatchingFilterChainResolver（逐条 AntPathMatcher）
+ * 与 CompiledFilterChainResolver（前缀树，cached/uncached 两种模式）对比。
+ *
+ * 规则集 = ShiroConfig 中现有的约 10 条 + ruleCount 条生成的业务规则（均在兜底 /** 之前），
+ * 请求路径覆盖静态资源、业务规则、/admin/** 与最终落到 /** 的情况。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterChainResolverBenchmark {
+
+    @Param({"0", "100", "1000", "5000"})
+    public int ruleCount;
+
+    @Param({"stock", "compiled", "compiled-cached"})
+    public String resolver;
+
+    private FilterChainResolver chainResolver;
+    private MockHttpServletRequest[] requests;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final FilterChain origin = (req, res) -> { };
+    private int next;
+
+    @Setup
+    public void setUp() {
+        DefaultFilterChainManager manager = new DefaultFilterChainManager();
+        manager.createChain("/login", "anon");
+        manager.createChain("/login/form", "anon");
+        manager.createChain("/logout", "logout");
+        manager.createChain("/inject", "anon");
+        manager.createChain("/css/**", "anon");
+        manager.createChain("/js/**", "anon");
+        manager.createChain("/images/**", "anon");
+        for (int i = 0; i < ruleCount; i++) {
+            switch (i % 3) {
+                case 0:
+                    manager.createChain("/api/svc" + i + "/**", "user");
+                    break;
+                case 1:
+                    manager.createChain("/api/res" + i + "/*/detail", "user, roles[user]");
+                    break;
+                default:
+                    manager.createChain("/static/bundle" + i + "/*.js", "anon");
+                    break;
+            }
+        }
+        manager.createChain("/admin/**", "user, roles[admin]");
+        manager.createChain("/user/**", "user, roles[user]");
+        manager.createChain("/**", "user");
+
+        if ("stock".equals(resolver)) {
+            PathMatchingFilterChainResolver stock = new PathMatchingFilterChainResolver();
+            stock.setFilterChainManager(manager);
+            chainResolver = stock;
+        } else {
+            chainResolver = new CompiledFilterChainResolver(manager, "compiled-cached".equals(resolver) ? 4096 : 0);
+        }
+
+        int mid = Math.max(ruleCount / 2 / 3 * 3, 0);
+        String[] paths = {
+                "/css/site.css",
+                "/api/svc" + mid + "/orders/42",
+                "/api/res" + (mid + 1) + "/7/detail",
+                "/admin/panel",
+                "/user/profile",
+                "/",
+                "/intercept/ping",
+                "/some/deep/unmatched/path",
+        };
+        requests = new MockHttpServletRequest[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            requests[i] = new MockHttpServletRequest("GET", paths[i]);
+        }
+    }
+
+    @Benchmark
+    public FilterChain resolve() {
+        MockHttpServletRequest request = requests[next++ & 7];
+        return chainResolver.getChain(request, response, origin);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FilterChainResolverBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.realm.JdbcPrincipalRealm;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.cache.MemoryConstrainedCacheManager;
+import org.apache.shiro.realm.AuthorizingRealm;
+import org.apache.shiro.realm.jdbc.JdbcRealm;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shiro JdbcRealm 与 JdbcPrincipalRealm 对比，数据库为进程内 H2（无网络往返，真实数据库上差距按往返次数放大）：
+ * 1000 个用户，每人 2 个角色，每个角色 5 条权限；口令为明文，不含哈希开销。
+ *
+ * - login：认证后立即做一次授权检查（登录后的首个 roles[..] 过滤器），授权缓存中没有该用户；
+ *   shiro 为 口令 + 角色 + 每角色权限 共 4 次查询，single 为 1 次；
+ * - authorizationMiss：授权缓存未命中时的一次 isPermitted。
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JdbcRealmBenchmark {
+
+    private static final int USERS = 1000;
+    private static final int ROLES = 20;
+
+    @Param({"shiro", "single"})
+    public String realmType;
+
+    private HikariDataSource dataSource;
+    private AuthorizingRealm realm;
+    private PrincipalCollection[] principals;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/realm-h2.sql'");
+        dataSource.setMaximumPoolSize(4);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement user = connection.prepareStatement("MERGE INTO users VALUES (?, ?)");
+             PreparedStatement role = connection.prepareStatement("MERGE INTO user_roles VALUES (?, ?)");
+             PreparedStatement permission = connection.prepareStatement("MERGE INTO roles_permissions VALUES (?, ?)")) {
+            for (int r = 0; r < ROLES; r++) {
+                for (int p = 0; p < 5; p++) {
+                    permission.setString(1, "r" + r);
+                    permission.setString(2, "res" + r + ":action" + p + ":*");
+                    permission.executeUpdate();
+                }
+            }
+            for (int i = 0; i < USERS; i++) {
+                user.setString(1, "u" + i);
+                user.setString(2, "pw" + i);
+                user.executeUpdate();
+                for (int r = 0; r < 2; r++) {
+                    role.setString(1, "u" + i);
+                    role.setString(2, "r" + ((i + r * 7) % ROLES));
+                    role.executeUpdate();
+                }
+            }
+        }
+        if ("shiro".equals(realmType)) {
+            JdbcRealm jdbcRealm = new JdbcRealm();
+            jdbcRealm.setDataSource(dataSource);
+            jdbcRealm.setPermissionsLookupEnabled(true);
+            realm = jdbcRealm;
+        } else {
+            realm = new JdbcPrincipalRealm(dataSource);
+        }
+        realm.setCacheManager(new MemoryConstrainedCacheManager());
+        realm.init();
+        principals = new PrincipalCollection[USERS];
+        for (int i = 0; i < USERS; i++) {
+            principals[i] = realm.getAuthenticationInfo(new UsernamePasswordToken("u" + i, "pw" + i)).getPrincipals();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean login() {
+        int i = ThreadLocalRandom.current().nextInt(USERS);
+        realm.getAuthorizationCache().remove(principals[i]);
+        PrincipalCollection loggedIn = realm.getAuthenticationInfo(new UsernamePasswordToken("u" + i, "pw" + i))
+                .getPrincipals();
+        return realm.isPermitted(loggedIn, "res" + (i % ROLES) + ":action1:42");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean authorizationMiss() {
+        int i = ThreadLocalRandom.current().nextInt(USERS);
+        realm.getAuthorizationCache().remove(principals[i]);
+        return realm.isPermitted(principals[i], "res" + (i % ROLES) + ":action1:42");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JdbcRealmBenchmark.class.getSimpleName()).build()).run();
+    }
+}
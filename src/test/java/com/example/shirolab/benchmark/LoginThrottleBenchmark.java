@@ -0,0 +1,92 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.support.BoundedCache;
+import com.example.shirolab.support.SlidingWindowCounter;
+import com.example.shirolab.web.throttle.LoginThrottle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 8 线程并发下登录限流检查本身的开销：
+ *
+ * - lockedClients：常见写法，synchronized 的 Map&lt;String, Deque&lt;Long&gt;&gt; 记录每个 IP 的时间戳（对照组）；
+ * - clients：LoginThrottle 的 IP 维度，模拟撞库时来自 64K 个不同 IP 的请求；
+ * - hotClient：所有线程都来自同一个 IP（被限流的单一来源），CAS 集中在同一组单元上。
+ *
+ * 限额设为不可达，测的是计数路径而不是拒绝路径。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class LoginThrottleBenchmark {
+
+    private static final int KEYS = 1 << 16;
+
+    private String[] addresses;
+    private LoginThrottle throttle;
+    private final Map<String, ArrayDeque<Long>> locked = new HashMap<String, ArrayDeque<Long>>();
+
+    @Setup
+    public void setUp() {
+        addresses = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            addresses[i] = "10." + (i >>> 8 & 0xFF) + "." + (i & 0xFF) + ".7";
+        }
+        throttle = new LoginThrottle(new SlidingWindowCounter(3, 16384, 60000), Integer.MAX_VALUE,
+                new SlidingWindowCounter(3, 16384, 60000), Integer.MAX_VALUE, new BoundedCache<String, Boolean>(1024, 0));
+    }
+
+    @Benchmark
+    public boolean lockedClients() {
+        String address = addresses[ThreadLocalRandom.current().nextInt(KEYS)];
+        long now = System.currentTimeMillis();
+        synchronized (locked) {
+            ArrayDeque<Long> hits = locked.get(address);
+            if (hits == null) {
+                hits = new ArrayDeque<Long>();
+                locked.put(address, hits);
+            }
+            while (!hits.isEmpty() && hits.peekFirst() <= now - 60000) {
+                hits.pollFirst();
+            }
+            hits.addLast(now);
+            return hits.size() <= Integer.MAX_VALUE;
+        }
+    }
+
+    @Benchmark
+    public boolean clients() {
+        return throttle.tryAcquireClient(addresses[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    @Benchmark
+    public boolean hotClient() {
+        return throttle.tryAcquireClient("203.0.113.9");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LoginThrottleBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.credential.PooledPasswordMatcher;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.authc.credential.DefaultPasswordService;
+import org.apache.shiro.authc.credential.PasswordMatcher;
+import org.apache.shiro.crypto.hash.DefaultHashService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 8 个“请求线程”并发登录同一用户时的口令校验吞吐（SHA-256 加盐迭代，50k / 500k 为常见迭代次数，500k 是 DefaultPasswordService 默认值）：
+ *
+ * - inline：Shiro 自带 PasswordMatcher，在调用线程上做完整迭代哈希；
+ * - pooled：PooledPasswordMatcher 关闭缓存，哈希在 CPU 核数大小的线程池上执行，请求线程只等待；
+ * - pooledCached：同上但开启校验成功缓存，稳态下重复登录只计算一次 SHA-256 摘要。
+ *
+ * inline 与 pooled 受同样的 CPU 上限约束；pooled 的价值在于并发登录数超过核数时排队/拒绝而不是占满 Tomcat 线程。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(8)
+public class PasswordMatcherBenchmark {
+
+    @Param({"50000", "500000"})
+    public int iterations;
+
+    private AuthenticationToken token;
+    private AuthenticationInfo info;
+    private PasswordMatcher inline;
+    private PooledPasswordMatcher pooled;
+    private PooledPasswordMatcher pooledCached;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DefaultHashService hashService = new DefaultHashService();
+        hashService.setHashIterations(iterations);
+        hashService.setGeneratePublicSalt(true);
+        DefaultPasswordService passwordService = new DefaultPasswordService();
+        passwordService.setHashService(hashService);
+
+        token = new UsernamePasswordToken("admin", "admin123");
+        info = new SimpleAuthenticationInfo("admin", passwordService.encryptPassword("admin123"), "iniRealm");
+        inline = new PasswordMatcher();
+        inline.setPasswordService(passwordService);
+        pooled = new PooledPasswordMatcher(0, 64, 60000, 0, 0);
+        pooledCached = new PooledPasswordMatcher(0, 64, 60000, 10000, 30000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pooled.destroy();
+        pooledCached.destroy();
+        System.out.println("pooled hashed=" + pooled.getHashedCount()
+                + " pooledCached hashed=" + pooledCached.getHashedCount() + " cached=" + pooledCached.getCachedCount());
+    }
+
+    @Benchmark
+    public boolean inline() {
+        return inline.doCredentialsMatch(token, info);
+    }
+
+    @Benchmark
+    public boolean pooled() {
+        return pooled.doCredentialsMatch(token, info);
+    }
+
+    @Benchmark
+    public boolean pooledCached() {
+        return pooledCached.doCredentialsMatch(token, info);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PasswordMatcherBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.realm.IndexedIniRealm;
+import org.apache.shiro.authc.IncorrectCredentialsException;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.realm.text.IniRealm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Realm 认证（getAuthenticationInfo：取账户 + 口令比对）的吞吐，4 个线程并发，数据取自 classpath:shiro.ini（明文口令）：
+ *
+ * - ini：IniRealm，每次取账户都获取 SimpleAccountRealm 的 USERS_LOCK 读锁；
+ * - indexed：IndexedIniRealm，账户取自不可变快照。
+ *
+ * success 为口令正确，failure 为口令错误（抛出 IncorrectCredentialsException，含异常构造开销）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RealmAuthenticationBenchmark {
+
+    @Param({"ini", "indexed"})
+    public String realmType;
+
+    private IniRealm realm;
+    private final UsernamePasswordToken valid = new UsernamePasswordToken("admin", "admin123");
+    private final UsernamePasswordToken invalid = new UsernamePasswordToken("user", "wrong");
+
+    @Setup
+    public void setUp() {
+        if ("indexed".equals(realmType)) {
+            IndexedIniRealm indexed = new IndexedIniRealm("classpath:shiro.ini");
+            indexed.init();
+            realm = indexed;
+        } else {
+            realm = new IniRealm("classpath:shiro.ini");
+        }
+    }
+
+    @Benchmark
+    public Object success() {
+        return realm.getAuthenticationInfo(valid);
+    }
+
+    @Benchmark
+    public boolean failure() {
+        try {
+            realm.getAuthenticationInfo(invalid);
+            return false;
+        } catch (IncorrectCredentialsException e) {
+            return true;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RealmAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
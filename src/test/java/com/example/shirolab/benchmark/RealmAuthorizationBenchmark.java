@@ -0,0 +1,73 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.realm.IndexedIniRealm;
+import org.apache.shiro.realm.text.IniRealm;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IniRealm 与 IndexedIniRealm 的授权检查开销对比，数据取自 classpath:shiro.ini。
+ *
+ * - hasRole：roles[admin] 过滤器与 @RequiresRoles 走的路径；
+ * - isPermitted：user 角色的 document:read,profile:read 与 admin 的 * 各检查一次。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RealmAuthorizationBenchmark {
+
+    @Param({"ini", "indexed"})
+    public String realmType;
+
+    private IniRealm realm;
+    private PrincipalCollection admin;
+    private PrincipalCollection user;
+
+    @Setup
+    public void setUp() {
+        if ("indexed".equals(realmType)) {
+            IndexedIniRealm indexed = new IndexedIniRealm("classpath:shiro.ini");
+            indexed.init();
+            realm = indexed;
+        } else {
+            realm = new IniRealm("classpath:shiro.ini");
+        }
+        admin = new SimplePrincipalCollection("admin", realm.getName());
+        user = new SimplePrincipalCollection("user", realm.getName());
+    }
+
+    @Benchmark
+    public boolean hasRole() {
+        return realm.hasRole(admin, "admin") & realm.hasRole(user, "admin");
+    }
+
+    @Benchmark
+    public boolean isPermitted() {
+        return realm.isPermitted(user, "profile:read") & realm.isPermitted(admin, "document:write");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RealmAuthorizationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
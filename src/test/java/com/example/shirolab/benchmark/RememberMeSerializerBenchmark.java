@@ -0,0 +1,93 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.rememberme.CompactPrincipalSerializer;
+import org.apache.shiro.io.DefaultSerializer;
+import org.apache.shiro.io.Serializer;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.apache.shiro.subject.SubjectContext;
+import org.apache.shiro.subject.support.DefaultSubjectContext;
+import org.apache.shiro.web.mgt.CookieRememberMeManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RememberMe 恢复路径对比：DefaultSerializer（Java 序列化） vs CompactPrincipalSerializer。
+ *
+ * - decode：仅反序列化已解密的字节；
+ * - restore：AbstractRememberMeManager#convertBytesToPrincipals，即 AES 解密 + 反序列化，
+ *   对应每个无会话请求命中 user 过滤链时的实际开销。
+ *
+ * 运行：直接执行 main，或加 -prof gc 观察每次操作的分配字节数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RememberMeSerializerBenchmark {
+
+    @Param({"java", "compact"})
+    public String serializer;
+
+    private ExposedRememberMeManager manager;
+    private SubjectContext context;
+    private byte[] serialized;
+    private byte[] encrypted;
+
+    @Setup
+    public void setUp() {
+        Serializer<PrincipalCollection> s = "java".equals(serializer)
+                ? new DefaultSerializer<PrincipalCollection>()
+                : new CompactPrincipalSerializer();
+        manager = new ExposedRememberMeManager();
+        manager.setSerializer(s);
+        context = new DefaultSubjectContext();
+
+        PrincipalCollection principals = new SimplePrincipalCollection("admin", "iniRealm");
+        serialized = s.serialize(principals);
+        encrypted = manager.encryptForBenchmark(principals);
+    }
+
+    @Benchmark
+    public PrincipalCollection decode() {
+        return manager.getSerializer().deserialize(serialized);
+    }
+
+    @Benchmark
+    public PrincipalCollection restore() {
+        return manager.restore(encrypted, context);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RememberMeSerializerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    static class ExposedRememberMeManager extends CookieRememberMeManager {
+
+        byte[] encryptForBenchmark(PrincipalCollection principals) {
+            return convertPrincipalsToBytes(principals);
+        }
+
+        PrincipalCollection restore(byte[] bytes, SubjectContext context) {
+            return convertBytesToPrincipals(bytes, context);
+        }
+    }
+}
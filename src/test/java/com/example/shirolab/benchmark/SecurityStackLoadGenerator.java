@@ -0,0 +1,434 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.ShirolabApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端负载：启动内嵌应用（或指向已运行的实例），以固定数量的闭环客户端线程按比例混合发送请求，
+ * 输出每类请求的吞吐、状态码分布与延迟分位数（JSON，便于不同版本/配置之间对比）。
+ *
+ * 请求类型（状态码不符合预期的计入 unexpected）：
+ * - anonymous：不带 Cookie 访问 /user/profile/page，期望 302 到登录页；
+ * - login：POST /login（JSON，user 账户），期望 200，每次新建会话；
+ * - rememberMe：只带 rememberMe Cookie 访问 /user/profile，每次由 Cookie 恢复身份，期望 200；
+ * - session：带 admin 会话 Cookie 访问 /admin/panel，期望 200；
+ * - ping：带 admin 会话 Cookie 访问 /intercept/ping，期望 200。
+ *
+ * 参数（--name=value）：
+ * <pre>
+ *   --target=http://host:port   压测已运行的实例；不指定时在本进程内启动应用（随机端口）
+ *   --threads=16                客户端线程数
+ *   --warmup=10 --duration=30   预热与测量时长（秒），预热阶段的结果丢弃
+ *   --mix=anonymous:20,login:5,rememberMe:25,session:35,ping:15
+ *   --out=target/load-result.json
+ *   --label=...                 写入结果的标签（如分支名、配置说明）
+ * </pre>
+ * 其余以 --shirolab. / --server. / --spring. / --management. / --logging. 开头的参数原样传给内嵌应用。
+ * 内嵌应用默认放开登录限流（否则 login 主要测到 429），审计日志写入临时目录。
+ *
+ * 运行：mvn -Pbenchmark verify，或 test-compile 后
+ * java -cp target/classes:target/test-classes:... com.example.shirolab.benchmark.SecurityStackLoadGenerator
+ */
+public final class SecurityStackLoadGenerator {
+
+    private static final long HIGHEST_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final String[] APP_PREFIXES = {"--shirolab.", "--server.", "--spring.", "--management.", "--logging."};
+
+    enum Scenario {
+        ANONYMOUS("anonymous", 302),
+        LOGIN("login", 200),
+        REMEMBER_ME("rememberMe", 200),
+        SESSION("session", 200),
+        PING("ping", 200);
+
+        final String key;
+        final int expectedStatus;
+
+        Scenario(String key, int expectedStatus) {
+            this.key = key;
+            this.expectedStatus = expectedStatus;
+        }
+
+        static Scenario of(String key) {
+            for (Scenario scenario : values()) {
+                if (scenario.key.equals(key)) {
+                    return scenario;
+                }
+            }
+            throw new IllegalArgumentException("unknown scenario: " + key);
+        }
+    }
+
+    private final String baseUrl;
+    private final Scenario[] weighted;
+    private String sessionCookie;
+    private String rememberMeCookie;
+
+    private SecurityStackLoadGenerator(String baseUrl, Map<Scenario, Integer> mix) {
+        this.baseUrl = baseUrl;
+        List<Scenario> slots = new ArrayList<Scenario>();
+        for (Map.Entry<Scenario, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                slots.add(entry.getKey());
+            }
+        }
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("empty request mix");
+        }
+        this.weighted = slots.toArray(new Scenario[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<String, String>();
+        List<String> appArgs = new ArrayList<String>();
+        appArgs.add("--server.port=0");
+        appArgs.add("--shirolab.login-throttle.client-limit=" + Integer.MAX_VALUE);
+        appArgs.add("--shirolab.login-throttle.user-limit=" + Integer.MAX_VALUE);
+        appArgs.add("--shirolab.audit.dir=" + Files.createTempDirectory("shirolab-load-audit"));
+        appArgs.add("--logging.level.root=WARN");
+        for (String arg : args) {
+            if (isAppArg(arg)) {
+                appArgs.add(arg);
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("unrecognized argument: " + arg);
+            }
+        }
+        int threads = Integer.parseInt(option(options, "threads", "16"));
+        int warmupSeconds = Integer.parseInt(option(options, "warmup", "10"));
+        int durationSeconds = Integer.parseInt(option(options, "duration", "30"));
+        Map<Scenario, Integer> mix = parseMix(option(options, "mix", "anonymous:20,login:5,rememberMe:25,session:35,ping:15"));
+        Path out = Paths.get(option(options, "out", "target/load-result.json"));
+
+        // HttpURLConnection 默认每个目标只保留 5 个空闲连接，线程更多时会不断重建连接
+        System.setProperty("http.maxConnections", Integer.toString(Math.max(5, threads)));
+
+        ConfigurableApplicationContext context = null;
+        String target = options.get("target");
+        if (target == null) {
+            context = SpringApplication.run(ShirolabApplication.class, appArgs.toArray(new String[0]));
+            target = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            SecurityStackLoadGenerator generator = new SecurityStackLoadGenerator(target, mix);
+            generator.prepare();
+            generator.run(threads, warmupSeconds);
+            Result result = generator.run(threads, durationSeconds);
+
+            Map<String, Object> report = result.toReport(generator.baseUrl, threads, warmupSeconds, mix);
+            report.put("label", option(options, "label", ""));
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out.toFile(), report);
+            result.print(System.out);
+            System.out.println("Result written to " + out.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * 取得 admin 会话 Cookie 与 user 的 rememberMe Cookie，并确认每类请求都返回期望的状态码。
+     */
+    private void prepare() throws IOException {
+        Response login = send("POST", "/login", null, "application/json",
+                "{\"username\":\"admin\",\"password\":\"admin123\"}");
+        sessionCookie = login.cookies(null);
+        Response form = send("POST", "/login/form", null, "application/x-www-form-urlencoded",
+                "username=user&password=user123&rememberMe=true");
+        rememberMeCookie = form.cookies("rememberMe");
+        if (login.status != 200 || sessionCookie.isEmpty() || rememberMeCookie.isEmpty()) {
+            throw new IllegalStateException("login failed during preparation: " + login.status + "/" + form.status);
+        }
+        for (Scenario scenario : Scenario.values()) {
+            int status = execute(scenario).status;
+            if (status != scenario.expectedStatus) {
+                throw new IllegalStateException(scenario.key + " returned " + status
+                        + ", expected " + scenario.expectedStatus);
+            }
+        }
+    }
+
+    private Result run(int threads, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Worker[] workers = new Worker[threads];
+        Thread[] running = new Thread[threads];
+        long started = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(deadline);
+            running[i] = new Thread(workers[i], "load-client-" + i);
+            running[i].start();
+        }
+        for (Thread thread : running) {
+            thread.join();
+        }
+        Result result = new Result(System.nanoTime() - started);
+        for (Worker worker : workers) {
+            result.merge(worker.stats);
+        }
+        return result;
+    }
+
+    private Response execute(Scenario scenario) throws IOException {
+        switch (scenario) {
+            case ANONYMOUS:
+                return send("GET", "/user/profile/page", null, null, null);
+            case LOGIN:
+                return send("POST", "/login", null, "application/json",
+                        "{\"username\":\"user\",\"password\":\"user123\"}");
+            case REMEMBER_ME:
+                return send("GET", "/user/profile", rememberMeCookie, null, null);
+            case SESSION:
+                return send("GET", "/admin/panel", sessionCookie, null, null);
+            default:
+                return send("GET", "/intercept/ping", sessionCookie, null, null);
+        }
+    }
+
+    /**
+     * 不跟随重定向、不保存 Cookie；读完响应体以便连接回到 keep-alive 池。
+     */
+    private Response send(String method, String path, String cookie, String contentType, String body)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setInstanceFollowRedirects(false);
+        connection.setUseCaches(false);
+        connection.setRequestMethod(method);
+        if (cookie != null) {
+            connection.setRequestProperty("Cookie", cookie);
+        }
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", contentType);
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream input = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (input != null) {
+            try {
+                byte[] buffer = new byte[4096];
+                while (input.read(buffer) >= 0) {
+                    // 丢弃响应体
+                }
+            } finally {
+                input.close();
+            }
+        }
+        return new Response(status, connection.getHeaderFields().get("Set-Cookie"));
+    }
+
+    private static boolean isAppArg(String arg) {
+        for (String prefix : APP_PREFIXES) {
+            if (arg.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String option(Map<String, String> options, String name, String defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : value;
+    }
+
+    private static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<Scenario, Integer>(Scenario.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            weights.put(Scenario.of(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    private static final class Response {
+        final int status;
+        final List<String> setCookies;
+
+        Response(int status, List<String> setCookies) {
+            this.status = status;
+            this.setCookies = setCookies;
+        }
+
+        /**
+         * Set-Cookie 中的 name=value（跳过 rememberMe=deleteMe），name 为 null 时取全部。
+         */
+        String cookies(String name) {
+            StringBuilder cookies = new StringBuilder();
+            if (setCookies != null) {
+                for (String header : setCookies) {
+                    String pair = header.split(";", 2)[0].trim();
+                    if (pair.endsWith("=deleteMe") || (name != null && !pair.startsWith(name + "="))) {
+                        continue;
+                    }
+                    cookies.append(cookies.length() == 0 ? "" : "; ").append(pair);
+                }
+            }
+            return cookies.toString();
+        }
+    }
+
+    /**
+     * 单类请求的计数与延迟直方图（微秒）。
+     */
+    private static final class Stats {
+        final Histogram latency = new Histogram(HIGHEST_MICROS, 3);
+        final Map<Integer, Long> statuses = new LinkedHashMap<Integer, Long>();
+        long unexpected;
+        long errors;
+
+        void merge(Stats other) {
+            latency.add(other.latency);
+            for (Map.Entry<Integer, Long> entry : other.statuses.entrySet()) {
+                Long count = statuses.get(entry.getKey());
+                statuses.put(entry.getKey(), (count == null ? 0 : count) + entry.getValue());
+            }
+            unexpected += other.unexpected;
+            errors += other.errors;
+        }
+    }
+
+    private final class Worker implements Runnable {
+        final long deadline;
+        final Map<Scenario, Stats> stats = new EnumMap<Scenario, Stats>(Scenario.class);
+
+        Worker(long deadline) {
+            this.deadline = deadline;
+            for (Scenario scenario : Scenario.values()) {
+                stats.put(scenario, new Stats());
+            }
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                Scenario scenario = weighted[random.nextInt(weighted.length)];
+                Stats s = stats.get(scenario);
+                long start = System.nanoTime();
+                try {
+                    int status = execute(scenario).status;
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                    s.latency.recordValue(Math.min(micros, HIGHEST_MICROS));
+                    Long count = s.statuses.get(status);
+                    s.statuses.put(status, count == null ? 1L : count + 1);
+                    if (status != scenario.expectedStatus) {
+                        s.unexpected++;
+                    }
+                } catch (IOException e) {
+                    s.errors++;
+                }
+            }
+        }
+    }
+
+    private static final class Result {
+        final long elapsedNanos;
+        final Map<Scenario, Stats> scenarios = new EnumMap<Scenario, Stats>(Scenario.class);
+
+        Result(long elapsedNanos) {
+            this.elapsedNanos = elapsedNanos;
+            for (Scenario scenario : Scenario.values()) {
+                scenarios.put(scenario, new Stats());
+            }
+        }
+
+        void merge(Map<Scenario, Stats> worker) {
+            for (Map.Entry<Scenario, Stats> entry : worker.entrySet()) {
+                scenarios.get(entry.getKey()).merge(entry.getValue());
+            }
+        }
+
+        Map<String, Object> toReport(String target, int threads, int warmupSeconds, Map<Scenario, Integer> mix) {
+            Map<String, Object> report = new LinkedHashMap<String, Object>();
+            report.put("timestamp", Instant.now().toString());
+            report.put("target", target);
+            report.put("javaVersion", System.getProperty("java.version"));
+            report.put("threads", threads);
+            report.put("warmupSeconds", warmupSeconds);
+            report.put("durationSeconds", elapsedNanos / 1e9);
+            Map<String, Integer> weights = new LinkedHashMap<String, Integer>();
+            for (Map.Entry<Scenario, Integer> entry : mix.entrySet()) {
+                weights.put(entry.getKey().key, entry.getValue());
+            }
+            report.put("mix", weights);
+
+            Stats total = new Stats();
+            Map<String, Object> byScenario = new LinkedHashMap<String, Object>();
+            for (Map.Entry<Scenario, Stats> entry : scenarios.entrySet()) {
+                if (entry.getValue().latency.getTotalCount() > 0 || entry.getValue().errors > 0) {
+                    byScenario.put(entry.getKey().key, summary(entry.getValue()));
+                    total.merge(entry.getValue());
+                }
+            }
+            report.put("total", summary(total));
+            report.put("scenarios", byScenario);
+            return report;
+        }
+
+        private Map<String, Object> summary(Stats stats) {
+            Histogram latency = stats.latency;
+            Map<String, Object> summary = new LinkedHashMap<String, Object>();
+            summary.put("requests", latency.getTotalCount());
+            summary.put("throughput", latency.getTotalCount() / (elapsedNanos / 1e9));
+            Map<String, Long> statuses = new LinkedHashMap<String, Long>();
+            for (Map.Entry<Integer, Long> entry : stats.statuses.entrySet()) {
+                statuses.put(entry.getKey().toString(), entry.getValue());
+            }
+            summary.put("statuses", statuses);
+            summary.put("unexpected", stats.unexpected);
+            summary.put("errors", stats.errors);
+            Map<String, Object> micros = new LinkedHashMap<String, Object>();
+            micros.put("mean", latency.getMean());
+            micros.put("p50", latency.getValueAtPercentile(50));
+            micros.put("p90", latency.getValueAtPercentile(90));
+            micros.put("p99", latency.getValueAtPercentile(99));
+            micros.put("p999", latency.getValueAtPercentile(99.9));
+            micros.put("max", latency.getMaxValue());
+            summary.put("latencyMicros", micros);
+            return summary;
+        }
+
+        void print(PrintStream out) {
+            out.printf("%-12s %10s %12s %10s %10s %10s %10s %10s%n",
+                    "scenario", "requests", "req/s", "p50(us)", "p99(us)", "p999(us)", "unexpected", "errors");
+            for (Map.Entry<Scenario, Stats> entry : scenarios.entrySet()) {
+                Stats s = entry.getValue();
+                if (s.latency.getTotalCount() == 0 && s.errors == 0) {
+                    continue;
+                }
+                out.printf("%-12s %10d %12.1f %10d %10d %10d %10d %10d%n", entry.getKey().key,
+                        s.latency.getTotalCount(), s.latency.getTotalCount() / (elapsedNanos / 1e9),
+                        s.latency.getValueAtPercentile(50), s.latency.getValueAtPercentile(99),
+                        s.latency.getValueAtPercentile(99.9), s.unexpected, s.errors);
+            }
+        }
+    }
+}
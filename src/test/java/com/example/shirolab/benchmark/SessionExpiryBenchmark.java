@@ -0,0 +1,129 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.session.TimingWheelSessionValidationScheduler;
+import com.example.shirolab.support.TimingWheel;
+import org.apache.shiro.session.mgt.DefaultSessionManager;
+import org.apache.shiro.session.mgt.SimpleSession;
+import org.apache.shiro.session.mgt.eis.MemorySessionDAO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话过期检查对比（默认 10^6 个会话，其中 expiredFraction 已过期）：
+ *
+ * - stockValidateSessions：ExecutorServiceSessionValidationScheduler 每轮调用的 validateSessions()，
+ *   遍历 getActiveSessions() 中的全部会话，单次耗时即一轮检查的停顿；
+ * - timingWheelExpire：TimingWheelSessionValidationScheduler 推进一个 tick，只处理到期的会话；
+ *   两者都对到期会话走相同的 Shiro 过期与删除流程（MemorySessionDAO）。
+ * - touch：会话被访问时时间轮更新截止时间的吞吐（4 线程）。
+ *
+ * 每轮迭代重新构建全部会话，运行需要约 2GB 堆（已在 @Fork 中指定）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class SessionExpiryBenchmark {
+
+    private static final long TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+    private static final long TICK = 1000;
+
+    @Param({"1000000"})
+    public int sessions;
+
+    @Param({"0.01"})
+    public double expiredFraction;
+
+    private DefaultSessionManager sessionManager;
+    private TimingWheelSessionValidationScheduler wheelScheduler;
+    private long now;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        MemorySessionDAO dao = new MemorySessionDAO();
+        sessionManager = new DefaultSessionManager();
+        sessionManager.setSessionDAO(dao);
+        sessionManager.setSessionValidationSchedulerEnabled(false);
+        wheelScheduler = new TimingWheelSessionValidationScheduler(sessionManager, TICK);
+        now = System.currentTimeMillis();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int expired = (int) (sessions * expiredFraction);
+        for (int i = 0; i < sessions; i++) {
+            long lastAccess = i < expired
+                    ? now - TIMEOUT - TICK
+                    : now - (long) (random.nextDouble() * (TIMEOUT - 10 * TICK));
+            SimpleSession session = new SimpleSession();
+            session.setTimeout(TIMEOUT);
+            session.setLastAccessTime(new Date(lastAccess));
+            dao.create(session);
+            wheelScheduler.sessionUpdated(session.getId().toString(), lastAccess + TIMEOUT);
+        }
+    }
+
+    @Benchmark
+    public void stockValidateSessions() {
+        sessionManager.validateSessions();
+    }
+
+    @Benchmark
+    public int timingWheelExpire() {
+        return wheelScheduler.expireDue(now + TICK);
+    }
+
+    @State(Scope.Benchmark)
+    public static class TouchState {
+        @Param({"1000000"})
+        public int sessions;
+
+        TimingWheel<String> wheel;
+        String[] ids;
+        long now;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            now = System.currentTimeMillis();
+            wheel = new TimingWheel<String>(TICK, now);
+            ids = new String[sessions];
+            for (int i = 0; i < sessions; i++) {
+                ids[i] = "session-" + i;
+                wheel.schedule(ids[i], now + TIMEOUT / 2);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Threads(4)
+    public void touch(TouchState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        state.wheel.schedule(state.ids[random.nextInt(state.ids.length)], state.now + TIMEOUT + random.nextInt(1000));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SessionExpiryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
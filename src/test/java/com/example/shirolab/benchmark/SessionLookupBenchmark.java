@@ -0,0 +1,105 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.session.EmbeddedRemoteSessionStore;
+import com.example.shirolab.security.session.OffHeapSessionStore;
+import com.example.shirolab.security.session.StoreBackedSessionDAO;
+import org.apache.shiro.session.Session;
+import org.apache.shiro.session.mgt.DefaultSessionContext;
+import org.apache.shiro.session.mgt.DefaultSessionKey;
+import org.apache.shiro.session.mgt.DefaultSessionManager;
+import org.apache.shiro.session.mgt.SessionKey;
+import org.apache.shiro.session.mgt.eis.MemorySessionDAO;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.apache.shiro.subject.support.DefaultSubjectContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按会话 id 取回会话并读出主体属性，即带会话 Cookie 的请求在创建 Subject 时对 SessionManager 的访问
+ * （getSession 校验会话，getAttribute 经 DelegatingSession 再读一次），4 个线程并发，10^4 个会话中随机选取：
+ *
+ * - memory：Shiro 自带 MemorySessionDAO（ConcurrentHashMap 中的会话对象）；
+ * - offheap：StoreBackedSessionDAO + OffHeapSessionStore（shirolab.session.store=offheap，每次读取都解码）；
+ * - remote：StoreBackedSessionDAO + EmbeddedRemoteSessionStore（远程共享存储的进程内替身）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class SessionLookupBenchmark {
+
+    private static final int SESSIONS = 10000;
+
+    @Param({"memory", "offheap", "remote"})
+    public String store;
+
+    private DefaultSessionManager sessionManager;
+    private Closeable closeable;
+    private SessionKey[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionManager = new DefaultSessionManager();
+        sessionManager.setSessionValidationSchedulerEnabled(false);
+        if ("memory".equals(store)) {
+            sessionManager.setSessionDAO(new MemorySessionDAO());
+        } else if ("offheap".equals(store)) {
+            OffHeapSessionStore offHeap = new OffHeapSessionStore(64 * 1024 * 1024);
+            closeable = offHeap;
+            sessionManager.setSessionDAO(new StoreBackedSessionDAO(offHeap, 10000, 60000L));
+        } else {
+            sessionManager.setSessionDAO(new StoreBackedSessionDAO(new EmbeddedRemoteSessionStore(), 10000, 60000L));
+        }
+        keys = new SessionKey[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            Session session = sessionManager.start(new DefaultSessionContext());
+            session.setAttribute(DefaultSubjectContext.PRINCIPALS_SESSION_KEY,
+                    new SimplePrincipalCollection("user" + i, "iniRealm"));
+            session.setAttribute(DefaultSubjectContext.AUTHENTICATED_SESSION_KEY, Boolean.TRUE);
+            keys[i] = new DefaultSessionKey(session.getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        sessionManager.destroy();
+        if (closeable != null) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    public Object lookup() {
+        Session session = sessionManager.getSession(keys[ThreadLocalRandom.current().nextInt(SESSIONS)]);
+        return session.getAttribute(DefaultSubjectContext.PRINCIPALS_SESSION_KEY);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SessionLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.shirolab.benchmark;
+
+import com.example.shirolab.security.realm.IndexedIniRealm;
+import com.example.shirolab.web.thymeleaf.ShiroDialect;
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.cache.MemoryConstrainedCacheManager;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.support.SubjectThreadState;
+import org.apache.shiro.util.ThreadState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 渲染一个有 48 个按角色/权限显示的片段的页面（12 个不同权限、2 个角色，每个检查在页面中出现多次），
+ * Realm 为 classpath:shiro.ini 的 IndexedIniRealm（带授权缓存，同应用配置）：
+ *
+ * - expression：th:if="${subject.isPermitted('..')}"，每个片段经 Subject 检查一次；
+ * - memo：shiro: 属性，每个请求内同一检查只求值一次；
+ * - preload：另在进入模板时以一次 hasRoles、一次 isPermitted(String...) 求出整页的检查。
+ *
+ * 每次调用使用新的请求，即每次都是一个新请求的完整渲染（模板解析已缓存）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShiroDialectBenchmark {
+
+    private static final String[] PERMISSIONS = {
+            "document:read", "document:write", "document:delete", "profile:read", "profile:write",
+            "report:view", "report:export", "user:list", "user:edit", "audit:view", "printer:print", "settings:edit",
+    };
+    private static final int SECTIONS = 4;
+
+    @Param({"expression", "memo", "preload"})
+    public String mode;
+
+    @Param({"admin", "user"})
+    public String username;
+
+    private SpringTemplateEngine engine;
+    private String template;
+    private MockServletContext servletContext;
+    private ThreadState threadState;
+
+    @Setup
+    public void setUp() {
+        IndexedIniRealm realm = new IndexedIniRealm("classpath:shiro.ini");
+        realm.setCacheManager(new MemoryConstrainedCacheManager());
+        realm.init();
+        DefaultSecurityManager securityManager = new DefaultSecurityManager(realm);
+        Subject subject = new Subject.Builder(securityManager).buildSubject();
+        subject.login(new UsernamePasswordToken(username, username + "123"));
+        threadState = new SubjectThreadState(subject);
+        threadState.bind();
+
+        StringTemplateResolver resolver = new StringTemplateResolver();
+        resolver.setCacheable(true);
+        engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.addDialect(new ShiroDialect(realm, "preload".equals(mode)));
+        template = page("expression".equals(mode));
+        servletContext = new MockServletContext();
+    }
+
+    @TearDown
+    public void tearDown() {
+        threadState.clear();
+    }
+
+    @Benchmark
+    public String render() {
+        WebContext context = new WebContext(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                servletContext, Locale.ROOT);
+        if ("expression".equals(mode)) {
+            context.setVariable("subject", SecurityUtils.getSubject());
+        }
+        return engine.process(template, context);
+    }
+
+    private static String page(boolean expression) {
+        StringBuilder page = new StringBuilder("<html><body>");
+        for (int s = 0; s < SECTIONS; s++) {
+            page.append("<section>")
+                    .append(expression ? "<h2 th:if=\"${subject.hasRole('admin')}\">"
+                            : "<h2 shiro:hasRole=\"admin\">").append("admin ").append(s).append("</h2>")
+                    .append(expression ? "<p th:if=\"${subject.hasRole('user')}\">"
+                            : "<p shiro:hasRole=\"user\">").append("user ").append(s).append("</p><ul>");
+            for (int i = 0; i < 10; i++) {
+                String permission = PERMISSIONS[(s * 3 + i) % PERMISSIONS.length];
+                page.append(expression ? "<li th:if=\"${subject.isPermitted('" + permission + "')}\">"
+                        : "<li shiro:hasPermission=\"" + permission + "\">").append(permission).append("</li>");
+            }
+            page.append("</ul></section>");
+        }
+        return page.append("</body></html>").toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ShiroDialectBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.shirolab.benchmark;
+
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.PermissionResolver;
+import org.apache.shiro.authz.permission.WildcardPermissionResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WildcardPermission#implies 的开销，按持有的权限与被检查的权限分几种形状：
+ *
+ * - exact：document:read 隐含 document:read；
+ * - wildcard：* 隐含 printer:print:lp7200；
+ * - subparts：printer:print,query:lp7200,lp7201 隐含 printer:query:lp7201；
+ * - miss：document:read 不隐含 document:write。
+ *
+ * implies 为两个已解析权限比较（AuthorizationInfo 中已有的权限对象）；
+ * resolveAndImplies 另含把被检查的字符串解析成权限对象的开销，即 AuthorizingRealm#isPermitted(String) 每次调用都要做的部分
+ * （IndexedIniRealm 预编译后的路径见 RealmAuthorizationBenchmark）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WildcardPermissionBenchmark {
+
+    @Param({"exact", "wildcard", "subparts", "miss"})
+    public String shape;
+
+    private final PermissionResolver permissionResolver = new WildcardPermissionResolver();
+    private Permission held;
+    private Permission checked;
+    private String checkedString;
+
+    @Setup
+    public void setUp() {
+        String heldString;
+        if ("wildcard".equals(shape)) {
+            heldString = "*";
+            checkedString = "printer:print:lp7200";
+        } else if ("subparts".equals(shape)) {
+            heldString = "printer:print,query:lp7200,lp7201";
+            checkedString = "printer:query:lp7201";
+        } else if ("miss".equals(shape)) {
+            heldString = "document:read";
+            checkedString = "document:write";
+        } else {
+            heldString = "document:read";
+            checkedString = "document:read";
+        }
+        held = permissionResolver.resolvePermission(heldString);
+        checked = permissionResolver.resolvePermission(checkedString);
+    }
+
+    @Benchmark
+    public boolean implies() {
+        return held.implies(checked);
+    }
+
+    @Benchmark
+    public boolean resolveAndImplies() {
+        return held.implies(permissionResolver.resolvePermission(checkedString));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WildcardPermissionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
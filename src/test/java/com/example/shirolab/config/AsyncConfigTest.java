@@ -0,0 +1,34 @@
+package com.example.shirolab.config;
+
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.apache.shiro.subject.Subject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AsyncConfigTest {
+
+    @Test
+    public void platformExecutorRunsTasksAsSubmittingSubject() throws Exception {
+        ExecutorService executor = new AsyncConfig().subjectAwareExecutor(
+                new StaticListableBeanFactory().getBeanProvider(ExecutorService.class), 2, 8);
+        try {
+            Subject subject = new Subject.Builder(new DefaultSecurityManager())
+                    .principals(new SimplePrincipalCollection("admin", "iniRealm"))
+                    .authenticated(true)
+                    .buildSubject();
+
+            Object principal = subject.execute(() ->
+                    executor.submit(() -> SecurityUtils.getSubject().getPrincipal()).get());
+
+            assertEquals("admin", principal);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.shirolab.config;
+
+import org.apache.shiro.util.AntPathMatcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ShiroConfigTest {
+
+    private static final String ADMIN_ONLY = "token, user, roles[admin]";
+
+    @Test
+    public void latencyEndpointIsAdminOnly() {
+        assertEquals(ADMIN_ONLY, chainFor("/actuator/latency"));
+        assertEquals(ADMIN_ONLY, chainFor("/actuator/latency/handler"));
+        assertEquals("token, user", chainFor("/me"));
+    }
+
+    @Test
+    public void startupEndpointIsAdminOnly() {
+        assertEquals(ADMIN_ONLY, chainFor("/actuator/startup"));
+    }
+
+    @Test
+    public void authAuditEndpointIsAdminOnly() {
+        assertEquals(ADMIN_ONLY, chainFor("/actuator/authaudit"));
+        assertEquals(ADMIN_ONLY, chainFor("/actuator"));
+    }
+
+    @Test
+    public void healthProbesStayAnonymous() {
+        assertEquals("anon", chainFor("/actuator/health"));
+        assertEquals("anon", chainFor("/actuator/health/liveness"));
+        assertEquals("anon", chainFor("/actuator/health/readiness"));
+        assertEquals(ADMIN_ONLY, chainFor("/actuator/healthz"));
+    }
+
+    private static String chainFor(String path) {
+        AntPathMatcher matcher = new AntPathMatcher();
+        for (Map.Entry<String, String> entry : ShiroConfig.filterChainDefinitions().entrySet()) {
+            if (matcher.matches(entry.getKey(), path)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
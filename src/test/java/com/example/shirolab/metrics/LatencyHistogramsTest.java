@@ -0,0 +1,52 @@
+package com.example.shirolab.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramsTest {
+
+    @Test
+    public void accumulatesPercentilesPerOutcome() {
+        LatencyHistograms histograms = new LatencyHistograms();
+        LatencyHistograms.Series series = histograms.series("handler", "AuthController.loginJson");
+        for (int i = 1; i <= 1000; i++) {
+            series.record(AuthOutcome.AUTHENTICATED, i * 1000L);
+        }
+        series.record(AuthOutcome.ANONYMOUS, 5000L);
+
+        List<LatencyHistograms.Snapshot> first = histograms.snapshot("handler");
+        assertEquals(2, first.size());
+        LatencyHistograms.Snapshot anonymous = first.get(0);
+        LatencyHistograms.Snapshot authenticated = first.get(1);
+        assertEquals("anonymous", anonymous.getOutcome());
+        assertEquals(1, anonymous.getCount());
+        assertEquals(1000, authenticated.getCount());
+        assertWithinOnePercent(500_000L, authenticated.getP50Nanos());
+        assertWithinOnePercent(990_000L, authenticated.getP99Nanos());
+
+        // 第二次快照在第一次的基础上累加
+        series.record(AuthOutcome.AUTHENTICATED, 1000L);
+        assertEquals(1001, histograms.snapshot("handler").get(1).getCount());
+        assertTrue(histograms.snapshot("shiro").isEmpty());
+
+        histograms.reset();
+        assertEquals(0, histograms.snapshot(null).get(1).getCount());
+    }
+
+    @Test
+    public void clampsValuesAboveTrackableRange() {
+        LatencyHistograms histograms = new LatencyHistograms();
+        histograms.series("shiro", "authorization").record(AuthOutcome.ANONYMOUS, Long.MAX_VALUE);
+        LatencyHistograms.Snapshot snapshot = histograms.snapshot(null).get(0);
+        assertEquals(1, snapshot.getCount());
+        assertTrue(snapshot.getMaxNanos() >= LatencyHistograms.HIGHEST_TRACKABLE_NANOS);
+    }
+
+    private static void assertWithinOnePercent(long expected, long actual) {
+        assertTrue(Math.abs(expected - actual) <= expected / 100, "expected ~" + expected + " but was " + actual);
+    }
+}
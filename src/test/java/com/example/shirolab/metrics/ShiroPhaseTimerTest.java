@@ -0,0 +1,42 @@
+package com.example.shirolab.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ShiroPhaseTimerTest {
+
+    @Test
+    public void aggregatesRequestsFromShortLivedThreads() throws Exception {
+        ShiroPhaseTimer timer = new ShiroPhaseTimer(false);
+        // 每个请求一个新线程（虚拟线程执行器的情形），线程结束后累计值仍在
+        for (int i = 0; i < 200; i++) {
+            Thread thread = new Thread(() -> {
+                ShiroPhaseTimer.Phases phases = timer.begin();
+                timer.add(ShiroPhase.SESSION, 1000L);
+                timer.add(ShiroPhase.SESSION, 500L);
+                timer.end(phases);
+            });
+            thread.start();
+            thread.join();
+        }
+
+        assertEquals(200, timer.count(ShiroPhase.SESSION));
+        assertEquals(300_000L, timer.totalNanos(ShiroPhase.SESSION));
+        assertEquals(0, timer.count(ShiroPhase.CHAIN_RESOLVE));
+        assertNull(timer.active());
+    }
+
+    @Test
+    public void nestedBeginKeepsOuterRequest() {
+        ShiroPhaseTimer timer = new ShiroPhaseTimer(false);
+        ShiroPhaseTimer.Phases outer = timer.begin();
+        assertNull(timer.begin());
+        timer.add(ShiroPhase.SESSION, 10L);
+        timer.end(outer);
+
+        assertEquals(1, timer.count(ShiroPhase.SESSION));
+        assertEquals(10L, timer.totalNanos(ShiroPhase.SESSION));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.shirolab.security.audit;
+
+import org.apache.shiro.authc.IncorrectCredentialsException;
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuthAuditJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void recordsListenerEventsAndScansByPrincipalAndTime() throws Exception {
+        long before = System.currentTimeMillis();
+        AuthAuditJournal journal = new AuthAuditJournal(dir, 1024, 0, 16);
+        journal.onSuccess(new UsernamePasswordToken("admin", "admin123", false, "10.0.0.1"),
+                new SimpleAuthenticationInfo("admin", "admin123", "iniRealm"));
+        journal.onFailure(new UsernamePasswordToken("user", "wrong", false, "10.0.0.2"),
+                new IncorrectCredentialsException());
+        journal.onLogout(new SimplePrincipalCollection("admin", "iniRealm"));
+        journal.close();
+        long after = System.currentTimeMillis();
+
+        List<AuditRecord> all = journal.reader().scan(before, after, null, 100);
+        assertEquals(3, all.size());
+        assertEquals(AuthEventType.LOGIN_SUCCESS, all.get(0).getType());
+        assertEquals("10.0.0.1", all.get(0).getHost());
+        assertEquals(AuthEventType.LOGIN_FAILURE, all.get(1).getType());
+        assertEquals(AuthFailureReason.INCORRECT_CREDENTIALS, all.get(1).getReason());
+        assertEquals("user", all.get(1).getPrincipal());
+        assertEquals(AuthEventType.LOGOUT, all.get(2).getType());
+        assertNull(all.get(2).getHost());
+
+        List<AuditRecord> admin = journal.reader().scan(before, after, "admin", 100);
+        assertEquals(2, admin.size());
+        assertEquals(1, journal.reader().scan(before, after, "admin", 1).size());
+        assertTrue(journal.reader().scan(after + 1, Long.MAX_VALUE, null, 100).isEmpty());
+        assertEquals(3, journal.getWrittenCount());
+    }
+
+    @Test
+    public void rollsSegmentsEnforcesRetentionAndResumesAfterRestart() throws Exception {
+        AuthAuditJournal journal = new AuthAuditJournal(dir, 4, 3, 64);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(journal.publish(AuthEventType.LOGIN_SUCCESS, AuthFailureReason.NONE, "u" + i, null));
+        }
+        journal.close();
+        // 10 条写入 3 个段（4 + 4 + 2），未超过保留上限
+        assertEquals(3, JournalSegment.list(dir).size());
+
+        AuthAuditJournal reopened = new AuthAuditJournal(dir, 4, 3, 64);
+        for (int i = 10; i < 13; i++) {
+            reopened.publish(AuthEventType.LOGOUT, AuthFailureReason.NONE, "u" + i, null);
+        }
+        reopened.close();
+
+        // 重启后先写满第 3 段的剩余 2 条，再滚动到第 4 段，最旧的第 1 段被删除
+        List<Path> segments = JournalSegment.list(dir);
+        assertEquals(3, segments.size());
+        assertEquals(2L, JournalSegment.indexOf(segments.get(0)));
+        List<AuditRecord> records = reopened.reader().scan(Long.MIN_VALUE, Long.MAX_VALUE, null, 100);
+        assertEquals(9, records.size());
+        assertEquals("u4", records.get(0).getPrincipal());
+        assertEquals("u12", records.get(8).getPrincipal());
+    }
+
+    @Test
+    public void truncatesLongFieldsAtCharacterBoundaryAndLocksDirectory() throws Exception {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            name.append('用');
+        }
+        AuthAuditJournal journal = new AuthAuditJournal(dir, 16, 0, 16);
+        assertThrows(IllegalStateException.class, () -> new AuthAuditJournal(dir, 16, 0, 16));
+        journal.publish(AuthEventType.LOGIN_FAILURE, AuthFailureReason.UNKNOWN_ACCOUNT, name.toString(), null);
+        journal.close();
+
+        // 每个字符 3 字节，64 字节的字段容纳 21 个字符
+        List<AuditRecord> records = journal.reader().scan(Long.MIN_VALUE, Long.MAX_VALUE, name.toString(), 10);
+        assertEquals(1, records.size());
+        assertEquals(name.substring(0, 21), records.get(0).getPrincipal());
+    }
+}
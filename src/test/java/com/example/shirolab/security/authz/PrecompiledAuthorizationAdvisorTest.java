@@ -0,0 +1,137 @@
+package com.example.shirolab.security.authz;
+
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.authz.UnauthenticatedException;
+import org.apache.shiro.authz.UnauthorizedException;
+import org.apache.shiro.authz.annotation.Logical;
+import org.apache.shiro.authz.annotation.RequiresPermissions;
+import org.apache.shiro.authz.annotation.RequiresRoles;
+import org.apache.shiro.authz.annotation.RequiresUser;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.realm.SimpleAccountRealm;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.support.SubjectThreadState;
+import org.apache.shiro.util.ThreadState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrecompiledAuthorizationAdvisorTest {
+
+    private final DefaultSecurityManager securityManager;
+    private final PrecompiledAuthorizationAdvisor advisor = new PrecompiledAuthorizationAdvisor();
+    private ThreadState threadState;
+
+    public PrecompiledAuthorizationAdvisorTest() {
+        SimpleAccountRealm realm = new SimpleAccountRealm("test");
+        realm.addAccount("admin", "admin", "admin");
+        realm.addAccount("user", "user", "user");
+        realm.addRole("user");
+        securityManager = new DefaultSecurityManager(realm);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (threadState != null) {
+            threadState.clear();
+        }
+    }
+
+    @Test
+    public void requirementsAreResolvedWhenTheProxyIsCreated() {
+        proxy(new Secured());
+
+        // panel/either/report 三个带注解的方法
+        assertEquals(3, advisor.size());
+        assertTrue(!advisor.requirementFor(methodOf("panel"), Secured.class).isEmpty());
+        assertEquals(3, advisor.size());
+        assertTrue(advisor.requirementFor(methodOf("open"), Secured.class).isEmpty());
+    }
+
+    @Test
+    public void rolesAndLogicalOrMatchShiroSemantics() {
+        login("user");
+        Secured secured = proxy(new Secured());
+
+        UnauthorizedException denied = assertThrows(UnauthorizedException.class, secured::panel);
+        assertNotNull(denied.getCause());
+        assertEquals("ok", secured.either());
+        assertEquals("ok", secured.open());
+    }
+
+    @Test
+    public void classLevelAnnotationApplies() {
+        UserOnly userOnly = proxy(new UserOnly());
+
+        assertThrows(UnauthenticatedException.class, userOnly::whoami);
+        login("admin");
+        assertEquals("ok", userOnly.whoami());
+    }
+
+    private void login(String username) {
+        if (threadState != null) {
+            threadState.clear();
+        }
+        Subject subject = new Subject.Builder(securityManager).buildSubject();
+        subject.login(new UsernamePasswordToken(username, username));
+        threadState = new SubjectThreadState(subject);
+        threadState.bind();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        if (threadState == null) {
+            threadState = new SubjectThreadState(new Subject.Builder(securityManager).buildSubject());
+            threadState.bind();
+        }
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(advisor);
+        return (T) factory.getProxy();
+    }
+
+    private static Method methodOf(String name) {
+        try {
+            return Secured.class.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class Secured {
+
+        @RequiresRoles("admin")
+        public String panel() {
+            return "ok";
+        }
+
+        @RequiresRoles(value = {"admin", "user"}, logical = Logical.OR)
+        public String either() {
+            return "ok";
+        }
+
+        @RequiresPermissions("report:read")
+        public String report() {
+            return "ok";
+        }
+
+        public String open() {
+            return "ok";
+        }
+    }
+
+    @RequiresUser
+    public static class UserOnly {
+
+        public String whoami() {
+            return "ok";
+        }
+    }
+}
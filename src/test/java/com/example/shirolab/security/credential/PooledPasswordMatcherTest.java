@@ -0,0 +1,72 @@
+package com.example.shirolab.security.credential;
+
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.authc.credential.DefaultPasswordService;
+import org.apache.shiro.crypto.hash.DefaultHashService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PooledPasswordMatcherTest {
+
+    private static String encrypt(String password, int iterations) {
+        DefaultHashService hashService = new DefaultHashService();
+        hashService.setHashIterations(iterations);
+        hashService.setGeneratePublicSalt(true);
+        DefaultPasswordService passwordService = new DefaultPasswordService();
+        passwordService.setHashService(hashService);
+        return passwordService.encryptPassword(password);
+    }
+
+    private static SimpleAuthenticationInfo info(String stored) {
+        return new SimpleAuthenticationInfo("admin", stored, "iniRealm");
+    }
+
+    @Test
+    public void hashedPasswordIsVerifiedOnPoolAndRepeatedLoginHitsCache() {
+        PooledPasswordMatcher matcher = new PooledPasswordMatcher(2, 8, 5000, 100, 60000);
+        try {
+            String stored = encrypt("admin123", 1000);
+
+            assertTrue(matcher.doCredentialsMatch(new UsernamePasswordToken("admin", "admin123"), info(stored)));
+            assertTrue(matcher.doCredentialsMatch(new UsernamePasswordToken("admin", "admin123"), info(stored)));
+            assertFalse(matcher.doCredentialsMatch(new UsernamePasswordToken("admin", "wrong"), info(stored)));
+            assertFalse(matcher.doCredentialsMatch(new UsernamePasswordToken("admin", "wrong"), info(stored)));
+
+            // 成功一次走缓存，失败不缓存
+            assertEquals(3, matcher.getHashedCount());
+            assertEquals(1, matcher.getCachedCount());
+        } finally {
+            matcher.destroy();
+        }
+    }
+
+    @Test
+    public void plaintextCredentialsStillMatchWithoutHashing() {
+        PooledPasswordMatcher matcher = new PooledPasswordMatcher(1, 1, 1000, 100, 60000);
+        try {
+            assertTrue(matcher.doCredentialsMatch(new UsernamePasswordToken("admin", "admin123"), info("admin123")));
+            assertFalse(matcher.doCredentialsMatch(new UsernamePasswordToken("admin", "admin12"), info("admin123")));
+            assertEquals(0, matcher.getHashedCount());
+        } finally {
+            matcher.destroy();
+        }
+    }
+
+    @Test
+    public void slowHashingFailsFastWithBusyException() {
+        PooledPasswordMatcher matcher = new PooledPasswordMatcher(1, 1, 1, 0, 0);
+        try {
+            String stored = encrypt("admin123", 2_000_000);
+            assertThrows(CredentialsVerificationBusyException.class,
+                    () -> matcher.doCredentialsMatch(new UsernamePasswordToken("admin", "admin123"), info(stored)));
+            assertEquals(1, matcher.getRejectedCount());
+        } finally {
+            matcher.destroy();
+        }
+    }
+}
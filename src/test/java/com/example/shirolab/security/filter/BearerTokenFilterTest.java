@@ -0,0 +1,74 @@
+package com.example.shirolab.security.filter;
+
+import com.example.shirolab.security.token.SignedTokenService;
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.realm.SimpleAccountRealm;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.web.mgt.DefaultWebSecurityManager;
+import org.apache.shiro.web.servlet.AbstractShiroFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BearerTokenFilterTest {
+
+    private final SignedTokenService tokenService = new SignedTokenService(null, 60_000L);
+
+    @Test
+    public void validTokenAuthorizesRolesWithoutSession() throws Exception {
+        AtomicReference<Subject> seen = new AtomicReference<Subject>();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/admin/panel");
+        request.addHeader("Authorization", "Bearer " + tokenService.issue("admin", Arrays.asList("admin")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        createFilter().doFilter(request, response, (req, res) -> seen.set(SecurityUtils.getSubject()));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("admin", seen.get().getPrincipal());
+        assertTrue(seen.get().isAuthenticated());
+        assertNull(seen.get().getSession(false));
+        assertNull(request.getSession(false));
+    }
+
+    @Test
+    public void invalidTokenOrMissingRoleIsRejected() throws Exception {
+        AbstractShiroFilter filter = createFilter();
+        AtomicReference<Subject> seen = new AtomicReference<Subject>();
+
+        MockHttpServletRequest forged = new MockHttpServletRequest("GET", "/admin/panel");
+        forged.addHeader("Authorization", "Bearer " + new SignedTokenService(null, 60_000L).issue("admin", Arrays.asList("admin")));
+        MockHttpServletResponse forgedResponse = new MockHttpServletResponse();
+        filter.doFilter(forged, forgedResponse, (req, res) -> seen.set(SecurityUtils.getSubject()));
+        assertEquals(401, forgedResponse.getStatus());
+
+        MockHttpServletRequest user = new MockHttpServletRequest("GET", "/admin/panel");
+        user.addHeader("Authorization", "Bearer " + tokenService.issue("user", Arrays.asList("user")));
+        MockHttpServletResponse userResponse = new MockHttpServletResponse();
+        filter.doFilter(user, userResponse, (req, res) -> seen.set(SecurityUtils.getSubject()));
+        assertEquals(401, userResponse.getStatus());
+
+        assertNull(seen.get());
+    }
+
+    private AbstractShiroFilter createFilter() throws Exception {
+        SimpleAccountRealm realm = new SimpleAccountRealm("iniRealm");
+        DefaultWebSecurityManager securityManager = new DefaultWebSecurityManager(realm);
+
+        CompiledShiroFilterFactoryBean factoryBean = new CompiledShiroFilterFactoryBean(16);
+        factoryBean.setSecurityManager(securityManager);
+        factoryBean.getFilters().put("token", new BearerTokenFilter(tokenService, securityManager, realm.getName()));
+        Map<String, String> chains = new LinkedHashMap<String, String>();
+        chains.put("/admin/**", "token, user, roles[admin]");
+        factoryBean.setFilterChainDefinitionMap(chains);
+        return (AbstractShiroFilter) factoryBean.getObject();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.shirolab.security.filter;
+
+import org.apache.shiro.util.AntPathMatcher;
+import org.apache.shiro.web.filter.mgt.DefaultFilterChainManager;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CompiledFilterChainResolverTest {
+
+    private static final String[][] CHAINS = {
+            {"/login", "anon"},
+            {"/login/form", "anon"},
+            {"/logout", "logout"},
+            {"/inject", "anon"},
+            {"/css/**", "anon"},
+            {"/js/**", "anon"},
+            {"/images/*.png", "anon"},
+            {"/admin/*/edit", "user, roles[admin]"},
+            {"/admin/**", "user, roles[admin]"},
+            {"/user/**", "user, roles[user]"},
+            {"/**/export", "user, roles[admin]"},
+            {"/**", "user"},
+    };
+
+    private static final String[] PATHS = {
+            "/", "", "/login", "/login/", "/login/form", "/login/form/x", "/logout", "/inject",
+            "/css", "/css/", "/css/site.css", "/js/a/b.js", "/images/a.png", "/images/a.gif",
+            "/images/x/a.png", "/admin", "/admin/", "/admin/panel", "/admin/1/edit", "/admin/1/edit/",
+            "/admin/1/2/edit", "/user/profile", "/users", "//admin//panel", "/admin /panel",
+            "/report/export", "/a/b/export", "/export", "/user/export", "/LOGIN", "relative/path",
+    };
+
+    @Test
+    public void resolvesSameChainAsSequentialAntMatching() {
+        DefaultFilterChainManager manager = new DefaultFilterChainManager();
+        for (String[] chain : CHAINS) {
+            manager.createChain(chain[0], chain[1]);
+        }
+        CompiledFilterChainResolver uncached = new CompiledFilterChainResolver(manager, 0);
+        CompiledFilterChainResolver cached = new CompiledFilterChainResolver(manager, 16);
+        AntPathMatcher matcher = new AntPathMatcher();
+
+        for (String path : PATHS) {
+            String expected = null;
+            for (String name : manager.getChainNames()) {
+                if (matcher.matches(name, path)) {
+                    expected = name;
+                    break;
+                }
+            }
+            assertEquals(expected, uncached.resolve(path), path);
+            assertEquals(expected, cached.resolve(path), path);
+            assertEquals(expected, cached.resolve(path), path);
+        }
+    }
+
+    @Test
+    public void recompilePicksUpNewChains() {
+        DefaultFilterChainManager manager = new DefaultFilterChainManager();
+        manager.createChain("/**", "user");
+        CompiledFilterChainResolver resolver = new CompiledFilterChainResolver(manager, 16);
+        assertEquals("/**", resolver.resolve("/health"));
+
+        manager.createChain("/health", "anon");
+        resolver.compile();
+        // /** 仍然定义在前，先定义先命中
+        assertEquals("/**", resolver.resolve("/health"));
+    }
+}
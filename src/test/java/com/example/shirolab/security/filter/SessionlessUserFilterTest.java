@@ -0,0 +1,105 @@
+package com.example.shirolab.security.filter;
+
+import com.example.shirolab.security.session.EmbeddedRemoteSessionStore;
+import com.example.shirolab.security.session.StoreBackedSessionDAO;
+import com.example.shirolab.security.token.ReturnUrlSigner;
+import org.apache.shiro.realm.SimpleAccountRealm;
+import org.apache.shiro.web.mgt.DefaultWebSecurityManager;
+import org.apache.shiro.web.servlet.AbstractShiroFilter;
+import org.apache.shiro.web.session.mgt.DefaultWebSessionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionlessUserFilterTest {
+
+    private final ReturnUrlSigner signer = new ReturnUrlSigner(null, 60_000L);
+
+    @Test
+    public void anonymousRedirectCarriesSignedReturnUrlWithoutSession() throws Exception {
+        StoreBackedSessionDAO sessionDAO = new StoreBackedSessionDAO(new EmbeddedRemoteSessionStore(), 100, 60_000L);
+        AbstractShiroFilter filter = createFilter(sessionDAO, true);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/profile/page");
+        request.setQueryString("tab=1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(302, response.getStatus());
+        String location = response.getRedirectedUrl();
+        assertTrue(location.startsWith("/login?next="), location);
+        assertNull(response.getCookie("JSESSIONID"));
+        assertEquals(0, sessionDAO.getStartedCount());
+
+        String next = UriComponentsBuilder.fromUriString(location).build().getQueryParams().getFirst("next");
+        assertEquals("/user/profile/page?tab=1", signer.verify(next));
+    }
+
+    @Test
+    public void stockUserFilterStartsSessionForSavedRequest() throws Exception {
+        StoreBackedSessionDAO sessionDAO = new StoreBackedSessionDAO(new EmbeddedRemoteSessionStore(), 100, 60_000L);
+        AbstractShiroFilter filter = createFilter(sessionDAO, false);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/user/profile/page"), response, new MockFilterChain());
+
+        assertEquals(302, response.getStatus());
+        assertEquals(1, sessionDAO.getStartedCount());
+    }
+
+    @Test
+    public void decodedControlCharactersAreReencodedBeforeSigning() throws Exception {
+        AbstractShiroFilter filter = createFilter(
+                new StoreBackedSessionDAO(new EmbeddedRemoteSessionStore(), 100, 60_000L), true);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/%09/evil.example");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(302, response.getStatus());
+        String next = UriComponentsBuilder.fromUriString(response.getRedirectedUrl()).build()
+                .getQueryParams().getFirst("next");
+        assertEquals("/%09/evil.example", signer.verify(next));
+    }
+
+    @Test
+    public void foreignOrExternalReturnUrlsAreRejected() {
+        assertNull(signer.sign("//evil.example/"));
+        assertNull(signer.sign("/\\evil.example/"));
+        assertNull(signer.sign("/\t/evil.example"));
+        assertNull(signer.sign("/\n/evil.example"));
+        assertNull(signer.sign("/ /evil.example"));
+        assertNull(signer.sign("/\u00a0/evil.example"));
+        assertNull(signer.verify(new ReturnUrlSigner(null, 60_000L).sign("/admin/panel")));
+        assertNull(signer.verify("/admin/panel"));
+    }
+
+    private AbstractShiroFilter createFilter(StoreBackedSessionDAO sessionDAO, boolean sessionless) throws Exception {
+        DefaultWebSessionManager sessionManager = new DefaultWebSessionManager();
+        sessionManager.setSessionDAO(sessionDAO);
+        sessionManager.setSessionValidationSchedulerEnabled(false);
+        DefaultWebSecurityManager securityManager = new DefaultWebSecurityManager(new SimpleAccountRealm());
+        securityManager.setSessionManager(sessionManager);
+
+        CompiledShiroFilterFactoryBean factoryBean = new CompiledShiroFilterFactoryBean(16);
+        factoryBean.setSecurityManager(securityManager);
+        factoryBean.setLoginUrl("/login");
+        if (sessionless) {
+            factoryBean.getFilters().put("user", new SessionlessUserFilter(signer));
+        }
+        Map<String, String> chains = new LinkedHashMap<String, String>();
+        chains.put("/login", "anon");
+        chains.put("/**", "user");
+        factoryBean.setFilterChainDefinitionMap(chains);
+        return (AbstractShiroFilter) factoryBean.getObject();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.shirolab.security.filter;
+
+import com.example.shirolab.metrics.LatencyHistograms;
+import com.example.shirolab.metrics.ShiroPhase;
+import com.example.shirolab.metrics.ShiroPhaseTimer;
+import com.example.shirolab.security.mgt.TimedWebSecurityManager;
+import org.apache.shiro.realm.SimpleAccountRealm;
+import org.apache.shiro.web.servlet.AbstractShiroFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimedShiroFilterTest {
+
+    @Test
+    public void recordsPhasesAndWritesServerTimingBeforeApplication() throws Exception {
+        ShiroPhaseTimer timer = new ShiroPhaseTimer(true);
+        AbstractShiroFilter filter = createFilter(timer);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/open");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        assertNotNull(chain.getRequest());
+        String header = response.getHeader("Server-Timing");
+        assertNotNull(header);
+        assertTrue(header.contains("session;dur="), header);
+        assertTrue(header.contains("shiro;dur="), header);
+        assertEquals(1, timer.count(ShiroPhase.SESSION));
+        assertEquals(1, timer.count(ShiroPhase.CHAIN_RESOLVE));
+        assertTrue(timer.totalNanos(ShiroPhase.SESSION) > 0);
+    }
+
+    @Test
+    public void recordsPhasesForBlockedRequest() throws Exception {
+        ShiroPhaseTimer timer = new ShiroPhaseTimer(false);
+        AbstractShiroFilter filter = createFilter(timer);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/admin/panel");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        // 匿名访问 roles[admin] 被拦截，请求未进入应用（匿名 Subject 不会调用到 SecurityManager 的授权方法）
+        assertNull(chain.getRequest());
+        assertNull(response.getHeader("Server-Timing"));
+        assertEquals(1, timer.count(ShiroPhase.FILTERS));
+        assertEquals(1, timer.count(ShiroPhase.REMEMBER_ME));
+    }
+
+    private static AbstractShiroFilter createFilter(ShiroPhaseTimer timer) throws Exception {
+        TimedWebSecurityManager securityManager = new TimedWebSecurityManager(new LatencyHistograms());
+        securityManager.setRealm(new SimpleAccountRealm());
+        securityManager.setPhaseTimer(timer);
+
+        CompiledShiroFilterFactoryBean factoryBean = new CompiledShiroFilterFactoryBean(16);
+        factoryBean.setSecurityManager(securityManager);
+        factoryBean.setPhaseTimer(timer);
+        Map<String, String> chains = new LinkedHashMap<String, String>();
+        chains.put("/open", "anon");
+        chains.put("/admin/**", "roles[admin]");
+        factoryBean.setFilterChainDefinitionMap(chains);
+        return (AbstractShiroFilter) factoryBean.getObject();
+    }
+}
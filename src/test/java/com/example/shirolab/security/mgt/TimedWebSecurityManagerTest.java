@@ -0,0 +1,46 @@
+package com.example.shirolab.security.mgt;
+
+import com.example.shirolab.metrics.LatencyHistograms;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+import org.apache.shiro.config.Ini;
+import org.apache.shiro.realm.text.IniRealm;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimedWebSecurityManagerTest {
+
+    @Test
+    public void bulkAuthorizationOverloadsAreTimed() {
+        Ini ini = new Ini();
+        ini.load("[users]\nalice = pw, user\n[roles]\nuser = document:read\n");
+        IniRealm realm = new IniRealm(ini);
+        LatencyHistograms histograms = new LatencyHistograms();
+        TimedWebSecurityManager securityManager = new TimedWebSecurityManager(histograms);
+        securityManager.setRealm(realm);
+        PrincipalCollection alice = new SimplePrincipalCollection("alice", realm.getName());
+        Permission read = new WildcardPermission("document:read");
+
+        assertArrayEquals(new boolean[]{true, false}, securityManager.hasRoles(alice, Arrays.asList("user", "admin")));
+        assertArrayEquals(new boolean[]{true, false}, securityManager.isPermitted(alice, "document:read", "document:write"));
+        assertArrayEquals(new boolean[]{true}, securityManager.isPermitted(alice, Collections.singletonList(read)));
+        assertTrue(securityManager.isPermittedAll(alice, Collections.singletonList(read)));
+        securityManager.checkPermissions(alice, Collections.singletonList(read));
+
+        long count = 0;
+        for (LatencyHistograms.Snapshot snapshot : histograms.snapshot(TimedWebSecurityManager.TYPE)) {
+            if ("authorization".equals(snapshot.getName())) {
+                count += snapshot.getCount();
+            }
+        }
+        assertEquals(5, count);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.shirolab.security.realm;
+
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.UnauthorizedException;
+import org.apache.shiro.cache.MemoryConstrainedCacheManager;
+import org.apache.shiro.config.Ini;
+import org.apache.shiro.realm.text.IniRealm;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IndexedIniRealmTest {
+
+    private static final String[] QUERIES = {
+            "document:read", "document:write", "document:read,write", "document", "document:*",
+            "profile:read", "profile:read:42", "Profile:READ", "report:export:2024", "report:export",
+            "report", "report:view", "*", "*:read", "unknown:thing", "printer:print:lp7200",
+            "printer:query:lp7200", "printer:print", "printer:print,query:lp7200",
+    };
+
+    private static Ini ini() {
+        Ini ini = new Ini();
+        ini.load("[users]\n"
+                + "admin = admin123, admin\n"
+                + "user = user123, user\n"
+                + "ops = ops123, printer, reporter\n"
+                + "nobody = nobody123\n"
+                + "[roles]\n"
+                + "admin = *\n"
+                + "user = document:read,profile:read\n"
+                + "printer = printer:print,query:*\n"
+                + "reporter = report:export:*:csv, report\n");
+        return ini;
+    }
+
+    @Test
+    public void matchesIniRealmForRolesAndPermissions() {
+        IniRealm reference = new IniRealm(ini());
+        IndexedIniRealm indexed = new IndexedIniRealm();
+        indexed.setIni(ini());
+        indexed.init();
+
+        for (String user : Arrays.asList("admin", "user", "ops", "nobody", "ghost")) {
+            PrincipalCollection principals = new SimplePrincipalCollection(user, indexed.getName());
+            for (String query : QUERIES) {
+                assertEquals(reference.isPermitted(principals, query), indexed.isPermitted(principals, query),
+                        user + " -> " + query);
+            }
+            for (String role : Arrays.asList("admin", "user", "printer", "reporter", "none")) {
+                assertEquals(reference.hasRole(principals, role), indexed.hasRole(principals, role), user + " role " + role);
+            }
+            assertEquals(reference.isPermittedAll(principals, QUERIES[0], QUERIES[5]),
+                    indexed.isPermittedAll(principals, QUERIES[0], QUERIES[5]), user);
+        }
+        assertEquals(4, indexed.getIndexedUserCount());
+    }
+
+    @Test
+    public void rebuildsSnapshotWhenAccountsChange() {
+        IndexedIniRealm realm = new IndexedIniRealm();
+        realm.setIni(ini());
+        realm.init();
+        PrincipalCollection late = new SimplePrincipalCollection("late", realm.getName());
+        assertFalse(realm.hasRole(late, "user"));
+        assertThrows(UnauthorizedException.class, () -> realm.checkPermission(late, "document:read"));
+
+        realm.addAccount("late", "late123", "user");
+
+        assertTrue(realm.hasRole(late, "user"));
+        assertEquals(5, realm.getIndexedUserCount());
+    }
+
+    @Test
+    public void servesRepeatedLookupsFromAuthorizationCache() {
+        AtomicInteger loads = new AtomicInteger();
+        IndexedIniRealm realm = new IndexedIniRealm() {
+            @Override
+            protected AuthorizationInfo doGetAuthorizationInfo(PrincipalCollection principals) {
+                loads.incrementAndGet();
+                return super.doGetAuthorizationInfo(principals);
+            }
+        };
+        realm.setIni(ini());
+        realm.setCacheManager(new MemoryConstrainedCacheManager());
+        realm.init();
+        PrincipalCollection user = new SimplePrincipalCollection("user", realm.getName());
+
+        assertTrue(realm.isAuthorizationCachingEnabled());
+        assertTrue(realm.hasRole(user, "user"));
+        assertTrue(realm.isPermitted(user, "document:read"));
+        assertEquals(1, loads.get());
+        assertNotNull(realm.getAuthorizationCache());
+        assertEquals(1, realm.getAuthorizationCache().size());
+
+        realm.rebuildIndex();
+
+        assertEquals(0, realm.getAuthorizationCache().size());
+        assertTrue(realm.hasRole(user, "user"));
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.shirolab.security.realm;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.shiro.authc.IncorrectCredentialsException;
+import org.apache.shiro.authc.UnknownAccountException;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.cache.MemoryConstrainedCacheManager;
+import org.apache.shiro.realm.jdbc.JdbcRealm;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JdbcPrincipalRealmTest {
+
+    private static final String[] QUERIES = {
+            "document:read", "document:write", "profile:read", "printer:print:lp7200", "printer:query:x",
+            "report:export", "*", "unknown:thing",
+    };
+
+    private HikariDataSource dataSource;
+    private final AtomicInteger statements = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID()
+                + ";DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/realm-h2.sql'");
+        dataSource.setMaximumPoolSize(2);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("INSERT INTO users VALUES ('ops', 'ops123'), ('nobody', 'nobody123')");
+            connection.createStatement().execute("INSERT INTO user_roles VALUES ('ops', 'printer'), ('ops', 'reporter')");
+            connection.createStatement().execute("INSERT INTO roles_permissions VALUES "
+                    + "('printer', 'printer:print'), ('printer', 'printer:query:*'), ('reporter', 'report')");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void matchesShiroJdbcRealm() {
+        JdbcRealm reference = new JdbcRealm();
+        reference.setDataSource(dataSource);
+        reference.setPermissionsLookupEnabled(true);
+        reference.setAuthorizationCachingEnabled(false);
+        JdbcPrincipalRealm realm = newRealm();
+
+        for (String user : Arrays.asList("admin", "user", "ops", "nobody", "ghost")) {
+            PrincipalCollection principals = new SimplePrincipalCollection(user, realm.getName());
+            for (String query : QUERIES) {
+                assertEquals(reference.isPermitted(principals, query), realm.isPermitted(principals, query),
+                        user + " -> " + query);
+            }
+            for (String role : Arrays.asList("admin", "user", "printer", "reporter", "none")) {
+                assertEquals(reference.hasRole(principals, role), realm.hasRole(principals, role), user + " role " + role);
+            }
+        }
+        assertEquals("ops", realm.getAuthenticationInfo(new UsernamePasswordToken("ops", "ops123"))
+                .getPrincipals().getPrimaryPrincipal());
+        assertThrows(IncorrectCredentialsException.class,
+                () -> realm.getAuthenticationInfo(new UsernamePasswordToken("ops", "wrong")));
+        assertThrows(UnknownAccountException.class,
+                () -> realm.getAuthenticationInfo(new UsernamePasswordToken("ghost", "x")));
+    }
+
+    @Test
+    public void loginLoadsAuthorizationInTheSameQuery() {
+        JdbcPrincipalRealm realm = newRealm();
+        PrincipalCollection principals = realm.getAuthenticationInfo(new UsernamePasswordToken("ops", "ops123"))
+                .getPrincipals();
+        assertEquals(1, statements.get());
+
+        assertTrue(realm.hasRole(principals, "printer"));
+        assertTrue(realm.isPermitted(principals, "printer:query:lp7200"));
+        assertFalse(realm.isPermitted(principals, "document:read"));
+        assertEquals(1, statements.get());
+
+        // 授权缓存未命中时仍是一次查询
+        realm.getAuthorizationCache().clear();
+        assertTrue(realm.isPermitted(principals, "report:export"));
+        assertEquals(2, statements.get());
+
+        // 口令错误时不写入授权缓存
+        realm.getAuthorizationCache().clear();
+        assertThrows(IncorrectCredentialsException.class,
+                () -> realm.getAuthenticationInfo(new UsernamePasswordToken("user", "wrong")));
+        assertEquals(0, realm.getAuthorizationCache().size());
+    }
+
+    @Test
+    public void warmUpLoadsActiveUsersInBatches() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement user = connection.prepareStatement("INSERT INTO users VALUES (?, 'pw')");
+             PreparedStatement role = connection.prepareStatement("INSERT INTO user_roles VALUES (?, 'user')")) {
+            for (int i = 0; i < 246; i++) {
+                user.setString(1, "u" + i);
+                user.executeUpdate();
+                role.setString(1, "u" + i);
+                role.executeUpdate();
+            }
+        }
+        JdbcPrincipalRealm realm = newRealm();
+        realm.setBatchSize(100);
+
+        // 2 + 2 + 246 = 250 个账户：1 次取活跃用户 + 3 批
+        assertEquals(250, realm.warmUp());
+        assertEquals(4, statements.get());
+        assertTrue(realm.isPermitted(new SimplePrincipalCollection("u245", realm.getName()), "document:read"));
+        assertTrue(realm.hasRole(new SimplePrincipalCollection("ops", realm.getName()), "reporter"));
+        assertEquals(4, statements.get());
+
+        // 指定了活跃用户时不再查询全部用户，最后一批不足 batchSize 时以同一条 SQL 补齐参数
+        realm.getAuthorizationCache().clear();
+        statements.set(0);
+        realm.setActiveUsers(() -> Arrays.asList("admin", "ghost", "user"));
+        assertEquals(2, realm.warmUp());
+        assertEquals(1, statements.get());
+    }
+
+    private JdbcPrincipalRealm newRealm() {
+        JdbcPrincipalRealm realm = new JdbcPrincipalRealm(counting(dataSource));
+        realm.setCacheManager(new MemoryConstrainedCacheManager());
+        realm.init();
+        return realm;
+    }
+
+    /**
+     * 统计 prepareStatement 次数，即查询往返次数。
+     */
+    private DataSource counting(DataSource target) {
+        return proxy(DataSource.class, target, (method, result) -> {
+            if ("getConnection".equals(method.getName())) {
+                return proxy(Connection.class, (Connection) result, (m, r) -> {
+                    if ("prepareStatement".equals(m.getName())) {
+                        statements.incrementAndGet();
+                    }
+                    return r;
+                });
+            }
+            return result;
+        });
+    }
+
+    private interface AfterCall {
+        Object apply(Method method, Object result);
+    }
+
+    private static <T> T proxy(Class<T> type, T target, AfterCall after) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                return after.apply(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+}
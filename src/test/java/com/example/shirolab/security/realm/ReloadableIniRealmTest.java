@@ -0,0 +1,101 @@
+package com.example.shirolab.security.realm;
+
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReloadableIniRealmTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void reloadsAccountsWhenFileChanges() throws Exception {
+        Path ini = dir.resolve("shiro.ini");
+        write(ini, "[users]\nalice = pw1, user\n[roles]\nuser = document:read\n");
+        ReloadableIniRealm realm = new ReloadableIniRealm(ini);
+        realm.setQuietPeriodMillis(50);
+        realm.init();
+        try {
+            PrincipalCollection alice = new SimplePrincipalCollection("alice", realm.getName());
+            assertTrue(realm.isPermitted(alice, "document:read"));
+            assertFalse(realm.hasRole(alice, "admin"));
+
+            // 写临时文件再改名，与多数编辑器/配置下发工具的行为一致
+            Path tmp = dir.resolve("shiro.ini.tmp");
+            write(tmp, "[users]\nalice = pw2, admin\nbob = pw3, user\n[roles]\nadmin = *\nuser = document:read\n");
+            Files.move(tmp, ini, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (realm.getReloadCount() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(2, realm.getReloadCount());
+            assertTrue(realm.hasRole(alice, "admin"));
+            assertTrue(realm.isPermitted(alice, "anything:at:all"));
+            assertNotNull(realm.getAuthenticationInfo(new UsernamePasswordToken("bob", "pw3")));
+            assertTrue(realm.accountExists("bob"));
+        } finally {
+            realm.close();
+        }
+    }
+
+    @Test
+    public void initialLoadLeavesNoStaleIndex() throws Exception {
+        Path ini = dir.resolve("shiro.ini");
+        write(ini, "[users]\nalice = pw1, user\n[roles]\nuser = document:read\n");
+        final AtomicInteger rebuilds = new AtomicInteger();
+        ReloadableIniRealm realm = new ReloadableIniRealm(ini) {
+            @Override
+            public synchronized void rebuildIndex() {
+                rebuilds.incrementAndGet();
+                super.rebuildIndex();
+            }
+        };
+        realm.init();
+        try {
+            int afterInit = rebuilds.get();
+            PrincipalCollection alice = new SimplePrincipalCollection("alice", realm.getName());
+            assertTrue(realm.isPermitted(alice, "document:read"));
+            assertEquals(afterInit, rebuilds.get());
+        } finally {
+            realm.close();
+        }
+    }
+
+    @Test
+    public void keepsCurrentSnapshotWhenFileIsInvalid() throws Exception {
+        Path ini = dir.resolve("shiro.ini");
+        write(ini, "[users]\nalice = pw1, user\n[roles]\nuser = document:read\n");
+        ReloadableIniRealm realm = new ReloadableIniRealm(ini);
+        realm.init();
+        realm.close();
+
+        // 截断的空文件：IniRealm 拒绝加载空配置
+        write(ini, "");
+        assertFalse(realm.reload());
+        assertEquals(1, realm.getFailedReloadCount());
+        AuthenticationInfo info = realm.getAuthenticationInfo(new UsernamePasswordToken("alice", "pw1"));
+        assertNotNull(info);
+        assertNull(realm.getAuthenticationInfo(new UsernamePasswordToken("bob", "pw3")));
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
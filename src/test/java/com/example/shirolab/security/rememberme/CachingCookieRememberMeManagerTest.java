@@ -0,0 +1,31 @@
+package com.example.shirolab.security.rememberme;
+
+import org.apache.shiro.crypto.AesCipherService;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.apache.shiro.subject.support.DefaultSubjectContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CachingCookieRememberMeManagerTest {
+
+    @Test
+    public void repeatedCookieSkipsDecodeAndKeyRotationInvalidates() {
+        CachingCookieRememberMeManager manager = new CachingCookieRememberMeManager(100, 60000);
+        manager.setSerializer(new CompactPrincipalSerializer());
+        byte[] plain = manager.getSerializer().serialize(new SimplePrincipalCollection("admin", "iniRealm"));
+        byte[] cookie = manager.getCipherService().encrypt(plain, manager.getEncryptionCipherKey()).getBytes();
+
+        PrincipalCollection first = manager.convertBytesToPrincipals(cookie, new DefaultSubjectContext());
+        PrincipalCollection second = manager.convertBytesToPrincipals(cookie, new DefaultSubjectContext());
+
+        assertSame(first, second);
+        assertEquals(1, manager.getCacheHitCount());
+        assertEquals(1, manager.getCacheMissCount());
+
+        manager.setCipherKey(new AesCipherService().generateNewKey().getEncoded());
+        assertEquals(0, manager.getCacheSize());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.shirolab.security.rememberme;
+
+import org.apache.shiro.io.DefaultSerializer;
+import org.apache.shiro.io.SerializationException;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompactPrincipalSerializerTest {
+
+    private final CompactPrincipalSerializer serializer = new CompactPrincipalSerializer();
+
+    @Test
+    public void roundTripKeepsRealmsAndOrder() {
+        SimplePrincipalCollection principals = new SimplePrincipalCollection();
+        principals.addAll(Arrays.asList("admin", "管理员", "emoji-😀"), "iniRealm");
+        principals.add("admin@example.com", "otherRealm");
+
+        PrincipalCollection decoded = serializer.deserialize(serializer.serialize(principals));
+
+        assertEquals(principals.getRealmNames(), decoded.getRealmNames());
+        assertEquals(principals.asList(), decoded.asList());
+        assertEquals("admin", decoded.getPrimaryPrincipal());
+    }
+
+    @Test
+    public void layoutIsFixedAndVersioned() {
+        byte[] bytes = serializer.serialize(new SimplePrincipalCollection("u", "r"));
+
+        assertArrayEquals(new byte[]{CompactPrincipalSerializer.MAGIC, CompactPrincipalSerializer.VERSION,
+                1, 1, 'r', 1, 1, 'u'}, bytes);
+    }
+
+    @Test
+    public void rejectsJavaSerializedPayload() {
+        byte[] javaBytes = new DefaultSerializer<PrincipalCollection>()
+                .serialize(new SimplePrincipalCollection("admin", "iniRealm"));
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(javaBytes));
+    }
+
+    @Test
+    public void rejectsTruncatedAndOversizedPayloads() {
+        byte[] bytes = serializer.serialize(new SimplePrincipalCollection("admin", "iniRealm"));
+
+        assertThrows(SerializationException.class,
+                () -> serializer.deserialize(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(SerializationException.class,
+                () -> serializer.deserialize(new byte[]{CompactPrincipalSerializer.MAGIC,
+                        CompactPrincipalSerializer.VERSION, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F}));
+    }
+
+    @Test
+    public void rejectsNonStringPrincipals() {
+        assertThrows(SerializationException.class,
+                () -> serializer.serialize(new SimplePrincipalCollection(42L, "iniRealm")));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.shirolab.security.session;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapSessionStoreTest {
+
+    @Test
+    public void reusesSlotsOfTheSameSizeClass() {
+        OffHeapSessionStore store = new OffHeapSessionStore(4096);
+        store.put("a", new byte[100], Long.MAX_VALUE);
+        store.put("b", new byte[60], Long.MAX_VALUE);
+        int allocated = store.getAllocatedBytes();
+
+        // 同级大小原地覆盖
+        byte[] updated = new byte[120];
+        updated[0] = 7;
+        store.put("a", updated, Long.MAX_VALUE);
+        assertEquals(allocated, store.getAllocatedBytes());
+        assertArrayEquals(updated, store.get("a"));
+
+        // 删除后的槽位被新会话复用
+        assertTrue(store.contains("b"));
+        store.remove("b");
+        assertNull(store.get("b"));
+        assertFalse(store.contains("b"));
+        store.put("c", new byte[10], Long.MAX_VALUE);
+        assertEquals(allocated, store.getAllocatedBytes());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void failsWhenArenaIsExhausted() {
+        OffHeapSessionStore store = new OffHeapSessionStore(256);
+        store.put("a", new byte[200], Long.MAX_VALUE);
+        assertThrows(IllegalStateException.class, () -> store.put("b", new byte[200], Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> store.put("c", new byte[70000], Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.shirolab.security.session;
+
+import org.apache.shiro.session.Session;
+import org.apache.shiro.session.UnknownSessionException;
+import org.apache.shiro.session.mgt.DefaultSessionContext;
+import org.apache.shiro.session.mgt.DefaultSessionKey;
+import org.apache.shiro.session.mgt.DefaultSessionManager;
+import org.apache.shiro.session.mgt.SimpleSession;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.apache.shiro.subject.support.DefaultSubjectContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StoreBackedSessionDAOTest {
+
+    @Test
+    public void persistsSessionOnlyAfterFirstAttributeWrite() {
+        OffHeapSessionStore store = new OffHeapSessionStore(1 << 20);
+        DefaultSessionManager sessionManager = sessionManager(new StoreBackedSessionDAO(store, 100, 60000));
+
+        Session session = sessionManager.start(new DefaultSessionContext());
+        Serializable id = session.getId();
+        session.touch();
+        assertEquals(0, store.size());
+
+        PrincipalCollection principals = new SimplePrincipalCollection("admin", "iniRealm");
+        session.setAttribute(DefaultSubjectContext.PRINCIPALS_SESSION_KEY, principals);
+        session.setAttribute(DefaultSubjectContext.AUTHENTICATED_SESSION_KEY, Boolean.TRUE);
+        assertEquals(1, store.size());
+
+        // 另一个节点（新的 DAO 实例共享同一存储）读到的是解码后的完整会话
+        DefaultSessionManager otherNode = sessionManager(new StoreBackedSessionDAO(store, 100, 60000));
+        Session remote = otherNode.getSession(new DefaultSessionKey(id));
+        assertEquals(principals, remote.getAttribute(DefaultSubjectContext.PRINCIPALS_SESSION_KEY));
+        assertEquals(Boolean.TRUE, remote.getAttribute(DefaultSubjectContext.AUTHENTICATED_SESSION_KEY));
+
+        session.stop();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void timingWheelExpiresOnlyDueSessions() {
+        OffHeapSessionStore store = new OffHeapSessionStore(1 << 20);
+        StoreBackedSessionDAO dao = new StoreBackedSessionDAO(store, 100, 60000);
+        DefaultSessionManager sessionManager = sessionManager(dao);
+        TimingWheelSessionValidationScheduler scheduler = new TimingWheelSessionValidationScheduler(sessionManager, 100);
+        dao.setExpiryListener(scheduler);
+
+        for (int i = 0; i < 5; i++) {
+            dao.create(storedSession(-1));
+        }
+        for (int i = 0; i < 3; i++) {
+            dao.create(storedSession(60 * 60 * 1000L));
+        }
+        assertEquals(8, store.size());
+        assertEquals(8, scheduler.getTrackedCount());
+
+        long now = System.currentTimeMillis();
+        assertEquals(5, scheduler.expireDue(now + 200));
+        assertEquals(3, store.size());
+        assertEquals(3, scheduler.getTrackedCount());
+        assertEquals(0, scheduler.expireDue(now + 400));
+    }
+
+    @Test
+    public void updateDoesNotResurrectDeletedSessions() {
+        OffHeapSessionStore store = new OffHeapSessionStore(1 << 20);
+        StoreBackedSessionDAO dao = new StoreBackedSessionDAO(store, 100, 60000);
+
+        SimpleSession stored = storedSession(60000L);
+        dao.create(stored);
+        dao.delete(stored);
+        assertThrows(UnknownSessionException.class, () -> dao.update(stored));
+
+        SimpleSession pending = new SimpleSession();
+        dao.create(pending);
+        dao.delete(pending);
+        pending.setAttribute("k", "v");
+        assertThrows(UnknownSessionException.class, () -> dao.update(pending));
+        assertEquals(0, store.size());
+
+        EmbeddedRemoteSessionStore remote = new EmbeddedRemoteSessionStore();
+        remote.put("expired", new byte[]{1}, System.currentTimeMillis() - 1);
+        assertFalse(remote.replace("expired", new byte[]{2}, Long.MAX_VALUE));
+        assertNull(remote.get("expired"));
+    }
+
+    @Test
+    public void pendingSessionsAreStoredAsSnapshots() {
+        OffHeapSessionStore store = new OffHeapSessionStore(1 << 20);
+        StoreBackedSessionDAO dao = new StoreBackedSessionDAO(store, 100, 60000);
+
+        SimpleSession session = new SimpleSession();
+        Serializable id = dao.create(session);
+        session.setAttribute("k", "v");
+        assertNull(dao.readSession(id).getAttribute("k"));
+
+        dao.update(session);
+        assertEquals("v", dao.readSession(id).getAttribute("k"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void pendingSessionsEvictedUnderPressureArePromoted() {
+        OffHeapSessionStore store = new OffHeapSessionStore(1 << 20);
+        StoreBackedSessionDAO dao = new StoreBackedSessionDAO(store, 8, 60000);
+        DefaultSessionManager sessionManager = sessionManager(dao);
+        TimingWheelSessionValidationScheduler scheduler = new TimingWheelSessionValidationScheduler(sessionManager, 100);
+        dao.setExpiryListener(scheduler);
+
+        SimpleSession user = new SimpleSession();
+        Serializable id = dao.create(user);
+        SimpleSession evictedThenDeleted = new SimpleSession();
+        dao.create(evictedThenDeleted);
+        // 一波不写属性的新会话把暂存区挤满
+        for (int i = 0; i < 1000; i++) {
+            dao.create(new SimpleSession());
+        }
+        assertTrue(dao.getPromotedCount() >= 2);
+        assertEquals(dao.getPromotedCount(), store.size());
+        assertEquals(store.size(), scheduler.getTrackedCount());
+
+        user.setAttribute("k", "v");
+        dao.update(user);
+        assertEquals("v", dao.readSession(id).getAttribute("k"));
+
+        dao.delete(evictedThenDeleted);
+        evictedThenDeleted.setAttribute("k", "v");
+        assertThrows(UnknownSessionException.class, () -> dao.update(evictedThenDeleted));
+    }
+
+    @Test
+    public void codecRoundTripsSessionFields() {
+        SimpleSession session = storedSession(12345L);
+        session.setId("abc");
+        session.setHost("127.0.0.1");
+        session.setAttribute("count", 3);
+        session.setAttribute("big", 1L << 40);
+        session.setAttribute("saved", new java.util.ArrayList<String>(java.util.Arrays.asList("a", "b")));
+
+        SessionCodec codec = new SessionCodec();
+        SimpleSession decoded = codec.decode(codec.encode(session));
+        assertEquals("abc", decoded.getId());
+        assertEquals("127.0.0.1", decoded.getHost());
+        assertEquals(session.getLastAccessTime(), decoded.getLastAccessTime());
+        assertEquals(12345L, decoded.getTimeout());
+        assertEquals(3, decoded.getAttribute("count"));
+        assertEquals(1L << 40, decoded.getAttribute("big"));
+        assertEquals(session.getAttribute("saved"), decoded.getAttribute("saved"));
+        assertNull(decoded.getStopTimestamp());
+        assertFalse(decoded.isExpired());
+        assertTrue(SessionCodec.expiresAt(decoded) > System.currentTimeMillis());
+    }
+
+    private static SimpleSession storedSession(long lastAccessAgeMillis) {
+        SimpleSession session = new SimpleSession();
+        session.setTimeout(lastAccessAgeMillis < 0 ? 1000L : lastAccessAgeMillis);
+        if (lastAccessAgeMillis < 0) {
+            session.setLastAccessTime(new java.util.Date(System.currentTimeMillis() - 5000L));
+        }
+        session.setAttribute("k", "v");
+        return session;
+    }
+
+    private static DefaultSessionManager sessionManager(StoreBackedSessionDAO dao) {
+        DefaultSessionManager sessionManager = new DefaultSessionManager();
+        sessionManager.setSessionDAO(dao);
+        sessionManager.setSessionValidationSchedulerEnabled(false);
+        return sessionManager;
+    }
+}
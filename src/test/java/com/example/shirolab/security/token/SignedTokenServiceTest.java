@@ -0,0 +1,48 @@
+package com.example.shirolab.security.token;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SignedTokenServiceTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void issuedTokenVerifiesUntilExpiry() {
+        AtomicLong now = new AtomicLong(1_000_000L);
+        SignedTokenService service = new SignedTokenService(SECRET, 60_000L, now::get);
+
+        String token = service.issue("admin", Arrays.asList("admin", "user"));
+        TokenClaims claims = service.verify(token);
+
+        assertNotNull(claims);
+        assertEquals("admin", claims.getPrincipal());
+        assertEquals(2, claims.getRoles().size());
+        assertEquals(1_060_000L, claims.getExpiresAtMillis());
+
+        now.set(1_060_000L);
+        assertNull(service.verify(token));
+    }
+
+    @Test
+    public void tamperedOrForeignTokensAreRejected() {
+        SignedTokenService service = new SignedTokenService(SECRET, 60_000L);
+        String token = service.issue("user", Arrays.asList("user"));
+
+        // 把角色从 user 改为 admin 后重新编码 payload，签名不再匹配
+        String forged = new SignedTokenService(SECRET, 60_000L).issue("user", Arrays.asList("admin"));
+        String spliced = forged.substring(0, forged.indexOf('.')) + token.substring(token.indexOf('.'));
+        assertNull(service.verify(spliced));
+
+        assertNull(new SignedTokenService(null, 60_000L).verify(token));
+        assertNull(service.verify("not-a-token"));
+        assertNull(service.verify(token + "x"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.shirolab.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StartupTimelineReporterTest {
+
+    @Test
+    public void summarizesPhasesInOrderAndKeepsSlowestBeans() throws Exception {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(64);
+        startup.start("spring.boot.application.environment-prepared").end();
+        StartupStep refresh = startup.start("spring.context.refresh");
+        bean(startup, "fast", 0);
+        bean(startup, "slow", 120);
+        bean(startup, "medium", 60);
+        startup.start("spring.context.beans.post-process").end();
+        refresh.end();
+
+        StartupTimelineReporter.Summary summary = StartupTimelineReporter.summarize(startup.getBufferedTimeline(), 2);
+
+        assertEquals(Arrays.asList("environment-prepared", "refresh"), new ArrayList<String>(summary.phases.keySet()));
+        assertEquals(Arrays.asList("slow", "medium"), new ArrayList<String>(summary.slowestBeans.keySet()));
+    }
+
+    private static void bean(BufferingApplicationStartup startup, String name, long millis) throws InterruptedException {
+        StartupStep step = startup.start("spring.beans.instantiate").tag("beanName", name);
+        Thread.sleep(millis);
+        step.end();
+    }
+}
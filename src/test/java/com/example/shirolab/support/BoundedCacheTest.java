@@ -0,0 +1,69 @@
+package com.example.shirolab.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenFull() {
+        BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(2, 0);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(3), cache.get("c"));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void notifiesListenerOnlyForCapacityEvictions() {
+        AtomicLong now = new AtomicLong();
+        Map<String, Integer> evicted = new LinkedHashMap<String, Integer>();
+        BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(2, 100, evicted::put, now::get);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        assertEquals(1, evicted.size());
+        assertEquals(Integer.valueOf(1), evicted.get("a"));
+
+        cache.remove("b");
+        now.set(100_000_000L);
+        assertNull(cache.get("c"));
+        assertEquals(1, evicted.size());
+    }
+
+    @Test
+    public void expiresEntriesAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(16, 100, now::get);
+        cache.put("a", 1);
+
+        now.set(99_000_000L);
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        now.set(100_000_000L);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(16, 0);
+        cache.get("a");
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("a");
+
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.shirolab.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class Sha256KeyTest {
+
+    @Test
+    public void keysCompareByDigest() {
+        byte[] data = "rememberMe-cookie".getBytes(StandardCharsets.UTF_8);
+        assertEquals(Sha256Key.of(data), Sha256Key.of(data.clone()));
+        assertEquals(Sha256Key.of(data).hashCode(), Sha256Key.of(data.clone()).hashCode());
+        assertNotEquals(Sha256Key.of(data), Sha256Key.of("rememberMe-cookiE".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void incrementalDigestMatchesSingleUpdate() {
+        Sha256Key expected = Sha256Key.of("stored\0submitted".getBytes(StandardCharsets.UTF_8));
+        MessageDigest md = Sha256Key.digest();
+        md.update("stored".getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        md.update("submitted".getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, Sha256Key.of(md));
+    }
+}
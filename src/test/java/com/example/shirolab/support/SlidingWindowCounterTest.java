@@ -0,0 +1,49 @@
+package com.example.shirolab.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SlidingWindowCounterTest {
+
+    @Test
+    public void previousWindowDecaysAsCurrentWindowElapses() {
+        AtomicLong now = new AtomicLong(10_000);
+        SlidingWindowCounter counter = new SlidingWindowCounter(3, 1024, 1000, now::get);
+
+        for (int i = 0; i < 10; i++) {
+            counter.increment("alice");
+        }
+        assertEquals(10, counter.estimate("alice"));
+        assertEquals(0, counter.estimate("bob"));
+
+        // 下一窗口过去一半：上一窗口的 10 次按一半计入
+        now.set(11_500);
+        assertEquals(5, counter.estimate("alice"));
+        assertEquals(6, counter.increment("alice"));
+
+        // 隔了不止一个窗口，全部清零
+        now.set(13_100);
+        assertEquals(0, counter.estimate("alice"));
+    }
+
+    @Test
+    public void concurrentIncrementsAreNotLost() throws InterruptedException {
+        SlidingWindowCounter counter = new SlidingWindowCounter(2, 64, 3_600_000L, () -> 0L);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.increment("10.0.0.1");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, counter.estimate("10.0.0.1"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.shirolab.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimingWheelTest {
+
+    @Test
+    public void expiresEachKeyWithinOneTickOfItsDeadlineAcrossLevels() {
+        long tick = 10;
+        long start = 1_000_000;
+        TimingWheel<Integer> wheel = new TimingWheel<Integer>(tick, start);
+        Map<Integer, Long> deadlines = new HashMap<Integer, Long>();
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            // 覆盖第 0 层到超出最高层跨度（64^4 个 tick）的截止时间
+            long span = i % 5 == 0 ? tick * 64L * 64 * 64 * 64 * 2 : tick * 64L * 64 * 64;
+            long deadline = start + (long) (random.nextDouble() * span);
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+        }
+
+        long now = start;
+        List<Integer> due = new ArrayList<Integer>();
+        while (wheel.size() > 0) {
+            now += tick * 997;
+            due.clear();
+            wheel.advance(now, due);
+            for (Integer key : due) {
+                long deadline = deadlines.remove(key);
+                assertTrue(deadline <= now, "expired early: " + key);
+                assertTrue(deadline > now - tick * 997 - tick, "expired late: " + key);
+            }
+        }
+        assertTrue(deadlines.isEmpty());
+    }
+
+    @Test
+    public void postponedAndRemovedKeysAreNotReturned() {
+        TimingWheel<String> wheel = new TimingWheel<String>(100, 0);
+        wheel.schedule("touched", 1000);
+        wheel.schedule("idle", 1000);
+        wheel.schedule("removed", 1000);
+        wheel.schedule("stopped", 50_000);
+
+        wheel.schedule("touched", 5000);
+        wheel.remove("removed");
+        // 截止时间提前立即生效
+        wheel.schedule("stopped", 0);
+
+        List<String> due = new ArrayList<String>();
+        wheel.advance(1000, due);
+        assertEquals(2, due.size());
+        assertTrue(due.contains("idle") && due.contains("stopped"));
+
+        due.clear();
+        wheel.advance(4900, due);
+        assertTrue(due.isEmpty());
+        wheel.advance(5000, due);
+        assertEquals(1, due.size());
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.shirolab.web;
+
+import com.example.shirolab.web.json.JsonFragment;
+import com.example.shirolab.web.json.JsonWritable;
+import com.example.shirolab.web.json.JsonWritableHttpMessageConverter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoginJsonConvertersTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LoginRequestHttpMessageConverter reader = new LoginRequestHttpMessageConverter(objectMapper.getFactory());
+    private final JsonWritableHttpMessageConverter writer = new JsonWritableHttpMessageConverter();
+
+    @Test
+    void readsFieldsInAnyOrderAndSkipsUnknownOnes() throws IOException {
+        LoginRequest request = read("{\"extra\":{\"a\":[1,{\"username\":\"x\"}]},\"mode\":\"token\","
+                + "\"password\":\"p\\\"w\\u00e9\",\"rememberMe\":true,\"username\":\"admin\"}");
+        assertEquals("admin", request.getUsername());
+        assertEquals("p\"wé", request.getPassword());
+        assertTrue(request.isTokenMode());
+
+        LoginRequest partial = read("{\"username\":\"user\",\"password\":123}");
+        assertEquals("user", partial.getUsername());
+        assertNull(partial.getPassword());
+        assertFalse(partial.isTokenMode());
+    }
+
+    @Test
+    void rejectsMalformedBodies() {
+        assertThrows(HttpMessageNotReadableException.class, () -> read("[\"admin\"]"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"username\":\"admin\""));
+        assertTrue(reader.canRead(LoginRequest.class, MediaType.APPLICATION_JSON));
+        assertFalse(reader.canWrite(LoginRequest.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void writesResponsesThatJacksonReadsBack() throws IOException {
+        JsonNode success = write(LoginResponse.success("ad\"min中\n😀"));
+        assertEquals("login success", success.get("message").asText());
+        assertEquals("ad\"min中\n😀", success.get("user").asText());
+        assertEquals(2, success.size());
+
+        JsonNode token = write(LoginResponse.token("admin", "abc.def", 3600L));
+        assertEquals("abc.def", token.get("token").asText());
+        assertEquals("Bearer", token.get("tokenType").asText());
+        assertEquals(3600L, token.get("expiresIn").asLong());
+        assertEquals("admin", token.get("user").asText());
+
+        assertEquals("incorrect credentials", write(LoginResponse.INCORRECT_CREDENTIALS).get("message").asText());
+        assertEquals("{\"panel\":\"x\\\\y\"}", objectMapper.writeValueAsString(write(JsonFragment.object("panel", "x\\y"))));
+        assertTrue(writer.canWrite(LoginResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(writer.canRead(LoginResponse.class, MediaType.APPLICATION_JSON));
+    }
+
+    private LoginRequest read(String json) throws IOException {
+        MockHttpInputMessage input = new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8));
+        input.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return reader.read(LoginRequest.class, input);
+    }
+
+    private JsonNode write(JsonWritable body) throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        writer.write(body, MediaType.APPLICATION_JSON, output);
+        assertEquals(MediaType.APPLICATION_JSON, output.getHeaders().getContentType());
+        return objectMapper.readTree(output.getBodyAsBytes());
+    }
+}
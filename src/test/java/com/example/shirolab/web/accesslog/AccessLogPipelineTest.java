@@ -0,0 +1,77 @@
+package com.example.shirolab.web.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccessLogPipelineTest {
+
+    @Test
+    public void writesRecordsInOrderAndDrainsOnClose() throws Exception {
+        CollectingSink sink = new CollectingSink(null);
+        AccessLogPipeline pipeline = new AccessLogPipeline(16, 4, OverflowPolicy.BLOCK, sink);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(pipeline.publish("GET", "/p/" + i, i % 2 == 0 ? "admin" : null, 200, 1000L + i, i));
+        }
+        pipeline.close();
+
+        assertEquals(100, sink.lines.size());
+        assertEquals("1000\tGET\t/p/0\tadmin\t200\t0", sink.lines.get(0));
+        assertEquals("1099\tGET\t/p/99\t-\t200\t99", sink.lines.get(99));
+        assertEquals(100, pipeline.getWrittenCount());
+        assertEquals(0, pipeline.getDroppedCount());
+    }
+
+    @Test
+    public void dropsAndCountsWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingSink sink = new CollectingSink(release);
+        AccessLogPipeline pipeline = new AccessLogPipeline(4, 1, OverflowPolicy.DROP, sink);
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (pipeline.publish("GET", "/", null, 200, 0L, 0L)) {
+                accepted++;
+            }
+        }
+        assertFalse(accepted == 20);
+        assertEquals(20 - accepted, pipeline.getDroppedCount());
+
+        release.countDown();
+        pipeline.close();
+        assertEquals(accepted, sink.lines.size());
+    }
+
+    private static final class CollectingSink implements AccessLogSink {
+        final List<String> lines = new ArrayList<String>();
+        private final CountDownLatch release;
+
+        CollectingSink(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void write(CharSequence batch) {
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (String line : batch.toString().split("\n")) {
+                lines.add(line);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
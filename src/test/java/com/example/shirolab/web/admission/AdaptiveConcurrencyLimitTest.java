@@ -0,0 +1,138 @@
+package com.example.shirolab.web.admission;
+
+import com.example.shirolab.security.token.SignedTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.Cookie;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    public void lowerPriorityLanesAreShedFirst() {
+        AdaptiveConcurrencyLimit limit = newLimit(10);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire(AdmissionLane.ANONYMOUS));
+        }
+        assertFalse(limit.tryAcquire(AdmissionLane.ANONYMOUS));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.tryAcquire(AdmissionLane.REMEMBERED));
+        }
+        assertFalse(limit.tryAcquire(AdmissionLane.REMEMBERED));
+        assertTrue(limit.tryAcquire(AdmissionLane.SESSION));
+        assertFalse(limit.tryAcquire(AdmissionLane.SESSION));
+        assertEquals(10, limit.getInflight());
+    }
+
+    @Test
+    public void limitGrowsWhileLatencyIsStableAndShrinksWhenItRises() {
+        AdaptiveConcurrencyLimit limit = newLimit(20);
+        saturate(limit, 200, 1 * MILLIS);
+        int grown = limit.getLimit();
+        assertTrue(grown > 20, "limit should grow under stable latency, was " + grown);
+
+        saturate(limit, 30, 10 * MILLIS);
+        assertTrue(limit.getLimit() < grown / 2, "limit should shrink when latency rises, was " + limit.getLimit());
+    }
+
+    @Test
+    public void filterRejectsWithFast503AndClassifiesByCredentials() throws Exception {
+        SignedTokenService tokenService = new SignedTokenService(new byte[32], 60_000L);
+        AdmissionControlFilter filter = new AdmissionControlFilter(newLimit(2), tokenService,
+                "JSESSIONID", "s1"::equals, "rememberMe", 1);
+
+        MockHttpServletRequest anonymous = new MockHttpServletRequest("GET", "/");
+        MockHttpServletRequest remembered = new MockHttpServletRequest("GET", "/");
+        remembered.setCookies(new Cookie("rememberMe", "abc"));
+        MockHttpServletRequest session = new MockHttpServletRequest("GET", "/");
+        session.setCookies(new Cookie("rememberMe", "abc"), new Cookie("JSESSIONID", "s1"));
+        MockHttpServletRequest bearer = new MockHttpServletRequest("GET", "/");
+        bearer.addHeader("Authorization", "bearer " + tokenService.issue("user", Collections.singleton("user")));
+        assertEquals(AdmissionLane.ANONYMOUS, filter.classify(anonymous));
+        assertEquals(AdmissionLane.REMEMBERED, filter.classify(remembered));
+        assertEquals(AdmissionLane.SESSION, filter.classify(session));
+        assertEquals(AdmissionLane.SESSION, filter.classify(bearer));
+
+        // 会话请求占住一个名额时，匿名通道（2 * 0.5 = 1）已满
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(session, new MockHttpServletResponse(), (req, res) -> {
+            try {
+                filter.doFilter(anonymous, rejected, (r, s) -> {
+                    throw new AssertionError("anonymous request should not be admitted");
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(1, filter.getRejectedCount(AdmissionLane.ANONYMOUS));
+        assertEquals(0, filter.getLimit().getInflight());
+    }
+
+    @Test
+    public void forgedCredentialsAreClassifiedAsAnonymous() {
+        SignedTokenService tokenService = new SignedTokenService(new byte[32], 60_000L);
+        AdmissionControlFilter filter = new AdmissionControlFilter(newLimit(2), tokenService,
+                "JSESSIONID", "s1"::equals, "rememberMe", 1);
+
+        MockHttpServletRequest forgedCookie = new MockHttpServletRequest("GET", "/");
+        forgedCookie.setCookies(new Cookie("JSESSIONID", "x"));
+        MockHttpServletRequest emptyCookie = new MockHttpServletRequest("GET", "/");
+        emptyCookie.setCookies(new Cookie("JSESSIONID", ""));
+        MockHttpServletRequest forgedBearer = new MockHttpServletRequest("GET", "/");
+        forgedBearer.addHeader("Authorization", "Bearer x");
+        MockHttpServletRequest foreignBearer = new MockHttpServletRequest("GET", "/");
+        foreignBearer.addHeader("Authorization", "Bearer "
+                + new SignedTokenService(new byte[]{1}, 60_000L).issue("admin", Collections.singleton("admin")));
+        assertEquals(AdmissionLane.ANONYMOUS, filter.classify(forgedCookie));
+        assertEquals(AdmissionLane.ANONYMOUS, filter.classify(emptyCookie));
+        assertEquals(AdmissionLane.ANONYMOUS, filter.classify(forgedBearer));
+        assertEquals(AdmissionLane.ANONYMOUS, filter.classify(foreignBearer));
+
+        // 伪造的会话 Cookie 不会掩盖同时携带的 rememberMe
+        MockHttpServletRequest forgedWithRememberMe = new MockHttpServletRequest("GET", "/");
+        forgedWithRememberMe.setCookies(new Cookie("JSESSIONID", "x"), new Cookie("rememberMe", "abc"));
+        assertEquals(AdmissionLane.REMEMBERED, filter.classify(forgedWithRememberMe));
+    }
+
+    @Test
+    public void fallsBackToContainerSessionsWithoutStore() {
+        AdmissionControlFilter filter = new AdmissionControlFilter(newLimit(2),
+                new SignedTokenService(new byte[32], 60_000L), "JSESSIONID", null, "rememberMe", 1);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setCookies(new Cookie("JSESSIONID", "x"));
+        request.setRequestedSessionIdValid(false);
+        assertEquals(AdmissionLane.ANONYMOUS, filter.classify(request));
+        request.setRequestedSessionIdValid(true);
+        assertEquals(AdmissionLane.SESSION, filter.classify(request));
+    }
+
+    private static AdaptiveConcurrencyLimit newLimit(int initial) {
+        return new AdaptiveConcurrencyLimit(initial, 1, 100, 1.5, 50, 0.2, new double[]{1.0, 0.9, 0.5});
+    }
+
+    /**
+     * 保持在飞请求数等于当前上限，逐个以给定耗时完成。
+     */
+    private static void saturate(AdaptiveConcurrencyLimit limit, int samples, long rttNanos) {
+        for (int i = 0; i < samples; i++) {
+            while (limit.tryAcquire(AdmissionLane.SESSION)) {
+                // 填满
+            }
+            limit.release(rttNanos);
+        }
+        while (limit.getInflight() > 0) {
+            limit.release(0L);
+        }
+    }
+}
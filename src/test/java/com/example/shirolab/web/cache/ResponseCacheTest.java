@@ -0,0 +1,136 @@
+package com.example.shirolab.web.cache;
+
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.authz.UnauthorizedException;
+import org.apache.shiro.authz.annotation.RequiresRoles;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.realm.SimpleAccountRealm;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.support.SubjectThreadState;
+import org.apache.shiro.util.ThreadState;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ResponseCacheTest {
+
+    private final ResponseCache cache = new ResponseCache(16);
+    private final ResponseCacheFilter filter = new ResponseCacheFilter(cache);
+    private final ResponseCacheInterceptor interceptor = new ResponseCacheInterceptor(cache);
+    private final Handlers handlers = new Handlers();
+    private final DefaultSecurityManager securityManager;
+
+    public ResponseCacheTest() {
+        SimpleAccountRealm realm = new SimpleAccountRealm("test");
+        realm.addAccount("admin", "admin", "admin", "user");
+        realm.addAccount("alice", "alice", "admin");
+        realm.addAccount("bob", "bob", "user");
+        securityManager = new DefaultSecurityManager(realm);
+    }
+
+    @Test
+    public void sameRoleSetSharesEntryAndHonorsIfNoneMatch() throws Exception {
+        MockHttpServletResponse first = get("admin", "/admin/panel", null);
+        MockHttpServletResponse second = get("alice", "/admin/panel", null);
+
+        assertEquals(1, handlers.invocations.get());
+        assertEquals(200, second.getStatus());
+        assertEquals("panel", second.getContentAsString());
+        String etag = first.getHeader("ETag");
+        assertNotNull(etag);
+        assertEquals(etag, second.getHeader("ETag"));
+
+        MockHttpServletResponse revalidated = get("alice", "/admin/panel", etag);
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(0, revalidated.getContentAsByteArray().length);
+        assertEquals(1, handlers.invocations.get());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void authorizationIsCheckedBeforeCacheLookup() throws Exception {
+        get("admin", "/admin/panel", null);
+
+        assertThrows(UnauthorizedException.class, () -> get("bob", "/admin/panel", null));
+        assertEquals(1, handlers.invocations.get());
+    }
+
+    @Test
+    public void declaredParametersArePartOfTheKey() throws Exception {
+        MockHttpServletRequest page1 = new MockHttpServletRequest("GET", "/admin/list");
+        page1.setParameter("page", "1");
+        MockHttpServletRequest page2 = new MockHttpServletRequest("GET", "/admin/list");
+        page2.setParameter("page", "2");
+
+        assertEquals("page 1", execute("admin", page1).getContentAsString());
+        assertEquals("page 2", execute("admin", page2).getContentAsString());
+        assertEquals("page 1", execute("alice", page1).getContentAsString());
+        assertEquals(2, handlers.invocations.get());
+        assertEquals(2, cache.size());
+    }
+
+    private MockHttpServletResponse get(String username, String uri, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return execute(username, request);
+    }
+
+    private MockHttpServletResponse execute(String username, MockHttpServletRequest request) throws Exception {
+        Subject subject = new Subject.Builder(securityManager).buildSubject();
+        subject.login(new UsernamePasswordToken(username, username));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ThreadState threadState = new SubjectThreadState(subject);
+        threadState.bind();
+        try {
+            filter.doFilter(request, response, (req, res) -> {
+                String name = "/admin/list".equals(request.getRequestURI()) ? "list" : "panel";
+                try {
+                    HandlerMethod handler = new HandlerMethod(handlers, Handlers.class.getMethod(name, String.class));
+                    if (!interceptor.preHandle((HttpServletRequest) req, (HttpServletResponse) res, handler)) {
+                        return;
+                    }
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                String body = name.equals("list") ? handlers.list(req.getParameter("page")) : handlers.panel(null);
+                res.setContentType("text/plain;charset=UTF-8");
+                res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            });
+        } finally {
+            threadState.clear();
+        }
+        return response;
+    }
+
+    static class Handlers {
+        final AtomicInteger invocations = new AtomicInteger();
+
+        @RequiresRoles("admin")
+        @CacheByRole
+        public String panel(String ignored) {
+            invocations.incrementAndGet();
+            return "panel";
+        }
+
+        @RequiresRoles("admin")
+        @CacheByRole(params = "page")
+        public String list(String page) {
+            invocations.incrementAndGet();
+            return "page " + page;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.shirolab.web.staticasset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class StaticAssetFilterTest {
+
+    @TempDir
+    Path root;
+
+    private byte[] css;
+    private byte[] image;
+    private StaticAssetFilter filter;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append(".item-").append(i).append(" { margin: 0; padding: 0; }\n");
+        }
+        css = sb.toString().getBytes(StandardCharsets.UTF_8);
+        image = new byte[8192];
+        new Random(42).nextBytes(image);
+        Files.createDirectories(root.resolve("css"));
+        Files.createDirectories(root.resolve("images"));
+        Files.write(root.resolve("css/site.css"), css);
+        Files.write(root.resolve("images/logo.png"), image);
+
+        StaticAssetIndex index = StaticAssetIndex.scan(root.toUri().toString(), 4096, 1024);
+        assertEquals(2, index.size());
+        filter = new StaticAssetFilter(index, 3600);
+    }
+
+    @Test
+    public void servesPrecompressedVariantAndRevalidatesWithEtag() throws Exception {
+        MockHttpServletRequest request = get("/css/site.css");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("public, max-age=3600", response.getHeader("Cache-Control"));
+        assertArrayEquals(css, StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))));
+
+        MockHttpServletRequest revalidate = get("/css/site.css");
+        revalidate.addHeader("Accept-Encoding", "gzip");
+        revalidate.addHeader("If-None-Match", response.getHeader("ETag"));
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        filter.doFilter(revalidate, notModified, new MockFilterChain());
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+
+        MockHttpServletResponse identity = new MockHttpServletResponse();
+        filter.doFilter(get("/css/site.css"), identity, new MockFilterChain());
+        assertNull(identity.getHeader("Content-Encoding"));
+        assertArrayEquals(css, identity.getContentAsByteArray());
+    }
+
+    @Test
+    public void largeFilesUseSendfileWhenSupportedOtherwiseTransferTo() throws Exception {
+        MockHttpServletRequest sendfile = get("/images/logo.png");
+        sendfile.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse sendfileResponse = new MockHttpServletResponse();
+        filter.doFilter(sendfile, sendfileResponse, new MockFilterChain());
+        assertNotNull(sendfile.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals((long) image.length, sendfile.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(image.length, sendfileResponse.getContentLengthLong());
+
+        MockHttpServletResponse copied = new MockHttpServletResponse();
+        filter.doFilter(get("/images/logo.png"), copied, new MockFilterChain());
+        assertEquals("image/png", copied.getContentType());
+        assertArrayEquals(image, copied.getContentAsByteArray());
+    }
+
+    @Test
+    public void unknownAssetIsRejectedWithoutEnteringChain() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(get("/css/missing.css"), response, chain);
+        assertEquals(404, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.shirolab.web.throttle;
+
+import com.example.shirolab.support.BoundedCache;
+import com.example.shirolab.support.SlidingWindowCounter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoginThrottleTest {
+
+    private final LoginThrottle throttle = new LoginThrottle(new SlidingWindowCounter(3, 1024, 60000), 0,
+            new SlidingWindowCounter(3, 1024, 60000), 3, new BoundedCache<String, Boolean>(64, 0));
+
+    @Test
+    public void onlyFailuresCountTowardsTheUserLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(throttle.tryAcquireUser("198.51.100.1", "admin"));
+        }
+        for (int i = 0; i < 3; i++) {
+            throttle.recordUserFailure("admin");
+        }
+        assertFalse(throttle.tryAcquireUser("198.51.100.1", "admin"));
+        assertEquals(1, throttle.getUserRejectedCount());
+    }
+
+    @Test
+    public void failuresFromManyClientsThrottleTheAccount() {
+        // 口令喷洒：每个来源只试一次，合起来超过用户名维度的上限
+        for (int i = 0; i < 3; i++) {
+            assertTrue(throttle.tryAcquireUser("203.0.113." + i, "admin"));
+            throttle.recordUserFailure("admin");
+        }
+        assertFalse(throttle.tryAcquireUser("203.0.113.200", "admin"));
+        assertTrue(throttle.tryAcquireUser("203.0.113.200", "user"));
+    }
+
+    @Test
+    public void knownClientsBypassTheUserLimit() {
+        throttle.recordSuccess("198.51.100.1", "admin");
+        for (int i = 0; i < 50; i++) {
+            throttle.recordUserFailure("admin");
+        }
+        assertTrue(throttle.tryAcquireUser("198.51.100.1", "admin"));
+        assertFalse(throttle.tryAcquireUser("203.0.113.9", "admin"));
+        // 已知关系按（客户端, 用户名）记录，不能借来登录别的账号
+        for (int i = 0; i < 3; i++) {
+            throttle.recordUserFailure("user");
+        }
+        assertFalse(throttle.tryAcquireUser("198.51.100.1", "user"));
+    }
+}
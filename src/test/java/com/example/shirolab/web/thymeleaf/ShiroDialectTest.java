@@ -0,0 +1,133 @@
+package com.example.shirolab.web.thymeleaf;
+
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.config.Ini;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.realm.text.IniRealm;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.support.SubjectThreadState;
+import org.apache.shiro.util.ThreadState;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShiroDialectTest {
+
+    private static final String PAGE = "<div>"
+            + "<p shiro:hasRole=\"admin\">admin</p>"
+            + "<p shiro:lacksRole=\"admin\">not-admin</p>"
+            + "<p shiro:hasAnyRoles=\"ops, user\">any-role</p>"
+            + "<p shiro:hasAllRoles=\"admin,user\">all-roles</p>"
+            + "<p shiro:hasPermission=\"document:read\">read</p>"
+            + "<p shiro:hasPermission=\"document:write\">write</p>"
+            + "<p shiro:hasAllPermissions=\"document:read, profile:read\">all-permissions</p>"
+            + "<p shiro:lacksPermission=\"document:write\">read-only</p>"
+            + "<p shiro:guest>guest</p><p shiro:user>user</p>"
+            + "<span shiro:principal>anonymous</span>"
+            + "</div>";
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final DefaultSecurityManager securityManager;
+    private final IniRealm realm;
+
+    public ShiroDialectTest() {
+        Ini ini = new Ini();
+        ini.load("[users]\n"
+                + "admin = admin, admin, user\n"
+                + "<bob> = bob, user\n"
+                + "[roles]\n"
+                + "admin = *\n"
+                + "user = document:read, profile:read\n");
+        realm = new IniRealm(ini) {
+            @Override
+            protected AuthorizationInfo doGetAuthorizationInfo(PrincipalCollection principals) {
+                lookups.incrementAndGet();
+                return super.doGetAuthorizationInfo(principals);
+            }
+        };
+        securityManager = new DefaultSecurityManager(realm);
+    }
+
+    @Test
+    public void rendersByRoleAndPermission() {
+        String admin = render(new ShiroDialect(realm, true), "admin", "admin", PAGE, new MockHttpServletRequest());
+        assertTrue(admin.contains("<p>admin</p>"));
+        assertFalse(admin.contains("not-admin"));
+        assertTrue(admin.contains("all-roles"));
+        assertTrue(admin.contains("<span>admin</span>"));
+
+        String bob = render(new ShiroDialect(realm, true), "<bob>", "bob", PAGE, new MockHttpServletRequest());
+        assertEquals("<div><p>not-admin</p><p>any-role</p><p>read</p><p>all-permissions</p><p>read-only</p>"
+                + "<p>user</p><span>&lt;bob&gt;</span></div>", bob);
+
+        String guest = render(new ShiroDialect(realm, true), null, null, PAGE, new MockHttpServletRequest());
+        assertEquals("<div><p>not-admin</p><p>read-only</p><p>guest</p><span>anonymous</span></div>", guest);
+    }
+
+    @Test
+    public void evaluatesEachCheckOncePerRequestAndPreloadsKnownChecks() {
+        StringBuilder page = new StringBuilder("<div>");
+        for (int i = 0; i < 10; i++) {
+            page.append("<p shiro:hasPermission=\"document:read\">r</p>")
+                    .append("<p shiro:hasPermission=\"document:write\">w</p>")
+                    .append("<p shiro:hasRole=\"user\">u</p>");
+        }
+        page.append("</div>");
+        ShiroDialect dialect = new ShiroDialect(realm, true);
+
+        // 首次渲染：3 个不同检查各一次
+        render(dialect, "admin", "admin", page.toString(), new MockHttpServletRequest());
+        assertEquals(3, lookups.get());
+
+        // 之后的请求：进入模板时一次 hasRoles + 一次 isPermitted(String...)
+        lookups.set(0);
+        render(dialect, "admin", "admin", page.toString(), new MockHttpServletRequest());
+        assertEquals(2, lookups.get());
+
+        // 关闭 preload 时每个请求按需求值，仍然每个检查一次
+        lookups.set(0);
+        ShiroDialect lazy = new ShiroDialect(realm, false);
+        render(lazy, "admin", "admin", page.toString(), new MockHttpServletRequest());
+        render(lazy, "admin", "admin", page.toString(), new MockHttpServletRequest());
+        assertEquals(6, lookups.get());
+
+        // 同一请求内的第二次渲染直接复用 memo
+        lookups.set(0);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        render(lazy, "admin", "admin", page.toString(), request);
+        render(lazy, "admin", "admin", page.toString(), request);
+        assertEquals(3, lookups.get());
+    }
+
+    private String render(ShiroDialect dialect, String username, String password, String template,
+                          MockHttpServletRequest request) {
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(new StringTemplateResolver());
+        engine.addDialect(dialect);
+        Subject subject = new Subject.Builder(securityManager).buildSubject();
+        if (username != null) {
+            subject.login(new UsernamePasswordToken(username, password));
+        }
+        ThreadState threadState = new SubjectThreadState(subject);
+        threadState.bind();
+        try {
+            return engine.process(template, new WebContext(request, new MockHttpServletResponse(),
+                    new MockServletContext(), Locale.ROOT));
+        } finally {
+            threadState.clear();
+        }
+    }
+}
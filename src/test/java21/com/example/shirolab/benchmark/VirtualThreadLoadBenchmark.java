@@ -0,0 +1,114 @@
+package com.example.shirolab.benchmark;
+
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.concurrent.SubjectAwareExecutorService;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.apache.shiro.subject.Subject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 阻塞型负载下平台线程与虚拟线程的对比（仅 -Pjava21 编译，源码目录 src/test/java21）。
+ *
+ * 一次调用模拟 concurrency 个同时到达的请求，每个请求阻塞 downstreamMillis 调用下游，
+ * 全部经 SubjectAwareExecutorService 提交并在任务内读取 Subject 主体（验证身份传播）：
+ *
+ * - platform：200 个平台线程，等价于 Tomcat 默认 maxThreads，超出部分排队；
+ * - virtual：每个任务一个虚拟线程。
+ *
+ * SampleTime 给出每次扇出（concurrency 个请求全部完成）的耗时分布：吞吐（请求/秒）= concurrency / 平均耗时，
+ * p0.99 为尾延迟。
+ *
+ * 运行：mvn -Pjava21 test-compile 后 java -cp ... com.example.shirolab.benchmark.VirtualThreadLoadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+    @Param({"200", "2000", "10000"})
+    public int concurrency;
+
+    @Param({"10"})
+    public long downstreamMillis;
+
+    private Subject subject;
+    private ExecutorService platform;
+    private ExecutorService virtual;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        subject = new Subject.Builder(new DefaultSecurityManager())
+                .principals(new SimplePrincipalCollection("admin", "iniRealm"))
+                .authenticated(true)
+                .buildSubject();
+        platform = new SubjectAwareExecutorService(Executors.newFixedThreadPool(200));
+        virtual = new SubjectAwareExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        platform.shutdownNow();
+        virtual.shutdownNow();
+    }
+
+    @Benchmark
+    public int platform() throws Exception {
+        return subject.execute(() -> fanOut(platform));
+    }
+
+    @Benchmark
+    public int virtual() throws Exception {
+        return subject.execute(() -> fanOut(virtual));
+    }
+
+    private int fanOut(ExecutorService executor) throws Exception {
+        List<Callable<Boolean>> calls = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            calls.add(() -> {
+                Thread.sleep(downstreamMillis);
+                return "admin".equals(SecurityUtils.getSubject().getPrincipal());
+            });
+        }
+        int propagated = 0;
+        for (Future<Boolean> result : executor.invokeAll(calls)) {
+            if (result.get()) {
+                propagated++;
+            }
+        }
+        if (propagated != concurrency) {
+            throw new IllegalStateException("subject lost on " + (concurrency - propagated) + " tasks");
+        }
+        return propagated;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(VirtualThreadLoadBenchmark.class.getSimpleName()).build()).run();
+    }
+}